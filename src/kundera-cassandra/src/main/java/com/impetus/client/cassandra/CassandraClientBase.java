@@ -19,6 +19,8 @@ import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -38,7 +40,6 @@ import org.apache.cassandra.thrift.CfDef;
 import org.apache.cassandra.thrift.Column;
 import org.apache.cassandra.thrift.ColumnDef;
 import org.apache.cassandra.thrift.ColumnOrSuperColumn;
-import org.apache.cassandra.thrift.ColumnParent;
 import org.apache.cassandra.thrift.ColumnPath;
 import org.apache.cassandra.thrift.Compression;
 import org.apache.cassandra.thrift.ConsistencyLevel;
@@ -53,12 +54,10 @@ import org.apache.cassandra.thrift.InvalidRequestException;
 import org.apache.cassandra.thrift.KeySlice;
 import org.apache.cassandra.thrift.KsDef;
 import org.apache.cassandra.thrift.Mutation;
-import org.apache.cassandra.thrift.NotFoundException;
 import org.apache.cassandra.thrift.SchemaDisagreementException;
 import org.apache.cassandra.thrift.SuperColumn;
 import org.apache.cassandra.thrift.TimedOutException;
 import org.apache.cassandra.thrift.UnavailableException;
-import org.apache.cassandra.utils.ByteBufferUtil;
 import org.apache.commons.lang.StringUtils;
 import org.apache.thrift.TException;
 import org.scale7.cassandra.pelops.Bytes;
@@ -69,6 +68,7 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.client.cassandra.common.CassandraConstants;
 import com.impetus.client.cassandra.common.CassandraUtilities;
+import com.impetus.client.cassandra.common.PreparedStatementCache;
 import com.impetus.client.cassandra.config.CassandraPropertyReader;
 import com.impetus.client.cassandra.datahandler.CassandraDataHandler;
 import com.impetus.client.cassandra.schemamanager.CassandraValidationClassMapper;
@@ -77,7 +77,6 @@ import com.impetus.client.cassandra.thrift.CQLTranslator.TranslationType;
 import com.impetus.client.cassandra.thrift.ThriftClientFactory.Connection;
 import com.impetus.client.cassandra.thrift.ThriftDataResultHelper;
 import com.impetus.client.cassandra.thrift.ThriftRow;
-import com.impetus.kundera.Constants;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
@@ -89,17 +88,19 @@ import com.impetus.kundera.db.RelationHolder;
 import com.impetus.kundera.db.SearchResult;
 import com.impetus.kundera.graph.Node;
 import com.impetus.kundera.lifecycle.states.RemovedState;
+import com.impetus.kundera.loader.GenericClientFactory;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.EntityMetadata.Type;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
 import com.impetus.kundera.metadata.model.MetamodelImpl;
 import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
-import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
+import com.impetus.kundera.metadata.model.type.AbstractManagedType;
 import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessorFactory;
 import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.utils.ReflectUtils;
 
 /**
  * Base Class for all Cassandra Clients Contains methods that are applicable to
@@ -138,6 +139,15 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
 
     protected CQLClient cqlClient;
 
+    /** Whether CQL3 statements are prepared and executed with bound values. */
+    private boolean usePreparedStatements;
+
+    /** Thrift compression of CQL queries. */
+    private Compression compression = Compression.NONE;
+
+    /** Prepared statement ids, per connection. */
+    private static final PreparedStatementCache preparedStatements = new PreparedStatementCache();
+
     /**
      * constructor using fields.
      * 
@@ -151,6 +161,9 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         this.cqlClient = new CQLClient();
         setBatchSize(persistenceUnit, this.externalProperties);
         populateCqlVersion(externalProperties);
+        setUsePreparedStatements(externalProperties != null ? externalProperties
+                .get(CassandraConstants.CQL_PREPARED) : null);
+        setCompression(externalProperties != null ? externalProperties.get(CassandraConstants.CQL_COMPRESSION) : null);
     }
 
     /**
@@ -937,6 +950,132 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         return insert_Query;
     }
 
+    /**
+     * Return insert statement with bind markers for given entity, adding
+     * values to be bound onto given list. Columns with null values are left
+     * out, as in literal insert query. Returns null if some column can not be
+     * bound, in which case literal insert query is to be used.
+     * 
+     * @param entityMetadata
+     * @param entity
+     * @param rlHolders
+     * @param ttlColumns
+     *            TTL values for each columns
+     * @param values
+     *            bound values
+     * @return insert statement, or null
+     */
+    protected String createPreparedInsertQuery(EntityMetadata entityMetadata, Object entity,
+            List<RelationHolder> rlHolders, Object ttlColumns, List<ByteBuffer> values)
+    {
+        CQLTranslator translator = new CQLTranslator();
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+        EntityType entityType = metaModel.entity(entityMetadata.getEntityClazz());
+
+        StringBuilder columnNameBuilder = new StringBuilder();
+        StringBuilder markerBuilder = new StringBuilder();
+
+        for (Attribute attribute : (Set<Attribute>) entityType.getAttributes())
+        {
+            Field field = (Field) attribute.getJavaMember();
+            if (ReflectUtils.isTransientOrStatic(field) || attribute.isAssociation())
+            {
+                continue;
+            }
+            if (metaModel.isEmbeddable(((AbstractAttribute) attribute).getBindableJavaType()))
+            {
+                Object compoundKeyObj = ((AbstractAttribute) attribute).getAccessor().get(entity);
+                if (!field.getType().equals(entityMetadata.getIdAttribute().getBindableJavaType())
+                        || compoundKeyObj == null)
+                {
+                    return null;
+                }
+                EmbeddableType compoundKey = metaModel.embeddable(field.getType());
+                for (Field compositeColumn : field.getType().getDeclaredFields())
+                {
+                    if (!ReflectUtils.isTransientOrStatic(compositeColumn)
+                            && !bindColumn(translator, columnNameBuilder, markerBuilder, values,
+                                    ((AbstractAttribute) compoundKey.getAttribute(compositeColumn.getName()))
+                                            .getJPAColumnName(), compositeColumn.getType(),
+                                    PropertyAccessorHelper.getObject(compoundKeyObj, compositeColumn)))
+                    {
+                        return null;
+                    }
+                }
+            }
+            else
+            {
+                String columnName = entityMetadata.getIdAttribute().getName().equals(attribute.getName()) ? CassandraUtilities
+                        .getIdColumnName(entityMetadata, externalProperties) : ((AbstractAttribute) attribute)
+                        .getJPAColumnName();
+                if (!bindColumn(translator, columnNameBuilder, markerBuilder, values, columnName, field.getType(),
+                        ((AbstractAttribute) attribute).getAccessor().get(entity)))
+                {
+                    return null;
+                }
+            }
+        }
+
+        String discrColumn = ((AbstractManagedType) entityType).getDiscriminatorColumn();
+        String discrValue = ((AbstractManagedType) entityType).getDiscriminatorValue();
+        if (discrColumn != null && discrValue != null)
+        {
+            bindColumn(translator, columnNameBuilder, markerBuilder, values, discrColumn, String.class, discrValue);
+        }
+
+        for (RelationHolder rl : rlHolders)
+        {
+            if (!bindColumn(translator, columnNameBuilder, markerBuilder, values, rl.getRelationName(), rl
+                    .getRelationValue().getClass(), rl.getRelationValue()))
+            {
+                return null;
+            }
+        }
+
+        String insert_Query = CQLTranslator.INSERT_QUERY;
+        insert_Query = StringUtils.replace(insert_Query, CQLTranslator.COLUMN_FAMILY,
+                translator.ensureCase(new StringBuilder(), entityMetadata.getTableName(), false).toString());
+        insert_Query = StringUtils.replace(insert_Query, CQLTranslator.COLUMN_VALUES, markerBuilder.toString());
+        insert_Query = StringUtils.replace(insert_Query, CQLTranslator.COLUMNS, columnNameBuilder.toString());
+
+        if (ttlColumns != null && ttlColumns instanceof Integer)
+        {
+            int ttl = ((Integer) ttlColumns).intValue();
+            if (ttl != 0)
+            {
+                insert_Query = insert_Query + " USING TTL " + ttl;
+            }
+        }
+        return insert_Query;
+    }
+
+    /**
+     * Appends column name and bind marker for given value, if not null.
+     * 
+     * @return false, if value can not be bound.
+     */
+    private boolean bindColumn(CQLTranslator translator, StringBuilder columnNameBuilder,
+            StringBuilder markerBuilder, List<ByteBuffer> values, String columnName, Class fieldClazz, Object value)
+    {
+        if (!CQLTranslator.isBindable(fieldClazz))
+        {
+            return false;
+        }
+        if (value != null)
+        {
+            if (markerBuilder.length() > 0)
+            {
+                columnNameBuilder.append(",");
+                markerBuilder.append(",");
+            }
+            translator.appendColumnName(columnNameBuilder, columnName);
+            markerBuilder.append("?");
+            values.add(translator.bindValue(fieldClazz, value));
+        }
+        return true;
+    }
+
     /**
      * Return update query string for given entity intended for counter column
      * family.
@@ -1012,6 +1151,74 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         this.cqlVersion = cqlVersion;
     }
 
+    /**
+     * @return true, if CQL3 statements are prepared and executed with bound
+     *         values.
+     */
+    public boolean isUsePreparedStatements()
+    {
+        return usePreparedStatements;
+    }
+
+    /**
+     * @return the thrift compression of CQL queries
+     */
+    public Compression getCompression()
+    {
+        return compression;
+    }
+
+    /**
+     * Sets thrift compression of CQL queries, given a {@link Compression} or
+     * its name.
+     * 
+     * @param compression
+     *            the compression to set
+     */
+    public void setCompression(Object compression)
+    {
+        if (compression instanceof Compression)
+        {
+            this.compression = (Compression) compression;
+        }
+        else if (compression != null && !StringUtils.isBlank(compression.toString()))
+        {
+            try
+            {
+                this.compression = Compression.valueOf(compression.toString().trim().toUpperCase());
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IllegalArgumentException("Invalid value {" + compression + "} for "
+                        + CassandraConstants.CQL_COMPRESSION + ", must be one of NONE, GZIP.");
+            }
+        }
+    }
+
+    /**
+     * @return prepared statement ids, shared by all clients.
+     */
+    static PreparedStatementCache getPreparedStatements()
+    {
+        return preparedStatements;
+    }
+
+    /**
+     * Enables or disables prepared CQL3 statements, given a boolean or its
+     * string representation.
+     * 
+     * @param usePreparedStatements
+     *            the value to set
+     */
+    public void setUsePreparedStatements(Object usePreparedStatements)
+    {
+        if (usePreparedStatements != null)
+        {
+            this.usePreparedStatements = usePreparedStatements instanceof Boolean ? (Boolean) usePreparedStatements
+                    : Boolean.parseBoolean(usePreparedStatements.toString());
+        }
+    }
+
     /**
      * Sets the consistency level.
      * 
@@ -1091,6 +1298,92 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         return deleteQueryBuilder.toString();
     }
 
+    /**
+     * Deletes row of given key, through a prepared statement if enabled.
+     * 
+     * @param metadata
+     *            the metadata
+     * @param metaModel
+     *            the meta model
+     * @param keyObject
+     *            the compound key object
+     */
+    protected void executeDeleteQuery(EntityMetadata metadata, MetamodelImpl metaModel, Object keyObject)
+    {
+        if (usePreparedStatements)
+        {
+            CQLTranslator translator = new CQLTranslator();
+            String deleteQuery = StringUtils.replace(CQLTranslator.DELETE_QUERY, CQLTranslator.COLUMN_FAMILY,
+                    translator.ensureCase(new StringBuilder(), metadata.getTableName(), false).toString());
+            StringBuilder deleteQueryBuilder = new StringBuilder(deleteQuery);
+            List<ByteBuffer> values = new ArrayList<ByteBuffer>();
+            if (onPreparedWhereClause(metadata, keyObject, translator, deleteQueryBuilder, metaModel, values))
+            {
+                try
+                {
+                    executePreparedQuery(deleteQueryBuilder.toString(), values, getRoutingKey(metadata, keyObject));
+                }
+                catch (Exception e)
+                {
+                    log.error("Error while deleting record of key {}, Caused by: .", keyObject, e);
+                    throw new PersistenceException(e);
+                }
+                return;
+            }
+        }
+        executeQuery(onDeleteQuery(metadata, metaModel, keyObject), metadata.getEntityClazz(), null);
+    }
+
+    /**
+     * On where clause with bind markers, adding key values onto given list.
+     * 
+     * @return false, if key can not be bound.
+     */
+    private boolean onPreparedWhereClause(EntityMetadata metadata, Object key, CQLTranslator translator,
+            StringBuilder queryBuilder, MetamodelImpl metaModel, List<ByteBuffer> values)
+    {
+        queryBuilder.append(CQLTranslator.ADD_WHERE_CLAUSE);
+
+        if (metaModel.isEmbeddable(metadata.getIdAttribute().getBindableJavaType()))
+        {
+            Field[] fields = metadata.getIdAttribute().getBindableJavaType().getDeclaredFields();
+            EmbeddableType compoundKey = metaModel.embeddable(metadata.getIdAttribute().getBindableJavaType());
+
+            for (Field field : fields)
+            {
+                if (field != null && !Modifier.isStatic(field.getModifiers())
+                        && !Modifier.isTransient(field.getModifiers()) && !field.isAnnotationPresent(Transient.class))
+                {
+                    Object value = PropertyAccessorHelper.getObject(key, field);
+                    if (value == null || !CQLTranslator.isBindable(field.getType()))
+                    {
+                        return false;
+                    }
+                    Attribute attribute = compoundKey.getAttribute(field.getName());
+                    translator.ensureCase(queryBuilder, ((AbstractAttribute) attribute).getJPAColumnName(), false);
+                    queryBuilder.append(CQLTranslator.EQ_CLAUSE).append("?").append(CQLTranslator.AND_CLAUSE);
+                    values.add(translator.bindValue(field.getType(), value));
+                }
+            }
+        }
+        else
+        {
+            Class idClazz = ((AbstractAttribute) metadata.getIdAttribute()).getBindableJavaType();
+            if (key == null || !CQLTranslator.isBindable(idClazz))
+            {
+                return false;
+            }
+            translator.ensureCase(queryBuilder, CassandraUtilities.getIdColumnName(metadata, getExternalProperties()),
+                    false);
+            queryBuilder.append(CQLTranslator.EQ_CLAUSE).append("?").append(CQLTranslator.AND_CLAUSE);
+            values.add(translator.bindValue(idClazz, key));
+        }
+
+        // strip last "AND" clause.
+        queryBuilder.delete(queryBuilder.lastIndexOf(CQLTranslator.AND_CLAUSE), queryBuilder.length());
+        return true;
+    }
+
     /**
      * On where clause.
      * 
@@ -1376,6 +1669,7 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
                     EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
                     persistenceUnit = metadata.getPersistenceUnit();
                     isUpdate = node.isUpdate();
+                    dirtyColumns = isUpdate ? node.getDirtyColumns() : null;
 
                     MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata()
                             .getMetamodel(metadata.getPersistenceUnit());
@@ -1430,16 +1724,25 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
 
             // Write Mutation map to database
 
-            if (!batchMutationMap.isEmpty())
+            for (Map<ByteBuffer, Map<String, List<Mutation>>> mutationMap : batchMutationMap.values())
             {
-                pooledConnection = getConection();
-                conn = getConnection(pooledConnection);
-
-                for (Class<?> entityClass : batchMutationMap.keySet())
+                for (Map<ByteBuffer, Map<String, List<Mutation>>> mutations : splitMutations(mutationMap))
                 {
-                    conn.batch_mutate(batchMutationMap.get(entityClass), consistencyLevel);
+                    if (mutations.isEmpty())
+                    {
+                        continue;
+                    }
+                    pooledConnection = getConection(mutations.keySet().iterator().next());
+                    try
+                    {
+                        getConnection(pooledConnection).batch_mutate(mutations, consistencyLevel);
+                    }
+                    finally
+                    {
+                        releaseConnection(pooledConnection);
+                        pooledConnection = null;
+                    }
                 }
-
             }
 
             if (!nodes.isEmpty() && isCql3Enabled)
@@ -1503,7 +1806,7 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         {
             String columnFamily = entityMetadata.getTableName();
             tf = getDataHandler().toThriftRow(entity, id, entityMetadata, columnFamily,
-                    getTtlValues().get(columnFamily));
+                    getTtlValues().get(columnFamily), dirtyColumns);
         }
         catch (Exception e)
         {
@@ -1641,64 +1944,17 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
     }
 
     /**
-     * Return the generated value of id.
+     * Return the generated value of id, handed out of blocks reserved in
+     * table generator and shared by all clients of given factory.
      * 
-     * @param descriptor
-     * @param pu
+     * @param source
+     *            reserves blocks over connections of client factory.
+     * @param clientFactory
      * @return
      */
-    public Long getGeneratedValue(TableGeneratorDiscriptor descriptor, String pu)
+    protected Long getGeneratedValue(CassandraIdBlockSource<?> source, GenericClientFactory clientFactory)
     {
-        Cassandra.Client conn = getRawClient(pu, descriptor.getSchema());
-        try
-        {
-            conn.set_keyspace(descriptor.getSchema());
-            ColumnPath columnPath = new ColumnPath(descriptor.getTable());
-            columnPath.setColumn(descriptor.getValueColumnName().getBytes());
-            long latestCount = 0l;
-
-            try
-            {
-                latestCount = conn.get(ByteBuffer.wrap(descriptor.getPkColumnValue().getBytes()), columnPath,
-                        getConsistencyLevel()).counter_column.value;
-            }
-            catch (NotFoundException e)
-            {
-                log.warn("Counter value not found for {}, resetting it to zero.", descriptor.getPkColumnName());
-                latestCount = 0;
-            }
-            ColumnParent columnParent = new ColumnParent(descriptor.getTable());
-
-            CounterColumn counterColumn = new CounterColumn(
-                    ByteBuffer.wrap(descriptor.getValueColumnName().getBytes()), 1);
-
-            conn.add(ByteBuffer.wrap(descriptor.getPkColumnValue().getBytes()), columnParent, counterColumn,
-                    getConsistencyLevel());
-
-            if (latestCount == 0)
-            {
-                return (long) descriptor.getInitialValue();
-            }
-            else
-            {
-                return (latestCount + 1) * descriptor.getAllocationSize();
-            }
-        }
-        catch (UnavailableException e)
-        {
-            log.error("Error while reading counter value from table{}, Caused by: .", descriptor.getTable(), e);
-            throw new KunderaException(e);
-        }
-        catch (TimedOutException e)
-        {
-            log.error("Error while reading counter value from table{}, Caused by: .", descriptor.getTable(), e);
-            throw new KunderaException(e);
-        }
-        catch (Exception e)
-        {
-            log.error("Error while using keyspace. Caused by: .", e);
-            throw new KunderaException(e);
-        }
+        return clientFactory.getIdAllocator(source.getGenerator(), source).next();
     }
 
     /**
@@ -1723,15 +1979,83 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
         {
             if (isCql3Enabled || isCql3Enabled())
             {
-                return conn.execute_cql3_query(ByteBufferUtil.bytes(cqlQuery),
-                        org.apache.cassandra.thrift.Compression.NONE, consistencyLevel);
+                return conn.execute_cql3_query(CassandraUtilities.compress(cqlQuery, compression), compression,
+                        consistencyLevel);
             }
 
             if (log.isInfoEnabled())
             {
                 log.info("Executing cql query {}.", cqlQuery);
             }
-            return conn.execute_cql_query(ByteBufferUtil.bytes(cqlQuery), org.apache.cassandra.thrift.Compression.NONE);
+            return conn.execute_cql_query(CassandraUtilities.compress(cqlQuery, compression), compression);
+        }
+        finally
+        {
+            releaseConnection(pooledConnection);
+        }
+    }
+
+    /**
+     * Executes CQL3 select query and returns its rows unmapped, to be mapped to
+     * entities through {@link #populateEntity(CqlRow, EntityMetadata, List)}
+     * as they are consumed.
+     * 
+     * @param cqlQuery
+     *            the cql3 query
+     * @return the rows, empty if none.
+     */
+    public List<CqlRow> executeQueryForRows(String cqlQuery) throws InvalidRequestException, UnavailableException,
+            TimedOutException, SchemaDisagreementException, TException
+    {
+        if (log.isInfoEnabled())
+        {
+            log.info("Executing query {}.", cqlQuery);
+        }
+        CqlResult result = executeCQLQuery(cqlQuery, true);
+        return result != null && result.getRows() != null ? result.getRows() : new ArrayList<CqlRow>(0);
+    }
+
+    /**
+     * Maps a CQL3 row to entity.
+     * 
+     * @param row
+     *            the row
+     * @param m
+     *            the entity metadata
+     * @param relationNames
+     *            the relation names
+     * @return entity, or value of first column if row does not map to an
+     *         entity.
+     */
+    public Object populateEntity(CqlRow row, EntityMetadata m, List<String> relationNames)
+    {
+        ThriftRow thriftRow = new ThriftRow(null, m.getTableName(), row.getColumns(), new ArrayList<SuperColumn>(0),
+                new ArrayList<CounterColumn>(0), new ArrayList<CounterSuperColumn>(0));
+        Object entity = getDataHandler().populateEntity(thriftRow, m, relationNames,
+                relationNames != null && !relationNames.isEmpty());
+        return entity != null ? entity : row.getColumns().get(0);
+    }
+
+    /**
+     * Executes CQL3 statement with bind markers, preparing it once per
+     * connection.
+     * 
+     * @param cqlQuery
+     *            statement with bind markers
+     * @param values
+     *            bound values
+     * @param routingKey
+     *            row key to route statement by, if any.
+     * @return the cql result
+     */
+    protected CqlResult executePreparedQuery(String cqlQuery, List<ByteBuffer> values, ByteBuffer routingKey)
+            throws InvalidRequestException, UnavailableException, TimedOutException, SchemaDisagreementException,
+            TException
+    {
+        Object pooledConnection = getConection(routingKey);
+        try
+        {
+            return preparedStatements.execute(getConnection(pooledConnection), cqlQuery, values, consistencyLevel);
         }
         finally
         {
@@ -1836,6 +2160,56 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
 
     protected abstract Object getConection();
 
+    /**
+     * Returns pooled connection for operating on given row key. Clients
+     * routing to replicas override it, by default any connection is returned.
+     * 
+     * @param rowKey
+     *            the row key, null if not known.
+     * @return pooled connection
+     */
+    protected Object getConection(ByteBuffer rowKey)
+    {
+        return getConection();
+    }
+
+    /**
+     * Splits mutations into groups to be sent over separate connections.
+     * Clients routing to replicas override it, by default mutations are sent
+     * as one group.
+     * 
+     * @param mutationMap
+     *            mutations keyed by row key
+     * @return mutation groups
+     */
+    protected Collection<Map<ByteBuffer, Map<String, List<Mutation>>>> splitMutations(
+            Map<ByteBuffer, Map<String, List<Mutation>>> mutationMap)
+    {
+        return Collections.singletonList(mutationMap);
+    }
+
+    /**
+     * Returns row key to route requests for given id by, which is the id's
+     * bytes unless id is a composite key.
+     * 
+     * @param metadata
+     *            the entity metadata
+     * @param id
+     *            the id
+     * @return row key, null if id is null or composite.
+     */
+    protected ByteBuffer getRoutingKey(EntityMetadata metadata, Object id)
+    {
+        Class idClazz = metadata.getIdAttribute().getJavaType();
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+        if (id == null || metaModel.isEmbeddable(idClazz))
+        {
+            return null;
+        }
+        return ByteBuffer.wrap(PropertyAccessorHelper.toBytes(id, idClazz));
+    }
+
     protected abstract void releaseConnection(Object conn);
 
     /**
@@ -1859,11 +2233,20 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
             }
             else
             {
+                if (usePreparedStatements)
+                {
+                    List<ByteBuffer> values = new ArrayList<ByteBuffer>();
+                    query = createPreparedInsertQuery(entityMetadata, entity, rlHolders, ttlColumns, values);
+                    if (query != null)
+                    {
+                        preparedStatements.execute(conn, query, values, consistencyLevel);
+                        return;
+                    }
+                }
                 query = createInsertQuery(entityMetadata, entity, conn, rlHolders, ttlColumns);
             }
             // conn.set_cql_version(getCqlVersion());
-            conn.execute_cql3_query(ByteBuffer.wrap(query.getBytes(Constants.CHARSET_UTF8)), Compression.NONE,
-                    consistencyLevel);
+            conn.execute_cql3_query(CassandraUtilities.compress(query, compression), compression, consistencyLevel);
         }
 
         /**
@@ -1888,33 +2271,7 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
                     log.info("Executing query {}.", cqlQuery);
                 }
                 result = executeCQLQuery(cqlQuery, isCql3Enabled);
-                if (result != null && (result.getRows() != null || result.getRowsSize() > 0))
-                {
-                    returnedEntities = new ArrayList<Object>(result.getRowsSize());
-                    Iterator<CqlRow> iter = result.getRowsIterator();
-                    while (iter.hasNext())
-                    {
-                        CqlRow row = iter.next();
-                        Object rowKey = null;
-
-                        ThriftRow thriftRow = null;
-                        thriftRow = new ThriftRow(rowKey, entityMetadata.getTableName(), row.getColumns(),
-                                new ArrayList<SuperColumn>(0), new ArrayList<CounterColumn>(0),
-                                new ArrayList<CounterSuperColumn>(0));
-
-                        Object entity = dataHandler.populateEntity(thriftRow, entityMetadata, relationalField,
-                                relationalField != null && !relationalField.isEmpty());
-
-                        if (entity != null)
-                        {
-                            returnedEntities.add(entity);
-                        }
-                        else
-                        {
-                            returnedEntities.add(row.getColumns().get(0));
-                        }
-                    }
-                }
+                returnedEntities = populateEntities(result, entityMetadata, relationalField, dataHandler);
             }
             catch (Exception e)
             {
@@ -1925,6 +2282,49 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
             return returnedEntities;
         }
 
+        /**
+         * Populates entities from rows of given cql result.
+         * 
+         * @param result
+         * @param entityMetadata
+         * @param relationalField
+         * @param dataHandler
+         * @return list of entities
+         */
+        private List populateEntities(CqlResult result, EntityMetadata entityMetadata,
+                List<String> relationalField, CassandraDataHandler dataHandler) throws Exception
+        {
+            List returnedEntities = new ArrayList();
+            if (result != null && (result.getRows() != null || result.getRowsSize() > 0))
+            {
+                returnedEntities = new ArrayList<Object>(result.getRowsSize());
+                Iterator<CqlRow> iter = result.getRowsIterator();
+                while (iter.hasNext())
+                {
+                    CqlRow row = iter.next();
+                    Object rowKey = null;
+
+                    ThriftRow thriftRow = null;
+                    thriftRow = new ThriftRow(rowKey, entityMetadata.getTableName(), row.getColumns(),
+                            new ArrayList<SuperColumn>(0), new ArrayList<CounterColumn>(0),
+                            new ArrayList<CounterSuperColumn>(0));
+
+                    Object entity = dataHandler.populateEntity(thriftRow, entityMetadata, relationalField,
+                            relationalField != null && !relationalField.isEmpty());
+
+                    if (entity != null)
+                    {
+                        returnedEntities.add(entity);
+                    }
+                    else
+                    {
+                        returnedEntities.add(row.getColumns().get(0));
+                    }
+                }
+            }
+            return returnedEntities;
+        }
+
         /**
          * Finds entity on the basis of rowid and return list of objects.
          * 
@@ -1942,6 +2342,25 @@ public abstract class CassandraClientBase extends ClientBase implements ClientPr
             select_Query = StringUtils.replace(select_Query, CQLTranslator.COLUMN_FAMILY,
                     translator.ensureCase(new StringBuilder(), metadata.getTableName(), false).toString());
             StringBuilder builder = new StringBuilder(select_Query);
+            if (usePreparedStatements)
+            {
+                List<ByteBuffer> values = new ArrayList<ByteBuffer>();
+                if (onPreparedWhereClause(metadata, rowId, translator, builder, metaModel, values))
+                {
+                    try
+                    {
+                        return populateEntities(
+                                executePreparedQuery(builder.toString(), values, getRoutingKey(metadata, rowId)),
+                                metadata, relationNames, getDataHandler());
+                    }
+                    catch (Exception e)
+                    {
+                        log.error("Error while finding record of key {}, Caused by: .", rowId, e);
+                        throw new PersistenceException(e);
+                    }
+                }
+                builder = new StringBuilder(select_Query);
+            }
             onWhereClause(metadata, rowId, translator, builder, metaModel);
             return CassandraClientBase.this.executeQuery(builder.toString(), metadata.getEntityClazz(), relationNames);
         }
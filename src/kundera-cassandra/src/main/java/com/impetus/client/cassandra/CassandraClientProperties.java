@@ -90,6 +90,14 @@ class CassandraClientProperties
                     {
                         this.cassandraClientBase.setBatchSize(value.toString());
                     }
+                    else if (key.equals(CassandraConstants.CQL_PREPARED))
+                    {
+                        this.cassandraClientBase.setUsePreparedStatements(value);
+                    }
+                    else if (key.equals(CassandraConstants.CQL_COMPRESSION))
+                    {
+                        this.cassandraClientBase.setCompression(value);
+                    }
 
                     // Add more properties as needed
                 }
@@ -0,0 +1,141 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.client.cassandra;
+
+import java.nio.ByteBuffer;
+
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.ColumnParent;
+import org.apache.cassandra.thrift.ColumnPath;
+import org.apache.cassandra.thrift.ConsistencyLevel;
+import org.apache.cassandra.thrift.CounterColumn;
+import org.apache.cassandra.thrift.NotFoundException;
+import org.apache.cassandra.thrift.TimedOutException;
+import org.apache.cassandra.thrift.UnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.KunderaException;
+import com.impetus.kundera.generator.IdBlock;
+import com.impetus.kundera.generator.IdBlockSource;
+import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
+
+/**
+ * Reserves blocks of ids of a table generator, whose counter column holds
+ * number of blocks reserved. Connections are borrowed from client factory
+ * pools, as blocks may be reserved in background, after the client which
+ * asked for first id is closed.
+ * 
+ * @param <C>
+ *            pooled connection type of client factory.
+ */
+public abstract class CassandraIdBlockSource<C> implements IdBlockSource
+{
+    /** the log used by this class. */
+    private static Logger log = LoggerFactory.getLogger(CassandraIdBlockSource.class);
+
+    private final TableGeneratorDiscriptor descriptor;
+
+    private final ConsistencyLevel consistencyLevel;
+
+    /**
+     * @param descriptor
+     *            table generator descriptor
+     * @param consistencyLevel
+     *            consistency level to read and increment counter with.
+     */
+    protected CassandraIdBlockSource(TableGeneratorDiscriptor descriptor, ConsistencyLevel consistencyLevel)
+    {
+        this.descriptor = descriptor;
+        this.consistencyLevel = consistencyLevel;
+    }
+
+    /**
+     * @return generator key, unique per table generator row.
+     */
+    public String getGenerator()
+    {
+        return descriptor.getSchema() + "." + descriptor.getTable() + "." + descriptor.getPkColumnValue();
+    }
+
+    @Override
+    public IdBlock reserve()
+    {
+        C connection = borrowConnection();
+        try
+        {
+            Cassandra.Client conn = getClient(connection);
+            conn.set_keyspace(descriptor.getSchema());
+            ColumnPath columnPath = new ColumnPath(descriptor.getTable());
+            columnPath.setColumn(descriptor.getValueColumnName().getBytes());
+            long latestCount = 0l;
+
+            try
+            {
+                latestCount = conn.get(ByteBuffer.wrap(descriptor.getPkColumnValue().getBytes()), columnPath,
+                        consistencyLevel).counter_column.value;
+            }
+            catch (NotFoundException e)
+            {
+                log.warn("Counter value not found for {}, resetting it to zero.", descriptor.getPkColumnName());
+                latestCount = 0;
+            }
+            ColumnParent columnParent = new ColumnParent(descriptor.getTable());
+
+            CounterColumn counterColumn = new CounterColumn(
+                    ByteBuffer.wrap(descriptor.getValueColumnName().getBytes()), 1);
+
+            conn.add(ByteBuffer.wrap(descriptor.getPkColumnValue().getBytes()), columnParent, counterColumn,
+                    consistencyLevel);
+
+            return IdBlock.of(latestCount + 1, descriptor.getInitialValue(), descriptor.getAllocationSize());
+        }
+        catch (UnavailableException e)
+        {
+            log.error("Error while reading counter value from table{}, Caused by: .", descriptor.getTable(), e);
+            throw new KunderaException(e);
+        }
+        catch (TimedOutException e)
+        {
+            log.error("Error while reading counter value from table{}, Caused by: .", descriptor.getTable(), e);
+            throw new KunderaException(e);
+        }
+        catch (Exception e)
+        {
+            log.error("Error while using keyspace. Caused by: .", e);
+            throw new KunderaException(e);
+        }
+        finally
+        {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     * @return connection borrowed from pools of client factory.
+     */
+    protected abstract C borrowConnection();
+
+    /**
+     * @return thrift client of given connection.
+     */
+    protected abstract Cassandra.Client getClient(C connection);
+
+    /**
+     * Returns given connection to its pool.
+     */
+    protected abstract void releaseConnection(C connection);
+}
@@ -78,6 +78,21 @@ public interface CassandraConstants
 
     public static final String CQL_VERSION = "cql.version";
 
+    /** Whether CQL3 statements are prepared and executed with bound values */
+    public static final String CQL_PREPARED = "cql.prepared";
+
+    /** Thrift compression of CQL queries, NONE or GZIP */
+    public static final String CQL_COMPRESSION = "cql.compression";
+
+    /** Number of rows fetched per page while iterating over CQL3 results */
+    public static final String CQL_PAGE_SIZE = "cql.page.size";
+
+    /** Whether connections for a row key are routed to one of its replicas */
+    public static final String TOKEN_AWARE = "token.aware";
+
+    /** Interval of token ring refresh in seconds, while routing to replicas */
+    public static final String RING_REFRESH_INTERVAL = "ring.refresh.interval";
+
     /** Name of Row key column when stored using CQL insert statement */
     public static final String CQL_KEY = "key";
 
@@ -15,14 +15,19 @@
  */
 package com.impetus.client.cassandra.common;
 
+import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.zip.Deflater;
 
+import org.apache.cassandra.thrift.Compression;
+import org.apache.cassandra.utils.ByteBufferUtil;
 import org.apache.commons.lang.StringUtils;
 import org.scale7.cassandra.pelops.Bytes;
 
@@ -50,6 +55,43 @@ public class CassandraUtilities
         return value == null ? null : new String(value, Charset.forName(Constants.CHARSET_UTF8));
     }
 
+    /**
+     * Encodes CQL query string for given thrift compression. Cassandra
+     * inflates GZIP compressed queries, so these are deflated here.
+     * 
+     * @param cqlQuery
+     *            the cql query
+     * @param compression
+     *            the compression
+     * @return query bytes
+     */
+    public static ByteBuffer compress(String cqlQuery, Compression compression)
+    {
+        if (compression == null || compression == Compression.NONE)
+        {
+            return ByteBufferUtil.bytes(cqlQuery);
+        }
+        byte[] query = cqlQuery.getBytes(Charset.forName(Constants.CHARSET_UTF8));
+        Deflater deflater = new Deflater();
+        try
+        {
+            deflater.setInput(query);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(query.length / 2 + 16);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished())
+            {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            return ByteBuffer.wrap(out.toByteArray());
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
     public static String getKeyspace(String persistenceUnit)
     {
         PersistenceUnitMetadata persistenceUnitMetadata = KunderaMetadata.INSTANCE.getApplicationMetadata()
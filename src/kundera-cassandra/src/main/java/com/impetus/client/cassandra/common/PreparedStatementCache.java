@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.common;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.Compression;
+import org.apache.cassandra.thrift.ConsistencyLevel;
+import org.apache.cassandra.thrift.CqlPreparedResult;
+import org.apache.cassandra.thrift.CqlResult;
+import org.apache.cassandra.thrift.InvalidRequestException;
+import org.apache.cassandra.thrift.SchemaDisagreementException;
+import org.apache.cassandra.thrift.TimedOutException;
+import org.apache.cassandra.thrift.UnavailableException;
+import org.apache.cassandra.utils.ByteBufferUtil;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of CQL3 prepared statement ids. Cassandra keeps thrift prepared
+ * statements per connection, so ids are cached per {@link Cassandra.Client}
+ * and keyed by statement string, which carries bind markers in place of
+ * values and hence identifies entity and operation shape. Statements are
+ * prepared on first use over a connection and prepared again if server has
+ * forgotten them.
+ */
+public final class PreparedStatementCache
+{
+    /** The log. */
+    private static Logger log = LoggerFactory.getLogger(PreparedStatementCache.class);
+
+    /** Maximum number of statements cached per connection. */
+    private static final int MAX_STATEMENTS_PER_CONNECTION = 1000;
+
+    /** Prepared ids keyed by statement, per connection. */
+    private final Map<Cassandra.Client, Map<String, Integer>> statements = new WeakHashMap<Cassandra.Client, Map<String, Integer>>();
+
+    /**
+     * Executes statement with given bound values over connection, preparing
+     * it first if not yet prepared on that connection.
+     * 
+     * @param conn
+     *            the connection
+     * @param statement
+     *            CQL3 statement with bind markers
+     * @param values
+     *            bound values, in order of markers
+     * @param consistencyLevel
+     *            the consistency level
+     * @return the cql result
+     */
+    public CqlResult execute(Cassandra.Client conn, String statement, List<ByteBuffer> values,
+            ConsistencyLevel consistencyLevel) throws InvalidRequestException, UnavailableException,
+            TimedOutException, SchemaDisagreementException, TException
+    {
+        Map<String, Integer> prepared = getPrepared(conn);
+        Integer itemId = prepared.get(statement);
+        if (itemId != null)
+        {
+            try
+            {
+                return conn.execute_prepared_cql3_query(itemId, values, consistencyLevel);
+            }
+            catch (InvalidRequestException e)
+            {
+                if (e.getWhy() == null || !e.getWhy().startsWith("Prepared query with ID"))
+                {
+                    throw e;
+                }
+                log.info("Statement {} is no more prepared on server, preparing again.", statement);
+            }
+        }
+        itemId = prepare(conn, statement, prepared);
+        return conn.execute_prepared_cql3_query(itemId, values, consistencyLevel);
+    }
+
+    /**
+     * @return number of cached ids, over all connections.
+     */
+    public int size()
+    {
+        synchronized (statements)
+        {
+            int size = 0;
+            for (Map<String, Integer> prepared : statements.values())
+            {
+                size += prepared.size();
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Removes all cached ids.
+     */
+    public void clear()
+    {
+        synchronized (statements)
+        {
+            statements.clear();
+        }
+    }
+
+    private Map<String, Integer> getPrepared(Cassandra.Client conn)
+    {
+        synchronized (statements)
+        {
+            Map<String, Integer> prepared = statements.get(conn);
+            if (prepared == null)
+            {
+                prepared = new ConcurrentHashMap<String, Integer>();
+                statements.put(conn, prepared);
+            }
+            return prepared;
+        }
+    }
+
+    private Integer prepare(Cassandra.Client conn, String statement, Map<String, Integer> prepared)
+            throws InvalidRequestException, TException
+    {
+        if (log.isDebugEnabled())
+        {
+            log.debug("Preparing cql statement {}.", statement);
+        }
+        CqlPreparedResult result = conn.prepare_cql3_query(ByteBufferUtil.bytes(statement), Compression.NONE);
+        if (prepared.size() >= MAX_STATEMENTS_PER_CONNECTION)
+        {
+            prepared.clear();
+        }
+        prepared.put(statement, result.getItemId());
+        return result.getItemId();
+    }
+}
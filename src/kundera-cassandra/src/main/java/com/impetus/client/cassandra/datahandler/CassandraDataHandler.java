@@ -16,6 +16,7 @@
 package com.impetus.client.cassandra.datahandler;
 
 import java.util.List;
+import java.util.Set;
 
 import org.apache.cassandra.thrift.ConsistencyLevel;
 import org.apache.cassandra.thrift.SuperColumn;
@@ -114,8 +115,10 @@ public interface CassandraDataHandler
      * @param m
      * @param columnFamily
      * @param columnTTLs TODO
+     * @param columns names of columns to convert, null to convert all.
      * @return
      * @throws Exception
      */
-    ThriftRow toThriftRow(Object e, Object id, EntityMetadata m, String columnFamily, Object columnTTLs) throws Exception;
+    ThriftRow toThriftRow(Object e, Object id, EntityMetadata m, String columnFamily, Object columnTTLs,
+            Set<String> columns) throws Exception;
 }
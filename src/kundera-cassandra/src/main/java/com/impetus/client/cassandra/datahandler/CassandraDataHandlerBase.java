@@ -69,6 +69,7 @@ import com.impetus.kundera.metadata.model.Relation;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.metadata.model.attributes.DefaultMapAttribute;
 import com.impetus.kundera.metadata.model.type.AbstractManagedType;
+import com.impetus.kundera.property.FieldAccessor;
 import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessor;
 import com.impetus.kundera.property.PropertyAccessorFactory;
@@ -360,12 +361,14 @@ public abstract class CassandraDataHandlerBase
      *            the colmun family
      * @param columnTTLs
      *            TODO
+     * @param columns
+     *            names of columns to convert, null to convert all.
      * @return the base data accessor. thrift row
      * @throws Exception
      *             the exception
      */
-    public ThriftRow toThriftRow(Object e, Object id, EntityMetadata m, String columnFamily, Object columnTTLs)
-            throws Exception
+    public ThriftRow toThriftRow(Object e, Object id, EntityMetadata m, String columnFamily, Object columnTTLs,
+            Set<String> columns) throws Exception
     {
         // timestamp to use in thrift column objects
         // long timestamp = System.currentTimeMillis();
@@ -377,7 +380,7 @@ public abstract class CassandraDataHandlerBase
 
         long timestamp = System.currentTimeMillis();
         // Add super columns to thrift row
-        onColumnOrSuperColumnThriftRow(tr, m, e, id, timestamp, columnTTLs);
+        onColumnOrSuperColumnThriftRow(tr, m, e, id, timestamp, columnTTLs, columns);
         return tr;
     }
 
@@ -1203,13 +1206,14 @@ public abstract class CassandraDataHandlerBase
         {
             try
             {
+                FieldAccessor accessor = ((AbstractAttribute) attribute).getAccessor();
                 if (thriftColumnValue.getClass().isAssignableFrom(String.class))
                 {
-                    PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(), (String) thriftColumnValue);
+                    accessor.setString(entity, (String) thriftColumnValue);
                 }
-                else
+                else if (!setPrimitiveValue(entity, (byte[]) thriftColumnValue, accessor))
                 {
-                    PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(), (byte[]) thriftColumnValue);
+                    accessor.setBytes(entity, (byte[]) thriftColumnValue);
                 }
             }
             catch (PropertyAccessException pae)
@@ -1259,7 +1263,7 @@ public abstract class CassandraDataHandlerBase
                 }
                 else
                 {
-                    PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(), (byte[]) thriftColumnValue);
+                    ((AbstractAttribute) attribute).getAccessor().setBytes(entity, (byte[]) thriftColumnValue);
                 }
             }
             catch (PropertyAccessException pae)
@@ -1468,10 +1472,12 @@ public abstract class CassandraDataHandlerBase
      *            the timestamp2
      * @param columnTTLs
      *            TODO
+     * @param columns
+     *            names of columns to add, null to add all.
      */
 
     private void onColumnOrSuperColumnThriftRow(ThriftRow tr, EntityMetadata m, Object e, Object id, long timestamp,
-            Object columnTTLs)
+            Object columnTTLs, Set<String> columns)
     {
 
         // Iterate through Super columns
@@ -1484,9 +1490,9 @@ public abstract class CassandraDataHandlerBase
         Set<Attribute> attributes = entityType.getAttributes();
         for (Attribute attribute : attributes)
         {
-            if (!attribute.getName().equals(m.getIdAttribute().getName()) && !attribute.isAssociation())
+            if (!attribute.getName().equals(m.getIdAttribute().getName()) && !attribute.isAssociation()
+                    && (columns == null || columns.contains(((AbstractAttribute) attribute).getJPAColumnName())))
             {
-                Field field = (Field) ((Attribute) attribute).getJavaMember();
                 byte[] name = PropertyAccessorFactory.STRING
                         .toBytes(((AbstractAttribute) attribute).getJPAColumnName());
 
@@ -1498,7 +1504,7 @@ public abstract class CassandraDataHandlerBase
                 }
                 else
                 {
-                    Object value = getColumnValue(m, e, field);
+                    Object value = getColumnValue(m, e, (AbstractAttribute) attribute);
 
                     if (m.getType().equals(Type.SUPER_COLUMN_FAMILY))
                     {
@@ -1555,20 +1561,84 @@ public abstract class CassandraDataHandlerBase
         return ttl == null ? 0 : ttl;
     }
 
-    private Object getColumnValue(EntityMetadata m, Object e, Field field)
+    private Object getColumnValue(EntityMetadata m, Object e, AbstractAttribute attribute)
     {
         Object value;
         if (!m.isCounterColumnType())
         {
-            value = PropertyAccessorHelper.get(e, field);
+            value = getPrimitiveValue(e, attribute.getAccessor());
+            if (value == null)
+            {
+                value = PropertyAccessorHelper.get(e, (Field) attribute.getJavaMember());
+            }
         }
         else
         {
-            value = PropertyAccessorHelper.getString(e, field);
+            value = PropertyAccessorHelper.getString(e, (Field) attribute.getJavaMember());
         }
         return value;
     }
 
+    /**
+     * Gets value of an int, long, double or boolean field as bytes, without
+     * boxing it.
+     * 
+     * @return the bytes, null if field is not of one of these types.
+     */
+    private byte[] getPrimitiveValue(Object entity, FieldAccessor accessor)
+    {
+        Class<?> type = accessor.getField().getType();
+        if (type == int.class)
+        {
+            return ByteBufferUtil.bytes(accessor.getInt(entity)).array();
+        }
+        else if (type == long.class)
+        {
+            return ByteBufferUtil.bytes(accessor.getLong(entity)).array();
+        }
+        else if (type == double.class)
+        {
+            return ByteBufferUtil.bytes(accessor.getDouble(entity)).array();
+        }
+        else if (type == boolean.class)
+        {
+            return new byte[] { (byte) (accessor.getBoolean(entity) ? 0x01 : 0x00) };
+        }
+        return null;
+    }
+
+    /**
+     * Sets value of an int, long, double or boolean field from column bytes,
+     * without boxing it.
+     * 
+     * @return false, if field is not of one of these types.
+     */
+    private boolean setPrimitiveValue(Object entity, byte[] value, FieldAccessor accessor)
+    {
+        Class<?> type = accessor.getField().getType();
+        if (type == int.class && value.length == 4)
+        {
+            accessor.setInt(entity, ByteBufferUtil.toInt(ByteBuffer.wrap(value)));
+        }
+        else if (type == long.class && value.length == 8)
+        {
+            accessor.setLong(entity, ByteBufferUtil.toLong(ByteBuffer.wrap(value)));
+        }
+        else if (type == double.class && value.length == 8)
+        {
+            accessor.setDouble(entity, ByteBufferUtil.toDouble(ByteBuffer.wrap(value)));
+        }
+        else if (type == boolean.class)
+        {
+            accessor.setBoolean(entity, value.length != 0 && value[0] != 0x00);
+        }
+        else
+        {
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Prepare column.
      * 
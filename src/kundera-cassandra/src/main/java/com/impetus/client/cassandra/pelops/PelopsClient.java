@@ -200,8 +200,7 @@ public class PelopsClient extends CassandraClientBase implements Client<CassQuer
                 metadata.getPersistenceUnit());
         if (isCql3Enabled(metadata))
         {
-            String deleteQuery = onDeleteQuery(metadata, metaModel, pKey);
-            executeQuery(deleteQuery, metadata.getEntityClazz(), null);
+            executeDeleteQuery(metadata, metaModel, pKey);
         }
         else
         {
@@ -497,7 +496,8 @@ public class PelopsClient extends CassandraClientBase implements Client<CassQuer
             try
             {
                 String columnFamily = metadata.getTableName();
-                tf = dataHandler.toThriftRow(entity, id, metadata, columnFamily, getTtlValues().get(columnFamily));
+                tf = dataHandler.toThriftRow(entity, id, metadata, columnFamily, getTtlValues().get(columnFamily),
+                        dirtyColumns);
             }
             catch (Exception e)
             {
@@ -858,7 +858,7 @@ public class PelopsClient extends CassandraClientBase implements Client<CassQuer
     @Override
     public Long generate(TableGeneratorDiscriptor discriptor)
     {
-        return getGeneratedValue(discriptor, getPersistenceUnit());
+        return getGeneratedValue(clientFactory.getIdBlockSource(discriptor, getConsistencyLevel()), clientFactory);
     }
 
     Mutator getMutator()
@@ -23,6 +23,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.ConsistencyLevel;
 import org.scale7.cassandra.pelops.Cluster;
 import org.scale7.cassandra.pelops.Cluster.Node;
 import org.scale7.cassandra.pelops.IConnection;
@@ -39,6 +41,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Lists;
+import com.impetus.client.cassandra.CassandraIdBlockSource;
 import com.impetus.client.cassandra.config.CassandraPropertyReader;
 import com.impetus.client.cassandra.query.CassandraEntityReader;
 import com.impetus.client.cassandra.schemamanager.CassandraSchemaManager;
@@ -54,8 +57,10 @@ import com.impetus.kundera.loader.GenericClientFactory;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
 import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
+import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
 import com.impetus.kundera.service.Host;
 import com.impetus.kundera.service.HostConfiguration;
+import com.impetus.kundera.service.policy.LatencyAwareBalancingPolicy;
 import com.impetus.kundera.service.policy.LeastActiveBalancingPolicy;
 import com.impetus.kundera.service.policy.RoundRobinBalancingPolicy;
 
@@ -209,6 +214,9 @@ public class PelopsClientFactory extends GenericClientFactory
         case LEASTACTIVE:
             loadBalancingPolicy = new PelopsLeastActiveBalancingPolcy();
             break;
+        case LATENCYAWARE:
+            loadBalancingPolicy = new PelopsLatencyAwareBalancingPolicy();
+            break;
         default:
             loadBalancingPolicy = new RoundRobinBalancingPolicy();
             break;
@@ -373,6 +381,41 @@ public class PelopsClientFactory extends GenericClientFactory
 
     }
 
+    /**
+     * Returns source reserving id blocks of given table generator over
+     * connections of this factory, rather than of any one client.
+     * 
+     * @param descriptor
+     *            table generator descriptor
+     * @param consistencyLevel
+     *            consistency level to read and increment counter with.
+     * @return the id block source
+     */
+    CassandraIdBlockSource<IPooledConnection> getIdBlockSource(TableGeneratorDiscriptor descriptor,
+            ConsistencyLevel consistencyLevel)
+    {
+        return new CassandraIdBlockSource<IPooledConnection>(descriptor, consistencyLevel)
+        {
+            @Override
+            protected IPooledConnection borrowConnection()
+            {
+                return getConnection(getPoolUsingPolicy());
+            }
+
+            @Override
+            protected Cassandra.Client getClient(IPooledConnection connection)
+            {
+                return connection.getAPI();
+            }
+
+            @Override
+            protected void releaseConnection(IPooledConnection connection)
+            {
+                PelopsClientFactory.this.releaseConnection(connection);
+            }
+        };
+    }
+
     void releaseConnection(IPooledConnection conn)
     {
         if (conn != null)
@@ -432,6 +475,20 @@ public class PelopsClientFactory extends GenericClientFactory
         hostPools.remove(cassandraHost);
     }
 
+    /**
+     * Extends LatencyAwareBalancingPolicy to read in flight requests off
+     * pelops pools, as selectors and mutators check connections out
+     * internally.
+     */
+    private class PelopsLatencyAwareBalancingPolicy extends LatencyAwareBalancingPolicy
+    {
+        @Override
+        protected int getInFlight(Object pool)
+        {
+            return ((CommonsBackedPool) pool).getConnectionsActive();
+        }
+    }
+
     /**
      * Extends LeastActiveBalancingPolicy class and provide own implementation
      * in order to support least active balancing policy.
@@ -481,4 +538,4 @@ public class PelopsClientFactory extends GenericClientFactory
             }
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
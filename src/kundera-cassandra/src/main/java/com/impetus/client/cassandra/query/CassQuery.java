@@ -32,6 +32,7 @@ import javax.persistence.metamodel.EmbeddableType;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.Metamodel;
 
+import org.apache.cassandra.thrift.Compression;
 import org.apache.cassandra.thrift.IndexClause;
 import org.apache.cassandra.thrift.IndexExpression;
 import org.apache.cassandra.thrift.IndexOperator;
@@ -42,6 +43,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.impetus.client.cassandra.CassandraClientBase;
+import com.impetus.client.cassandra.common.CassandraConstants;
 import com.impetus.client.cassandra.common.CassandraUtilities;
 import com.impetus.client.cassandra.index.CassandraIndexHelper;
 import com.impetus.client.cassandra.thrift.CQLTranslator;
@@ -188,6 +190,46 @@ public class CassQuery extends QueryImpl
         return result;
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#getResultList()
+     */
+    @Override
+    public List<?> getResultList()
+    {
+        CassandraClientBase client = (CassandraClientBase) persistenceDelegeator.getClient(getEntityMetadata());
+        Compression compression = onCompressionHint(client);
+        try
+        {
+            return super.getResultList();
+        }
+        finally
+        {
+            client.setCompression(compression);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#executeUpdate()
+     */
+    @Override
+    public int executeUpdate()
+    {
+        CassandraClientBase client = (CassandraClientBase) persistenceDelegeator.getClient(getEntityMetadata());
+        Compression compression = onCompressionHint(client);
+        try
+        {
+            return super.executeUpdate();
+        }
+        finally
+        {
+            client.setCompression(compression);
+        }
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -865,12 +907,58 @@ public class CassQuery extends QueryImpl
         }
 
         return new ResultIterator(this, m, persistenceDelegeator.getClient(m), this.getReader(),
-                getFetchSize() != null ? getFetchSize() : this.maxResult);
+                getFetchSize() != null ? getFetchSize() : this.maxResult, getPageSize());
     }
 
-    void setRelationalEntities(List enhanceEntities, Client client, EntityMetadata m)
+    List<Object> setRelationalEntities(List enhanceEntities, Client client, EntityMetadata m)
     {
-        super.setRelationEntities(enhanceEntities, client, m);
+        return super.setRelationEntities(enhanceEntities, client, m);
+    }
+
+    /**
+     * Applies compression hint of this query, if any, onto client.
+     * 
+     * @param client
+     *            the client
+     * @return compression replaced, to be restored once query is executed.
+     */
+    Compression onCompressionHint(CassandraClientBase client)
+    {
+        Compression compression = client.getCompression();
+        Object hint = getHints().get(CassandraConstants.CQL_COMPRESSION);
+        if (hint != null)
+        {
+            client.setCompression(hint);
+        }
+        return compression;
+    }
+
+    /**
+     * Returns number of rows to fetch per page while iterating, given either
+     * as query hint or as persistence unit property.
+     * 
+     * @return page size, 0 if results are not to be streamed.
+     */
+    private int getPageSize()
+    {
+        Object pageSize = getHints().get(CassandraConstants.CQL_PAGE_SIZE);
+        if (pageSize == null && externalProperties != null)
+        {
+            pageSize = externalProperties.get(CassandraConstants.CQL_PAGE_SIZE);
+        }
+        if (pageSize == null || StringUtils.isBlank(pageSize.toString()))
+        {
+            return 0;
+        }
+        try
+        {
+            return Integer.parseInt(pageSize.toString().trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new QueryHandlerException("Invalid value {" + pageSize + "} for "
+                    + CassandraConstants.CQL_PAGE_SIZE + ", must be numeric.");
+        }
     }
 
     @Override
@@ -17,6 +17,7 @@ package com.impetus.client.cassandra.query;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -25,6 +26,9 @@ import javax.persistence.PersistenceException;
 import javax.persistence.Query;
 import javax.persistence.metamodel.EmbeddableType;
 
+import org.apache.cassandra.thrift.Column;
+import org.apache.cassandra.thrift.Compression;
+import org.apache.cassandra.thrift.CqlRow;
 import org.apache.cassandra.thrift.IndexClause;
 import org.apache.cassandra.thrift.IndexExpression;
 import org.apache.commons.lang.StringUtils;
@@ -54,7 +58,10 @@ import com.impetus.kundera.query.QueryImpl;
 /**
  * @author vivek.mishra .
  * 
- *         Implementation of Cassandra result iteration.
+ *         Implementation of Cassandra result iteration. Given a page size,
+ *         CQL3 results are streamed instead: rows are fetched page by page,
+ *         each page starting past token of last row's key, and are mapped to
+ *         entities only as they are consumed.
  * 
  *         TODO::: Need to add support for relational entities and a junit for
  *         Composite key test
@@ -93,6 +100,18 @@ class ResultIterator<E> implements IResultIterator<E>
 
     private E current;
 
+    /** Number of rows fetched per page, if streaming. */
+    private int pageSize;
+
+    /** Rows of current page, if streaming. */
+    private Iterator<CqlRow> page;
+
+    /** Row key of last consumed row, if streaming. */
+    private Object lastId;
+
+    /** Whether current page is last one, if streaming. */
+    private boolean lastPage;
+
     /**
      * Constructor with parameters
      * 
@@ -101,9 +120,11 @@ class ResultIterator<E> implements IResultIterator<E>
      * @param client
      * @param reader
      * @param fetchSize
+     * @param pageSize
+     *            rows fetched per page, 0 to not stream results.
      */
     ResultIterator(final Query query, final EntityMetadata m, final Client client, final EntityReader reader,
-            final int fetchSize)
+            final int fetchSize, final int pageSize)
     {
         this.client = client;
         this.query = (CassQuery) query;
@@ -111,12 +132,16 @@ class ResultIterator<E> implements IResultIterator<E>
         this.reader = reader;
         scrollComplete = false;
         this.fetchSize = fetchSize;
-
+        this.pageSize = pageSize > 0 && isStreamable() ? pageSize : 0;
     }
 
     @Override
     public boolean hasNext()
     {
+        if (pageSize > 0)
+        {
+            return hasNextRow();
+        }
         if (checkOnFetchSize())
         {
             onCheckRelation();
@@ -135,6 +160,10 @@ class ResultIterator<E> implements IResultIterator<E>
     @Override
     public E next()
     {
+        if (pageSize > 0)
+        {
+            return nextRow();
+        }
         if (current != null && checkOnEmptyResult() && current.equals(results.get(results.size() - 1)))
         {
             hasNext();
@@ -162,7 +191,172 @@ class ResultIterator<E> implements IResultIterator<E>
     @Override
     public List<E> next(int chunkSize)
     {
-        throw new UnsupportedOperationException("fetch in chunks is not yet supported");
+        if (pageSize == 0)
+        {
+            throw new UnsupportedOperationException("fetch in chunks is supported only while streaming cql3 results");
+        }
+        List<E> chunk = new ArrayList<E>(chunkSize);
+        while (chunk.size() < chunkSize && hasNextRow())
+        {
+            chunk.add(nextRow());
+        }
+        return chunk;
+    }
+
+    /**
+     * Returns true, if results can be streamed. That is, query is a cql3 JPA
+     * query selecting entities(projections may not select row key, which
+     * paging relies on) of a non composite key entity, without order by or
+     * conditions on key which would conflict with paging by key token.
+     * 
+     * @return true, if results can be streamed.
+     */
+    private boolean isStreamable()
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+        List orders = query.getKunderaQuery().getOrdering();
+        return !query.isNative() && query.getKunderaQuery().isAliasOnly()
+                && ((CassandraClientBase) client).isCql3Enabled(entityMetadata)
+                && !metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType())
+                && (orders == null || orders.isEmpty())
+                && getConditionOnIdColumn(((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName())
+                        .isEmpty();
+    }
+
+    /**
+     * Returns true, if there is another row to stream, fetching next page if
+     * current one is consumed.
+     * 
+     * @return true, if there is another row.
+     */
+    private boolean hasNextRow()
+    {
+        if (page != null && page.hasNext())
+        {
+            return true;
+        }
+        if (lastPage || count >= fetchSize)
+        {
+            page = null;
+            return false;
+        }
+        fetchPage();
+        return page.hasNext();
+    }
+
+    /**
+     * Maps next streamed row to entity.
+     * 
+     * @return the entity
+     */
+    private E nextRow()
+    {
+        if (!hasNextRow())
+        {
+            throw new NoSuchElementException("Nothing to scroll further for:" + entityMetadata.getEntityClazz());
+        }
+        CassandraClientBase cassandraClient = (CassandraClientBase) client;
+        CqlRow row = page.next();
+
+        // track key of every row, whatever it maps to, so that next page
+        // starts past it.
+        Object rowKey = getRowKey(row);
+        if (rowKey != null)
+        {
+            lastId = rowKey;
+        }
+        Object entity = cassandraClient.populateEntity(row, entityMetadata, entityMetadata.getRelationNames());
+        count++;
+        if (entity instanceof EnhanceEntity || entityMetadata.getEntityClazz().isInstance(entity))
+        {
+            if (entityMetadata.isRelationViaJoinTable()
+                    || (entityMetadata.getRelationNames() != null && !(entityMetadata.getRelationNames().isEmpty())))
+            {
+                List entities = new ArrayList(1);
+                entities.add(entity);
+                entity = query.setRelationalEntities(entities, client, entityMetadata).get(0);
+            }
+            current = getEntity(entity);
+        }
+        else
+        {
+            current = (E) entity;
+        }
+        return current;
+    }
+
+    /**
+     * Returns row key of given row, read from its id column.
+     * 
+     * @param row
+     *            cql row
+     * @return row key, null if row does not hold id column.
+     */
+    private Object getRowKey(CqlRow row)
+    {
+        String idColumnName = CassandraUtilities.getIdColumnName(entityMetadata, externalProperties);
+        for (Column column : row.getColumns())
+        {
+            if (column.getValue() != null && idColumnName.equals(Bytes.toUTF8(column.getName())))
+            {
+                return PropertyAccessorHelper.getObject(
+                        ((AbstractAttribute) entityMetadata.getIdAttribute()).getBindableJavaType(), column.getValue());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fetches next page of rows, starting past token of last consumed key.
+     */
+    private void fetchPage()
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+        externalProperties = ((CassandraClientBase) client).getExternalProperties();
+        String parsedQuery = query.onQueryOverCQL3(entityMetadata, client, metaModel,
+                entityMetadata.getRelationNames());
+        int limitIndex = parsedQuery.lastIndexOf(CQLTranslator.LIMIT);
+        StringBuilder builder = new StringBuilder(limitIndex > 0 ? parsedQuery.substring(0, limitIndex)
+                : parsedQuery);
+
+        if (lastId != null)
+        {
+            CQLTranslator translator = new CQLTranslator();
+            builder.append(query.getKunderaQuery().getFilterClauseQueue().isEmpty() ? CQLTranslator.ADD_WHERE_CLAUSE
+                    : CQLTranslator.AND_CLAUSE);
+            builder.append(CQLTranslator.TOKEN);
+            translator.appendColumnName(builder, CassandraUtilities.getIdColumnName(entityMetadata, externalProperties));
+            builder.append(CQLTranslator.CLOSE_BRACKET);
+            builder.append(" > ");
+            builder.append(CQLTranslator.TOKEN);
+            translator.appendValue(builder, ((AbstractAttribute) entityMetadata.getIdAttribute()).getBindableJavaType(),
+                    lastId, false, false);
+            builder.append(CQLTranslator.CLOSE_BRACKET);
+        }
+
+        int limit = Math.min(pageSize, fetchSize - count);
+        builder.append(CQLTranslator.LIMIT);
+        builder.append(limit);
+        builder.append(" ");
+        new CQLTranslator().buildFilteringClause(builder);
+
+        Compression compression = query.onCompressionHint((CassandraClientBase) client);
+        try
+        {
+            List<CqlRow> rows = ((CassandraClientBase) client).executeQueryForRows(builder.toString());
+            lastPage = rows.size() < limit;
+            page = rows.iterator();
+        }
+        catch (Exception e)
+        {
+            throw new PersistenceException("Error while scrolling over results, Caused by :.", e);
+        }
+        finally
+        {
+            ((CassandraClientBase) client).setCompression(compression);
+        }
     }
 
     /**
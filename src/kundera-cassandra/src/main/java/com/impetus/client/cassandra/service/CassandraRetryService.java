@@ -133,6 +133,22 @@ public class CassandraRetryService extends RetryService
         });
     }
 
+    /**
+     * Queues host to be retried after retry delay, instead of right away as
+     * {@link #add(CassandraHost)} does. Meant for hosts which are up but have
+     * been taken out of rotation, say for being too slow.
+     * 
+     * @param cassandraHost
+     *            the cassandra host
+     */
+    public void quarantine(final CassandraHost cassandraHost)
+    {
+        if (!downedHostQueue.contains(cassandraHost))
+        {
+            downedHostQueue.add(cassandraHost);
+        }
+    }
+
     @Override
     public void shutdown()
     {
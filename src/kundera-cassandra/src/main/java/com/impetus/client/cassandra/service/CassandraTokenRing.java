@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.cassandra.dht.IPartitioner;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.exceptions.ConfigurationException;
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.InvalidRequestException;
+import org.apache.cassandra.thrift.TokenRange;
+import org.apache.cassandra.utils.FBUtilities;
+import org.apache.thrift.TException;
+
+/**
+ * Token ring of a keyspace, as described by cassandra. Maps a row key to
+ * addresses of its replicas, hashing it with the cluster's partitioner.
+ * Ring is replaced as a whole on {@link #refresh(Cassandra.Client, String)},
+ * so lookups need no locking.
+ */
+public class CassandraTokenRing
+{
+    /** Address cassandra reports for nodes whose rpc listens on all interfaces. */
+    private static final String ANY_ADDRESS = "0.0.0.0";
+
+    private volatile Ring ring;
+
+    /**
+     * Reloads ring of given keyspace over given connection.
+     *
+     * @param client
+     *            the client
+     * @param keyspace
+     *            the keyspace
+     */
+    public void refresh(Cassandra.Client client, String keyspace) throws InvalidRequestException, TException,
+            ConfigurationException
+    {
+        IPartitioner partitioner = FBUtilities.newPartitioner(client.describe_partitioner());
+        TreeMap<Token, List<String>> ranges = new TreeMap<Token, List<String>>();
+        for (TokenRange range : client.describe_ring(keyspace))
+        {
+            List<String> endpoints = range.getEndpoints();
+            List<String> rpcEndpoints = range.getRpc_endpoints();
+            List<String> replicas = new ArrayList<String>(endpoints.size());
+            for (int i = 0; i < endpoints.size(); i++)
+            {
+                String rpcEndpoint = rpcEndpoints != null && i < rpcEndpoints.size() ? rpcEndpoints.get(i) : null;
+                replicas.add(rpcEndpoint == null || ANY_ADDRESS.equals(rpcEndpoint) ? endpoints.get(i) : rpcEndpoint);
+            }
+            ranges.put(partitioner.getTokenFactory().fromString(range.getEnd_token()),
+                    Collections.unmodifiableList(replicas));
+        }
+        this.ring = new Ring(partitioner, ranges);
+    }
+
+    /**
+     * Returns addresses of replicas owning given row key, in ring order.
+     *
+     * @param rowKey
+     *            the row key
+     * @return replica addresses, empty if ring is not yet loaded.
+     */
+    public List<String> getReplicas(ByteBuffer rowKey)
+    {
+        Ring current = ring;
+        if (current == null || current.ranges.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        // ranges are keyed by their (inclusive) end token, last one wraps.
+        Token token = current.partitioner.getToken(rowKey);
+        Map.Entry<Token, List<String>> range = current.ranges.ceilingEntry(token);
+        return range != null ? range.getValue() : current.ranges.firstEntry().getValue();
+    }
+
+    /**
+     * @return true, if ring has been loaded.
+     */
+    public boolean isLoaded()
+    {
+        return ring != null;
+    }
+
+    private static final class Ring
+    {
+        private final IPartitioner partitioner;
+
+        private final TreeMap<Token, List<String>> ranges;
+
+        private Ring(IPartitioner partitioner, TreeMap<Token, List<String>> ranges)
+        {
+            this.partitioner = partitioner;
+            this.ranges = ranges;
+        }
+    }
+}
@@ -16,9 +16,11 @@
 package com.impetus.client.cassandra.thrift;
 
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
@@ -29,6 +31,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 import javax.persistence.PersistenceException;
 import javax.persistence.metamodel.Attribute;
@@ -135,6 +138,11 @@ public final class CQLTranslator
     
     public static final String SPACE_STRING = " ";
 
+    /** Classes whose accessor bytes can be bound as CQL3 values. */
+    private static final Set<Class<?>> BINDABLE_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>> asList(String.class,
+            Integer.class, int.class, Long.class, long.class, Double.class, double.class, Float.class, float.class,
+            Boolean.class, boolean.class, UUID.class, Date.class, byte[].class));
+
     public CQLTranslator()
     {
 
@@ -713,6 +721,38 @@ public final class CQLTranslator
     }
 
 
+    /**
+     * Returns true if values of given class can be bound to a prepared
+     * statement as is, i.e. their byte representation matches CQL3 type of
+     * the column.
+     * 
+     * @param fieldClazz
+     *            field class.
+     * @return true, if bindable.
+     */
+    public static boolean isBindable(Class fieldClazz)
+    {
+        return BINDABLE_TYPES.contains(fieldClazz);
+    }
+
+    /**
+     * Returns value to be bound to a prepared statement marker.
+     * 
+     * @param fieldClazz
+     *            field class, must be bindable.
+     * @param value
+     *            value, non-null.
+     * @return value bytes.
+     */
+    public ByteBuffer bindValue(Class fieldClazz, Object value)
+    {
+        if (byte[].class.equals(fieldClazz))
+        {
+            return ByteBuffer.wrap((byte[]) value);
+        }
+        return ByteBuffer.wrap(PropertyAccessorFactory.getPropertyAccessor(fieldClazz).toBytes(value));
+    }
+
     /**
      * Appends column name and ensure case sensitivity.
      * 
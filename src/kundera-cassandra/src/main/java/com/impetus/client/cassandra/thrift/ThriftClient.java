@@ -19,6 +19,7 @@ import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -138,7 +139,7 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
     @Override
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders)
     {
-        Connection conn = getConection();
+        Connection conn = getConection(getRoutingKey(entityMetadata, id));
         try
         {
 
@@ -652,8 +653,7 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
 
             if (isCql3Enabled(metadata))
             {
-                String deleteQuery = onDeleteQuery(metadata, metaModel, pKey);
-                executeQuery(deleteQuery, metadata.getEntityClazz(), null);
+                executeDeleteQuery(metadata, metaModel, pKey);
             }
             else
             {
@@ -1046,14 +1046,27 @@ public class ThriftClient extends CassandraClientBase implements Client<CassQuer
         return connection;
     }
 
+    @Override
+    protected Connection getConection(ByteBuffer rowKey)
+    {
+        return clientFactory.getConnection(pool, rowKey);
+    }
+
+    @Override
+    protected Collection<Map<ByteBuffer, Map<String, List<Mutation>>>> splitMutations(
+            Map<ByteBuffer, Map<String, List<Mutation>>> mutationMap)
+    {
+        return clientFactory.splitByReplicas(mutationMap);
+    }
+
     protected void releaseConnection(Object conn)
     {
-        clientFactory.releaseConnection(((Connection) conn).getPool(), ((Connection) conn).getClient());
+        clientFactory.releaseConnection((Connection) conn);
     }
 
     @Override
     public Long generate(TableGeneratorDiscriptor discriptor)
     {
-        return getGeneratedValue(discriptor, getPersistenceUnit());
+        return getGeneratedValue(clientFactory.getIdBlockSource(discriptor, getConsistencyLevel()), clientFactory);
     }
 }
@@ -15,24 +15,39 @@
  */
 package com.impetus.client.cassandra.thrift;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.dataforte.cassandra.pool.ConnectionPool;
 import net.dataforte.cassandra.pool.PoolConfiguration;
 import net.dataforte.cassandra.pool.PoolProperties;
 
 import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.ConsistencyLevel;
+import org.apache.cassandra.thrift.Mutation;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Lists;
+import com.impetus.client.cassandra.CassandraIdBlockSource;
+import com.impetus.client.cassandra.common.CassandraConstants;
 import com.impetus.client.cassandra.config.CassandraPropertyReader;
 import com.impetus.client.cassandra.pelops.PelopsClientFactory;
 import com.impetus.client.cassandra.pelops.PelopsUtils;
@@ -41,6 +56,7 @@ import com.impetus.client.cassandra.schemamanager.CassandraSchemaManager;
 import com.impetus.client.cassandra.service.CassandraHost;
 import com.impetus.client.cassandra.service.CassandraHostConfiguration;
 import com.impetus.client.cassandra.service.CassandraRetryService;
+import com.impetus.client.cassandra.service.CassandraTokenRing;
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.PersistenceProperties;
@@ -50,10 +66,13 @@ import com.impetus.kundera.loader.GenericClientFactory;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
 import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
+import com.impetus.kundera.metadata.model.TableGeneratorDiscriptor;
 import com.impetus.kundera.service.Host;
 import com.impetus.kundera.service.HostConfiguration;
+import com.impetus.kundera.service.policy.LatencyAwareBalancingPolicy;
 import com.impetus.kundera.service.policy.LeastActiveBalancingPolicy;
 import com.impetus.kundera.service.policy.RoundRobinBalancingPolicy;
+import com.impetus.kundera.utils.KunderaThreadFactory;
 
 /**
  * A factory of {@link ThriftClient} Currently it uses Pelops for Connection
@@ -69,6 +88,24 @@ public class ThriftClientFactory extends GenericClientFactory
 
     protected HostConfiguration configuration;
 
+    /** Default interval of token ring refresh, in seconds. */
+    private static final long DEFAULT_RING_REFRESH_INTERVAL = 60;
+
+    /** Token ring, if connections are routed to replicas of row keys. */
+    private CassandraTokenRing tokenRing;
+
+    /** Hosts keyed by their address, as found on last ring refresh. */
+    private volatile Map<String, Host> hostsByAddress = Collections.emptyMap();
+
+    /** Spreads keyed connections over replicas. */
+    private final AtomicInteger replicaCounter = new AtomicInteger();
+
+    private ScheduledExecutorService ringRefresher;
+
+    /** Pools taken out of rotation, closed once their connections are back. */
+    private final Set<ConnectionPool> retiredPools = Collections
+            .newSetFromMap(new ConcurrentHashMap<ConnectionPool, Boolean>());
+
     @Override
     public SchemaManager getSchemaManager(Map<String, Object> externalProperty)
     {
@@ -111,10 +148,20 @@ public class ThriftClientFactory extends GenericClientFactory
         {
             if (connectionPool != null && connectionPool.getClass().isAssignableFrom(ConnectionPool.class))
             {
-                ((ConnectionPool) connectionPool).close(true);
+                closePool((ConnectionPool) connectionPool);
             }
         }
+        for (ConnectionPool connectionPool : retiredPools)
+        {
+            closePool(connectionPool);
+        }
+        retiredPools.clear();
         ((CassandraRetryService) hostRetryService).shutdown();
+        if (ringRefresher != null)
+        {
+            ringRefresher.shutdownNow();
+            ringRefresher = null;
+        }
     }
 
     @Override
@@ -129,6 +176,29 @@ public class ThriftClientFactory extends GenericClientFactory
         configuration = new CassandraHostConfiguration(externalProperties, CassandraPropertyReader.csmd,
                 getPersistenceUnit());
         hostRetryService = new CassandraRetryService(configuration, this);
+        if (Boolean.parseBoolean(getConnectionProperty(CassandraConstants.TOKEN_AWARE)))
+        {
+            tokenRing = new CassandraTokenRing();
+        }
+    }
+
+    /**
+     * Returns connection property, given either as persistence unit property
+     * or in cassandra property file.
+     * 
+     * @param name
+     *            property name
+     * @return the property value
+     */
+    private String getConnectionProperty(String name)
+    {
+        Object value = externalProperties != null ? externalProperties.get(name) : null;
+        if (value == null && CassandraPropertyReader.csmd != null
+                && CassandraPropertyReader.csmd.getConnectionProperties() != null)
+        {
+            value = CassandraPropertyReader.csmd.getConnectionProperties().getProperty(name);
+        }
+        return value != null ? value.toString().trim() : null;
     }
 
     @Override
@@ -173,9 +243,146 @@ public class ThriftClientFactory extends GenericClientFactory
                 }
             }
         }
+
+        if (tokenRing != null)
+        {
+            refreshTokenRing(keyspace);
+            scheduleTokenRingRefresh(keyspace);
+        }
+        return null;
+    }
+
+    /**
+     * Schedules periodic refresh of token ring.
+     * 
+     * @param keyspace
+     *            the keyspace
+     */
+    private void scheduleTokenRingRefresh(final String keyspace)
+    {
+        String interval = getConnectionProperty(CassandraConstants.RING_REFRESH_INTERVAL);
+        long refreshInterval = interval != null ? Long.parseLong(interval) : DEFAULT_RING_REFRESH_INTERVAL;
+        ringRefresher = Executors.newSingleThreadScheduledExecutor(new KunderaThreadFactory(
+                CassandraTokenRing.class.getName()));
+        ringRefresher.scheduleWithFixedDelay(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                refreshTokenRing(keyspace);
+            }
+        }, refreshInterval, refreshInterval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reloads token ring through any live host, and maps known hosts by
+     * address. Failures are logged only, routing then stays as it was.
+     * 
+     * @param keyspace
+     *            the keyspace
+     */
+    private void refreshTokenRing(String keyspace)
+    {
+        if (hostPools.isEmpty())
+        {
+            return;
+        }
+        ConnectionPool pool = getPoolUsingPolicy();
+        Cassandra.Client client = null;
+        try
+        {
+            client = pool.getConnection();
+            tokenRing.refresh(client, keyspace);
+
+            Map<String, Host> addresses = new HashMap<String, Host>();
+            for (Host host : ((CassandraHostConfiguration) configuration).getCassandraHosts())
+            {
+                try
+                {
+                    addresses.put(InetAddress.getByName(host.getHost()).getHostAddress(), host);
+                }
+                catch (UnknownHostException e)
+                {
+                    logger.warn("Could not resolve address of host {}, requests will not be routed to it.",
+                            host.getHost());
+                }
+            }
+            hostsByAddress = addresses;
+        }
+        catch (Exception e)
+        {
+            logger.warn("Error while refreshing token ring of keyspace {}, Caused by {}.", keyspace, e.getMessage());
+        }
+        finally
+        {
+            releaseConnection(pool, client);
+        }
+    }
+
+    /**
+     * Returns pool of a live replica of given row key, rotating over
+     * replicas.
+     * 
+     * @param rowKey
+     *            the row key
+     * @return replica's pool, null if none is known.
+     */
+    private ConnectionPool getReplicaPool(ByteBuffer rowKey)
+    {
+        if (tokenRing == null || rowKey == null)
+        {
+            return null;
+        }
+        List<String> replicas = tokenRing.getReplicas(rowKey);
+        int size = replicas.size();
+        if (size == 0)
+        {
+            return null;
+        }
+        int start = (replicaCounter.getAndIncrement() & Integer.MAX_VALUE) % size;
+        for (int i = 0; i < size; i++)
+        {
+            Host host = hostsByAddress.get(replicas.get((start + i) % size));
+            Object pool = host != null ? hostPools.get(host) : null;
+            if (pool != null)
+            {
+                return (ConnectionPool) pool;
+            }
+        }
         return null;
     }
 
+    /**
+     * Splits mutations into groups of rows sharing same replicas, so that
+     * each group can be sent to one of its replicas. Returns mutations as
+     * single group, if connections are not routed.
+     * 
+     * @param mutationMap
+     *            mutations keyed by row key
+     * @return mutation groups
+     */
+    Collection<Map<ByteBuffer, Map<String, List<Mutation>>>> splitByReplicas(
+            Map<ByteBuffer, Map<String, List<Mutation>>> mutationMap)
+    {
+        if (tokenRing == null || !tokenRing.isLoaded() || mutationMap.size() <= 1)
+        {
+            return Collections.singletonList(mutationMap);
+        }
+        Map<List<String>, Map<ByteBuffer, Map<String, List<Mutation>>>> groups = new LinkedHashMap<List<String>, Map<ByteBuffer, Map<String, List<Mutation>>>>();
+        for (Map.Entry<ByteBuffer, Map<String, List<Mutation>>> row : mutationMap.entrySet())
+        {
+            List<String> replicas = tokenRing.getReplicas(row.getKey());
+            Map<ByteBuffer, Map<String, List<Mutation>>> group = groups.get(replicas);
+            if (group == null)
+            {
+                group = new HashMap<ByteBuffer, Map<String, List<Mutation>>>();
+                groups.put(replicas, group);
+            }
+            group.put(row.getKey(), row.getValue());
+        }
+        return groups.values();
+    }
+
     @Override
     protected Client instantiateClient(String persistenceUnit)
     {
@@ -235,17 +442,49 @@ public class ThriftClientFactory extends GenericClientFactory
             case LEASTACTIVE:
                 loadBalancingPolicy = new ThriftLeastActiveBalancingPolcy();
                 break;
+            case LATENCYAWARE:
+                loadBalancingPolicy = new ThriftLatencyAwareBalancingPolicy();
+                break;
             default:
                 loadBalancingPolicy = new RoundRobinBalancingPolicy();
                 break;
             }
         }
-        loadBalancingPolicy = new RoundRobinBalancingPolicy();
+        else
+        {
+            loadBalancingPolicy = new RoundRobinBalancingPolicy();
+        }
     }
 
     Connection getConnection(ConnectionPool pool)
     {
-        ConnectionPool connectionPool = pool;
+        // latency aware policy is cheap enough to pick a host per checkout.
+        if (loadBalancingPolicy instanceof LatencyAwareBalancingPolicy && !hostPools.isEmpty())
+        {
+            return checkout(getPoolUsingPolicy());
+        }
+        return checkout(pool);
+    }
+
+    /**
+     * Returns connection to a replica of given row key, if connections are
+     * routed and replica is known, otherwise as
+     * {@link #getConnection(ConnectionPool)} does.
+     * 
+     * @param pool
+     *            client's pool
+     * @param rowKey
+     *            the row key
+     * @return the connection
+     */
+    Connection getConnection(ConnectionPool pool, ByteBuffer rowKey)
+    {
+        ConnectionPool replicaPool = getReplicaPool(rowKey);
+        return replicaPool != null ? checkout(replicaPool) : getConnection(pool);
+    }
+
+    private Connection checkout(ConnectionPool connectionPool)
+    {
         boolean success = false;
         while (!success)
         {
@@ -256,32 +495,117 @@ public class ThriftClientFactory extends GenericClientFactory
 
                 if (logger.isDebugEnabled())
                 {
-                    logger.debug("Returning connection of {} :{} .", pool.getPoolProperties().getHost(), pool
-                            .getPoolProperties().getPort());
+                    logger.debug("Returning connection of {} :{} .", connectionPool.getPoolProperties().getHost(),
+                            connectionPool.getPoolProperties().getPort());
                 }
 
+                if (loadBalancingPolicy instanceof LatencyAwareBalancingPolicy)
+                {
+                    ((LatencyAwareBalancingPolicy) loadBalancingPolicy).onAcquire(connectionPool);
+                }
                 return new Connection(client, connectionPool);
             }
             catch (TException te)
             {
                 success = false;
-                logger.warn("{} :{}  host appears to be down, trying for next ", pool.getPoolProperties().getHost(),
-                        pool.getPoolProperties().getPort());
-                connectionPool = getNewPool(pool.getPoolProperties().getHost(), pool.getPoolProperties().getPort());
+                logger.warn("{} :{}  host appears to be down, trying for next ", connectionPool.getPoolProperties()
+                        .getHost(), connectionPool.getPoolProperties().getPort());
+                if (loadBalancingPolicy instanceof LatencyAwareBalancingPolicy)
+                {
+                    ((LatencyAwareBalancingPolicy) loadBalancingPolicy).remove(connectionPool);
+                }
+                connectionPool = getNewPool(connectionPool.getPoolProperties().getHost(), connectionPool
+                        .getPoolProperties().getPort());
             }
         }
 
         throw new KunderaException("All hosts are down. please check servers manully.");
     }
 
+    /**
+     * Returns source reserving id blocks of given table generator over
+     * connections of this factory, rather than of any one client.
+     * 
+     * @param descriptor
+     *            table generator descriptor
+     * @param consistencyLevel
+     *            consistency level to read and increment counter with.
+     * @return the id block source
+     */
+    CassandraIdBlockSource<Connection> getIdBlockSource(TableGeneratorDiscriptor descriptor,
+            ConsistencyLevel consistencyLevel)
+    {
+        return new CassandraIdBlockSource<Connection>(descriptor, consistencyLevel)
+        {
+            @Override
+            protected Connection borrowConnection()
+            {
+                return getConnection(getPoolUsingPolicy());
+            }
+
+            @Override
+            protected Cassandra.Client getClient(Connection connection)
+            {
+                return connection.getClient();
+            }
+
+            @Override
+            protected void releaseConnection(Connection connection)
+            {
+                ThriftClientFactory.this.releaseConnection(connection);
+            }
+        };
+    }
+
     void releaseConnection(ConnectionPool pool, Cassandra.Client conn)
     {
         if (pool != null && conn != null)
         {
             pool.release(conn);
+            if (!retiredPools.isEmpty())
+            {
+                closeIfIdle(pool);
+            }
         }
     }
 
+    /**
+     * Takes a pool, already removed from hostPools, out of use. It is closed
+     * right away if none of its connections is borrowed, else on release of
+     * the last one.
+     * 
+     * @param pool
+     *            pool to retire
+     */
+    void retirePool(ConnectionPool pool)
+    {
+        retiredPools.add(pool);
+        closeIfIdle(pool);
+    }
+
+    private void closeIfIdle(ConnectionPool pool)
+    {
+        if (pool.getActive() == 0 && retiredPools.remove(pool))
+        {
+            closePool(pool);
+        }
+    }
+
+    void closePool(ConnectionPool pool)
+    {
+        pool.close(true);
+    }
+
+    void releaseConnection(Connection connection)
+    {
+        if (loadBalancingPolicy instanceof LatencyAwareBalancingPolicy)
+        {
+            ((LatencyAwareBalancingPolicy) loadBalancingPolicy).onRelease(connection.getPool(), System.nanoTime()
+                    - connection.acquiredAt);
+        }
+        releaseConnection(connection.getPool(), connection.getClient());
+    }
+
     /**
      * Adds a pool in hostPools map for given host.
      * 
@@ -365,6 +689,31 @@ public class ThriftClientFactory extends GenericClientFactory
         }
     }
 
+    /**
+     * Extends LatencyAwareBalancingPolicy in order to hand quarantined hosts
+     * over to retry service.
+     */
+    private class ThriftLatencyAwareBalancingPolicy extends LatencyAwareBalancingPolicy
+    {
+        @Override
+        protected void onQuarantine(Object pool)
+        {
+            PoolConfiguration props = ((ConnectionPool) pool).getPoolProperties();
+            CassandraHost cassandraHost = ((CassandraHostConfiguration) configuration).getCassandraHost(
+                    props.getHost(), props.getPort());
+
+            // keep at least one host, and only those which would come back.
+            if (cassandraHost != null && cassandraHost.isRetryHost() && hostPools.size() > 1
+                    && hostPools.remove(cassandraHost, pool))
+            {
+                logger.warn("{} :{} host appears to be slow, scheduling it for future retry.", props.getHost(),
+                        props.getPort());
+                ((CassandraRetryService) hostRetryService).quarantine(cassandraHost);
+                retirePool((ConnectionPool) pool);
+            }
+        }
+    }
+
     /**
      * Connection class holds client and related pool.
      * 
@@ -377,6 +726,8 @@ public class ThriftClientFactory extends GenericClientFactory
 
         private ConnectionPool pool;
 
+        private final long acquiredAt = System.nanoTime();
+
         public Connection(org.apache.cassandra.thrift.Cassandra.Client client, ConnectionPool pool)
         {
             this.client = client;
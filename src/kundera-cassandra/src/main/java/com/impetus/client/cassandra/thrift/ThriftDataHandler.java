@@ -74,7 +74,7 @@ public final class ThriftDataHandler extends CassandraDataHandlerBase implements
         predicate.setSlice_range(new SliceRange(Bytes.EMPTY.getBytes(), Bytes.EMPTY.getBytes(), true, 10000));
 
         ByteBuffer key = ByteBuffer.wrap(PropertyAccessorHelper.toBytes(rowKey, m.getIdAttribute().getJavaType()));
-        Connection conn = thriftClient.getConection();
+        Connection conn = thriftClient.getConection(key);
         try
         {
             List<ColumnOrSuperColumn> columnOrSuperColumns = conn.getClient().get_slice(key, new ColumnParent(
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.cassandra.common.CassandraConstants;
+import com.impetus.client.cassandra.common.PreparedStatementCache;
+import com.impetus.client.persistence.CassandraCli;
+import com.impetus.kundera.metadata.model.KunderaMetadata;
+
+/**
+ * Test case for CRUD over CQL3 prepared statements, enabled by
+ * {@link CassandraConstants#CQL_PREPARED}.
+ */
+public class PreparedStatementTest
+{
+    private static final String PU = "cassandra_pu";
+
+    private static final String KEYSPACE = "KunderaTests";
+
+    private EntityManagerFactory emf;
+
+    private EntityManager em;
+
+    private PreparedStatementCache preparedStatements;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        KunderaMetadata.INSTANCE.setApplicationMetadata(null);
+        CassandraCli.cassandraSetUp();
+        Map<String, Object> propertyMap = new HashMap<String, Object>();
+        propertyMap.put(CassandraConstants.CQL_VERSION, CassandraConstants.CQL_VERSION_3_0);
+        propertyMap.put(CassandraConstants.CQL_PREPARED, "true");
+        emf = Persistence.createEntityManagerFactory(PU, propertyMap);
+        em = emf.createEntityManager();
+
+        preparedStatements = CassandraClientBase.getPreparedStatements();
+        preparedStatements.clear();
+    }
+
+    @Test
+    public void testCRUD()
+    {
+        UUID id = UUID.randomUUID();
+        Date joiningDate = new Date();
+        em.persist(newEntity(id, 30, joiningDate, true));
+        Assert.assertEquals(1, preparedStatements.size());
+        em.clear();
+
+        PreparedEntity found = em.find(PreparedEntity.class, id);
+        Assert.assertNotNull(found);
+        Assert.assertEquals(id, found.getId());
+        Assert.assertEquals("Amresh", found.getName());
+        Assert.assertEquals(30, found.getAge());
+        Assert.assertEquals(joiningDate, found.getJoiningDate());
+        Assert.assertTrue(found.isActive());
+        Assert.assertEquals(2, preparedStatements.size());
+
+        // same statements, so no more prepared.
+        found.setAge(31);
+        found.setActive(false);
+        em.merge(found);
+        em.clear();
+        found = em.find(PreparedEntity.class, id);
+        Assert.assertEquals(31, found.getAge());
+        Assert.assertFalse(found.isActive());
+        Assert.assertEquals(2, preparedStatements.size());
+
+        em.remove(found);
+        Assert.assertEquals(3, preparedStatements.size());
+        em.clear();
+        Assert.assertNull(em.find(PreparedEntity.class, id));
+    }
+
+    @Test
+    public void testAfterSchemaChange()
+    {
+        UUID id1 = UUID.randomUUID();
+        em.persist(newEntity(id1, 30, new Date(), true));
+        em.clear();
+        Assert.assertNotNull(em.find(PreparedEntity.class, id1));
+        Assert.assertEquals(2, preparedStatements.size());
+
+        CassandraCli.executeCqlQuery("ALTER TABLE \"" + KEYSPACE + "\".\"PREPARED_ENTITY\" ADD \"NICKNAME\" text");
+
+        // cached ids are still used, or prepared again if server dropped them.
+        UUID id2 = UUID.randomUUID();
+        em.persist(newEntity(id2, 40, new Date(), false));
+        em.clear();
+        PreparedEntity found = em.find(PreparedEntity.class, id1);
+        Assert.assertNotNull(found);
+        Assert.assertEquals(30, found.getAge());
+        Assert.assertTrue(found.isActive());
+        found = em.find(PreparedEntity.class, id2);
+        Assert.assertNotNull(found);
+        Assert.assertEquals(40, found.getAge());
+        Assert.assertFalse(found.isActive());
+        Assert.assertEquals(2, preparedStatements.size());
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        em.close();
+        emf.close();
+        preparedStatements.clear();
+        CassandraCli.dropKeySpace(KEYSPACE);
+    }
+
+    private PreparedEntity newEntity(UUID id, int age, Date joiningDate, boolean active)
+    {
+        PreparedEntity entity = new PreparedEntity();
+        entity.setId(id);
+        entity.setName("Amresh");
+        entity.setAge(age);
+        entity.setJoiningDate(joiningDate);
+        entity.setActive(active);
+        return entity;
+    }
+}
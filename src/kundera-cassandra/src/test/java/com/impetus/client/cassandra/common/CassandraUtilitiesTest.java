@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.common;
+
+import java.nio.ByteBuffer;
+import java.util.zip.Inflater;
+
+import junit.framework.Assert;
+
+import org.apache.cassandra.thrift.Compression;
+import org.apache.cassandra.utils.ByteBufferUtil;
+import org.junit.Test;
+
+/**
+ * Test case for {@link CassandraUtilities}.
+ */
+public class CassandraUtilitiesTest
+{
+    private static final String QUERY = "SELECT * FROM \"PERSON\" WHERE \"AGE\" = 10 LIMIT 100 ALLOW FILTERING";
+
+    @Test
+    public void testCompressNone() throws Exception
+    {
+        Assert.assertEquals(ByteBufferUtil.bytes(QUERY), CassandraUtilities.compress(QUERY, Compression.NONE));
+        Assert.assertEquals(ByteBufferUtil.bytes(QUERY), CassandraUtilities.compress(QUERY, null));
+    }
+
+    @Test
+    public void testCompressGzip() throws Exception
+    {
+        ByteBuffer compressed = CassandraUtilities.compress(QUERY, Compression.GZIP);
+
+        // inflate as cassandra server does.
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed.array(), compressed.arrayOffset() + compressed.position(), compressed.remaining());
+        byte[] buffer = new byte[1024];
+        int length = inflater.inflate(buffer);
+        Assert.assertTrue(inflater.finished());
+        inflater.end();
+        Assert.assertEquals(QUERY, new String(buffer, 0, length, "UTF-8"));
+    }
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.common;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.Assert;
+
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.Compression;
+import org.apache.cassandra.thrift.ConsistencyLevel;
+import org.apache.cassandra.thrift.CqlPreparedResult;
+import org.apache.cassandra.thrift.CqlResult;
+import org.apache.cassandra.thrift.CqlResultType;
+import org.apache.cassandra.thrift.InvalidRequestException;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.transport.TMemoryBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for {@link PreparedStatementCache}.
+ */
+public class PreparedStatementCacheTest
+{
+    private static final String INSERT = "INSERT INTO \"PERSON\"(\"ID\",\"AGE\") VALUES(?,?)";
+
+    private static final String SELECT = "SELECT * FROM \"PERSON\" WHERE \"ID\" = ?";
+
+    private PreparedStatementCache cache;
+
+    private List<ByteBuffer> values;
+
+    @Before
+    public void setUp()
+    {
+        cache = new PreparedStatementCache();
+        values = new ArrayList<ByteBuffer>();
+        values.add(ByteBuffer.wrap("1".getBytes()));
+    }
+
+    @Test
+    public void testPreparedOncePerConnection() throws Exception
+    {
+        StubClient conn = new StubClient();
+        cache.execute(conn, INSERT, values, ConsistencyLevel.ONE);
+        cache.execute(conn, INSERT, values, ConsistencyLevel.ONE);
+        Assert.assertEquals(1, conn.prepares);
+        Assert.assertEquals(2, conn.executes);
+
+        cache.execute(conn, SELECT, values, ConsistencyLevel.ONE);
+        Assert.assertEquals(2, conn.prepares);
+        Assert.assertEquals(2, cache.size());
+
+        // ids of one connection are unknown to others.
+        StubClient other = new StubClient();
+        cache.execute(other, INSERT, values, ConsistencyLevel.ONE);
+        Assert.assertEquals(1, other.prepares);
+        Assert.assertEquals(3, cache.size());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPreparedAgainWhenForgotten() throws Exception
+    {
+        StubClient conn = new StubClient();
+        cache.execute(conn, INSERT, values, ConsistencyLevel.ONE);
+
+        // server restarted or evicted statement.
+        conn.prepared.clear();
+        cache.execute(conn, INSERT, values, ConsistencyLevel.ONE);
+        Assert.assertEquals(2, conn.prepares);
+        Assert.assertEquals(3, conn.executes);
+        Assert.assertEquals(1, cache.size());
+
+        cache.execute(conn, INSERT, values, ConsistencyLevel.ONE);
+        Assert.assertEquals(2, conn.prepares);
+    }
+
+    @Test
+    public void testOtherErrorsRethrown() throws Exception
+    {
+        StubClient conn = new StubClient();
+        cache.execute(conn, INSERT, values, ConsistencyLevel.ONE);
+
+        conn.error = "unconfigured columnfamily PERSON";
+        try
+        {
+            cache.execute(conn, INSERT, values, ConsistencyLevel.ONE);
+            Assert.fail("Should have gone to catch block!");
+        }
+        catch (InvalidRequestException irex)
+        {
+            Assert.assertEquals(conn.error, irex.getWhy());
+        }
+        Assert.assertEquals(1, conn.prepares);
+    }
+
+    /**
+     * Connection keeping prepared ids as server does, without connecting to
+     * one.
+     */
+    private static class StubClient extends Cassandra.Client
+    {
+        private final Set<Integer> prepared = new HashSet<Integer>();
+
+        private int prepares;
+
+        private int executes;
+
+        private String error;
+
+        StubClient()
+        {
+            super(new TBinaryProtocol(new TMemoryBuffer(0)));
+        }
+
+        @Override
+        public CqlPreparedResult prepare_cql3_query(ByteBuffer query, Compression compression)
+        {
+            prepares++;
+            CqlPreparedResult result = new CqlPreparedResult();
+            result.setItemId(prepares);
+            prepared.add(prepares);
+            return result;
+        }
+
+        @Override
+        public CqlResult execute_prepared_cql3_query(int itemId, List<ByteBuffer> values,
+                ConsistencyLevel consistency) throws InvalidRequestException
+        {
+            executes++;
+            if (error != null)
+            {
+                throw new InvalidRequestException(error);
+            }
+            if (!prepared.contains(itemId))
+            {
+                throw new InvalidRequestException("Prepared query with ID " + itemId + " not found");
+            }
+            return new CqlResult(CqlResultType.VOID);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.apache.cassandra.dht.ByteOrderedPartitioner;
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.TokenRange;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for {@link CassandraTokenRing}, over a ring described by a stub
+ * client with byte ordered partitioner, so tokens are the row keys.
+ */
+public class CassandraTokenRingTest
+{
+    private CassandraTokenRing ring;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        ring = new CassandraTokenRing();
+        ring.refresh(new RingClient(range("30", "10", "node1", "node2"), range("10", "20", "node2", "node3"),
+                range("20", "30", "node3", "node1")), "KunderaExamples");
+    }
+
+    @Test
+    public void testNotLoaded()
+    {
+        CassandraTokenRing empty = new CassandraTokenRing();
+        Assert.assertFalse(empty.isLoaded());
+        Assert.assertTrue(empty.getReplicas(key(0x05)).isEmpty());
+    }
+
+    @Test
+    public void testGetReplicas()
+    {
+        Assert.assertTrue(ring.isLoaded());
+        Assert.assertEquals(Arrays.asList("node1", "node2"), ring.getReplicas(key(0x05)));
+        Assert.assertEquals(Arrays.asList("node2", "node3"), ring.getReplicas(key(0x15)));
+        Assert.assertEquals(Arrays.asList("node3", "node1"), ring.getReplicas(key(0x25)));
+    }
+
+    @Test
+    public void testEndTokenIsInclusive()
+    {
+        Assert.assertEquals(Arrays.asList("node1", "node2"), ring.getReplicas(key(0x10)));
+        Assert.assertEquals(Arrays.asList("node3", "node1"), ring.getReplicas(key(0x30)));
+    }
+
+    @Test
+    public void testWrapAround()
+    {
+        // past last token, key belongs to range owning the lowest token.
+        Assert.assertEquals(Arrays.asList("node1", "node2"), ring.getReplicas(key(0x40)));
+        Assert.assertEquals(Arrays.asList("node1", "node2"), ring.getReplicas(key(0xff)));
+    }
+
+    @Test
+    public void testRpcEndpoints() throws Exception
+    {
+        TokenRange range = range("30", "10", "10.0.0.1", "10.0.0.2");
+        range.setRpc_endpoints(Arrays.asList("192.168.0.1", "0.0.0.0"));
+        ring.refresh(new RingClient(range), "KunderaExamples");
+
+        // rpc address wins, unless node listens on all interfaces.
+        Assert.assertEquals(Arrays.asList("192.168.0.1", "10.0.0.2"), ring.getReplicas(key(0x05)));
+    }
+
+    private static ByteBuffer key(int b)
+    {
+        return ByteBuffer.wrap(new byte[] { (byte) b });
+    }
+
+    private static TokenRange range(String start, String end, String... endpoints)
+    {
+        return new TokenRange(start, end, new ArrayList<String>(Arrays.asList(endpoints)));
+    }
+
+    /**
+     * Client describing a fixed ring, without any connection.
+     */
+    private static class RingClient extends Cassandra.Client
+    {
+        private final List<TokenRange> ranges;
+
+        RingClient(TokenRange... ranges)
+        {
+            super(null);
+            this.ranges = Arrays.asList(ranges);
+        }
+
+        @Override
+        public String describe_partitioner()
+        {
+            return ByteOrderedPartitioner.class.getName();
+        }
+
+        @Override
+        public List<TokenRange> describe_ring(String keyspace)
+        {
+            return ranges;
+        }
+    }
+}
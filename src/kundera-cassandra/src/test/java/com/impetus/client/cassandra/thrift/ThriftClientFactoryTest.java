@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.cassandra.thrift;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+import net.dataforte.cassandra.pool.ConnectionPool;
+import net.dataforte.cassandra.pool.PoolConfiguration;
+import net.dataforte.cassandra.pool.PoolProperties;
+
+import org.apache.cassandra.dht.ByteOrderedPartitioner;
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.Mutation;
+import org.apache.cassandra.thrift.TokenRange;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.cassandra.service.CassandraTokenRing;
+import com.impetus.client.persistence.CassandraCli;
+
+/**
+ * Test case for grouping of batch mutations by replicas and for closing of
+ * retired pools in {@link ThriftClientFactory}.
+ */
+public class ThriftClientFactoryTest
+{
+    private ThriftClientFactory factory;
+
+    private final List<ConnectionPool> closedPools = new ArrayList<ConnectionPool>();
+
+    @Before
+    public void setUp() throws Exception
+    {
+        factory = new ThriftClientFactory()
+        {
+            @Override
+            void closePool(ConnectionPool pool)
+            {
+                closedPools.add(pool);
+                super.closePool(pool);
+            }
+        };
+    }
+
+    @Test
+    public void testRetiredPoolClosedOnLastRelease() throws Exception
+    {
+        CassandraCli.cassandraSetUp();
+        ConnectionPool pool = newPool();
+        Cassandra.Client first = pool.getConnection();
+        Cassandra.Client second = pool.getConnection();
+
+        factory.retirePool(pool);
+        Assert.assertTrue(closedPools.isEmpty());
+
+        factory.releaseConnection(pool, first);
+        Assert.assertTrue(closedPools.isEmpty());
+
+        factory.releaseConnection(pool, second);
+        Assert.assertEquals(1, closedPools.size());
+        Assert.assertSame(pool, closedPools.get(0));
+    }
+
+    @Test
+    public void testIdleRetiredPoolClosed() throws Exception
+    {
+        CassandraCli.cassandraSetUp();
+        ConnectionPool pool = newPool();
+        factory.releaseConnection(pool, pool.getConnection());
+        Assert.assertTrue(closedPools.isEmpty());
+
+        factory.retirePool(pool);
+        Assert.assertEquals(1, closedPools.size());
+    }
+
+    private ConnectionPool newPool() throws Exception
+    {
+        PoolConfiguration prop = new PoolProperties();
+        prop.setHost("localhost");
+        prop.setPort(9160);
+        prop.setKeySpace("system");
+        prop.setInitialSize(1);
+        return new ConnectionPool(prop);
+    }
+
+    @Test
+    public void testSplitWithoutRing()
+    {
+        Map<ByteBuffer, Map<String, List<Mutation>>> mutationMap = mutations(0x05, 0x15, 0x25);
+        Collection<Map<ByteBuffer, Map<String, List<Mutation>>>> groups = factory.splitByReplicas(mutationMap);
+        Assert.assertEquals(1, groups.size());
+        Assert.assertSame(mutationMap, groups.iterator().next());
+    }
+
+    @Test
+    public void testSplitByReplicas() throws Exception
+    {
+        setTokenRing();
+        Map<ByteBuffer, Map<String, List<Mutation>>> mutationMap = mutations(0x05, 0x15, 0x08, 0x40, 0x18);
+
+        List<Map<ByteBuffer, Map<String, List<Mutation>>>> groups = new ArrayList<Map<ByteBuffer, Map<String, List<Mutation>>>>(
+                factory.splitByReplicas(mutationMap));
+
+        // 0x40 wraps around to first range.
+        Assert.assertEquals(2, groups.size());
+        Assert.assertEquals(3, groups.get(0).size());
+        Assert.assertTrue(groups.get(0).containsKey(key(0x05)));
+        Assert.assertTrue(groups.get(0).containsKey(key(0x08)));
+        Assert.assertTrue(groups.get(0).containsKey(key(0x40)));
+        Assert.assertEquals(2, groups.get(1).size());
+        Assert.assertTrue(groups.get(1).containsKey(key(0x15)));
+        Assert.assertTrue(groups.get(1).containsKey(key(0x18)));
+        Assert.assertSame(mutationMap.get(key(0x15)), groups.get(1).get(key(0x15)));
+    }
+
+    @Test
+    public void testSingleRowNotSplit() throws Exception
+    {
+        setTokenRing();
+        Map<ByteBuffer, Map<String, List<Mutation>>> mutationMap = mutations(0x15);
+        Collection<Map<ByteBuffer, Map<String, List<Mutation>>>> groups = factory.splitByReplicas(mutationMap);
+        Assert.assertEquals(1, groups.size());
+        Assert.assertSame(mutationMap, groups.iterator().next());
+    }
+
+    private void setTokenRing() throws Exception
+    {
+        final List<TokenRange> ranges = Arrays.asList(
+                new TokenRange("20", "10", new ArrayList<String>(Arrays.asList("node1", "node2"))),
+                new TokenRange("10", "20", new ArrayList<String>(Arrays.asList("node2", "node3"))));
+        CassandraTokenRing ring = new CassandraTokenRing();
+        ring.refresh(new Cassandra.Client(null)
+        {
+            @Override
+            public String describe_partitioner()
+            {
+                return ByteOrderedPartitioner.class.getName();
+            }
+
+            @Override
+            public List<TokenRange> describe_ring(String keyspace)
+            {
+                return ranges;
+            }
+        }, "KunderaExamples");
+
+        Field tokenRing = ThriftClientFactory.class.getDeclaredField("tokenRing");
+        tokenRing.setAccessible(true);
+        tokenRing.set(factory, ring);
+    }
+
+    private static Map<ByteBuffer, Map<String, List<Mutation>>> mutations(int... keys)
+    {
+        Map<ByteBuffer, Map<String, List<Mutation>>> mutationMap = new LinkedHashMap<ByteBuffer, Map<String, List<Mutation>>>();
+        for (int k : keys)
+        {
+            Map<String, List<Mutation>> columnFamilies = new HashMap<String, List<Mutation>>();
+            columnFamilies.put("PERSON", new ArrayList<Mutation>());
+            mutationMap.put(key(k), columnFamilies);
+        }
+        return mutationMap;
+    }
+
+    private static ByteBuffer key(int b)
+    {
+        return ByteBuffer.wrap(new byte[] { (byte) b });
+    }
+}
@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.impetus.client.crud.compositeType;
 
+import java.nio.ByteBuffer;
 import java.util.Date;
 import java.util.UUID;
 
@@ -23,6 +24,8 @@ import javax.persistence.Persistence;
 
 import junit.framework.Assert;
 
+import org.apache.cassandra.utils.ByteBufferUtil;
+import org.apache.cassandra.utils.UUIDGen;
 import org.apache.commons.lang.StringUtils;
 import org.junit.After;
 import org.junit.Before;
@@ -99,6 +102,23 @@ public class CQLTranslatorTest
         
     }
 
+    @Test
+    public void testBindValue()
+    {
+        CQLTranslator translator = new CQLTranslator();
+        Assert.assertTrue(CQLTranslator.isBindable(String.class));
+        Assert.assertTrue(CQLTranslator.isBindable(int.class));
+        Assert.assertTrue(CQLTranslator.isBindable(UUID.class));
+        Assert.assertFalse(CQLTranslator.isBindable(java.math.BigDecimal.class));
+
+        Assert.assertEquals(ByteBufferUtil.bytes("mevivs"), translator.bindValue(String.class, "mevivs"));
+        Assert.assertEquals(ByteBufferUtil.bytes(1), translator.bindValue(Integer.class, 1));
+        Assert.assertEquals(ByteBufferUtil.bytes(10l), translator.bindValue(long.class, 10l));
+        UUID timeLineId = UUID.randomUUID();
+        Assert.assertEquals(ByteBuffer.wrap(UUIDGen.decompose(timeLineId)),
+                translator.bindValue(UUID.class, timeLineId));
+    }
+
     @After
     public void tearDown()
     {
@@ -16,9 +16,11 @@
 package com.impetus.kundera.query;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -78,6 +80,42 @@ public class ResultIteratorTest extends BaseTest
         tearDown("KunderaExamples");
     }
 
+    @Test
+    public void testStreamAcrossPages() throws Exception
+    {
+        setUp(SEC_IDX_CASSANDRA_TEST, "KunderaExamples", CassandraConstants.CQL_VERSION_3_0);
+        for (int i = 1; i <= 5; i++)
+        {
+            em.persist(prepareData(String.valueOf(i), 10 + i));
+        }
+        em.flush();
+        em.clear();
+
+        // 5 rows over pages of 2, last page is partial.
+        javax.persistence.Query jpaQuery = em.createQuery("Select p from PersonCassandra p", PersonCassandra.class);
+        jpaQuery.setHint(CassandraConstants.CQL_PAGE_SIZE, "2");
+        Query query = (Query) jpaQuery;
+        Set<String> ids = new HashSet<String>();
+        Iterator<PersonCassandra> iter = query.iterate();
+        while (iter.hasNext())
+        {
+            Assert.assertTrue(ids.add(iter.next().getPersonId()));
+        }
+        Assert.assertEquals(5, ids.size());
+
+        // fetch size stops streaming in the middle of a page.
+        query.setFetchSize(3);
+        ids.clear();
+        iter = query.iterate();
+        while (iter.hasNext())
+        {
+            Assert.assertTrue(ids.add(iter.next().getPersonId()));
+        }
+        Assert.assertEquals(3, ids.size());
+
+        tearDown("KunderaExamples");
+    }
+
     @Test
     public void testScrollViaCQL2() throws Exception
     {
@@ -45,6 +45,32 @@ public interface PersistenceProperties
     /** The Constant KUNDERA_CACHE_CONFIG_RESOURCE. */
     public static final String KUNDERA_CACHE_CONFIG_RESOURCE = "kundera.cache.config.resource";
 
+    /**
+     * Maximum total weight of entries held by TinyLfuCacheProvider, each
+     * entity weighs 1 unless configured otherwise. Default is 10000.
+     */
+    public static final String KUNDERA_CACHE_MAX_SIZE = "kundera.cache.max.size";
+
+    /**
+     * Time to live(in seconds) of entries held by TinyLfuCacheProvider, 0
+     * means entries never expire. Suffix with ".&lt;entity class name&gt;" to
+     * override for an entity.
+     */
+    public static final String KUNDERA_CACHE_TTL = "kundera.cache.ttl";
+
+    /**
+     * Weight of an entity held by TinyLfuCacheProvider, suffixed with
+     * ".&lt;entity class name&gt;". Default is 1.
+     */
+    public static final String KUNDERA_CACHE_WEIGHT = "kundera.cache.weight";
+
+    /**
+     * How entities are snapshotted on entering persistence context, "copy"
+     * (default) keeps a deep copy of entity, "fields" keeps entity itself
+     * along with a snapshot of its field values for dirty checking.
+     */
+    public static final String KUNDERA_PERSISTENCE_CONTEXT_SNAPSHOT = "kundera.persistence.context.snapshot";
+
     /** The Constant KUNDERA_FETCH_MAX_DEPTH. */
     public static final String KUNDERA_FETCH_MAX_DEPTH = "kundera.fetch.max.depth";
 
@@ -90,4 +116,47 @@ public interface PersistenceProperties
     public static final String KUNDERA_TRANSACTION_RESOURCE = "kundera.transaction.resource.class";
 
     public static final String KUNDERA_INDEXER_CLASS = "kundera.indexer.class";
+
+    /**
+     * Interval(in milliseconds) to refresh near-real-time lucene searcher, by
+     * default searcher is refreshed on search if index has been modified.
+     */
+    public static final String KUNDERA_INDEXER_REFRESH_INTERVAL = "kundera.indexer.refresh.interval";
+
+    /**
+     * Interval(in milliseconds) between background commits of lucene indexes
+     * onto file system, 0 means commit on close only.
+     */
+    public static final String KUNDERA_INDEXER_COMMIT_INTERVAL = "kundera.indexer.commit.interval";
+
+    /**
+     * Lucene index directory implementation, one of "mmap"(default), "nio" or
+     * "ram".
+     */
+    public static final String KUNDERA_INDEXER_DIRECTORY = "kundera.indexer.directory";
+
+    /**
+     * Number of lucene index shards, entity classes are hashed onto shards.
+     * Default is 1.
+     */
+    public static final String KUNDERA_INDEXER_SHARDS = "kundera.indexer.shards";
+
+    /**
+     * Maximum number of parsed JPQL queries cached per entity manager factory,
+     * 0 disables caching. Default is 1000.
+     */
+    public static final String KUNDERA_QUERY_PLAN_CACHE_SIZE = "kundera.query.plan.cache.size";
+
+    /**
+     * Number of threads flushing datastores of a polyglot persistence unit
+     * concurrently, per entity manager factory. Default is 0, datastores are
+     * flushed one after another on caller thread.
+     */
+    public static final String KUNDERA_FLUSH_THREADS = "kundera.flush.threads";
+
+    /**
+     * Whether next block of generated ids is reserved in background, once half
+     * of current one is handed out. Default is false.
+     */
+    public static final String KUNDERA_ID_PREFETCH = "kundera.id.prefetch";
 }
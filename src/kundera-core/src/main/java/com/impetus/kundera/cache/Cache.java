@@ -50,4 +50,11 @@ public interface Cache extends javax.persistence.Cache
      */
     void put(Object key, Object value);
 
+    /**
+     * Returns hit, miss, put and eviction counters of this cache.
+     * 
+     * @return the cache statistics
+     */
+    CacheStatistics getStatistics();
+
 }
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit, miss, put and eviction counters of a {@link Cache}. Counters are
+ * updated lock free and can be read at any time.
+ */
+public class CacheStatistics
+{
+
+    /** The hit count. */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /** The miss count. */
+    private final AtomicLong missCount = new AtomicLong();
+
+    /** The put count. */
+    private final AtomicLong putCount = new AtomicLong();
+
+    /** The eviction count. */
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * Records a cache hit.
+     */
+    public void recordHit()
+    {
+        hitCount.incrementAndGet();
+    }
+
+    /**
+     * Records a cache miss.
+     */
+    public void recordMiss()
+    {
+        missCount.incrementAndGet();
+    }
+
+    /**
+     * Records a put into cache.
+     */
+    public void recordPut()
+    {
+        putCount.incrementAndGet();
+    }
+
+    /**
+     * Records eviction of given number of entries.
+     * 
+     * @param count
+     *            number of evicted entries.
+     */
+    public void recordEviction(long count)
+    {
+        evictionCount.addAndGet(count);
+    }
+
+    /**
+     * @return the hit count
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the miss count
+     */
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    /**
+     * @return the put count
+     */
+    public long getPutCount()
+    {
+        return putCount.get();
+    }
+
+    /**
+     * @return the eviction count
+     */
+    public long getEvictionCount()
+    {
+        return evictionCount.get();
+    }
+
+    /**
+     * Returns ratio of hits to total lookups, 0 if there has been no lookup.
+     * 
+     * @return the hit ratio
+     */
+    public double getHitRatio()
+    {
+        long hits = getHitCount();
+        long lookups = hits + getMissCount();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Resets all counters.
+     */
+    public void clear()
+    {
+        hitCount.set(0);
+        missCount.set(0);
+        putCount.set(0);
+        evictionCount.set(0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CacheStatistics [hits=" + getHitCount() + ", misses=" + getMissCount() + ", puts=" + getPutCount()
+                + ", evictions=" + getEvictionCount() + "]";
+    }
+}
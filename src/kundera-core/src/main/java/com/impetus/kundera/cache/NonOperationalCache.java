@@ -24,6 +24,9 @@ package com.impetus.kundera.cache;
 public class NonOperationalCache implements Cache, javax.persistence.Cache
 {
 
+    /** The statistics, every lookup is a miss. */
+    private final CacheStatistics statistics = new CacheStatistics();
+
     /* @see com.impetus.kundera.cache.Cache#size() */
     /*
      * (non-Javadoc)
@@ -60,6 +63,7 @@ public class NonOperationalCache implements Cache, javax.persistence.Cache
     @Override
     public Object get(final Object key)
     {
+        statistics.recordMiss();
         return null;
     }
 
@@ -104,4 +108,15 @@ public class NonOperationalCache implements Cache, javax.persistence.Cache
     {
     }
 
-}
\ No newline at end of file
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.Cache#getStatistics()
+     */
+    @Override
+    public CacheStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+}
@@ -20,6 +20,7 @@ import net.sf.ehcache.Element;
 import org.apache.commons.lang.NotImplementedException;
 
 import com.impetus.kundera.cache.Cache;
+import com.impetus.kundera.cache.CacheStatistics;
 
 /**
  * Cache implementation using Ehcache.
@@ -32,6 +33,9 @@ public class EhCacheWrapper implements Cache
     /** The ehcache. */
     private net.sf.ehcache.Cache ehcache;
 
+    /** The statistics. */
+    private final CacheStatistics statistics = new CacheStatistics();
+
     /**
      * Instantiates a new eh cache wrapper.
      * 
@@ -53,7 +57,13 @@ public class EhCacheWrapper implements Cache
     public Object get(Object key)
     {
         Element element = ehcache.get(key);
-        return element == null ? null : element.getObjectValue();
+        if (element == null)
+        {
+            statistics.recordMiss();
+            return null;
+        }
+        statistics.recordHit();
+        return element.getObjectValue();
     }
 
     /*
@@ -70,6 +80,7 @@ public class EhCacheWrapper implements Cache
     public void put(Object key, Object value)
     {
         ehcache.put(new Element(key, value));
+        statistics.recordPut();
     }
 
     /* @see com.impetus.kundera.cache.Cache#size() */
@@ -116,7 +127,10 @@ public class EhCacheWrapper implements Cache
     public void evict(Class arg0, Object arg1)
     {
         // TODO Can we use Class with ehcache
-        ehcache.remove(arg1);
+        if (ehcache.remove(arg1))
+        {
+            statistics.recordEviction(1);
+        }
     }
 
     /*
@@ -127,7 +141,19 @@ public class EhCacheWrapper implements Cache
     @Override
     public void evictAll()
     {
+        statistics.recordEviction(ehcache.getSize());
         ehcache.removeAll();
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.Cache#getStatistics()
+     */
+    @Override
+    public CacheStatistics getStatistics()
+    {
+        return statistics;
+    }
+
 }
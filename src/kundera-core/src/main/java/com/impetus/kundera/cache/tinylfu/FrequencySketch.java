@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.cache.tinylfu;
+
+/**
+ * Count-min sketch estimating access frequency of keys, with 4 bit counters
+ * packed 16 to a long. Counters are halved once the number of increments
+ * reaches ten times the capacity, so that old popularity fades away. Not
+ * thread safe, callers must synchronize.
+ */
+final class FrequencySketch
+{
+    /** Seeds of the four hash functions. */
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L };
+
+    /** Mask clearing the high bit of each counter after a shift. */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    /** Mask selecting the low bit of each counter. */
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    /** The counters. */
+    private final long[] table;
+
+    /** The table mask. */
+    private final int tableMask;
+
+    /** Number of increments after which counters are halved. */
+    private final int sampleSize;
+
+    /** Number of increments since last reset. */
+    private int size;
+
+    /**
+     * Instantiates a new frequency sketch.
+     * 
+     * @param maximumSize
+     *            expected maximum number of cached entries.
+     */
+    FrequencySketch(long maximumSize)
+    {
+        int maximum = (int) Math.max(1, Math.min(maximumSize, Integer.MAX_VALUE >>> 4));
+        this.table = new long[ceilingPowerOfTwo(maximum)];
+        this.tableMask = table.length - 1;
+        this.sampleSize = 10 * maximum;
+    }
+
+    /**
+     * Returns estimated number of occurrences of given key, at most 15.
+     * 
+     * @param key
+     *            the key
+     * @return the estimated frequency
+     */
+    int frequency(Object key)
+    {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++)
+        {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments estimated frequency of given key, unless already at maximum.
+     * 
+     * @param key
+     *            the key
+     */
+    void increment(Object key)
+    {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++)
+        {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize)
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Increments j-th counter at i-th index, unless already at maximum.
+     */
+    private boolean incrementAt(int i, int j)
+    {
+        int offset = j << 2;
+        long mask = 0xfL << offset;
+        if ((table[i] & mask) != mask)
+        {
+            table[i] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Halves all counters.
+     */
+    private void reset()
+    {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++)
+        {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size - (odd >>> 2)) >>> 1;
+    }
+
+    /**
+     * Returns table index for i-th hash function.
+     */
+    private int indexOf(int item, int i)
+    {
+        long hash = (item + SEEDS[i]) * SEEDS[i];
+        hash += hash >>> 32;
+        return ((int) hash) & tableMask;
+    }
+
+    /**
+     * Spreads poor quality hash codes.
+     */
+    private static int spread(int x)
+    {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    /**
+     * Returns smallest power of two greater than or equal to x.
+     */
+    private static int ceilingPowerOfTwo(int x)
+    {
+        return x <= 1 ? 1 : Integer.highestOneBit(x - 1) << 1;
+    }
+}
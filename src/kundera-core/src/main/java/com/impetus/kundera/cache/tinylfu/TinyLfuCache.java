@@ -0,0 +1,611 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.cache.tinylfu;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.impetus.kundera.cache.Cache;
+import com.impetus.kundera.cache.CacheStatistics;
+
+/**
+ * Bounded in-process cache using W-TinyLFU admission and eviction.
+ * <p>
+ * Entries live in a {@link ConcurrentHashMap}, so reads never block. New
+ * entries enter a small LRU window, entries evicted from the window compete
+ * with the least recently used entry of the main space and are admitted only
+ * if they have been accessed more often, as estimated by a
+ * {@link FrequencySketch}. The main space is a segmented LRU, whose protected
+ * segment holds entries accessed more than once.
+ * <p>
+ * Reads are recorded in a lossy ring buffer and replayed onto the LRU queues
+ * under a lock, which writes take as well. Each entry has a weight and a
+ * time to live resolved from the class of its value.
+ */
+public class TinyLfuCache implements Cache
+{
+    /** Share of maximum weight given to admission window. */
+    private static final double WINDOW_PERCENT = 0.01;
+
+    /** Share of main space weight given to protected segment. */
+    private static final double PROTECTED_PERCENT = 0.8;
+
+    /** Size of read buffer, must be a power of two. */
+    private static final int READ_BUFFER_SIZE = 128;
+
+    /** Number of buffered reads after which buffer is drained. */
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = 32;
+
+    /** The data. */
+    private final ConcurrentMap<Object, Node> data = new ConcurrentHashMap<Object, Node>();
+
+    /** Guards queues and frequency sketch. */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /** The admission window. */
+    private final AccessOrderQueue window = new AccessOrderQueue();
+
+    /** Main space entries accessed once. */
+    private final AccessOrderQueue probation = new AccessOrderQueue();
+
+    /** Main space entries accessed more than once. */
+    private final AccessOrderQueue protectedQueue = new AccessOrderQueue();
+
+    /** The frequency sketch. */
+    private final FrequencySketch sketch;
+
+    /** Recent reads, to be replayed onto queues. */
+    private final AtomicReferenceArray<Node> readBuffer = new AtomicReferenceArray<Node>(READ_BUFFER_SIZE);
+
+    /** Number of reads recorded into read buffer. */
+    private final AtomicLong readCount = new AtomicLong();
+
+    /** Maximum total weight. */
+    private final long maximumWeight;
+
+    /** Maximum weight of admission window. */
+    private final long windowMaximum;
+
+    /** Maximum weight of protected segment. */
+    private final long protectedMaximum;
+
+    /** Total weight of cached entries, guarded by eviction lock. */
+    private long weightedSize;
+
+    /** Default time to live in nanoseconds, 0 means never expire. */
+    private final long defaultTtlNanos;
+
+    /** Time to live in seconds, keyed by entity class name. */
+    private final Map<String, Long> ttls;
+
+    /** Weights keyed by entity class name. */
+    private final Map<String, Integer> weights;
+
+    /** Resolved time to live and weight, keyed by entity class. */
+    private final ConcurrentMap<Class<?>, long[]> policies = new ConcurrentHashMap<Class<?>, long[]>();
+
+    /** The statistics. */
+    private final CacheStatistics statistics = new CacheStatistics();
+
+    /**
+     * Instantiates a new tiny lfu cache.
+     * 
+     * @param maximumWeight
+     *            maximum total weight of entries.
+     * @param defaultTtl
+     *            default time to live in seconds, 0 means never expire.
+     * @param ttls
+     *            time to live in seconds, keyed by entity class name.
+     * @param weights
+     *            weights, keyed by entity class name.
+     */
+    public TinyLfuCache(long maximumWeight, long defaultTtl, Map<String, Long> ttls, Map<String, Integer> weights)
+    {
+        if (maximumWeight <= 0)
+        {
+            throw new IllegalArgumentException("Maximum cache weight must be positive, but was " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_PERCENT));
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * PROTECTED_PERCENT);
+        this.sketch = new FrequencySketch(maximumWeight);
+        this.defaultTtlNanos = TimeUnit.SECONDS.toNanos(defaultTtl);
+        this.ttls = ttls != null ? ttls : Collections.<String, Long> emptyMap();
+        this.weights = weights != null ? weights : Collections.<String, Integer> emptyMap();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.Cache#size()
+     */
+    @Override
+    public int size()
+    {
+        return data.size();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.Cache#get(java.lang.Object)
+     */
+    @Override
+    public Object get(Object key)
+    {
+        Node node = data.get(key);
+        if (node == null)
+        {
+            statistics.recordMiss();
+            return null;
+        }
+        if (node.isExpired(System.nanoTime()))
+        {
+            statistics.recordMiss();
+            if (remove(node))
+            {
+                statistics.recordEviction(1);
+            }
+            return null;
+        }
+        statistics.recordHit();
+        afterRead(node);
+        return node.value;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.Cache#put(java.lang.Object,
+     * java.lang.Object)
+     */
+    @Override
+    public void put(Object key, Object value)
+    {
+        long[] policy = getPolicy(value.getClass());
+        long expiresAt = policy[0] > 0 ? System.nanoTime() + policy[0] : 0;
+        Node node = new Node(key, value, (int) policy[1], expiresAt);
+
+        evictionLock.lock();
+        try
+        {
+            drainReadBuffer();
+            Node prior = data.put(key, node);
+            if (prior != null)
+            {
+                unlink(prior);
+            }
+            sketch.increment(key);
+            window.addLast(node, Node.WINDOW);
+            weightedSize += node.weight;
+            evictEntries();
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+        statistics.recordPut();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.persistence.Cache#contains(java.lang.Class, java.lang.Object)
+     */
+    @Override
+    public boolean contains(Class arg0, Object arg1)
+    {
+        Node node = data.get(arg1);
+        return node != null && !node.isExpired(System.nanoTime());
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.persistence.Cache#evict(java.lang.Class, java.lang.Object)
+     */
+    @Override
+    public void evict(Class arg0, Object arg1)
+    {
+        Node node = data.get(arg1);
+        if (node != null && remove(node))
+        {
+            statistics.recordEviction(1);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.persistence.Cache#evict(java.lang.Class)
+     */
+    @Override
+    public void evict(Class arg0)
+    {
+        for (Node node : data.values())
+        {
+            if (arg0.isInstance(node.value) && remove(node))
+            {
+                statistics.recordEviction(1);
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see javax.persistence.Cache#evictAll()
+     */
+    @Override
+    public void evictAll()
+    {
+        evictionLock.lock();
+        try
+        {
+            statistics.recordEviction(data.size());
+            for (Iterator<Node> iter = data.values().iterator(); iter.hasNext();)
+            {
+                unlink(iter.next());
+                iter.remove();
+            }
+            for (int i = 0; i < READ_BUFFER_SIZE; i++)
+            {
+                readBuffer.set(i, null);
+            }
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.Cache#getStatistics()
+     */
+    @Override
+    public CacheStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+    /**
+     * Returns total weight of cached entries.
+     * 
+     * @return the weighted size
+     */
+    public long weightedSize()
+    {
+        evictionLock.lock();
+        try
+        {
+            return weightedSize;
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns time to live(in nanoseconds) and weight of given entity class.
+     */
+    private long[] getPolicy(Class<?> clazz)
+    {
+        long[] policy = policies.get(clazz);
+        if (policy == null)
+        {
+            Long ttl = ttls.get(clazz.getName());
+            Integer weight = weights.get(clazz.getName());
+            policy = new long[] { ttl != null ? TimeUnit.SECONDS.toNanos(ttl) : defaultTtlNanos,
+                    weight != null ? weight : 1 };
+            policies.putIfAbsent(clazz, policy);
+        }
+        return policy;
+    }
+
+    /**
+     * Records read of given node, draining read buffer once enough reads have
+     * been recorded and no other thread holds the lock.
+     */
+    private void afterRead(Node node)
+    {
+        long count = readCount.getAndIncrement();
+        readBuffer.lazySet((int) (count & (READ_BUFFER_SIZE - 1)), node);
+        if ((count & (READ_BUFFER_DRAIN_THRESHOLD - 1)) == 0 && evictionLock.tryLock())
+        {
+            try
+            {
+                drainReadBuffer();
+            }
+            finally
+            {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Replays buffered reads onto queues. Caller must hold eviction lock.
+     */
+    private void drainReadBuffer()
+    {
+        for (int i = 0; i < READ_BUFFER_SIZE; i++)
+        {
+            Node node = readBuffer.getAndSet(i, null);
+            if (node != null)
+            {
+                onAccess(node);
+            }
+        }
+    }
+
+    /**
+     * Moves accessed node towards most recently used end, promoting it from
+     * probation to protected segment. Caller must hold eviction lock.
+     */
+    private void onAccess(Node node)
+    {
+        sketch.increment(node.key);
+        switch (node.queue)
+        {
+        case Node.WINDOW:
+            window.moveToLast(node);
+            break;
+        case Node.PROBATION:
+            probation.remove(node);
+            protectedQueue.addLast(node, Node.PROTECTED);
+            while (protectedQueue.weight > protectedMaximum)
+            {
+                Node demoted = protectedQueue.first();
+                protectedQueue.remove(demoted);
+                probation.addLast(demoted, Node.PROBATION);
+            }
+            break;
+        case Node.PROTECTED:
+            protectedQueue.moveToLast(node);
+            break;
+        default:
+            // already removed.
+        }
+    }
+
+    /**
+     * Moves entries overflowing admission window onto probation, then evicts
+     * until total weight is within bounds. A candidate coming from window
+     * replaces probation's least recently used entry only if it is estimated
+     * to be accessed more often. Caller must hold eviction lock.
+     */
+    private void evictEntries()
+    {
+        int candidates = 0;
+        while (window.weight > windowMaximum)
+        {
+            Node node = window.first();
+            window.remove(node);
+            probation.addLast(node, Node.PROBATION);
+            candidates++;
+        }
+
+        while (weightedSize > maximumWeight)
+        {
+            Node victim = probation.first();
+            if (victim == null)
+            {
+                victim = protectedQueue.first() != null ? protectedQueue.first() : window.first();
+            }
+            Node candidate = candidates > 0 ? probation.last() : null;
+
+            if (candidate == null || candidate == victim)
+            {
+                if (candidate != null)
+                {
+                    candidates--;
+                }
+                evictEntry(victim);
+            }
+            else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key))
+            {
+                evictEntry(victim);
+            }
+            else
+            {
+                candidates--;
+                evictEntry(candidate);
+            }
+        }
+    }
+
+    /**
+     * Evicts given node to make room. Caller must hold eviction lock.
+     */
+    private void evictEntry(Node node)
+    {
+        data.remove(node.key, node);
+        unlink(node);
+        statistics.recordEviction(1);
+    }
+
+    /**
+     * Removes given node, if still mapped.
+     * 
+     * @return true, if removed by this call.
+     */
+    private boolean remove(Node node)
+    {
+        if (data.remove(node.key, node))
+        {
+            evictionLock.lock();
+            try
+            {
+                unlink(node);
+            }
+            finally
+            {
+                evictionLock.unlock();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Unlinks node from its queue. Caller must hold eviction lock.
+     */
+    private void unlink(Node node)
+    {
+        switch (node.queue)
+        {
+        case Node.WINDOW:
+            window.remove(node);
+            break;
+        case Node.PROBATION:
+            probation.remove(node);
+            break;
+        case Node.PROTECTED:
+            protectedQueue.remove(node);
+            break;
+        default:
+            return;
+        }
+        weightedSize -= node.weight;
+        node.queue = Node.REMOVED;
+    }
+
+    /**
+     * Cache entry, linked into one of the access order queues.
+     */
+    private static final class Node
+    {
+        static final int REMOVED = 0;
+
+        static final int WINDOW = 1;
+
+        static final int PROBATION = 2;
+
+        static final int PROTECTED = 3;
+
+        final Object key;
+
+        final Object value;
+
+        final int weight;
+
+        /** Expiry time in nanoseconds, 0 means never. */
+        final long expiresAt;
+
+        /** Queue holding this node, guarded by eviction lock. */
+        int queue = REMOVED;
+
+        Node prev;
+
+        Node next;
+
+        Node(Object key, Object value, int weight, long expiresAt)
+        {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now)
+        {
+            return expiresAt != 0 && now - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * Doubly linked list of nodes from least to most recently used, tracking
+     * total weight of its nodes. Not thread safe.
+     */
+    private static final class AccessOrderQueue
+    {
+        Node head;
+
+        Node tail;
+
+        long weight;
+
+        Node first()
+        {
+            return head;
+        }
+
+        Node last()
+        {
+            return tail;
+        }
+
+        void addLast(Node node, int queue)
+        {
+            node.queue = queue;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null)
+            {
+                head = node;
+            }
+            else
+            {
+                tail.next = node;
+            }
+            tail = node;
+            weight += node.weight;
+        }
+
+        void remove(Node node)
+        {
+            if (node.prev == null)
+            {
+                head = node.next;
+            }
+            else
+            {
+                node.prev.next = node.next;
+            }
+            if (node.next == null)
+            {
+                tail = node.prev;
+            }
+            else
+            {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void moveToLast(Node node)
+        {
+            if (node != tail)
+            {
+                int queue = node.queue;
+                remove(node);
+                addLast(node, queue);
+            }
+        }
+    }
+}
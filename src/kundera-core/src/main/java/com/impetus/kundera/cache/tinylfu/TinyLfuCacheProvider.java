@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.cache.tinylfu;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.persistence.Cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.PersistenceProperties;
+import com.impetus.kundera.cache.CacheException;
+import com.impetus.kundera.cache.CacheProvider;
+
+/**
+ * Cache provider for in-process {@link TinyLfuCache}s, needing no third
+ * party library. Configured either through persistence unit properties or a
+ * properties file named by "kundera.cache.config.resource", using keys:
+ * <ul>
+ * <li>kundera.cache.max.size: maximum total weight, default 10000.</li>
+ * <li>kundera.cache.ttl: time to live in seconds, default 0(never expire).</li>
+ * <li>kundera.cache.ttl.&lt;entity class name&gt;: time to live of an entity.</li>
+ * <li>kundera.cache.weight.&lt;entity class name&gt;: weight of an entity,
+ * default 1.</li>
+ * </ul>
+ */
+public class TinyLfuCacheProvider implements CacheProvider
+{
+
+    /** The Constant log. */
+    private static final Logger log = LoggerFactory.getLogger(TinyLfuCacheProvider.class);
+
+    /** Default maximum total weight. */
+    private static final long DEFAULT_MAX_SIZE = 10000;
+
+    /** The caches. */
+    private final ConcurrentMap<String, TinyLfuCache> caches = new ConcurrentHashMap<String, TinyLfuCache>();
+
+    /** The max size. */
+    private long maxSize = DEFAULT_MAX_SIZE;
+
+    /** The default ttl. */
+    private long defaultTtl;
+
+    /** Time to live in seconds, keyed by entity class name. */
+    private final Map<String, Long> ttls = new HashMap<String, Long>();
+
+    /** Weights keyed by entity class name. */
+    private final Map<String, Integer> weights = new HashMap<String, Integer>();
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.CacheProvider#init(java.util.Map)
+     */
+    @Override
+    public void init(Map<?, ?> properties)
+    {
+        if (properties != null)
+        {
+            configure(properties);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.CacheProvider#init(java.lang.String)
+     */
+    @Override
+    public void init(String cacheResourceName)
+    {
+        if (cacheResourceName == null || cacheResourceName.length() == 0)
+        {
+            return;
+        }
+        InputStream inStream = Thread.currentThread().getContextClassLoader()
+                .getResourceAsStream(cacheResourceName.startsWith("/") ? cacheResourceName.substring(1)
+                        : cacheResourceName);
+        if (inStream == null)
+        {
+            log.warn("Cache configuration resource " + cacheResourceName
+                    + " could not be loaded from the classpath, using defaults.");
+            return;
+        }
+        try
+        {
+            Properties properties = new Properties();
+            properties.load(inStream);
+            configure(properties);
+        }
+        catch (IOException e)
+        {
+            throw new CacheException("Could not load cache configuration resource " + cacheResourceName, e);
+        }
+        finally
+        {
+            try
+            {
+                inStream.close();
+            }
+            catch (IOException e)
+            {
+                log.warn("Error while closing cache configuration resource " + cacheResourceName, e);
+            }
+        }
+    }
+
+    /**
+     * Reads size, time to live and weight settings from given properties.
+     * 
+     * @param properties
+     *            the properties
+     */
+    private void configure(Map<?, ?> properties)
+    {
+        String ttlPrefix = PersistenceProperties.KUNDERA_CACHE_TTL + ".";
+        String weightPrefix = PersistenceProperties.KUNDERA_CACHE_WEIGHT + ".";
+        for (Map.Entry<?, ?> entry : properties.entrySet())
+        {
+            if (!(entry.getKey() instanceof String) || entry.getValue() == null)
+            {
+                continue;
+            }
+            String key = (String) entry.getKey();
+            String value = entry.getValue().toString().trim();
+            try
+            {
+                if (PersistenceProperties.KUNDERA_CACHE_MAX_SIZE.equals(key))
+                {
+                    maxSize = Long.parseLong(value);
+                }
+                else if (PersistenceProperties.KUNDERA_CACHE_TTL.equals(key))
+                {
+                    defaultTtl = Long.parseLong(value);
+                }
+                else if (key.startsWith(ttlPrefix))
+                {
+                    ttls.put(key.substring(ttlPrefix.length()), Long.parseLong(value));
+                }
+                else if (key.startsWith(weightPrefix))
+                {
+                    weights.put(key.substring(weightPrefix.length()), Integer.parseInt(value));
+                }
+            }
+            catch (NumberFormatException e)
+            {
+                throw new CacheException("Invalid value {" + value + "} for cache property " + key, e);
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.kundera.cache.CacheProvider#createCache(java.lang.String)
+     */
+    @Override
+    public Cache createCache(String name)
+    {
+        TinyLfuCache cache = caches.get(name);
+        if (cache == null)
+        {
+            cache = new TinyLfuCache(maxSize, defaultTtl, ttls, weights);
+            TinyLfuCache existing = caches.putIfAbsent(name, cache);
+            if (existing != null)
+            {
+                cache = existing;
+            }
+        }
+        return cache;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.CacheProvider#getCache(java.lang.String)
+     */
+    @Override
+    public Cache getCache(String name)
+    {
+        return createCache(name);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.cache.CacheProvider#shutdown()
+     */
+    @Override
+    public void shutdown()
+    {
+        for (TinyLfuCache cache : caches.values())
+        {
+            cache.evictAll();
+        }
+        caches.clear();
+    }
+
+}
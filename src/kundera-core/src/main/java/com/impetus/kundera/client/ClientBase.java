@@ -19,6 +19,7 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.impetus.kundera.db.RelationHolder;
 import com.impetus.kundera.graph.Node;
@@ -32,6 +33,7 @@ import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.Relation;
 import com.impetus.kundera.metadata.model.Relation.ForeignKey;
 import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.utils.EntitySnapshot;
 
 /**
  * Base class for all Client implementations providing common utility methods to
@@ -50,6 +52,12 @@ public abstract class ClientBase
     protected String persistenceUnit;
 
     protected boolean isUpdate;
+
+    /** Columns modified by update being persisted, null to write all. */
+    protected Set<String> dirtyColumns;
+
+    /** State as of last flush of entity being updated, null if not known. */
+    protected EntitySnapshot flushedState;
     
     protected ClientMetadata clientMetadata;
 
@@ -84,6 +92,8 @@ public abstract class ClientBase
         Object id = node.getEntityId();
         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
         isUpdate = node.isUpdate();
+        dirtyColumns = isUpdate ? node.getDirtyColumns() : null;
+        flushedState = isUpdate ? node.getFlushedState() : null;
         List<RelationHolder> relationHolders = getRelationHolders(node);
         /* id = */onPersist(metadata, entity, id, relationHolders);
         id = PropertyAccessorHelper.getId(entity, metadata);
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.generator;
+
+/**
+ * Block of consecutive ids reserved in a datastore, from first(inclusive) to
+ * end(exclusive).
+ */
+public final class IdBlock
+{
+    private final long first;
+
+    private final long end;
+
+    /**
+     * @param first
+     *            first id of block.
+     * @param end
+     *            id following last id of block.
+     */
+    public IdBlock(long first, long end)
+    {
+        if (end <= first)
+        {
+            throw new IllegalArgumentException("Invalid id block [" + first + ", " + end + ")");
+        }
+        this.first = first;
+        this.end = end;
+    }
+
+    /**
+     * Returns n-th block of ids of a generator, counting from 1. Blocks hold
+     * allocation size ids each, the first one starting at initial value.
+     * 
+     * @param n
+     *            the block number
+     * @param initialValue
+     *            the initial value of generator
+     * @param allocationSize
+     *            the allocation size of generator
+     * @return the block
+     */
+    public static IdBlock of(long n, int initialValue, int allocationSize)
+    {
+        long size = Math.max(allocationSize, 1);
+        long first = initialValue + (n - 1) * size;
+        return new IdBlock(first, first + size);
+    }
+
+    /**
+     * @return the first id
+     */
+    public long getFirst()
+    {
+        return first;
+    }
+
+    /**
+     * @return the id following last id
+     */
+    public long getEnd()
+    {
+        return end;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + first + ", " + end + ")";
+    }
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.generator;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.KunderaException;
+import com.impetus.kundera.utils.KunderaThreadFactory;
+
+/**
+ * Hi/lo allocator of generated ids. Reserves a block of allocation size ids
+ * per round trip to datastore and hands them out from an {@link AtomicLong},
+ * so that concurrent callers only synchronize once a block runs out.
+ * Allocators are held by client factories, hence shared by all entity
+ * managers of a factory.
+ * 
+ * When prefetch is on, next block is reserved in background once half of
+ * current one is handed out.
+ */
+public class IdBlockAllocator
+{
+    /** The log. */
+    private static Logger log = LoggerFactory.getLogger(IdBlockAllocator.class);
+
+    /** Reserves prefetched blocks, shared by all allocators. */
+    private static ExecutorService prefetcher;
+
+    private final IdBlockSource source;
+
+    private final boolean prefetch;
+
+    /** Ids being handed out. */
+    private volatile Range current;
+
+    /** Next block, being reserved in background. */
+    private Future<IdBlock> next;
+
+    /**
+     * @param source
+     *            source of id blocks.
+     * @param prefetch
+     *            whether to reserve next block in background.
+     */
+    public IdBlockAllocator(IdBlockSource source, boolean prefetch)
+    {
+        this.source = source;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Returns next id, reserving a new block if current one has run out.
+     * 
+     * @return the id
+     */
+    public long next()
+    {
+        while (true)
+        {
+            Range range = current;
+            if (range != null)
+            {
+                long id = range.next.getAndIncrement();
+                if (id < range.end)
+                {
+                    if (prefetch && id == range.prefetchAt)
+                    {
+                        prefetch();
+                    }
+                    return id;
+                }
+            }
+            onExhausted(range);
+        }
+    }
+
+    /**
+     * Replaces exhausted range, unless another caller did meanwhile.
+     */
+    private synchronized void onExhausted(Range exhausted)
+    {
+        if (current == exhausted)
+        {
+            current = new Range(reserve());
+        }
+    }
+
+    /**
+     * Returns prefetched block if any, otherwise reserves one.
+     */
+    private IdBlock reserve()
+    {
+        Future<IdBlock> prefetched = next;
+        next = null;
+        if (prefetched != null)
+        {
+            try
+            {
+                return prefetched.get();
+            }
+            catch (ExecutionException eex)
+            {
+                log.warn("Error while prefetching ids, reserving them again, Caused by: .", eex.getCause());
+            }
+            catch (InterruptedException iex)
+            {
+                Thread.currentThread().interrupt();
+                throw new KunderaException(iex);
+            }
+        }
+        return source.reserve();
+    }
+
+    private synchronized void prefetch()
+    {
+        if (next == null)
+        {
+            next = getPrefetcher().submit(new Callable<IdBlock>()
+            {
+                @Override
+                public IdBlock call()
+                {
+                    return source.reserve();
+                }
+            });
+        }
+    }
+
+    private static synchronized ExecutorService getPrefetcher()
+    {
+        if (prefetcher == null)
+        {
+            // daemon threads, released once idle.
+            prefetcher = Executors.newCachedThreadPool(new KunderaThreadFactory(IdBlockAllocator.class.getName()));
+        }
+        return prefetcher;
+    }
+
+    /**
+     * Ids of a block being handed out.
+     */
+    private static final class Range
+    {
+        private final AtomicLong next;
+
+        private final long end;
+
+        private final long prefetchAt;
+
+        Range(IdBlock block)
+        {
+            this.next = new AtomicLong(block.getFirst());
+            this.end = block.getEnd();
+            this.prefetchAt = block.getFirst() + (block.getEnd() - block.getFirst()) / 2;
+        }
+    }
+}
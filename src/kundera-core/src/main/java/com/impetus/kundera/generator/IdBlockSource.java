@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.generator;
+
+/**
+ * Reserves blocks of ids in a datastore, for an {@link IdBlockAllocator}.
+ * Blocks may be reserved from a background thread.
+ */
+public interface IdBlockSource
+{
+    /**
+     * Reserves next block of ids, in one round trip where datastore allows.
+     * 
+     * @return the block, not handed out by any other reservation.
+     */
+    IdBlock reserve();
+}
@@ -15,8 +15,10 @@
  */
 package com.impetus.kundera.graph;
 
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import javax.persistence.PostLoad;
 import javax.persistence.PostPersist;
@@ -41,6 +43,7 @@ import com.impetus.kundera.metadata.model.Relation.ForeignKey;
 import com.impetus.kundera.persistence.PersistenceDelegator;
 import com.impetus.kundera.persistence.context.PersistenceCache;
 import com.impetus.kundera.persistence.event.EntityEventDispatcher;
+import com.impetus.kundera.utils.EntitySnapshot;
 import com.impetus.kundera.utils.ObjectUtils;
 
 /**
@@ -99,6 +102,15 @@ public class Node implements NodeStateContext
 
     private Node originalNode;
 
+    // Snapshot of data for dirty checking, if data is not copied.
+    private EntitySnapshot snapshot;
+
+    // Attributes modified since last flush, null if not known.
+    private BitSet dirtyAttributes;
+
+    // Snapshot of data as of last flush, taken once copied data is replaced.
+    private EntitySnapshot flushedState;
+
     private boolean isProcessed;
 
     private EntityEventDispatcher eventDispatcher = new EntityEventDispatcher();
@@ -371,6 +383,56 @@ public class Node implements NodeStateContext
     public void setDirty(boolean dirty)
     {
         this.dirty = dirty;
+        this.dirtyAttributes = null;
+        if (!dirty)
+        {
+            this.flushedState = null;
+        }
+    }
+
+    /**
+     * @return the attributes modified since last flush, null if not known.
+     */
+    public BitSet getDirtyAttributes()
+    {
+        return dirtyAttributes;
+    }
+
+    /**
+     * @param dirtyAttributes
+     *            the dirtyAttributes to set
+     */
+    public void setDirtyAttributes(BitSet dirtyAttributes)
+    {
+        this.dirtyAttributes = dirtyAttributes;
+    }
+
+    /**
+     * Returns column names of attributes modified since last flush, for
+     * clients to write only those on update.
+     * 
+     * @return the dirty column names, null if all columns are to be written.
+     */
+    public Set<String> getDirtyColumns()
+    {
+        if (dirtyAttributes == null || getDataClass() == null)
+        {
+            return null;
+        }
+        BitSet modified = dirtyAttributes;
+        if (snapshot != null && data != null)
+        {
+            // Node data is shared with user code, which may have modified it
+            // since it was last compared.
+            BitSet sinceSnapshot = snapshot.getModified(data);
+            if (sinceSnapshot == null)
+            {
+                return null;
+            }
+            modified = (BitSet) dirtyAttributes.clone();
+            modified.or(sinceSnapshot);
+        }
+        return EntitySnapshot.getColumnNames(getDataClass(), modified);
     }
 
     /**
@@ -534,7 +596,51 @@ public class Node implements NodeStateContext
             handlePostEvent();
             this.isProcessed = true;
         }
+        updateLinks();
+    }
+
+    /**
+     * First step of a flush split in three steps, fires pre event callbacks.
+     * {@link #beforeFlush()} and {@link #afterFlush()} must be called by
+     * thread owning persistence context, {@link #write()} may be called by
+     * any thread in between.
+     */
+    public void beforeFlush()
+    {
+        if (isDirty())
+        {
+            handlePreEvent();
+        }
+    }
+
+    /**
+     * Second step of a split flush, writes node through its client.
+     */
+    public void write()
+    {
+        if (isDirty())
+        {
+            getCurrentNodeState().handleWrite(this);
+        }
+    }
+
+    /**
+     * Last step of a split flush, updates persistence context and fires post
+     * event callbacks.
+     */
+    public void afterFlush()
+    {
+        if (isDirty())
+        {
+            getCurrentNodeState().handleFlushed(this);
+            handlePostEvent();
+            this.isProcessed = true;
+        }
+        updateLinks();
+    }
 
+    private void updateLinks()
+    {
         // Update Link value for all nodes attached to this one
         Map<NodeLink, Node> parents = this.getParents();
         Map<NodeLink, Node> children = this.getChildren();
@@ -613,6 +719,43 @@ public class Node implements NodeStateContext
         this.originalNode = originalNode;
     }
 
+    /**
+     * @return the snapshot of node data, null if node data is a private copy.
+     */
+    public EntitySnapshot getSnapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * @param snapshot
+     *            the snapshot to set
+     */
+    public void setSnapshot(EntitySnapshot snapshot)
+    {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Returns state of node data as of last flush(or load), for clients to
+     * clean up what refers to values modified since, e.g. secondary indexes.
+     * 
+     * @return the flushed state, null if not known.
+     */
+    public EntitySnapshot getFlushedState()
+    {
+        return snapshot != null ? snapshot : flushedState;
+    }
+
+    /**
+     * @param flushedState
+     *            the flushedState to set
+     */
+    public void setFlushedState(EntitySnapshot flushedState)
+    {
+        this.flushedState = flushedState;
+    }
+
     /**
      * @return the isProcessed
      */
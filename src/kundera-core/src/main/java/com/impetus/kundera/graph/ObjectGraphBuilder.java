@@ -16,6 +16,7 @@
 package com.impetus.kundera.graph;
 
 import java.lang.reflect.Field;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -42,6 +43,7 @@ import com.impetus.kundera.proxy.KunderaProxy;
 import com.impetus.kundera.proxy.ProxyHelper;
 import com.impetus.kundera.proxy.collection.ProxyCollection;
 import com.impetus.kundera.utils.DeepEquals;
+import com.impetus.kundera.utils.EntitySnapshot;
 
 /**
  * Responsible for generating {@link ObjectGraph} of nodes from a given entity
@@ -148,13 +150,34 @@ public class ObjectGraphBuilder
         {
             node = nodeInPersistenceCache;
 
-            // Determine whether this node is dirty based on comparison between
-            // Node data and entity data
+            // Determine which attributes of this node are dirty based on
+            // comparison between Node data and entity data, or its snapshot if
+            // entity itself is node data.
             // If dirty, set the entity data into node and mark it as dirty
-            if (!DeepEquals.deepEquals(node.getData(), entity))
+            BitSet modified = node.getSnapshot() != null && node.getData() == entity ? node.getSnapshot()
+                    .getModified(entity) : EntitySnapshot.getModified(node.getData(), entity);
+            if (modified != null ? !modified.isEmpty() : !DeepEquals.deepEquals(node.getData(), entity))
             {
+                // Attributes modified earlier are yet to be flushed.
+                BitSet dirtyAttributes = modified;
+                if (modified != null && node.isDirty())
+                {
+                    dirtyAttributes = node.getDirtyAttributes();
+                    if (dirtyAttributes != null)
+                    {
+                        dirtyAttributes = (BitSet) dirtyAttributes.clone();
+                        dirtyAttributes.or(modified);
+                    }
+                }
+                if (node.getSnapshot() == null && !node.isDirty() && node.getData() != null)
+                {
+                    // copied data is the flushed state, keep it before
+                    // replacing it.
+                    node.setFlushedState(EntitySnapshot.take(node.getData()));
+                }
                 node.setData(entity);
                 node.setDirty(true);
+                node.setDirtyAttributes(dirtyAttributes);
             }
             else if (node.isProcessed())
             {
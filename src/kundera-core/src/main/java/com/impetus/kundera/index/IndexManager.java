@@ -15,6 +15,8 @@
  ******************************************************************************/
 package com.impetus.kundera.index;
 
+import java.io.Flushable;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.Collection;
 import java.util.HashMap;
@@ -371,13 +373,22 @@ public class IndexManager
     }
 
     /**
-     * Flushes out the indexes, keeping RAM directory open.
+     * Flushes out the indexes, keeping RAM directory open. Only indexers
+     * buffering writes, i.e. implementing {@link Flushable}, have anything to
+     * send.
      */
     public void flush() throws IndexingException
     {
-        if (indexer != null)
+        if (indexer instanceof Flushable)
         {
-//            ((Indexer) indexer).close();
+            try
+            {
+                ((Flushable) indexer).flush();
+            }
+            catch (IOException e)
+            {
+                throw new IndexingException("Error while flushing indexes", e);
+            }
         }
     }
 
@@ -0,0 +1,407 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LogDocMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.Lock;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+
+import com.impetus.kundera.PersistenceProperties;
+
+/**
+ * One partition of a {@link LuceneIndexer}. Each shard owns its directory,
+ * index writer and near-real-time searcher manager, so writes to different
+ * shards never contend with each other.
+ */
+class LuceneIndexShard
+{
+    /** Name of the generation file, which is rewritten on each commit. */
+    private static final String SEGMENTS_GEN = "segments.gen";
+
+    /** File system location of this shard. */
+    private final File indexDirectory;
+
+    /** The index. */
+    private final Directory index;
+
+    /** The w. */
+    private final IndexWriter w;
+
+    /** The near-real-time searcher manager. */
+    private final SearcherManager searcherManager;
+
+    /** Index modified since last commit. */
+    private volatile boolean readyForCommit;
+
+    /** Index modified since last searcher refresh. */
+    private volatile boolean dirty;
+
+    /**
+     * Index files of file system directory written by this shard, in case of
+     * in-memory directory. Only these are deleted once no more referenced,
+     * other files in the directory are left alone.
+     */
+    private final Set<String> syncedFiles = new HashSet<String>();
+
+    /** File system directory in-memory directory is mirrored onto, if any. */
+    private Directory mirror;
+
+    /**
+     * Write lock of {@link #mirror}, held while shard is open. Files are
+     * synced by name, so no other writer may write into mirror meanwhile.
+     */
+    private Lock mirrorLock;
+
+    /**
+     * Instantiates a new lucene index shard.
+     * 
+     * @param indexDirectory
+     *            file system location of shard.
+     * @param directoryType
+     *            one of "mmap", "nio" or "ram".
+     * @param analyzer
+     *            the analyzer
+     * @throws IOException
+     */
+    LuceneIndexShard(File indexDirectory, String directoryType, Analyzer analyzer) throws IOException
+    {
+        this.indexDirectory = indexDirectory;
+        this.index = createDirectory(directoryType);
+
+        IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Version.LUCENE_34, analyzer);
+        LogDocMergePolicy logDocMergePolicy = new LogDocMergePolicy();
+        logDocMergePolicy.setMergeFactor(1000);
+        indexWriterConfig.setMergePolicy(logDocMergePolicy);
+        indexWriterConfig.setRAMBufferSizeMB(32);
+        try
+        {
+            this.w = new IndexWriter(index, indexWriterConfig);
+        }
+        catch (IOException ioex)
+        {
+            closeMirror();
+            throw ioex;
+        }
+        this.searcherManager = new SearcherManager(w, true, new SearcherFactory());
+    }
+
+    /**
+     * Creates index directory for given directory type.
+     * 
+     * @param directoryType
+     *            one of "mmap", "nio" or "ram".
+     * @return index directory
+     * @throws IOException
+     */
+    private Directory createDirectory(String directoryType) throws IOException
+    {
+        if (LuceneIndexer.MMAP_DIRECTORY.equalsIgnoreCase(directoryType))
+        {
+            return new MMapDirectory(getIndexDirectory());
+        }
+        else if (LuceneIndexer.NIO_DIRECTORY.equalsIgnoreCase(directoryType))
+        {
+            return new NIOFSDirectory(getIndexDirectory());
+        }
+        else if (LuceneIndexer.RAM_DIRECTORY.equalsIgnoreCase(directoryType))
+        {
+            mirror = FSDirectory.open(getIndexDirectory());
+            mirrorLock = mirror.makeLock(IndexWriter.WRITE_LOCK_NAME);
+            if (!mirrorLock.obtain())
+            {
+                mirror.close();
+                throw new LuceneIndexingException("Index directory {" + indexDirectory
+                        + "} is already in use by another indexer");
+            }
+            try
+            {
+                if (DirectoryReader.indexExists(mirror))
+                {
+                    for (IndexCommit commit : DirectoryReader.listCommits(mirror))
+                    {
+                        syncedFiles.addAll(commit.getFileNames());
+                    }
+                    return new RAMDirectory(mirror, IOContext.DEFAULT);
+                }
+                return new RAMDirectory();
+            }
+            catch (IOException ioex)
+            {
+                closeMirror();
+                throw ioex;
+            }
+        }
+        throw new LuceneIndexingException("Invalid value {" + directoryType + "} for property "
+                + PersistenceProperties.KUNDERA_INDEXER_DIRECTORY + ", supported values are: "
+                + LuceneIndexer.MMAP_DIRECTORY + ", " + LuceneIndexer.NIO_DIRECTORY + ", "
+                + LuceneIndexer.RAM_DIRECTORY);
+    }
+
+    /**
+     * Creates a Lucene index directory if it does not exist.
+     * 
+     * @return the index directory
+     */
+    private File getIndexDirectory()
+    {
+        if (!indexDirectory.isDirectory())
+        {
+            indexDirectory.mkdirs();
+        }
+        return indexDirectory;
+    }
+
+    /**
+     * Adds document to this shard.
+     * 
+     * @param document
+     *            the document
+     * @throws IOException
+     */
+    void addDocument(Document document) throws IOException
+    {
+        w.addDocument(document);
+        onChange();
+    }
+
+    /**
+     * Deletes documents matching query, deletes are applied on next
+     * near-real-time refresh.
+     * 
+     * @param query
+     *            the query
+     * @throws IOException
+     */
+    void deleteDocuments(Query query) throws IOException
+    {
+        w.deleteDocuments(query);
+        onChange();
+    }
+
+    /**
+     * Marks shard as modified.
+     */
+    private void onChange()
+    {
+        readyForCommit = true;
+        dirty = true;
+    }
+
+    /**
+     * Returns near-real-time index searcher. Caller must release it via
+     * {@link #release(IndexSearcher)}.
+     * 
+     * @param refreshIfDirty
+     *            whether to refresh searcher if shard has been modified.
+     * @return index searcher.
+     * @throws IOException
+     */
+    IndexSearcher acquire(boolean refreshIfDirty) throws IOException
+    {
+        if (refreshIfDirty)
+        {
+            refresh();
+        }
+        return searcherManager.acquire();
+    }
+
+    /**
+     * Releases searcher acquired via {@link #acquire(boolean)}.
+     * 
+     * @param searcher
+     *            index searcher.
+     * @throws IOException
+     */
+    void release(IndexSearcher searcher) throws IOException
+    {
+        searcherManager.release(searcher);
+    }
+
+    /**
+     * Refreshes near-real-time searcher, if shard has been modified since last
+     * refresh.
+     * 
+     * @throws IOException
+     */
+    void refresh() throws IOException
+    {
+        if (dirty)
+        {
+            // reset before refresh, so that changes made in between are picked
+            // by next refresh.
+            dirty = false;
+            try
+            {
+                searcherManager.maybeRefreshBlocking();
+            }
+            catch (IOException ioex)
+            {
+                dirty = true;
+                throw ioex;
+            }
+        }
+    }
+
+    /**
+     * Commits index writer. In case of in-memory directory, newly written
+     * segments are copied onto file system directory.
+     * 
+     * @throws IOException
+     */
+    synchronized void commit() throws IOException
+    {
+        if (readyForCommit)
+        {
+            readyForCommit = false;
+            try
+            {
+                w.commit();
+                if (mirror != null)
+                {
+                    sync(index, mirror);
+                }
+            }
+            catch (IOException ioex)
+            {
+                readyForCommit = true;
+                throw ioex;
+            }
+        }
+    }
+
+    /**
+     * Commits pending changes, then closes searcher manager, index writer
+     * and directory of this shard.
+     * 
+     * @throws IOException
+     */
+    synchronized void close() throws IOException
+    {
+        try
+        {
+            commit();
+        }
+        finally
+        {
+            try
+            {
+                searcherManager.close();
+            }
+            finally
+            {
+                try
+                {
+                    w.close();
+                }
+                finally
+                {
+                    try
+                    {
+                        index.close();
+                    }
+                    finally
+                    {
+                        closeMirror();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases write lock of mirror directory and closes it, if any.
+     * 
+     * @throws IOException
+     */
+    private void closeMirror() throws IOException
+    {
+        if (mirror != null)
+        {
+            try
+            {
+                mirrorLock.release();
+            }
+            finally
+            {
+                mirror.close();
+            }
+        }
+    }
+
+    /**
+     * Copies files of last commit point from source to target directory.
+     * Segment files are write once, so only those not yet available in target
+     * are copied and files earlier written by this shard, which are no more
+     * referenced by the commit, are deleted.
+     * 
+     * @param src
+     *            source directory
+     * @param to
+     *            target directory
+     * @throws IOException
+     */
+    private void sync(Directory src, Directory to) throws IOException
+    {
+        List<IndexCommit> commits = DirectoryReader.listCommits(src);
+        IndexCommit lastCommit = commits.get(commits.size() - 1);
+        Set<String> commitFiles = new HashSet<String>(lastCommit.getFileNames());
+
+        for (String file : commitFiles)
+        {
+            if (!to.fileExists(file))
+            {
+                src.copy(to, file, file, IOContext.DEFAULT);
+            }
+        }
+
+        if (src.fileExists(SEGMENTS_GEN))
+        {
+            src.copy(to, SEGMENTS_GEN, SEGMENTS_GEN, IOContext.DEFAULT);
+        }
+
+        for (String file : syncedFiles)
+        {
+            if (!commitFiles.contains(file) && to.fileExists(file))
+            {
+                to.deleteFile(file);
+            }
+        }
+        syncedFiles.clear();
+        syncedFiles.addAll(commitFiles);
+    }
+}
@@ -18,10 +18,21 @@ package com.impetus.kundera.index;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.persistence.metamodel.EmbeddableType;
 import javax.persistence.metamodel.EntityType;
@@ -29,25 +40,18 @@ import javax.persistence.metamodel.EntityType;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.index.IndexNotFoundException;
-import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.index.IndexWriterConfig;
-import org.apache.lucene.index.LogDocMergePolicy;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
-import org.apache.lucene.store.IOContext;
-import org.apache.lucene.store.RAMDirectory;
 import org.apache.lucene.util.Version;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.impetus.kundera.Constants;
+import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.cache.ElementCollectionCacheManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
@@ -55,10 +59,30 @@ import com.impetus.kundera.metadata.model.MetamodelImpl;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.utils.KunderaThreadFactory;
 
 /**
  * Provides indexing functionality using lucene library.
  * 
+ * Searches are served by a near-real-time reader obtained from the live
+ * index writer (through a {@link SearcherManager}), so a write does not
+ * require a commit and reopen of the whole index before it becomes visible.
+ * Durability is taken care of by a background committer which periodically
+ * commits the writer.
+ * 
+ * Index directory is configurable via
+ * {@link PersistenceProperties#KUNDERA_INDEXER_DIRECTORY}: "mmap"(default) and
+ * "nio" write segments straight to the file system, "ram" keeps the index
+ * in a heap mirror and copies only newly written segment files to the file
+ * system on commit.
+ * 
+ * Index can be partitioned into {@link PersistenceProperties#KUNDERA_INDEXER_SHARDS}
+ * shards, entity classes are hashed onto shards and each shard has its own
+ * writer and searcher manager. Searches fan out to all shards in parallel and
+ * top documents are merged. One indexer instance is kept per index
+ * directory and shared by all persistence units using that directory, as
+ * only one writer may own it. It stays open until each of them closed it.
+ * 
  * @author amresh.singh
  */
 public class LuceneIndexer extends DocumentIndexer
@@ -67,26 +91,53 @@ public class LuceneIndexer extends DocumentIndexer
     /** log for this class. */
     private static Logger log = LoggerFactory.getLogger(LuceneIndexer.class);
 
-    /** The w. */
-    private static IndexWriter w;
+    /** Default interval(in milliseconds) between two background commits. */
+    private static final long DEFAULT_COMMIT_INTERVAL = 1000;
+
+    /** Memory mapped file system directory. */
+    public static final String MMAP_DIRECTORY = "mmap";
+
+    /** NIO file system directory. */
+    public static final String NIO_DIRECTORY = "nio";
 
-    /** The reader. */
-    private static IndexReader reader;
+    /** In-memory directory, mirrored onto file system on commit. */
+    public static final String RAM_DIRECTORY = "ram";
 
-    /** The index. */
-    private static Directory index;
+    /** Prefix of shard directory names, if index has more than one shard. */
+    private static final String SHARD_DIRECTORY_PREFIX = "shard";
 
-    /** The is initialized. */
-    private static boolean isInitialized;
+    /** Indexers per canonical index directory path. */
+    private static final ConcurrentMap<String, LuceneIndexer> indexers = new ConcurrentHashMap<String, LuceneIndexer>();
 
-    /** The indexer. */
-    private static LuceneIndexer indexer;
+    /** Key of this indexer in {@link #indexers}. */
+    private String key;
 
-    /** The ready for commit. */
-    private static boolean readyForCommit;
+    /**
+     * Number of {@link #getInstance} calls not yet followed by
+     * {@link #close()}, guarded by {@link #indexers}.
+     */
+    private int references;
+
+    /** Whether indexer has been closed. */
+    private volatile boolean closed;
 
-    /** The lucene dir path. */
-    private static String luceneDirPath;
+    /** Index shards. */
+    private LuceneIndexShard[] shards;
+
+    /**
+     * Interval(in milliseconds) to refresh near-real-time searcher, 0 means
+     * refresh on search if index is dirty.
+     */
+    private long refreshInterval;
+
+    /** Interval(in milliseconds) between background commits. */
+    private long commitInterval;
+
+    /** Executor for background refresh and commit. */
+    private ScheduledExecutorService executor;
+
+    /** Executor to search shards in parallel, null in case of single shard. */
+    private ExecutorService searchExecutor;
 
     /**
      * Instantiates a new lucene indexer.
@@ -95,40 +146,87 @@ public class LuceneIndexer extends DocumentIndexer
      *            the analyzer
      * @param lucDirPath
      *            the luc dir path
+     * @param indexerProperties
+     *            indexer specific properties.
      */
-    private LuceneIndexer(Analyzer analyzer, String lucDirPath)
+    private LuceneIndexer(Analyzer analyzer, String lucDirPath, Map<String, Object> indexerProperties)
     {
         super(analyzer);
         try
         {
-            luceneDirPath = lucDirPath;
-            File file = new File(luceneDirPath);
-            if (file.exists())
+            refreshInterval = getLongProperty(indexerProperties, PersistenceProperties.KUNDERA_INDEXER_REFRESH_INTERVAL,
+                    0);
+            commitInterval = getLongProperty(indexerProperties, PersistenceProperties.KUNDERA_INDEXER_COMMIT_INTERVAL,
+                    DEFAULT_COMMIT_INTERVAL);
+            String directoryType = getStringProperty(indexerProperties,
+                    PersistenceProperties.KUNDERA_INDEXER_DIRECTORY, MMAP_DIRECTORY);
+            int numShards = (int) getLongProperty(indexerProperties, PersistenceProperties.KUNDERA_INDEXER_SHARDS, 1);
+            if (numShards < 1)
             {
-                Directory sourceDir = FSDirectory.open(getIndexDirectory());
+                throw new LuceneIndexingException("Invalid value {" + numShards + "} for property "
+                        + PersistenceProperties.KUNDERA_INDEXER_SHARDS + ", it must be greater than zero");
+            }
 
-                // TODO initialize context.
-                index = new RAMDirectory(sourceDir, IOContext.DEFAULT);
+            shards = new LuceneIndexShard[numShards];
+            for (int i = 0; i < numShards; i++)
+            {
+                // single shard lives in index home itself, to stay compatible
+                // with existing indexes.
+                File shardDirectory = numShards == 1 ? new File(lucDirPath) : new File(lucDirPath,
+                        SHARD_DIRECTORY_PREFIX + i);
+                shards[i] = new LuceneIndexShard(shardDirectory, directoryType, analyzer);
             }
-            else
+
+            if (numShards > 1)
+            {
+                searchExecutor = Executors.newFixedThreadPool(numShards,
+                        new KunderaThreadFactory(LuceneIndexer.class.getName() + ".search"));
+            }
+
+            executor = Executors.newScheduledThreadPool(1, new KunderaThreadFactory(LuceneIndexer.class.getName()));
+            if (refreshInterval > 0)
             {
-                index = new RAMDirectory();
+                executor.scheduleWithFixedDelay(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            refreshSearchers();
+                        }
+                        catch (LuceneIndexingException liex)
+                        {
+                            // keep refresher alive, next run will retry.
+                            log.error("Error during background refresh of lucene searcher, Caused by: ", liex);
+                        }
+                    }
+                }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
             }
-            /*
-             * FSDirectory.open(getIndexDirectory( ))
-             */
-            // isInitialized
-            /* writer */
-            IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Version.LUCENE_34, analyzer);
-            LogDocMergePolicy logDocMergePolicy = new LogDocMergePolicy();
-            logDocMergePolicy.setMergeFactor(1000);
-            indexWriterConfig.setMergePolicy(logDocMergePolicy);
-            w = new IndexWriter(index, indexWriterConfig);
-            /* reader = */
-            // w.setMergePolicy(new LogDocMergePolicy());
-            // w.setMergeFactor(1);
-            // w.setMergeFactor(1000);
-            w.getConfig().setRAMBufferSizeMB(32);
+            if (commitInterval > 0)
+            {
+                executor.scheduleWithFixedDelay(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            commitInternal();
+                        }
+                        catch (LuceneIndexingException liex)
+                        {
+                            // keep committer alive, next run will retry.
+                            log.error("Error during background commit of lucene indexes, Caused by: ", liex);
+                        }
+                    }
+                }, commitInterval, commitInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+        catch (LuceneIndexingException liex)
+        {
+            log.error("Error while instantiating LuceneIndexer, Caused by :.", liex);
+            throw liex;
         }
         catch (Exception e)
         {
@@ -138,90 +236,104 @@ public class LuceneIndexer extends DocumentIndexer
     }
 
     /**
-     * Gets the single instance of LuceneIndexer.
+     * Gets the instance of LuceneIndexer for given index directory.
      * 
      * @param analyzer
      *            the analyzer
      * @param lucDirPath
      *            the luc dir path
-     * @return single instance of LuceneIndexer
+     * @return instance of LuceneIndexer
      */
-    public static synchronized LuceneIndexer getInstance(Analyzer analyzer, String lucDirPath)
+    public static LuceneIndexer getInstance(Analyzer analyzer, String lucDirPath)
     {
-        // super(analyzer);
-        if (indexer == null && lucDirPath != null)
-        {
-            indexer = new LuceneIndexer(analyzer, lucDirPath);
-
-        }
-        return indexer;
+        return getInstance(analyzer, lucDirPath, null);
     }
 
     /**
-     * Added for HBase support.
+     * Gets the instance of LuceneIndexer for given index directory.
      * 
-     * @return default index writer
+     * @param analyzer
+     *            the analyzer
+     * @param lucDirPath
+     *            the luc dir path
+     * @param indexerProperties
+     *            indexer specific properties(e.g. refresh and commit
+     *            interval), may be null.
+     * @return instance of LuceneIndexer
      */
-    private IndexWriter getIndexWriter()
+    public static LuceneIndexer getInstance(Analyzer analyzer, String lucDirPath,
+            Map<String, Object> indexerProperties)
     {
-        return w;
-    }
+        if (lucDirPath == null)
+        {
+            return null;
+        }
 
-    /**
-     * Returns default index reader.
-     * 
-     * @return index reader.
-     */
-    private IndexReader getIndexReader()
-    {
-        flushInternal();
+        String key;
+        try
+        {
+            key = new File(lucDirPath).getCanonicalPath();
+        }
+        catch (IOException ioex)
+        {
+            key = new File(lucDirPath).getAbsolutePath();
+        }
 
-        if (reader == null)
+        synchronized (indexers)
         {
-            try
-            {
-                if (!isInitialized)
-                {
-                    Directory sourceDir = FSDirectory.open(getIndexDirectory());
-                    copy(sourceDir, index);
-                    isInitialized = true;
-                }
-                reader = IndexReader.open(index/* , true */);
-            }
-            catch (IndexNotFoundException infex)
+            LuceneIndexer indexer = indexers.get(key);
+            if (indexer == null)
             {
-                log.warn("No index found in given directory, caused by:", infex.getMessage());
+                indexer = new LuceneIndexer(analyzer, lucDirPath, indexerProperties);
+                indexer.key = key;
+                indexers.put(key, indexer);
             }
-            catch (Exception e)
+            else if (indexerProperties != null && !indexerProperties.isEmpty())
             {
-                log.error("Error while instantiating LuceneIndexer, Caused by :.", e);
-                throw new LuceneIndexingException(e);
+                log.info("Lucene indexer on {} is already open, sharing it as is, indexer properties are ignored.",
+                        key);
             }
+            indexer.references++;
+            return indexer;
         }
-        return reader;
     }
 
     /**
-     * Creates a Lucene index directory if it does not exist.
+     * Returns shard holding documents of given entity class.
      * 
-     * @return the index directory
+     * @param entityClazz
+     *            entity class.
+     * @return index shard.
      */
-    private File getIndexDirectory()
+    private LuceneIndexShard getShard(Class<?> entityClazz)
     {
-        File file = new File(luceneDirPath);
+        return shards[(entityClazz.getName().hashCode() & Integer.MAX_VALUE) % shards.length];
+    }
 
-        if (!file.isDirectory())
+    /**
+     * Refreshes near-real-time searchers of all shards, which have been
+     * modified since last refresh.
+     */
+    private void refreshSearchers()
+    {
+        try
         {
-            file.mkdir();
+            for (LuceneIndexShard shard : shards)
+            {
+                shard.refresh();
+            }
+        }
+        catch (IOException ioex)
+        {
+            log.error("Error while refreshing lucene searcher, Caused by: ", ioex);
+            throw new LuceneIndexingException("Error while refreshing lucene searcher", ioex);
         }
-        return file;
     }
 
     @Override
     public final void index(EntityMetadata metadata, Object object)
     {
         indexDocument(metadata, object, null, null);
-        onCommit();
     }
 
     @Override
@@ -254,20 +366,9 @@ public class LuceneIndexer extends DocumentIndexer
 
             Query q = qp.parse(luceneQuery);
 
-            w.deleteDocuments(q);
-            w.commit();
-            w.close();
-            IndexWriterConfig indexWriterConfig = new IndexWriterConfig(Version.LUCENE_34, analyzer);
-            LogDocMergePolicy logDocMergePolicy = new LogDocMergePolicy();
-            logDocMergePolicy.setMergeFactor(1000);
-            indexWriterConfig.setMergePolicy(logDocMergePolicy);
-            w = new IndexWriter(index, indexWriterConfig);
-            /* reader = */
-            // w.setMergePolicy(new LogDocMergePolicy());
-            // w.setMergeFactor(1);
-            // w.setMergeFactor(1000);
-            w.getConfig().setRAMBufferSizeMB(32);
-            // flushInternal();
+            // deletes are applied on next near-real-time refresh, no need to
+            // commit and reopen writer.
+            getShard(metadata.getEntityClazz()).deleteDocuments(q);
         }
         catch (Exception e)
         {
@@ -276,12 +377,9 @@ public class LuceneIndexer extends DocumentIndexer
         }
     }
 
-    @SuppressWarnings("deprecation")
     @Override
     public final Map<String, Object> search(String luceneQuery, int start, int count, boolean fetchRelation)
     {
-
-        reader = getIndexReader();
         if (Constants.INVALID == count)
         {
             count = 100;
@@ -293,14 +391,7 @@ public class LuceneIndexer extends DocumentIndexer
         // Set<String> entityIds = new HashSet<String>();
         Map<String, Object> indexCol = new HashMap<String, Object>();
 
-        if (reader == null)
-        {
-            return indexCol;
-            // throw new
-            // LuceneIndexingException("Index reader is not initialized!");
-        }
-
-        IndexSearcher searcher = new IndexSearcher(reader);
+        IndexSearcher[] searchers = new IndexSearcher[shards.length];
         QueryParser qp = new QueryParser(Version.LUCENE_34, DEFAULT_SEARCHABLE_FIELD, new StandardAnalyzer(
                 Version.LUCENE_34));
 
@@ -310,13 +401,23 @@ public class LuceneIndexer extends DocumentIndexer
             qp.setAllowLeadingWildcard(true);
             // qp.set
             Query q = qp.parse(luceneQuery);
-            TopDocs docs = searcher.search(q, count);
+            TopDocs docs;
+            if (shards.length == 1)
+            {
+                searchers[0] = shards[0].acquire(refreshInterval <= 0);
+                docs = searchers[0].search(q, count);
+            }
+            else
+            {
+                docs = searchShards(searchers, q, count);
+            }
 
             int nullCount = 0;
             // Assuming Supercol will be null in case if alias only.
             // This is a quick fix
             for (ScoreDoc sc : docs.scoreDocs)
             {
+                IndexSearcher searcher = shards.length == 1 ? searchers[0] : searchers[sc.shardIndex];
                 Document doc = searcher.doc(sc.doc);
                 String entityId = doc.get(fetchRelation ? PARENT_ID_FIELD : ENTITY_ID_FIELD);
                 String superCol = doc.get(SUPERCOLUMN_INDEX);
@@ -334,11 +435,91 @@ public class LuceneIndexer extends DocumentIndexer
             log.error("Error while parsing Lucene Query {} ", luceneQuery, e);
             throw new LuceneIndexingException(e);
         }
+        finally
+        {
+            releaseSearchers(searchers);
+        }
 
-        reader = null;
         return indexCol;
     }
 
+    /**
+     * Searches all shards in parallel and merges their top documents. Acquired
+     * searchers are set into given array at shard's position, so that caller
+     * can load documents and release them.
+     * 
+     * @param searchers
+     *            array to hold searcher acquired per shard.
+     * @param query
+     *            the query
+     * @param count
+     *            number of top documents to return.
+     * @return merged top documents, score docs carry shard index.
+     * @throws Exception
+     */
+    private TopDocs searchShards(final IndexSearcher[] searchers, final Query query, final int count) throws Exception
+    {
+        List<Future<TopDocs>> futures = new ArrayList<Future<TopDocs>>(shards.length);
+        for (int i = 0; i < shards.length; i++)
+        {
+            final int shardIndex = i;
+            futures.add(searchExecutor.submit(new Callable<TopDocs>()
+            {
+                @Override
+                public TopDocs call() throws Exception
+                {
+                    searchers[shardIndex] = shards[shardIndex].acquire(refreshInterval <= 0);
+                    return searchers[shardIndex].search(query, count);
+                }
+            }));
+        }
+
+        // wait for all shards, so that no searcher is acquired after release.
+        TopDocs[] shardHits = new TopDocs[shards.length];
+        Exception failure = null;
+        for (int i = 0; i < shards.length; i++)
+        {
+            try
+            {
+                shardHits[i] = futures.get(i).get();
+            }
+            catch (ExecutionException eex)
+            {
+                failure = failure == null ? eex : failure;
+            }
+        }
+
+        if (failure != null)
+        {
+            throw failure;
+        }
+        return TopDocs.merge(null, count, shardHits);
+    }
+
+    /**
+     * Releases searchers acquired for a search.
+     * 
+     * @param searchers
+     *            index searchers per shard, may contain null.
+     */
+    private void releaseSearchers(IndexSearcher[] searchers)
+    {
+        for (int i = 0; i < searchers.length; i++)
+        {
+            if (searchers[i] != null)
+            {
+                try
+                {
+                    shards[i].release(searchers[i]);
+                }
+                catch (IOException ioex)
+                {
+                    log.warn("Error while releasing lucene searcher, Caused by: ", ioex);
+                }
+            }
+        }
+    }
+
     /**
      * Indexes document in file system using lucene.
      * 
@@ -352,14 +533,9 @@ public class LuceneIndexer extends DocumentIndexer
         if (log.isDebugEnabled())
             log.debug("Indexing document: " + document + " for in file system using Lucene");
 
-        IndexWriter w = getIndexWriter();
         try
         {
-            // w.setR
-            w.addDocument(document);
-            // w.optimize();
-            // w.commit();
-            // w.close();
+            getShard(metadata.getEntityClazz()).addDocument(document);
         }
         catch (Exception e)
         {
@@ -369,20 +545,15 @@ public class LuceneIndexer extends DocumentIndexer
     }
 
     /**
-     * Flush internal.
+     * Commits index writer of all modified shards.
      */
-    private void flushInternal()
+    private void commitInternal()
     {
         try
         {
-            if (w != null && readyForCommit)
+            for (LuceneIndexShard shard : shards)
             {
-                // w.optimize();
-                w.commit();
-                copy(index, FSDirectory.open(getIndexDirectory()));
-                readyForCommit = false;
-                reader = null;
-                isInitialized = false;
+                shard.commit();
             }
         }
 
@@ -394,24 +565,59 @@ public class LuceneIndexer extends DocumentIndexer
     }
 
     /**
-     * Close of transaction.
+     * Releases one reference of this indexer. Once last one is released, stops
+     * background refresh and commit, commits and closes all shards and
+     * deregisters this indexer, so that next
+     * {@link #getInstance(Analyzer, String, Map)} opens a new one.
      */
-    public void close()
+    public synchronized void close()
     {
-        try
+        synchronized (indexers)
         {
-            if (w != null && readyForCommit)
+            if (closed || --references > 0)
             {
-                w.commit();
-                copy(index, FSDirectory.open(getIndexDirectory()));
+                return;
             }
+            closed = true;
+            indexers.remove(key, this);
         }
 
+        executor.shutdown();
+        if (searchExecutor != null)
+        {
+            searchExecutor.shutdown();
+        }
+        try
+        {
+            // a running commit must complete before final one.
+            executor.awaitTermination(commitInterval + refreshInterval + DEFAULT_COMMIT_INTERVAL,
+                    TimeUnit.MILLISECONDS);
+            commitInternal();
+        }
+        catch (InterruptedException iex)
+        {
+            Thread.currentThread().interrupt();
+            throw new LuceneIndexingException("Interrupted while closing lucene indexes.", iex);
+        }
         catch (Exception e)
         {
             log.error("Error while closing lucene indexes, Caused by: ", e);
             throw new LuceneIndexingException("Error while closing lucene indexes.", e);
         }
+        finally
+        {
+            for (LuceneIndexShard shard : shards)
+            {
+                try
+                {
+                    shard.close();
+                }
+                catch (IOException ioex)
+                {
+                    log.warn("Error while closing lucene index shard, Caused by: ", ioex);
+                }
+            }
+        }
     }
 
     @Override
@@ -431,7 +637,6 @@ public class LuceneIndexer extends DocumentIndexer
     {
 
         indexDocument(metadata, object, parentId, clazz);
-        onCommit();
     }
 
     @Override
@@ -596,30 +801,6 @@ public class LuceneIndexer extends DocumentIndexer
         return currentDoc;
     }
 
-    /**
-     * On commit.
-     */
-    private void onCommit()
-    {
-        // TODO: Sadly this required to keep lucene happy, in case of indexing
-        // and searching with same entityManager.
-        // Other alternative would be to issue flush on each search
-        // try
-        // {
-        // w.commit();
-        isInitialized = true;
-        readyForCommit = true;
-        // }
-        // catch (CorruptIndexException e)
-        // {
-        // throw new IndexingException(e.getMessage());
-        // }
-        // catch (IOException e)
-        // {
-        // throw new IndexingException(e.getMessage());
-        // }
-    }
-
     @Override
     public void index(Class entityClazz, Map<String, Object> values, Object parentId, final Class parentClazz)
     {
@@ -638,12 +819,42 @@ public class LuceneIndexer extends DocumentIndexer
         throw new UnsupportedOperationException("Method not supported");
     }
 
-    private void copy(Directory src, Directory to) throws IOException
+    /**
+     * Returns string value of given indexer property.
+     * 
+     * @param indexerProperties
+     *            indexer properties, may be null.
+     * @param propertyName
+     *            property name.
+     * @param defaultValue
+     *            value to return, if property is not set.
+     * @return property value.
+     */
+    private static String getStringProperty(Map<String, Object> indexerProperties, String propertyName,
+            String defaultValue)
+    {
+        Object value = indexerProperties != null ? indexerProperties.get(propertyName) : null;
+        return value == null || value.toString().trim().isEmpty() ? defaultValue : value.toString().trim();
+    }
+
+    /**
+     * Returns long value of given indexer property.
+     * 
+     * @param indexerProperties
+     *            indexer properties, may be null.
+     * @param propertyName
+     *            property name.
+     * @param defaultValue
+     *            value to return, if property is not set.
+     * @return property value.
+     */
+    private static long getLongProperty(Map<String, Object> indexerProperties, String propertyName, long defaultValue)
     {
-        for (String file : src.listAll())
+        Object value = indexerProperties != null ? indexerProperties.get(propertyName) : null;
+        if (value == null || value.toString().trim().isEmpty())
         {
-            src.copy(to, file, file, IOContext.DEFAULT);
+            return defaultValue;
         }
+        return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString().trim());
     }
-
 }
@@ -24,6 +24,8 @@ import com.impetus.kundera.lifecycle.NodeStateContext;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.persistence.EntityReader;
+import com.impetus.kundera.persistence.PersistenceDelegator;
+import com.impetus.kundera.utils.EntitySnapshot;
 
 /**
  * @author amresh
@@ -114,15 +116,18 @@ public class ManagedState extends NodeState
         EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(nodeDataClass);
         Object entityId = nodeStateContext.getEntityId();
 
-        Object nodeData = null; // Node data
+        // Read through second level cache, if entity is cacheable.
+        PersistenceDelegator pd = nodeStateContext.getPersistenceDelegator();
+        Object nodeData = pd != null ? pd.lookupSecondLevelCache(entityMetadata, nodeStateContext.getNodeId())
+                : null; // Node data
 
         EntityReader reader = client.getReader();
-        if (reader == null)
+        if (reader == null && nodeData == null)
         {
             return;
         }
-        
-        EnhanceEntity ee = reader.findById(entityId, entityMetadata, client);
+
+        EnhanceEntity ee = nodeData != null ? null : reader.findById(entityId, entityMetadata, client);
         // Recursively retrieve relationship entities (if there are any)
         if (ee != null && ee.getEntity() != null)
         {
@@ -142,6 +147,11 @@ public class ManagedState extends NodeState
                 nodeData = reader.recursivelyFindEntities(ee.getEntity(), ee.getRelations(), entityMetadata,
                         nodeStateContext.getPersistenceDelegator(),false);
             }
+
+            if (pd != null)
+            {
+                pd.putIntoSecondLevelCache(entityMetadata, nodeStateContext.getNodeId(), nodeData);
+            }
         }
 
         // Construct Node out of this entity and put into Persistence Cache
@@ -177,16 +187,33 @@ public class ManagedState extends NodeState
     public void handleFlush(NodeStateContext nodeStateContext)
     {
         // Entity state to remain as Managed
+        handleWrite(nodeStateContext);
+        handleFlushed(nodeStateContext);
+    }
 
+    @Override
+    public void handleWrite(NodeStateContext nodeStateContext)
+    {
         // Flush this node to database
         Client client = nodeStateContext.getClient();
         client.persist((Node) nodeStateContext);
 
         // logNodeEvent("FLUSHED", this, nodeStateContext.getNodeId());
+    }
 
+    @Override
+    public void handleFlushed(NodeStateContext nodeStateContext)
+    {
         // Since node is flushed, mark it as NOT dirty
         nodeStateContext.setDirty(false);
 
+        // Flushed state is the new baseline for dirty checking.
+        Node node = (Node) nodeStateContext;
+        if (node.getSnapshot() != null && node.getData() != null)
+        {
+            node.setSnapshot(EntitySnapshot.take(node.getData()));
+        }
+
     }
 
     @Override
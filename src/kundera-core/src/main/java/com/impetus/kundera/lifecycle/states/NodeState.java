@@ -71,6 +71,24 @@ public abstract class NodeState
 
     public abstract void handleFlush(NodeStateContext nodeStateContext);
 
+    /**
+     * Writes node through its client, the part of
+     * {@link #handleFlush(NodeStateContext)} that neither fires callbacks nor
+     * changes persistence context. Nothing to write by default.
+     */
+    public void handleWrite(NodeStateContext nodeStateContext)
+    {
+    }
+
+    /**
+     * Updates node and persistence context once node is written, the rest
+     * of {@link #handleFlush(NodeStateContext)}. Nothing to update by
+     * default.
+     */
+    public void handleFlushed(NodeStateContext nodeStateContext)
+    {
+    }
+
     /**
      * @param nodeStateContext
      */
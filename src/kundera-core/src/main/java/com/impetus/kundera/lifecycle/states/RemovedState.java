@@ -86,7 +86,13 @@ public class RemovedState extends NodeState
     public void handleFlush(NodeStateContext nodeStateContext)
     {
         // Entity state to remain as Removed
+        handleWrite(nodeStateContext);
+        handleFlushed(nodeStateContext);
+    }
 
+    @Override
+    public void handleWrite(NodeStateContext nodeStateContext)
+    {
         // Flush this node to database
         Client client = nodeStateContext.getClient();
 
@@ -95,12 +101,16 @@ public class RemovedState extends NodeState
         Object entityId = node.getEntityId();
 
         client.delete(node.getData(), entityId);
+    }
 
+    @Override
+    public void handleFlushed(NodeStateContext nodeStateContext)
+    {
         // Since node is flushed, mark it as NOT dirty
         nodeStateContext.setDirty(false);
 
         // Remove this node from Persistence Cache
-        nodeStateContext.getPersistenceCache().getMainCache().removeNodeFromCache(node);
+        nodeStateContext.getPersistenceCache().getMainCache().removeNodeFromCache((Node) nodeStateContext);
     }
 
     @Override
@@ -17,6 +17,7 @@ package com.impetus.kundera.loader;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -31,6 +32,8 @@ import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.configure.PropertyReader;
 import com.impetus.kundera.configure.schema.api.SchemaManager;
+import com.impetus.kundera.generator.IdBlockAllocator;
+import com.impetus.kundera.generator.IdBlockSource;
 import com.impetus.kundera.index.IndexManager;
 import com.impetus.kundera.index.Indexer;
 import com.impetus.kundera.index.LuceneIndexer;
@@ -57,6 +60,9 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
     /** The client. */
     private Client client;
 
+    /** Prefix of indexer specific properties. */
+    private static final String INDEXER_PROPERTY_PREFIX = "kundera.indexer.";
+
     /** The persistence unit. */
     private String persistenceUnit;
 
@@ -86,6 +92,9 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
 
     /** Holds one pool instance per host */
     protected ConcurrentMap<Host, Object> hostPools = new ConcurrentHashMap<Host, Object>();
+
+    /** Holds one id allocator per generator, shared by all clients */
+    private final ConcurrentMap<String, IdBlockAllocator> idAllocators = new ConcurrentHashMap<String, IdBlockAllocator>();
     
     /**
      * Holds reference to client metadata.
@@ -152,7 +161,7 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
 
             // Set Index Manager
             indexManager = new IndexManager(LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_CURRENT),
-                    luceneDirectoryPath));
+                    luceneDirectoryPath, getIndexerProperties(puProperties)));
         }
         else if (indexerClass != null)
         {
@@ -179,6 +188,40 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
 //        }
     }
 
+    /**
+     * Returns indexer specific(i.e. "kundera.indexer.*") properties, external
+     * properties override persistence unit properties.
+     * 
+     * @param puProperties
+     *            external properties.
+     * @return indexer properties.
+     */
+    private Map<String, Object> getIndexerProperties(Map<String, Object> puProperties)
+    {
+        Map<String, Object> indexerProperties = new HashMap<String, Object>();
+        Properties properties = KunderaMetadata.INSTANCE.getApplicationMetadata()
+                .getPersistenceUnitMetadata(persistenceUnit).getProperties();
+        for (String propertyName : properties.stringPropertyNames())
+        {
+            if (propertyName.startsWith(INDEXER_PROPERTY_PREFIX))
+            {
+                indexerProperties.put(propertyName, properties.getProperty(propertyName));
+            }
+        }
+
+        if (puProperties != null)
+        {
+            for (Map.Entry<String, Object> property : puProperties.entrySet())
+            {
+                if (property.getKey().startsWith(INDEXER_PROPERTY_PREFIX))
+                {
+                    indexerProperties.put(property.getKey(), property.getValue());
+                }
+            }
+        }
+        return indexerProperties;
+    }
+
     /**
      * Initialize client.
      * 
@@ -315,9 +358,47 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
         return this.clientMetadata;
     }
 
+    /**
+     * Returns id allocator of given generator, shared by all clients of this
+     * factory, creating it on first use.
+     * 
+     * @param generator
+     *            key of generator, unique within this factory.
+     * @param source
+     *            reserves blocks of ids in datastore, used if allocator is
+     *            created.
+     * @return the id allocator
+     */
+    public IdBlockAllocator getIdAllocator(String generator, IdBlockSource source)
+    {
+        IdBlockAllocator allocator = idAllocators.get(generator);
+        if (allocator == null)
+        {
+            allocator = new IdBlockAllocator(source, isIdPrefetchEnabled());
+            IdBlockAllocator existing = idAllocators.putIfAbsent(generator, allocator);
+            allocator = existing != null ? existing : allocator;
+        }
+        return allocator;
+    }
+
+    /**
+     * Returns whether next block of ids is reserved in background.
+     */
+    private boolean isIdPrefetchEnabled()
+    {
+        Object prefetch = externalProperties != null ? externalProperties
+                .get(PersistenceProperties.KUNDERA_ID_PREFETCH) : null;
+        if (prefetch == null)
+        {
+            prefetch = KunderaMetadata.INSTANCE.getApplicationMetadata().getPersistenceUnitMetadata(persistenceUnit)
+                    .getProperty(PersistenceProperties.KUNDERA_ID_PREFETCH);
+        }
+        return prefetch != null && Boolean.parseBoolean(prefetch.toString().trim());
+    }
+
     protected enum LoadBalancer
     {
-        ROUNDROBIN, LEASTACTIVE;
+        ROUNDROBIN, LEASTACTIVE, LATENCYAWARE;
 
         public static LoadBalancer getValue(String loadBalancename)
         {
@@ -329,6 +410,10 @@ public abstract class GenericClientFactory implements ClientFactory, ClientLifeC
             {
                 return LEASTACTIVE;
             }
+            else if (loadBalancename != null && loadBalancename.equalsIgnoreCase(LATENCYAWARE.name()))
+            {
+                return LATENCYAWARE;
+            }
             else
             {
                 logger.info("Using default load balancer {} . " + ROUNDROBIN.name());
@@ -31,6 +31,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.impetus.kundera.metadata.model.type.AbstractManagedType;
+import com.impetus.kundera.property.FieldAccessor;
 
 /**
  * Abstract class for to provide generalisation, abstraction to
@@ -66,6 +67,9 @@ public abstract class AbstractAttribute<X, T>
     /** Column name */
     private String columnName;
 
+    /** Precompiled accessor of member. */
+    private final FieldAccessor accessor;
+
     /**
      * Instantiates a new abstract attribute.
      * 
@@ -90,6 +94,7 @@ public abstract class AbstractAttribute<X, T>
         this.persistenceAttribType = persistenceAttribType;
         this.managedType = managedType;
         this.member = member;
+        this.accessor = member != null ? new FieldAccessor(member) : null;
         this.columnName = getValidJPAColumnName();
     }
 
@@ -158,6 +163,16 @@ public abstract class AbstractAttribute<X, T>
         return member;
     }
 
+    /**
+     * Returns precompiled accessor of this attribute's field.
+     * 
+     * @return the field accessor
+     */
+    public FieldAccessor getAccessor()
+    {
+        return accessor;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -46,6 +46,8 @@ import com.impetus.kundera.configure.ClientMetadataBuilder;
 import com.impetus.kundera.loader.ClientFactory;
 import com.impetus.kundera.loader.ClientLifeCycleManager;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
+import com.impetus.kundera.query.QueryPlanCache;
 
 /**
  * Implementation class for {@link EntityManagerFactory}
@@ -84,6 +86,12 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
 
     private final PersistenceUtilHelper.MetadataCache cache = new PersistenceUtilHelper.MetadataCache();
 
+    /** Parsed queries shared by all entity managers of this factory. */
+    private QueryPlanCache queryPlanCache;
+
+    /** Flushes datastores concurrently for all entity managers, may be null. */
+    private FlushExecutor flushExecutor;
+
     /** ClientFactory map holds one clientfactory for one persistence unit */
     private Map<String, ClientFactory> clientFactories = new ConcurrentHashMap<String, ClientFactory>();
 
@@ -116,6 +124,10 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
         this.cacheProvider = initSecondLevelCache();
         this.cacheProvider.createCache(Constants.KUNDERA_SECONDARY_CACHE_NAME);
 
+        this.queryPlanCache = initQueryPlanCache();
+
+        this.flushExecutor = initFlushExecutor();
+
         // Invoke Client Loaders
         // logger.info("Loading Client(s) For Persistence Unit(s) " +
         // persistenceUnit);
@@ -169,6 +181,17 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
                 cacheProvider.shutdown();
             }
 
+            if (queryPlanCache != null)
+            {
+                queryPlanCache.clear();
+            }
+
+            if (flushExecutor != null)
+            {
+                flushExecutor.shutdown();
+                flushExecutor = null;
+            }
+
             for (String pu : persistenceUnits)
             {
                 ((ClientLifeCycleManager) clientFactories.get(pu)).destroy();
@@ -367,7 +390,14 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
             {
                 Class<CacheProvider> cacheProviderClass = (Class<CacheProvider>) Class.forName(cacheProviderClassName);
                 cacheProvider = cacheProviderClass.newInstance();
-                cacheProvider.init(classResourceName);
+                if (classResourceName != null)
+                {
+                    cacheProvider.init(classResourceName);
+                }
+                else
+                {
+                    cacheProvider.init(getCacheProperties());
+                }
             }
             catch (ClassNotFoundException e)
             {
@@ -390,6 +420,123 @@ public class EntityManagerFactoryImpl implements EntityManagerFactory
         return cacheProvider;
     }
 
+    /**
+     * Returns properties of persistence units, overridden by factory
+     * properties, for cache provider to read its settings(e.g. size and time
+     * to live) from.
+     * 
+     * @return the cache properties
+     */
+    private Map<String, Object> getCacheProperties()
+    {
+        Map<String, Object> cacheProperties = new HashMap<String, Object>();
+
+        // first persistence unit wins over later ones.
+        for (int i = persistenceUnits.length - 1; i >= 0; i--)
+        {
+            PersistenceUnitMetadata puMetadata = KunderaMetadataManager
+                    .getPersistenceUnitMetadata(persistenceUnits[i]);
+            if (puMetadata != null && puMetadata.getProperties() != null)
+            {
+                for (String name : puMetadata.getProperties().stringPropertyNames())
+                {
+                    cacheProperties.put(name, puMetadata.getProperty(name));
+                }
+            }
+        }
+        cacheProperties.putAll(getProperties());
+        return cacheProperties;
+    }
+
+    /**
+     * Inits the query plan cache, sized by "kundera.query.plan.cache.size"
+     * given either as factory or persistence unit property.
+     * 
+     * @return the query plan cache, null if disabled
+     */
+    private QueryPlanCache initQueryPlanCache()
+    {
+        Object size = getProperties().get(PersistenceProperties.KUNDERA_QUERY_PLAN_CACHE_SIZE);
+        if (size == null)
+        {
+            PersistenceUnitMetadata puMetadata = KunderaMetadataManager
+                    .getPersistenceUnitMetadata(persistenceUnits[0]);
+            size = puMetadata != null ? puMetadata.getProperty(PersistenceProperties.KUNDERA_QUERY_PLAN_CACHE_SIZE)
+                    : null;
+        }
+
+        int maxSize = QueryPlanCache.DEFAULT_MAX_SIZE;
+        if (size != null)
+        {
+            try
+            {
+                maxSize = Integer.parseInt(size.toString().trim());
+            }
+            catch (NumberFormatException e)
+            {
+                logger.warn("Invalid query plan cache size {}, using default {}.", size, maxSize);
+            }
+        }
+        return maxSize > 0 ? new QueryPlanCache(maxSize) : null;
+    }
+
+    /**
+     * Inits the flush executor, sized by "kundera.flush.threads" given either
+     * as factory or persistence unit property. Datastores can be flushed
+     * concurrently for polyglot persistence units only.
+     * 
+     * @return the flush executor, null if disabled
+     */
+    private FlushExecutor initFlushExecutor()
+    {
+        if (persistenceUnits.length < 2)
+        {
+            return null;
+        }
+
+        Object threads = getProperties().get(PersistenceProperties.KUNDERA_FLUSH_THREADS);
+        if (threads == null)
+        {
+            PersistenceUnitMetadata puMetadata = KunderaMetadataManager
+                    .getPersistenceUnitMetadata(persistenceUnits[0]);
+            threads = puMetadata != null ? puMetadata.getProperty(PersistenceProperties.KUNDERA_FLUSH_THREADS) : null;
+        }
+
+        int maxThreads = 0;
+        if (threads != null)
+        {
+            try
+            {
+                maxThreads = Integer.parseInt(threads.toString().trim());
+            }
+            catch (NumberFormatException e)
+            {
+                logger.warn("Invalid number of flush threads {}, flushing serially.", threads);
+            }
+        }
+        return maxThreads > 0 ? new FlushExecutor(maxThreads) : null;
+    }
+
+    /**
+     * Returns executor to flush datastores concurrently on.
+     * 
+     * @return the flush executor, null if disabled
+     */
+    FlushExecutor getFlushExecutor()
+    {
+        return flushExecutor;
+    }
+
+    /**
+     * Returns cache of parsed queries of this factory.
+     * 
+     * @return the query plan cache, null if disabled
+     */
+    public QueryPlanCache getQueryPlanCache()
+    {
+        return queryPlanCache;
+    }
+
     /**
      * Gets the persistence units.
      * 
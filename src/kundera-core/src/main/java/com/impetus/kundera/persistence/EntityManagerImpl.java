@@ -44,6 +44,7 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.KunderaException;
+import com.impetus.kundera.cache.Cache;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.ClientResolverException;
 import com.impetus.kundera.loader.ClientFactory;
@@ -125,11 +126,15 @@ public class EntityManagerImpl implements EntityManager, ResourceManager
         {
             logger.debug("Creating EntityManager for persistence unit : " + getPersistenceUnit());
         }
-        // session = new EntityManagerSession((Cache) factory.getCache());
         this.persistenceCache = new PersistenceCache();
         this.persistenceCache.setPersistenceContextType(persistenceContextType);
 
-        this.persistenceDelegator = new PersistenceDelegator(this.persistenceCache);
+        // Second level cache is shared by all entity managers of factory.
+        javax.persistence.Cache l2Cache = factory.getCache();
+        this.persistenceDelegator = new PersistenceDelegator(this.persistenceCache,
+                l2Cache instanceof Cache ? (Cache) l2Cache : null,
+                ((EntityManagerFactoryImpl) factory).getQueryPlanCache(),
+                ((EntityManagerFactoryImpl) factory).getFlushExecutor());
 
         for (String pu : ((EntityManagerFactoryImpl) this.factory).getPersistenceUnits())
         {
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.impetus.kundera.KunderaException;
+import com.impetus.kundera.utils.KunderaThreadFactory;
+
+/**
+ * Bounded pool, shared by entity managers of a factory, on which writes to
+ * different datastores of a polyglot persistence unit are flushed
+ * concurrently.
+ */
+final class FlushExecutor
+{
+    private final ExecutorService executor;
+
+    /**
+     * @param threads
+     *            maximum number of concurrent flushes.
+     */
+    FlushExecutor(int threads)
+    {
+        this.executor = Executors.newFixedThreadPool(threads, new KunderaThreadFactory(FlushExecutor.class.getName()));
+    }
+
+    /**
+     * Runs given tasks concurrently, first of them on caller thread, and
+     * waits for all of them to complete.
+     *
+     * @param tasks
+     *            the tasks
+     * @throws RuntimeException
+     *             first failure among tasks, once all of them are done.
+     */
+    void invokeAll(List<Callable<Void>> tasks)
+    {
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(tasks.size());
+        for (int i = 1; i < tasks.size(); i++)
+        {
+            futures.add(executor.submit(tasks.get(i)));
+        }
+
+        Throwable failure = null;
+        try
+        {
+            tasks.get(0).call();
+        }
+        catch (Throwable t)
+        {
+            failure = t;
+        }
+
+        // Wait for all, rollback must not race with writes in flight.
+        boolean interrupted = false;
+        for (Future<Void> future : futures)
+        {
+            while (true)
+            {
+                try
+                {
+                    future.get();
+                    break;
+                }
+                catch (ExecutionException eex)
+                {
+                    failure = failure != null ? failure : eex.getCause();
+                    break;
+                }
+                catch (InterruptedException iex)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failure instanceof RuntimeException)
+        {
+            throw (RuntimeException) failure;
+        }
+        else if (failure instanceof Error)
+        {
+            throw (Error) failure;
+        }
+        else if (failure != null)
+        {
+            throw new KunderaException(failure);
+        }
+    }
+
+    /**
+     * Stops accepting flushes, running ones complete.
+     */
+    void shutdown()
+    {
+        executor.shutdown();
+    }
+}
@@ -16,14 +16,19 @@
 
 package com.impetus.kundera.persistence;
 
+import java.io.Flushable;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.persistence.FlushModeType;
@@ -34,6 +39,7 @@ import org.slf4j.LoggerFactory;
 
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.PersistenceProperties;
+import com.impetus.kundera.cache.Cache;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.client.ClientPropertiesSetter;
 import com.impetus.kundera.client.ClientResolverException;
@@ -58,7 +64,9 @@ import com.impetus.kundera.persistence.context.PersistenceCache;
 import com.impetus.kundera.persistence.context.jointable.JoinTableData;
 import com.impetus.kundera.persistence.context.jointable.JoinTableData.OPERATION;
 import com.impetus.kundera.persistence.event.EntityEventDispatcher;
+import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.proxy.LazyInitializerFactory;
+import com.impetus.kundera.query.QueryPlanCache;
 import com.impetus.kundera.query.QueryResolver;
 import com.impetus.kundera.utils.ObjectUtils;
 
@@ -100,6 +108,27 @@ public final class PersistenceDelegator
 
     private Coordinator coordinator;
 
+    /** Second level cache shared across entity managers of a factory. */
+    private Cache l2Cache;
+
+    /**
+     * Metadata of nodes enlisted in transaction, by node id. They are evicted
+     * from second level cache once transaction ends.
+     */
+    private final Map<String, EntityMetadata> pendingEvictions = new ConcurrentHashMap<String, EntityMetadata>();
+
+    /**
+     * Nodes added to batch of each client since it was last executed. They
+     * are evicted from second level cache once it is.
+     */
+    private final Map<Batcher, PendingBatch> pendingBatches = new ConcurrentHashMap<Batcher, PendingBatch>();
+
+    /** Parsed query cache shared across entity managers of a factory. */
+    private QueryPlanCache queryPlanCache;
+
+    /** Flushes datastores concurrently, null to flush them serially. */
+    private FlushExecutor flushExecutor;
+
     /**
      * Instantiates a new persistence delegator.
      * 
@@ -109,10 +138,59 @@ public final class PersistenceDelegator
      *            the persistence units
      */
     PersistenceDelegator(final PersistenceCache pc)
+    {
+        this(pc, null);
+    }
+
+    /**
+     * Instantiates a new persistence delegator.
+     * 
+     * @param pc
+     *            the persistence cache
+     * @param l2Cache
+     *            second level cache, may be null.
+     */
+    PersistenceDelegator(final PersistenceCache pc, final Cache l2Cache)
+    {
+        this(pc, l2Cache, null);
+    }
+
+    /**
+     * Instantiates a new persistence delegator.
+     * 
+     * @param pc
+     *            the persistence cache
+     * @param l2Cache
+     *            second level cache, may be null.
+     * @param queryPlanCache
+     *            parsed query cache, may be null.
+     */
+    PersistenceDelegator(final PersistenceCache pc, final Cache l2Cache, final QueryPlanCache queryPlanCache)
+    {
+        this(pc, l2Cache, queryPlanCache, null);
+    }
+
+    /**
+     * Instantiates a new persistence delegator.
+     * 
+     * @param pc
+     *            the persistence cache
+     * @param l2Cache
+     *            second level cache, may be null.
+     * @param queryPlanCache
+     *            parsed query cache, may be null.
+     * @param flushExecutor
+     *            executor to flush datastores concurrently on, may be null.
+     */
+    PersistenceDelegator(final PersistenceCache pc, final Cache l2Cache, final QueryPlanCache queryPlanCache,
+            final FlushExecutor flushExecutor)
     {
         this.eventDispatcher = new EntityEventDispatcher();
         this.graphBuilder = new ObjectGraphBuilder(pc, this);
         this.persistenceCache = pc;
+        this.l2Cache = l2Cache;
+        this.queryPlanCache = queryPlanCache;
+        this.flushExecutor = flushExecutor;
     }
 
     /***********************************************************************/
@@ -290,6 +368,70 @@ public final class PersistenceDelegator
         return entities;
     }
 
+    /**
+     * Retrieves entities for given primary keys through client's findAll,
+     * reading through second level cache if entity is
+     * {@link javax.persistence.Cacheable} and has no relations. Only keys
+     * missing from cache are fetched from database, and entities fetched are
+     * put into cache.
+     * 
+     * @param m
+     *            entity metadata
+     * @param client
+     *            client of entity
+     * @param columnsToSelect
+     *            columns to select, null or empty to select entire entity
+     * @param keys
+     *            primary keys
+     * @return list of found entities
+     */
+    public List<Object> findAll(EntityMetadata m, Client client, String[] columnsToSelect, Object... keys)
+    {
+        // Entities with relations are cached along with their associations,
+        // which client does not load, and projections are partial.
+        boolean readThrough = l2Cache != null && m.isCacheable() && keys != null
+                && (columnsToSelect == null || columnsToSelect.length == 0)
+                && (m.getRelationNames() == null || m.getRelationNames().isEmpty()) && !m.isRelationViaJoinTable();
+        if (!readThrough)
+        {
+            return (List<Object>) client.findAll(m.getEntityClazz(), columnsToSelect, keys);
+        }
+
+        List<Object> entities = new ArrayList<Object>(keys.length);
+        List<Object> missed = new ArrayList<Object>();
+        for (Object key : keys)
+        {
+            Object cached = lookupSecondLevelCache(m, ObjectGraphUtils.getNodeId(key, m.getEntityClazz()));
+            if (cached != null)
+            {
+                entities.add(cached);
+            }
+            else
+            {
+                missed.add(key);
+            }
+        }
+
+        if (!missed.isEmpty())
+        {
+            List<Object> loaded = (List<Object>) client.findAll(m.getEntityClazz(), columnsToSelect, missed.toArray());
+            if (loaded != null)
+            {
+                for (Object entity : loaded)
+                {
+                    if (entity != null && m.getEntityClazz().isAssignableFrom(entity.getClass()))
+                    {
+                        putIntoSecondLevelCache(m,
+                                ObjectGraphUtils.getNodeId(PropertyAccessorHelper.getId(entity, m), m.getEntityClazz()),
+                                entity);
+                    }
+                }
+                entities.addAll(loaded);
+            }
+        }
+        return entities;
+    }
+
     /**
      * Retrieves {@link List} of entities for a given {@link Map} of embedded
      * column values. Purpose of this method is to provide functionality of
@@ -386,34 +528,25 @@ public final class PersistenceDelegator
         if (fs != null)
         {
             boolean isBatch = false;
-            while (!fs.isEmpty())
+            if (flushExecutor != null)
             {
-                Node node = fs.pop();
-
-                // Only nodes in Managed and Removed state are flushed, rest
-                // are ignored
-                if (node.isInState(ManagedState.class) || node.isInState(RemovedState.class))
+                isBatch = flushByClient(fs);
+            }
+            else
+            {
+                while (!fs.isEmpty())
                 {
-                    EntityMetadata metadata = getMetadata(node.getDataClass());
-                    node.setClient(getClient(metadata));
+                    Node node = fs.pop();
 
-                    // if batch size is defined.
-                    if ((node.getClient() instanceof Batcher) && ((Batcher) (node.getClient())).getBatchSize() > 0)
+                    // Only nodes in Managed and Removed state are flushed,
+                    // rest are ignored
+                    if (node.isInState(ManagedState.class) || node.isInState(RemovedState.class))
                     {
-                        isBatch = true;
-                        ((Batcher) (node.getClient())).addBatch(node);
+                        prepareFlush(node);
+                        isBatch = flushNode(node) || isBatch;
                     }
-                    else if (isTransactionInProgress
-                            && MetadataUtils.defaultTransactionSupported(metadata.getPersistenceUnit()))
-                    {
-                        onSynchronization(node, metadata);
-                    }
-                    else
-                    {
-                        node.flush();
-                    }
-                }
 
+                }
             }
 
             if (!isBatch)
@@ -427,6 +560,209 @@ public final class PersistenceDelegator
         }
     }
 
+    /**
+     * Sets client of node to be flushed.
+     */
+    private void prepareFlush(Node node)
+    {
+        EntityMetadata metadata = getMetadata(node.getDataClass());
+        node.setClient(getClient(metadata));
+    }
+
+    /**
+     * Flushes node through its client, or adds it to client's batch or
+     * transaction.
+     * 
+     * @return true, if node has been added to batch.
+     */
+    private boolean flushNode(Node node)
+    {
+        EntityMetadata metadata = getMetadata(node.getDataClass());
+
+        // if batch size is defined.
+        if (isBatched(node))
+        {
+            Batcher batcher = (Batcher) node.getClient();
+            batcher.addBatch(node);
+            onBatched(batcher, metadata, node.getNodeId());
+            return true;
+        }
+        else if (isEnlisted(metadata))
+        {
+            onSynchronization(node, metadata);
+            deferEviction(metadata, node.getNodeId());
+        }
+        else
+        {
+            node.flush();
+
+            // Invalidate once written, so that a concurrent find can not
+            // cache state older than datastore's.
+            evictFromSecondLevelCache(metadata, node.getNodeId());
+        }
+        return false;
+    }
+
+    /**
+     * Returns true, if node's client batches writes.
+     */
+    private boolean isBatched(Node node)
+    {
+        return (node.getClient() instanceof Batcher) && ((Batcher) (node.getClient())).getBatchSize() > 0;
+    }
+
+    /**
+     * Returns true, if writes of entity are enlisted in running transaction.
+     */
+    private boolean isEnlisted(EntityMetadata metadata)
+    {
+        return isTransactionInProgress && MetadataUtils.defaultTransactionSupported(metadata.getPersistenceUnit());
+    }
+
+    /**
+     * Flushes nodes of different clients concurrently. Flush stack is cut
+     * into rounds, a node starting a new round if it is linked to a node of
+     * another client in current one, so that linked nodes are flushed in
+     * stack order. Within a round, each client flushes its nodes in stack
+     * order.
+     * 
+     * @return true, if any node has been added to batch.
+     */
+    private boolean flushByClient(Deque<Node> fs)
+    {
+        boolean isBatch = false;
+        Map<Client, List<Node>> round = new LinkedHashMap<Client, List<Node>>();
+        Map<Node, Client> roundClients = new HashMap<Node, Client>();
+        while (!fs.isEmpty())
+        {
+            Node node = fs.pop();
+            if (node.isInState(ManagedState.class) || node.isInState(RemovedState.class))
+            {
+                prepareFlush(node);
+                Client client = node.getClient();
+                if (isLinked(node.getParents(), client, roundClients)
+                        || isLinked(node.getChildren(), client, roundClients))
+                {
+                    isBatch = flushRound(round) || isBatch;
+                    round.clear();
+                    roundClients.clear();
+                }
+
+                List<Node> nodes = round.get(client);
+                if (nodes == null)
+                {
+                    nodes = new ArrayList<Node>();
+                    round.put(client, nodes);
+                }
+                nodes.add(node);
+                roundClients.put(node, client);
+            }
+        }
+        return flushRound(round) || isBatch;
+    }
+
+    /**
+     * Returns true, if any of given linked nodes is in current round with a
+     * client other than given one.
+     */
+    private boolean isLinked(Map<?, Node> linked, Client client, Map<Node, Client> roundClients)
+    {
+        if (linked != null)
+        {
+            for (Node linkedNode : linked.values())
+            {
+                Client linkedClient = roundClients.get(linkedNode);
+                if (linkedClient != null && linkedClient != client)
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Flushes a round. Only client writes run on flush executor, callbacks
+     * and persistence context updates stay on calling thread; batched and
+     * enlisted nodes are handed over to their client or transaction as in a
+     * serial flush.
+     * 
+     * @return true, if any node has been added to batch.
+     */
+    private boolean flushRound(Map<Client, List<Node>> round)
+    {
+        boolean isBatch = false;
+        List<Node> written = new ArrayList<Node>();
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(round.size());
+        for (List<Node> nodes : round.values())
+        {
+            final List<Node> writes = new ArrayList<Node>(nodes.size());
+            for (Node node : nodes)
+            {
+                if (isBatched(node) || isEnlisted(getMetadata(node.getDataClass())))
+                {
+                    isBatch = flushNode(node) || isBatch;
+                }
+                else
+                {
+                    node.beforeFlush();
+                    writes.add(node);
+                }
+            }
+
+            if (!writes.isEmpty())
+            {
+                tasks.add(new Callable<Void>()
+                {
+                    @Override
+                    public Void call()
+                    {
+                        for (Node node : writes)
+                        {
+                            node.write();
+                        }
+                        return null;
+                    }
+                });
+                written.addAll(writes);
+            }
+        }
+        invokeAll(tasks);
+
+        for (Node node : written)
+        {
+            node.afterFlush();
+            evictFromSecondLevelCache(getMetadata(node.getDataClass()), node.getNodeId());
+        }
+        return isBatch;
+    }
+
+    /**
+     * Runs given flush tasks, concurrently if there are several of them.
+     */
+    private void invokeAll(List<Callable<Void>> tasks)
+    {
+        if (tasks.size() > 1)
+        {
+            flushExecutor.invokeAll(tasks);
+        }
+        else if (!tasks.isEmpty())
+        {
+            try
+            {
+                tasks.get(0).call();
+            }
+            catch (RuntimeException rex)
+            {
+                throw rex;
+            }
+            catch (Exception ex)
+            {
+                throw new KunderaException(ex);
+            }
+        }
+    }
+
     public <E> E merge(E e)
     {
         if (log.isDebugEnabled())
@@ -545,7 +881,7 @@ public final class PersistenceDelegator
     
     private Query getQueryInstance(String jpaQuery, boolean isNative, Class mappedClass)
     {
-        Query query = new QueryResolver().getQueryImplementation(jpaQuery, this,mappedClass,isNative);
+        Query query = new QueryResolver(queryPlanCache).getQueryImplementation(jpaQuery, this,mappedClass,isNative);
         return query;
     }
     /**
@@ -659,6 +995,163 @@ public final class PersistenceDelegator
         }
     }
 
+    /**
+     * Returns a copy of entity cached in second level cache, if entity is
+     * {@link javax.persistence.Cacheable}.
+     * 
+     * @param metadata
+     *            entity metadata
+     * @param nodeId
+     *            node id of entity
+     * @return entity copy or null, if not cached.
+     */
+    public Object lookupSecondLevelCache(EntityMetadata metadata, String nodeId)
+    {
+        if (l2Cache != null && metadata.isCacheable())
+        {
+            Object cached = l2Cache.get(nodeId);
+            if (cached != null)
+            {
+                if (log.isDebugEnabled())
+                {
+                    log.debug("Found {} in second level cache", nodeId);
+                }
+                // Cached instance is shared across entity managers, never
+                // hand it out.
+                return ObjectUtils.deepCopy(cached);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Puts a copy of entity into second level cache, if entity is
+     * {@link javax.persistence.Cacheable}.
+     * 
+     * @param metadata
+     *            entity metadata
+     * @param nodeId
+     *            node id of entity
+     * @param entity
+     *            entity loaded from database.
+     */
+    public void putIntoSecondLevelCache(EntityMetadata metadata, String nodeId, Object entity)
+    {
+        if (l2Cache != null && metadata.isCacheable() && entity != null)
+        {
+            l2Cache.put(nodeId, ObjectUtils.deepCopy(entity));
+        }
+    }
+
+    /**
+     * Evicts entity from second level cache, if entity is
+     * {@link javax.persistence.Cacheable}.
+     * 
+     * @param metadata
+     *            entity metadata
+     * @param nodeId
+     *            node id of entity
+     */
+    private void evictFromSecondLevelCache(EntityMetadata metadata, String nodeId)
+    {
+        if (l2Cache != null && metadata.isCacheable())
+        {
+            l2Cache.evict(metadata.getEntityClazz(), nodeId);
+        }
+    }
+
+    /**
+     * Keeps node for eviction from second level cache, until its transaction
+     * ends.
+     */
+    private void deferEviction(EntityMetadata metadata, String nodeId)
+    {
+        if (l2Cache != null && metadata.isCacheable())
+        {
+            pendingEvictions.put(nodeId, metadata);
+        }
+    }
+
+    /**
+     * Evicts nodes whose transaction has been committed (or rolled back) from
+     * second level cache.
+     */
+    private void evictPending()
+    {
+        for (Map.Entry<String, EntityMetadata> entry : pendingEvictions.entrySet())
+        {
+            evictFromSecondLevelCache(entry.getValue(), entry.getKey());
+        }
+        pendingEvictions.clear();
+    }
+
+    /**
+     * Keeps batched node for eviction from second level cache, until its
+     * batch is executed. Clients execute batch by themselves, once it reaches
+     * batch size.
+     */
+    private void onBatched(Batcher batcher, EntityMetadata metadata, String nodeId)
+    {
+        PendingBatch batch = pendingBatches.get(batcher);
+        if (batch == null)
+        {
+            batch = new PendingBatch();
+            pendingBatches.put(batcher, batch);
+        }
+        if (l2Cache != null && metadata.isCacheable())
+        {
+            batch.evictions.put(nodeId, metadata);
+        }
+        if (++batch.size >= batcher.getBatchSize())
+        {
+            onBatchExecuted(batcher);
+        }
+    }
+
+    /**
+     * Executes batch of client.
+     * 
+     * @return number of records written.
+     */
+    private int executeBatch(Batcher batcher)
+    {
+        try
+        {
+            return batcher.executeBatch();
+        }
+        finally
+        {
+            onBatchExecuted(batcher);
+        }
+    }
+
+    /**
+     * Evicts nodes of executed batch of client from second level cache.
+     */
+    private void onBatchExecuted(Batcher batcher)
+    {
+        PendingBatch batch = pendingBatches.remove(batcher);
+        if (batch != null)
+        {
+            for (Map.Entry<String, EntityMetadata> entry : batch.evictions.entrySet())
+            {
+                evictFromSecondLevelCache(entry.getValue(), entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Nodes added to batch of a client.
+     */
+    private static final class PendingBatch
+    {
+        /** Number of nodes. */
+        private int size;
+
+        /** Metadata of cacheable nodes, by node id. */
+        private final Map<String, EntityMetadata> evictions = new HashMap<String, EntityMetadata>();
+    }
+
     /**
      * Gets the metadata.
      * 
@@ -720,6 +1213,7 @@ public final class PersistenceDelegator
         execute();
         flushManager.commit();
         flushManager.clearFlushStack();
+        evictPending();
         isTransactionInProgress = false;
         enableFlush = false;
     }
@@ -735,12 +1229,17 @@ public final class PersistenceDelegator
         enableFlush = false;
         flushManager.commit();
         flushManager.clearFlushStack();
+        if (!isTransactionInProgress)
+        {
+            evictPending();
+        }
     }
 
     void rollback()
     {
         flushManager.rollback(this);
         flushManager.clearFlushStack();
+        evictPending();
         getPersistenceCache().clean();
         isTransactionInProgress = false;
     }
@@ -806,26 +1305,96 @@ public final class PersistenceDelegator
     }
 
     /**
-     * Executes batch.
+     * Executes batch, and sends writes clients buffer on their side.
      */
     private void execute()
     {
-        if (clientMap != null)
+        if (clientMap != null && flushExecutor != null && clientMap.size() > 1)
+        {
+            executeByClient();
+        }
+        else if (clientMap != null)
         {
             for (Client client : clientMap.values())
             {
                 if (client instanceof Batcher)
                 {
                     // if no batch operation performed{may be running in transaction?}
-                    if (((Batcher) client).getBatchSize() == 0 || ((Batcher) client).executeBatch() > 0)
+                    if (((Batcher) client).getBatchSize() == 0 || executeBatch((Batcher) client) > 0)
                     {
                         flushJoinTableData();
                     }
                 }
             }
+
+            for (Client client : clientMap.values())
+            {
+                if (client instanceof Flushable)
+                {
+                    try
+                    {
+                        ((Flushable) client).flush();
+                    }
+                    catch (IOException ioex)
+                    {
+                        log.error("Error while flushing buffered writes, Caused by: .", ioex);
+                        throw new KunderaException(ioex);
+                    }
+                }
+            }
         }
     }
 
+    /**
+     * Executes batches, then sends buffered writes of all clients
+     * concurrently. Batches are executed on calling thread, as clients fire
+     * entity callbacks while executing them.
+     */
+    private void executeByClient()
+    {
+        boolean joinTables = false;
+        for (Client client : clientMap.values())
+        {
+            // if no batch operation performed{may be running in
+            // transaction?}
+            if (client instanceof Batcher
+                    && (((Batcher) client).getBatchSize() == 0 || executeBatch((Batcher) client) > 0))
+            {
+                joinTables = true;
+            }
+        }
+        if (joinTables)
+        {
+            flushJoinTableData();
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final Client client : clientMap.values())
+        {
+            if (client instanceof Flushable)
+            {
+                tasks.add(new Callable<Void>()
+                {
+                    @Override
+                    public Void call()
+                    {
+                        try
+                        {
+                            ((Flushable) client).flush();
+                        }
+                        catch (IOException ioex)
+                        {
+                            log.error("Error while flushing buffered writes, Caused by: .", ioex);
+                            throw new KunderaException(ioex);
+                        }
+                        return null;
+                    }
+                });
+            }
+        }
+        invokeAll(tasks);
+    }
+
     /**
      * On flushing join table data
      */
@@ -833,29 +1402,79 @@ public final class PersistenceDelegator
     {
         if (applyFlush())
         {
+            if (flushExecutor != null)
+            {
+                flushJoinTableDataByClient();
+                return;
+            }
             for (JoinTableData jtData : flushManager.getJoinTableData())
             {
                 if (!jtData.isProcessed())
                 {
                     EntityMetadata m = KunderaMetadataManager.getEntityMetadata(jtData.getEntityClass());
-                    Client client = getClient(m);
-                    if (OPERATION.INSERT.equals(jtData.getOperation()))
-                    {
-                        client.persistJoinTable(jtData);
-                        jtData.setProcessed(true);
-                    }
-                    else if (OPERATION.DELETE.equals(jtData.getOperation()))
+                    flushJoinTableData(jtData, m, getClient(m));
+                }
+
+            }
+        }
+    }
+
+    /**
+     * Flushes join table data of each client concurrently.
+     */
+    private void flushJoinTableDataByClient()
+    {
+        final Map<Client, List<JoinTableData>> jtDataByClient = new LinkedHashMap<Client, List<JoinTableData>>();
+        for (JoinTableData jtData : flushManager.getJoinTableData())
+        {
+            if (!jtData.isProcessed())
+            {
+                Client client = getClient(KunderaMetadataManager.getEntityMetadata(jtData.getEntityClass()));
+                List<JoinTableData> jtDatas = jtDataByClient.get(client);
+                if (jtDatas == null)
+                {
+                    jtDatas = new ArrayList<JoinTableData>();
+                    jtDataByClient.put(client, jtDatas);
+                }
+                jtDatas.add(jtData);
+            }
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(jtDataByClient.size());
+        for (final Map.Entry<Client, List<JoinTableData>> entry : jtDataByClient.entrySet())
+        {
+            tasks.add(new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    for (JoinTableData jtData : entry.getValue())
                     {
-                        for (Object pk : jtData.getJoinTableRecords().keySet())
-                        {
-                            client.deleteByColumn(m.getSchema(), jtData.getJoinTableName(),
-                                    ((AbstractAttribute) m.getIdAttribute()).getJPAColumnName(), pk);
-                        }
-                        jtData.setProcessed(true);
+                        flushJoinTableData(jtData, KunderaMetadataManager.getEntityMetadata(jtData.getEntityClass()),
+                                entry.getKey());
                     }
+                    return null;
                 }
+            });
+        }
+        invokeAll(tasks);
+    }
 
+    private void flushJoinTableData(JoinTableData jtData, EntityMetadata m, Client client)
+    {
+        if (OPERATION.INSERT.equals(jtData.getOperation()))
+        {
+            client.persistJoinTable(jtData);
+            jtData.setProcessed(true);
+        }
+        else if (OPERATION.DELETE.equals(jtData.getOperation()))
+        {
+            for (Object pk : jtData.getJoinTableRecords().keySet())
+            {
+                client.deleteByColumn(m.getSchema(), jtData.getJoinTableName(),
+                        ((AbstractAttribute) m.getIdAttribute()).getJPAColumnName(), pk);
             }
+            jtData.setProcessed(true);
         }
     }
 
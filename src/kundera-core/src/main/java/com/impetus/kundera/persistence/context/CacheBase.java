@@ -24,13 +24,16 @@ import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.graph.Node;
 import com.impetus.kundera.graph.NodeLink;
 import com.impetus.kundera.graph.ObjectGraph;
 import com.impetus.kundera.graph.ObjectGraphUtils;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
 import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.utils.EntitySnapshot;
 import com.impetus.kundera.utils.ObjectUtils;
 
 /**
@@ -41,6 +44,9 @@ import com.impetus.kundera.utils.ObjectUtils;
 public class CacheBase {
     private static Logger log = LoggerFactory.getLogger(CacheBase.class);
 
+    /** Snapshot mode keeping field values in place of entity copy. */
+    private static final String SNAPSHOT_FIELDS = "fields";
+
     private Map<String, Node> nodeMappings;
 
     private Set<Node> headNodes;
@@ -70,11 +76,18 @@ public class CacheBase {
     }
 
     public void addNodeToCache(Node node) {
-        // Make a deep copy of Node data and and set into node
-        // Original data object is now detached from Node and is possibly
-        // referred by user code
-        Object nodeDataCopy = ObjectUtils.deepCopy(node.getData());
-        node.setData(nodeDataCopy);
+        Object nodeData = node.getData();
+        if (nodeData != null && isFieldSnapshot(nodeData)) {
+            // Keep node data as is, snapshot its field values for dirty
+            // checking
+            node.setSnapshot(EntitySnapshot.take(nodeData));
+        } else {
+            // Make a deep copy of Node data and and set into node
+            // Original data object is now detached from Node and is possibly
+            // referred by user code
+            Object nodeDataCopy = ObjectUtils.deepCopy(nodeData);
+            node.setData(nodeDataCopy);
+        }
 
         /*
          * check if this node already exists in cache node mappings If yes, update parents and children links Otherwise,
@@ -84,6 +97,22 @@ public class CacheBase {
         processNodeMapping(node);
     }
 
+    /**
+     * Returns true, if persistence unit of given entity snapshots field values
+     * in place of copying entity.
+     */
+    private boolean isFieldSnapshot(Object entity) {
+        EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entity.getClass());
+        if (entityMetadata == null) {
+            return false;
+        }
+        PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(entityMetadata
+                .getPersistenceUnit());
+        return puMetadata != null
+                && SNAPSHOT_FIELDS.equalsIgnoreCase(puMetadata
+                        .getProperty(PersistenceProperties.KUNDERA_PERSISTENCE_CONTEXT_SNAPSHOT));
+    }
+
     public void processNodeMapping(Node node) {
         if (nodeMappings.containsKey(node.getNodeId())) {
             Node existingNode = nodeMappings.get(node.getNodeId());
@@ -116,7 +145,7 @@ public class CacheBase {
         }
     }
 
-    public void removeNodeFromCache(Node node) {
+    public synchronized void removeNodeFromCache(Node node) {
         if (getHeadNodes().contains(node)) {
             getHeadNodes().remove(node);
         }
@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.property;
+
+import java.lang.reflect.Field;
+
+/**
+ * Precompiled access to an entity field. The field is made accessible once,
+ * when the metamodel is built, together with its {@link PropertyAccessor}, so
+ * that reads and writes on the data path neither re-check accessibility nor
+ * look up type converters. Primitive fields can be read and written without
+ * boxing.
+ */
+public final class FieldAccessor
+{
+    /** The field. */
+    private final Field field;
+
+    /** Converter for field's type. */
+    private final PropertyAccessor<?> propertyAccessor;
+
+    /**
+     * Instantiates a new field accessor.
+     * 
+     * @param field
+     *            the field
+     */
+    public FieldAccessor(Field field)
+    {
+        if (!field.isAccessible())
+        {
+            field.setAccessible(true);
+        }
+        this.field = field;
+        this.propertyAccessor = PropertyAccessorFactory.getPropertyAccessor(field);
+    }
+
+    /**
+     * @return the field
+     */
+    public Field getField()
+    {
+        return field;
+    }
+
+    /**
+     * @return the property accessor of field's type
+     */
+    public PropertyAccessor<?> getPropertyAccessor()
+    {
+        return propertyAccessor;
+    }
+
+    /**
+     * Gets field value.
+     * 
+     * @param target
+     *            the target
+     * @return the object
+     * @throws PropertyAccessException
+     *             the property access exception
+     */
+    public Object get(Object target)
+    {
+        try
+        {
+            return field.get(target);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+
+    /**
+     * Sets field value.
+     * 
+     * @param target
+     *            the target
+     * @param value
+     *            the value
+     * @throws PropertyAccessException
+     *             the property access exception
+     */
+    public void set(Object target, Object value)
+    {
+        try
+        {
+            field.set(target, value);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+
+    /**
+     * Gets field value as byte-array.
+     * 
+     * @param target
+     *            the target
+     * @return the byte[]
+     */
+    public byte[] getBytes(Object target)
+    {
+        return propertyAccessor.toBytes(get(target));
+    }
+
+    /**
+     * Gets field value as string.
+     * 
+     * @param target
+     *            the target
+     * @return the string, null if value is null.
+     */
+    public String getString(Object target)
+    {
+        Object value = get(target);
+        return value != null ? propertyAccessor.toString(value) : null;
+    }
+
+    /**
+     * Sets field value from byte-array.
+     * 
+     * @param target
+     *            the target
+     * @param bytes
+     *            the bytes
+     */
+    public void setBytes(Object target, byte[] bytes)
+    {
+        set(target, propertyAccessor.fromBytes(field.getType(), bytes));
+    }
+
+    /**
+     * Sets field value from string.
+     * 
+     * @param target
+     *            the target
+     * @param value
+     *            the string value
+     */
+    public void setString(Object target, String value)
+    {
+        set(target, propertyAccessor.fromString(target.getClass(), value));
+    }
+
+    /**
+     * Gets value of an int field.
+     * 
+     * @param target
+     *            the target
+     * @return the int
+     */
+    public int getInt(Object target)
+    {
+        try
+        {
+            return field.getInt(target);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+
+    /**
+     * Sets value of an int field.
+     * 
+     * @param target
+     *            the target
+     * @param value
+     *            the value
+     */
+    public void setInt(Object target, int value)
+    {
+        try
+        {
+            field.setInt(target, value);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+
+    /**
+     * Gets value of a long field.
+     * 
+     * @param target
+     *            the target
+     * @return the long
+     */
+    public long getLong(Object target)
+    {
+        try
+        {
+            return field.getLong(target);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+
+    /**
+     * Sets value of a long field.
+     * 
+     * @param target
+     *            the target
+     * @param value
+     *            the value
+     */
+    public void setLong(Object target, long value)
+    {
+        try
+        {
+            field.setLong(target, value);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+
+    /**
+     * Gets value of a double field.
+     * 
+     * @param target
+     *            the target
+     * @return the double
+     */
+    public double getDouble(Object target)
+    {
+        try
+        {
+            return field.getDouble(target);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+
+    /**
+     * Sets value of a double field.
+     * 
+     * @param target
+     *            the target
+     * @param value
+     *            the value
+     */
+    public void setDouble(Object target, double value)
+    {
+        try
+        {
+            field.setDouble(target, value);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+
+    /**
+     * Gets value of a boolean field.
+     * 
+     * @param target
+     *            the target
+     * @return the boolean
+     */
+    public boolean getBoolean(Object target)
+    {
+        try
+        {
+            return field.getBoolean(target);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+
+    /**
+     * Sets value of a boolean field.
+     * 
+     * @param target
+     *            the target
+     * @param value
+     *            the value
+     */
+    public void setBoolean(Object target, boolean value)
+    {
+        try
+        {
+            field.setBoolean(target, value);
+        }
+        catch (IllegalArgumentException iarg)
+        {
+            throw new PropertyAccessException(iarg);
+        }
+        catch (IllegalAccessException iacc)
+        {
+            throw new PropertyAccessException(iacc);
+        }
+    }
+}
@@ -25,8 +25,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import javax.persistence.metamodel.SingularAttribute;
+
 import com.impetus.kundera.client.EnhanceEntity;
 import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.utils.ReflectUtils;
 
 /**
@@ -261,7 +264,7 @@ public class PropertyAccessorHelper
         // Otherwise, as Kundera currently supports only field access, access
         // the underlying Entity's id field
 
-        return getObject(entity, (Field) metadata.getIdAttribute().getJavaMember());
+        return idAccessor(metadata).get(entity);
     }
 
     /**
@@ -280,8 +283,7 @@ public class PropertyAccessorHelper
     {
         try
         {
-            Field idField = (Field) metadata.getIdAttribute().getJavaMember();
-            set(entity, idField, rowKey);
+            idAccessor(metadata).set(entity, rowKey);
         }
         catch (IllegalArgumentException iarg)
         {
@@ -305,15 +307,7 @@ public class PropertyAccessorHelper
     {
         try
         {
-            Field idField = (Field) metadata.getIdAttribute().getJavaMember();
-
-            // PropertyAccessor<?> accessor =
-            // PropertyAccessorFactory.getPropertyAccessor(idField);
-            // Object obj = accessor.fromBytes(idField.getClass(), rowKey);
-            //
-            // metadata.getWriteIdentifierMethod().invoke(entity, obj);
-            //
-            set(entity, idField, rowKey);
+            idAccessor(metadata).setBytes(entity, rowKey);
         }
         catch (IllegalArgumentException iarg)
         {
@@ -321,6 +315,24 @@ public class PropertyAccessorHelper
         }
     }
 
+    /**
+     * Returns precompiled accessor of entity's id field, falling back to a
+     * new one if id attribute is not part of metamodel.
+     * 
+     * @param metadata
+     *            the metadata
+     * @return the field accessor
+     */
+    private static FieldAccessor idAccessor(EntityMetadata metadata)
+    {
+        SingularAttribute idAttribute = metadata.getIdAttribute();
+        if (idAttribute instanceof AbstractAttribute && ((AbstractAttribute) idAttribute).getAccessor() != null)
+        {
+            return ((AbstractAttribute) idAttribute).getAccessor();
+        }
+        return new FieldAccessor((Field) idAttribute.getJavaMember());
+    }
+
     /**
      * Gets the embedded object.
      * 
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -61,7 +62,7 @@ public class KunderaQuery
     public static final String[] INTER_CLAUSE_OPERATORS = { "AND", "OR", "BETWEEN" };
 
     /** The Constant INTRA_CLAUSE_OPERATORS. */
-    public static final String[] INTRA_CLAUSE_OPERATORS = { "=", "LIKE", "IN", ">", ">=", "<", "<=" };
+    public static final String[] INTRA_CLAUSE_OPERATORS = { "=", "LIKE", "IN", "NOT IN", ">", ">=", "<", "<=" };
 
     /** The INTER pattern. */
     private static final Pattern INTER_CLAUSE_PATTERN = Pattern.compile(
@@ -69,7 +70,7 @@ public class KunderaQuery
 
     /** The INTRA pattern. */
     private static final Pattern INTRA_CLAUSE_PATTERN = Pattern.compile(
-            "=|\\s\\blike\\b|\\bin\\b|>=|>|<=|<|\\s\\bset", Pattern.CASE_INSENSITIVE);
+            "=|\\s\\blike\\b|\\bnot\\sin\\b|\\bin\\b|>=|>|<=|<|\\s\\bset", Pattern.CASE_INSENSITIVE);
 
     /** The logger. */
     private static Logger logger = LoggerFactory.getLogger(KunderaQuery.class);
@@ -928,6 +929,73 @@ public class KunderaQuery
 
     }
 
+    /**
+     * Returns a copy of this parsed query, sharing immutable parse results but
+     * holding its own filter and update clauses, so that parameters bound on
+     * copy do not leak into this query. Used to hand out cached query plans.
+     * 
+     * @return the kundera query
+     */
+    KunderaQuery copy()
+    {
+        KunderaQuery copy = new KunderaQuery();
+        copy.result = result != null ? result.clone() : null;
+        copy.from = from;
+        copy.filter = filter;
+        copy.ordering = ordering;
+        copy.entityName = entityName;
+        copy.entityAlias = entityAlias;
+        copy.entityClass = entityClass;
+        copy.sortOrders = sortOrders != null ? new ArrayList<SortOrdering>(sortOrders) : null;
+        copy.persistenceUnit = persistenceUnit;
+        copy.isDeleteUpdate = isDeleteUpdate;
+        copy.isNativeQuery = isNativeQuery;
+
+        Map<Object, Object> copiedClauses = new IdentityHashMap<Object, Object>();
+        for (Object clause : filtersQueue)
+        {
+            if (clause instanceof FilterClause)
+            {
+                FilterClause filterClause = (FilterClause) clause;
+                FilterClause copiedClause = copy.new FilterClause(filterClause.property, filterClause.condition, null);
+                copiedClause.value = filterClause.value;
+                copiedClauses.put(filterClause, copiedClause);
+                clause = copiedClause;
+            }
+            copy.filtersQueue.add(clause);
+        }
+        for (UpdateClause updateClause : updateClauseQueue)
+        {
+            UpdateClause copiedClause = copy.new UpdateClause(updateClause.property, null);
+            copiedClause.value = updateClause.value;
+            copiedClauses.put(updateClause, copiedClause);
+            copy.updateClauseQueue.add(copiedClause);
+        }
+
+        if (typedParameter != null)
+        {
+            copy.typedParameter = copy.new TypedParameter(typedParameter.type);
+            copy.typedParameter.jpaParameters = typedParameter.jpaParameters;
+            if (typedParameter.parameters != null)
+            {
+                for (Map.Entry<String, FilterClause> entry : typedParameter.parameters.entrySet())
+                {
+                    copy.typedParameter.addParameters(entry.getKey(),
+                            (FilterClause) copiedClauses.get(entry.getValue()));
+                }
+            }
+            if (typedParameter.updateParameters != null)
+            {
+                for (Map.Entry<String, UpdateClause> entry : typedParameter.updateParameters.entrySet())
+                {
+                    copy.typedParameter.addParameters(entry.getKey(),
+                            (UpdateClause) copiedClauses.get(entry.getValue()));
+                }
+            }
+        }
+        return copy;
+    }
+
     /* @see java.lang.Object#clone() */
     /*
      * (non-Javadoc)
@@ -1379,4 +1447,4 @@ public class KunderaQuery
         return value;
     }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
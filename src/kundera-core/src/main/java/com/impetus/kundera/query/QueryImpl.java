@@ -237,7 +237,7 @@ public abstract class QueryImpl<E> implements Query, com.impetus.kundera.query.Q
         if (kunderaQuery.isAliasOnly() || !m.getType().isSuperColumnFamilyMetadata())
         {
 
-            result = (List<Object>) client.findAll(m.getEntityClazz(), columnsToSelect, uniquePKs.toArray());
+            result = persistenceDelegeator.findAll(m, client, columnsToSelect, uniquePKs.toArray());
         }
         else
         {
@@ -287,6 +287,11 @@ public abstract class QueryImpl<E> implements Query, com.impetus.kundera.query.Q
             {
                 boolean appended = false;
                 FilterClause filter = (FilterClause) object;
+                if (filter.getCondition().trim().equalsIgnoreCase("NOT IN"))
+                {
+                    throw new QueryHandlerException("NOT IN condition on {" + filter.getProperty()
+                            + "} is not supported over lucene index");
+                }
                 // sb.append("+");
                 // property
                 sb.append(metadata.getIndexName());
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.query;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Bounded cache of parsed queries of an entity manager factory, keyed by query
+ * string (or named query name). Cached queries are never executed; each
+ * lookup returns a {@link KunderaQuery#copy()} onto which parameters are
+ * bound.
+ */
+public class QueryPlanCache
+{
+    /** Default maximum number of cached queries. */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    /** The plans. */
+    private final Cache<PlanKey, KunderaQuery> plans;
+
+    /**
+     * Instantiates a new query plan cache.
+     * 
+     * @param maxSize
+     *            maximum number of cached queries.
+     */
+    public QueryPlanCache(int maxSize)
+    {
+        this.plans = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+    }
+
+    /**
+     * Returns a copy of cached parsed query, parsing it through given parser
+     * on a miss.
+     * 
+     * @param query
+     *            query string or named query name
+     * @param mappedClass
+     *            result class of a native query, may be null
+     * @param isNative
+     *            true, if native query
+     * @param parser
+     *            parses query on a miss
+     * @return the kundera query
+     */
+    KunderaQuery get(String query, Class<?> mappedClass, boolean isNative, Callable<KunderaQuery> parser)
+    {
+        try
+        {
+            return plans.get(new PlanKey(query, mappedClass, isNative), parser).copy();
+        }
+        catch (UncheckedExecutionException e)
+        {
+            throw rethrow(e.getCause());
+        }
+        catch (ExecutionException e)
+        {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private RuntimeException rethrow(Throwable cause)
+    {
+        if (cause instanceof RuntimeException)
+        {
+            return (RuntimeException) cause;
+        }
+        return new QueryHandlerException(cause);
+    }
+
+    /**
+     * @return number of lookups served from cache
+     */
+    public long getHitCount()
+    {
+        return plans.stats().hitCount();
+    }
+
+    /**
+     * @return number of lookups which had to parse query
+     */
+    public long getMissCount()
+    {
+        return plans.stats().missCount();
+    }
+
+    /**
+     * @return ratio of lookups served from cache, 1.0 if none made yet
+     */
+    public double getHitRate()
+    {
+        return plans.stats().hitRate();
+    }
+
+    /**
+     * @return cache statistics
+     */
+    public CacheStats getStatistics()
+    {
+        return plans.stats();
+    }
+
+    /**
+     * @return number of cached queries
+     */
+    public long size()
+    {
+        return plans.size();
+    }
+
+    /**
+     * Removes all cached queries.
+     */
+    public void clear()
+    {
+        plans.invalidateAll();
+    }
+
+    /**
+     * Cache key, a native query string may be mapped onto different result
+     * classes.
+     */
+    private static final class PlanKey
+    {
+        private final String query;
+
+        private final Class<?> mappedClass;
+
+        private final boolean isNative;
+
+        private final int hashCode;
+
+        PlanKey(String query, Class<?> mappedClass, boolean isNative)
+        {
+            this.query = query;
+            this.mappedClass = mappedClass;
+            this.isNative = isNative;
+            this.hashCode = new HashCodeBuilder().append(query).append(mappedClass).append(isNative).toHashCode();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof PlanKey))
+            {
+                return false;
+            }
+            PlanKey other = (PlanKey) obj;
+            return new EqualsBuilder().append(query, other.query).append(mappedClass, other.mappedClass)
+                    .append(isNative, other.isNative).isEquals();
+        }
+    }
+}
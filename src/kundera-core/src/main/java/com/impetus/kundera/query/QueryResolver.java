@@ -18,6 +18,7 @@ package com.impetus.kundera.query;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Callable;
 
 import javax.persistence.Query;
 
@@ -42,6 +43,28 @@ public class QueryResolver
     /** The log. */
     private static Logger log = LoggerFactory.getLogger(QueryResolver.class);
 
+    /** Parsed query cache of entity manager factory, may be null. */
+    private final QueryPlanCache queryPlanCache;
+
+    /**
+     * Instantiates a new query resolver which parses every query.
+     */
+    public QueryResolver()
+    {
+        this(null);
+    }
+
+    /**
+     * Instantiates a new query resolver.
+     * 
+     * @param queryPlanCache
+     *            cache of parsed queries, may be null.
+     */
+    public QueryResolver(QueryPlanCache queryPlanCache)
+    {
+        this.queryPlanCache = queryPlanCache;
+    }
+
     /**
      * Gets the query implementation.
      * 
@@ -53,13 +76,66 @@ public class QueryResolver
      *            the persistence units
      * @return the query implementation
      */
-    public Query getQueryImplementation(String jpaQuery, PersistenceDelegator persistenceDelegator, Class mappedClass,
-            boolean isNative)
+    public Query getQueryImplementation(final String jpaQuery, PersistenceDelegator persistenceDelegator,
+            final Class mappedClass, final boolean isNative)
     {
         if (jpaQuery == null)
         {
             throw new QueryHandlerException("Query String should not be null ");
         }
+
+        KunderaQuery kunderaQuery;
+        if (queryPlanCache != null)
+        {
+            kunderaQuery = queryPlanCache.get(jpaQuery, mappedClass, isNative, new Callable<KunderaQuery>()
+            {
+                @Override
+                public KunderaQuery call()
+                {
+                    return parse(jpaQuery, mappedClass, isNative);
+                }
+            });
+        }
+        else
+        {
+            kunderaQuery = parse(jpaQuery, mappedClass, isNative);
+        }
+
+        EntityMetadata m = kunderaQuery.isNative() ? KunderaMetadataManager.getEntityMetadata(kunderaQuery
+                .getEntityClass()) : kunderaQuery.getEntityMetadata();
+
+        // PersistenceUnitMetadata puMetadata =
+        // KunderaMetadataManager.getPersistenceUnitMetadata(pu);
+
+        Query query = null;
+
+        try
+        {
+            query = getQuery(jpaQuery, persistenceDelegator, m, kunderaQuery);
+        }
+        catch (Exception e)
+        {
+            log.error(e.getMessage());
+            throw new QueryHandlerException(e);
+        }
+
+        return query;
+
+    }
+
+    /**
+     * Parses query, or named query mapped onto given name.
+     * 
+     * @param jpaQuery
+     *            the jpa query
+     * @param mappedClass
+     *            result class of native query
+     * @param isNative
+     *            true, if native query
+     * @return the kundera query
+     */
+    private KunderaQuery parse(String jpaQuery, Class mappedClass, boolean isNative)
+    {
         KunderaQuery kunderaQuery = new KunderaQuery();
         ApplicationMetadata appMetadata = KunderaMetadata.INSTANCE.getApplicationMetadata();
         String mappedQuery = appMetadata.getQuery(jpaQuery);
@@ -69,8 +145,6 @@ public class QueryResolver
         
 //        mappedClass = appMetadata.getMappedClass(jpaQuery)
 
-        EntityMetadata m = null;
-
         // In case of named native query
         if (!isNative)
         {
@@ -81,7 +155,6 @@ public class QueryResolver
 
             kunderaQuery.postParsingInit();
             // pu = kunderaQuery.getPersistenceUnit();
-            m = kunderaQuery.getEntityMetadata();
         }
         else
         {
@@ -95,7 +168,6 @@ public class QueryResolver
             // pu = appMetadata.getMappedPersistenceUnit(mappedClass).get(0);
             
             kunderaQuery.isNativeQuery = true;
-            m = KunderaMetadataManager.getEntityMetadata(mappedClass);
 
             Field entityClazzField = null;
             try
@@ -114,24 +186,7 @@ public class QueryResolver
                 throw new QueryHandlerException(e);
             }
         }
-
-        // PersistenceUnitMetadata puMetadata =
-        // KunderaMetadataManager.getPersistenceUnitMetadata(pu);
-
-        Query query = null;
-
-        try
-        {
-            query = getQuery(jpaQuery, persistenceDelegator, m, kunderaQuery);
-        }
-        catch (Exception e)
-        {
-            log.error(e.getMessage());
-            throw new QueryHandlerException(e);
-        }
-
-        return query;
-
+        return kunderaQuery;
     }
 
     /**
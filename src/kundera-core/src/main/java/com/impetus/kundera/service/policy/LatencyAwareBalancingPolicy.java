@@ -0,0 +1,289 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.kundera.service.policy;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * LatencyAwareBalancingPolicy picks two pools at random and returns the one
+ * with lesser load, load being moving average latency of its host times its
+ * in flight requests. Client factories report checkouts and releases through
+ * {@link #onAcquire(Object)} and {@link #onRelease(Object, long)}; statistics
+ * are kept in lock free counters and picking a pool neither locks nor sorts.
+ *
+ * A host whose average latency grows beyond a multiple of the fastest host's
+ * is handed to {@link #onQuarantine(Object)}, for client factory to take it
+ * out of rotation and retry it later.
+ */
+public class LatencyAwareBalancingPolicy implements LoadBalancingPolicy
+{
+    /** The logger. */
+    private static Logger logger = LoggerFactory.getLogger(LatencyAwareBalancingPolicy.class);
+
+    /** Weight of latest sample in moving average. */
+    private static final double ALPHA = 0.2;
+
+    /** Samples needed before a host's average is trusted. */
+    private static final long MIN_SAMPLES = 100;
+
+    /** Quarantine is checked once per these many samples of a host. */
+    private static final long QUARANTINE_CHECK_INTERVAL = 64;
+
+    /** Average latency below which a host is never quarantined. */
+    private static final long MIN_QUARANTINE_LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** Default multiple of fastest host's latency to quarantine at. */
+    private static final double DEFAULT_QUARANTINE_FACTOR = 5.0;
+
+    /** Statistics keyed by pool. */
+    private final ConcurrentMap<Object, HostStatistics> statistics = new ConcurrentHashMap<Object, HostStatistics>();
+
+    private final Random random = new Random();
+
+    private final double quarantineFactor;
+
+    public LatencyAwareBalancingPolicy()
+    {
+        this(DEFAULT_QUARANTINE_FACTOR);
+    }
+
+    /**
+     * @param quarantineFactor
+     *            multiple of fastest host's latency beyond which a host is
+     *            quarantined, 0 to never quarantine.
+     */
+    public LatencyAwareBalancingPolicy(double quarantineFactor)
+    {
+        this.quarantineFactor = quarantineFactor;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * com.impetus.kundera.service.policy.LoadBalancingPolicy#getPool(java.util
+     * .Collection)
+     */
+    @Override
+    public Object getPool(Collection<Object> pools)
+    {
+        int size = pools.size();
+        if (size <= 1)
+        {
+            return pools.iterator().next();
+        }
+
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first)
+        {
+            second++;
+        }
+
+        Object firstPool = null;
+        Object secondPool = null;
+        int index = 0;
+        for (Object pool : pools)
+        {
+            if (index == first)
+            {
+                firstPool = pool;
+            }
+            else if (index == second)
+            {
+                secondPool = pool;
+            }
+            if (firstPool != null && secondPool != null)
+            {
+                break;
+            }
+            index++;
+        }
+
+        // pools may have shrunk meanwhile.
+        if (firstPool == null || secondPool == null)
+        {
+            return firstPool != null ? firstPool : secondPool != null ? secondPool : pools.iterator().next();
+        }
+        return getLoad(secondPool) < getLoad(firstPool) ? secondPool : firstPool;
+    }
+
+    /**
+     * To be called when a connection is checked out of given pool.
+     *
+     * @param pool
+     *            the pool
+     */
+    public void onAcquire(Object pool)
+    {
+        getStatistics(pool).inFlight.incrementAndGet();
+    }
+
+    /**
+     * To be called when a connection is released to given pool.
+     *
+     * @param pool
+     *            the pool
+     * @param latency
+     *            time connection was held for, in nanoseconds.
+     */
+    public void onRelease(Object pool, long latency)
+    {
+        HostStatistics stats = statistics.get(pool);
+        if (stats == null)
+        {
+            // pool has been quarantined or removed meanwhile.
+            return;
+        }
+        stats.inFlight.decrementAndGet();
+        long samples = stats.addSample(latency);
+        if (quarantineFactor > 0 && samples >= MIN_SAMPLES && samples % QUARANTINE_CHECK_INTERVAL == 0)
+        {
+            checkQuarantine(pool, stats);
+        }
+    }
+
+    /**
+     * Drops statistics of given pool, to be called when pool is removed.
+     *
+     * @param pool
+     *            the pool
+     */
+    public void remove(Object pool)
+    {
+        statistics.remove(pool);
+    }
+
+    /**
+     * @param pool
+     *            the pool
+     * @return moving average latency of pool, in nanoseconds.
+     */
+    public long getLatency(Object pool)
+    {
+        HostStatistics stats = statistics.get(pool);
+        return stats != null ? stats.latency.get() : 0;
+    }
+
+    /**
+     * Returns number of requests in flight on given pool. Client factories
+     * which can not report checkouts may override it to read pool's own
+     * active count.
+     *
+     * @param pool
+     *            the pool
+     * @return requests in flight.
+     */
+    protected int getInFlight(Object pool)
+    {
+        HostStatistics stats = statistics.get(pool);
+        return stats != null ? stats.inFlight.get() : 0;
+    }
+
+    /**
+     * Called when host of given pool has been found too slow. Client factory
+     * is to take it out of rotation and retry it later. Does nothing by
+     * default.
+     *
+     * @param pool
+     *            the pool
+     */
+    protected void onQuarantine(Object pool)
+    {
+    }
+
+    private double getLoad(Object pool)
+    {
+        return (getLatency(pool) + 1d) * (getInFlight(pool) + 1);
+    }
+
+    private HostStatistics getStatistics(Object pool)
+    {
+        HostStatistics stats = statistics.get(pool);
+        if (stats == null)
+        {
+            stats = new HostStatistics();
+            HostStatistics existing = statistics.putIfAbsent(pool, stats);
+            if (existing != null)
+            {
+                stats = existing;
+            }
+        }
+        return stats;
+    }
+
+    private void checkQuarantine(Object pool, HostStatistics stats)
+    {
+        long fastest = Long.MAX_VALUE;
+        for (HostStatistics other : statistics.values())
+        {
+            if (other != stats && other.samples.get() >= MIN_SAMPLES)
+            {
+                fastest = Math.min(fastest, other.latency.get());
+            }
+        }
+
+        long latency = stats.latency.get();
+        if (fastest != Long.MAX_VALUE && latency > MIN_QUARANTINE_LATENCY && latency > fastest * quarantineFactor
+                && statistics.remove(pool, stats))
+        {
+            logger.warn("Quarantining pool {}, average latency {}ns against {}ns of fastest host.", new Object[] {
+                    pool, latency, fastest });
+            onQuarantine(pool);
+        }
+    }
+
+    /**
+     * Lock free latency and in flight counters of a host.
+     */
+    private static final class HostStatistics
+    {
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /** Exponentially weighted moving average latency, in nanoseconds. */
+        private final AtomicLong latency = new AtomicLong();
+
+        private final AtomicLong samples = new AtomicLong();
+
+        /**
+         * Adds latency sample to moving average.
+         *
+         * @return number of samples so far.
+         */
+        private long addSample(long sample)
+        {
+            long count = samples.incrementAndGet();
+            while (true)
+            {
+                long current = latency.get();
+                long next = count == 1 ? sample : current + (long) ((sample - current) * ALPHA);
+                if (latency.compareAndSet(current, next))
+                {
+                    return count;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,757 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.utils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Embedded;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.Attribute.PersistentAttributeType;
+import javax.persistence.metamodel.EmbeddableType;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Type.PersistenceType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.MetamodelImpl;
+import com.impetus.kundera.metadata.model.Relation;
+import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
+import com.impetus.kundera.property.PropertyAccessor;
+import com.impetus.kundera.property.PropertyAccessorFactory;
+import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.proxy.KunderaProxy;
+import com.impetus.kundera.proxy.ProxyHelper;
+import com.impetus.kundera.proxy.collection.ProxyCollection;
+
+/**
+ * Copy plan of an entity class. Walks the metamodel once, resolving
+ * accessible fields, property accessors and embeddable types of every
+ * attribute, so that copying an entity is a plain loop over precomputed
+ * attribute copiers. Plans are held weakly per {@link EntityMetadata}.
+ */
+final class EntityCopyPlan
+{
+    /** The log. */
+    private static Logger log = LoggerFactory.getLogger(EntityCopyPlan.class);
+
+    /** Plans keyed by entity metadata. */
+    private static final Map<EntityMetadata, EntityCopyPlan> plans = Collections
+            .synchronizedMap(new WeakHashMap<EntityMetadata, EntityCopyPlan>());
+
+    /** The entity class. */
+    private final Class<?> entityClass;
+
+    /** Copiers of non relation attributes. */
+    private final AttributeCopier[] attributes;
+
+    /** Relation fields. */
+    private final Field[] relations;
+
+    /** Column names of attributes, followed by those of relations. */
+    private final String[] names;
+
+    /**
+     * Instantiates a new entity copy plan.
+     * 
+     * @param metadata
+     *            the entity metadata
+     * @param entityClass
+     *            the entity class
+     */
+    private EntityCopyPlan(EntityMetadata metadata, Class<?> entityClass)
+    {
+        this.entityClass = entityClass;
+        MetamodelImpl metaModel = KunderaMetadataManager.getMetamodel(metadata.getPersistenceUnit());
+        EntityType entityType = metaModel.entity(entityClass);
+
+        List<AttributeCopier> copiers = new ArrayList<AttributeCopier>();
+        List<String> columnNames = new ArrayList<String>();
+        for (Object o : entityType.getAttributes())
+        {
+            Attribute attrib = (Attribute) o;
+            Field columnField = accessible((Field) attrib.getJavaMember());
+            PersistentAttributeType type = attrib.getPersistentAttributeType();
+            AttributeCopier copier = null;
+            if (type.equals(PersistentAttributeType.EMBEDDED) || type.equals(PersistentAttributeType.ELEMENT_COLLECTION))
+            {
+                EmbeddableType embeddableType = metaModel.embeddable(((AbstractAttribute) attrib)
+                        .getBindableJavaType());
+                if (columnField.getAnnotation(Embedded.class) != null)
+                {
+                    copier = new EmbeddedCopier(columnField, embeddableType);
+                }
+                else if (columnField.getAnnotation(ElementCollection.class) != null)
+                {
+                    copier = new ElementCollectionCopier(columnField, embeddableType);
+                }
+                else if (columnField.getAnnotation(Column.class) != null)
+                {
+                    copier = new AttributeCopier(columnField);
+                }
+            }
+            else if (type.equals(PersistentAttributeType.BASIC))
+            {
+                copier = new BasicCopier(columnField);
+            }
+            if (copier != null)
+            {
+                copiers.add(copier);
+                columnNames.add(((AbstractAttribute) attrib).getJPAColumnName());
+            }
+        }
+        this.attributes = copiers.toArray(new AttributeCopier[copiers.size()]);
+
+        List<Relation> relationList = metadata.getRelations() != null ? metadata.getRelations() : Collections
+                .<Relation> emptyList();
+        this.relations = new Field[relationList.size()];
+        for (int i = 0; i < relations.length; i++)
+        {
+            Relation relation = relationList.get(i);
+            relations[i] = accessible(relation.getProperty());
+            columnNames.add(relation.getJoinColumnName() != null ? relation.getJoinColumnName() : relations[i]
+                    .getName());
+        }
+        this.names = columnNames.toArray(new String[columnNames.size()]);
+    }
+
+    /**
+     * Returns copy plan for given entity metadata, building it on first use.
+     * 
+     * @param metadata
+     *            the entity metadata
+     * @param entityClass
+     *            the entity class
+     * @return the copy plan
+     */
+    static EntityCopyPlan getPlan(EntityMetadata metadata, Class<?> entityClass)
+    {
+        EntityCopyPlan plan = plans.get(metadata);
+        if (plan == null || plan.entityClass != entityClass)
+        {
+            plan = new EntityCopyPlan(metadata, entityClass);
+            plans.put(metadata, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Deep copies given entity along with its relations. Objects which are
+     * not entities are returned as is.
+     * 
+     * @param source
+     *            the source
+     * @return the copy, or null if it could not be created.
+     */
+    static Object deepCopy(Object source)
+    {
+        return deepCopy(source, null);
+    }
+
+    /**
+     * Deep copies given entity, reusing copies of entities already copied as
+     * part of the same object graph.
+     */
+    private static Object deepCopy(Object source, Map<Object, Object> copiedObjects)
+    {
+        if (source == null)
+        {
+            return null;
+        }
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(source.getClass());
+        if (metadata == null)
+        {
+            return source;
+        }
+        return getPlan(metadata, source.getClass()).copy(source, metadata, copiedObjects);
+    }
+
+    /**
+     * Copies given entity.
+     */
+    private Object copy(Object source, EntityMetadata metadata, Map<Object, Object> copiedObjects)
+    {
+        Object key = null;
+        if (relations.length > 0)
+        {
+            key = new SimpleImmutableEntry<Class<?>, Object>(entityClass, PropertyAccessorHelper.getId(source,
+                    metadata));
+            if (copiedObjects == null)
+            {
+                copiedObjects = new HashMap<Object, Object>();
+            }
+            else
+            {
+                Object copied = copiedObjects.get(key);
+                if (copied != null)
+                {
+                    return copied;
+                }
+            }
+        }
+
+        Object target = null;
+        try
+        {
+            target = entityClass.newInstance();
+            for (AttributeCopier attribute : attributes)
+            {
+                attribute.copy(source, target);
+            }
+
+            if (key != null)
+            {
+                copiedObjects.put(key, target);
+            }
+
+            for (Field relationField : relations)
+            {
+                Object sourceRelationObject = relationField.get(source);
+                if (sourceRelationObject != null)
+                {
+                    relationField.set(target, copyRelation(sourceRelationObject, relationField, target, copiedObjects));
+                }
+            }
+        }
+        catch (InstantiationException e)
+        {
+            log.warn("Error while instantiating entity/ embeddable class, did you define no-arg constructor?, Caused by:"
+                    + e.getMessage());
+            return null;
+        }
+        catch (Exception e)
+        {
+            log.warn("Returning null as error during clone, Caused by:" + e.getMessage());
+            return null;
+        }
+        return target;
+    }
+
+    /**
+     * Copies value of a relation. Lazy proxies and persistent collections are
+     * shared, kundera proxy collections are copied and owned by target.
+     */
+    private Object copyRelation(Object sourceRelationObject, Field relationField, Object target,
+            Map<Object, Object> copiedObjects) throws Exception
+    {
+        if (sourceRelationObject instanceof KunderaProxy || ProxyHelper.isPersistentCollection(sourceRelationObject))
+        {
+            return sourceRelationObject;
+        }
+        else if (ProxyHelper.isKunderaProxyCollection(sourceRelationObject))
+        {
+            ProxyCollection pc = ((ProxyCollection) sourceRelationObject).getCopy();
+            pc.setOwner(target);
+            return pc;
+        }
+
+        Class<?> relationObjectClass = relationField.getType();
+        if (Collection.class.isAssignableFrom(relationObjectClass))
+        {
+            Collection targetRelationObject = (Collection) sourceRelationObject.getClass().newInstance();
+            for (Object obj : (Collection) sourceRelationObject)
+            {
+                targetRelationObject.add(deepCopy(obj, copiedObjects));
+            }
+            return targetRelationObject;
+        }
+        else if (Map.class.isAssignableFrom(relationObjectClass))
+        {
+            Map targetRelationObject = (Map) sourceRelationObject.getClass().newInstance();
+            for (Object entry : ((Map) sourceRelationObject).entrySet())
+            {
+                Map.Entry sourceEntry = (Map.Entry) entry;
+                targetRelationObject.put(deepCopy(sourceEntry.getKey(), copiedObjects),
+                        deepCopy(sourceEntry.getValue(), copiedObjects));
+            }
+            return targetRelationObject;
+        }
+        return deepCopy(sourceRelationObject, copiedObjects);
+    }
+
+    /**
+     * Returns true, if this plan has been built for given class.
+     */
+    boolean isOf(Class<?> clazz)
+    {
+        return entityClass == clazz;
+    }
+
+    /**
+     * Returns index of given non relation attribute field in snapshot values.
+     * 
+     * @param field
+     *            the attribute field
+     * @return the index, -1 if field is not one of this plan's attributes.
+     */
+    int indexOf(Field field)
+    {
+        for (int i = 0; i < attributes.length; i++)
+        {
+            if (attributes[i].field.equals(field))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Takes snapshot of values of non relation attributes, and of references
+     * held by relations.
+     * 
+     * @param entity
+     *            the entity
+     * @return the snapshot values
+     */
+    Object[] snapshot(Object entity)
+    {
+        Object[] values = new Object[attributes.length + relations.length];
+        try
+        {
+            for (int i = 0; i < attributes.length; i++)
+            {
+                Object value = attributes[i].field.get(entity);
+                values[i] = value != null ? attributes[i].copyValue(value) : null;
+            }
+            for (int i = 0; i < relations.length; i++)
+            {
+                values[attributes.length + i] = snapshotRelation(relations[i].get(entity));
+            }
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException("Error while taking snapshot of " + entityClass.getName(), e);
+        }
+        return values;
+    }
+
+    /**
+     * Returns attributes of given entity whose value differs from snapshot
+     * values. Bits are indexed as snapshot values: non relation attributes,
+     * followed by relations.
+     * 
+     * @param entity
+     *            the entity
+     * @param values
+     *            snapshot values
+     * @return the modified attributes, empty if entity has not been modified
+     *         since snapshot.
+     */
+    BitSet getModified(Object entity, Object[] values)
+    {
+        BitSet modified = new BitSet(names.length);
+        try
+        {
+            for (int i = 0; i < attributes.length; i++)
+            {
+                if (!DeepEquals.deepEquals(values[i], attributes[i].field.get(entity)))
+                {
+                    modified.set(i);
+                }
+            }
+            for (int i = 0; i < relations.length; i++)
+            {
+                Object current = snapshotRelation(relations[i].get(entity));
+                Object snapshot = values[attributes.length + i];
+                if (current instanceof Object[] && snapshot instanceof Object[])
+                {
+                    if (!isSameReferences((Object[]) snapshot, (Object[]) current))
+                    {
+                        modified.set(attributes.length + i);
+                    }
+                }
+                else if (current != snapshot)
+                {
+                    modified.set(attributes.length + i);
+                }
+            }
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new IllegalStateException("Error while comparing snapshot of " + entityClass.getName(), e);
+        }
+        return modified;
+    }
+
+    /**
+     * Returns attributes whose value differs between two instances of entity
+     * class. Relations are compared by ids of entities they hold, as related
+     * entities are checked on their own.
+     * 
+     * @param before
+     *            the previous state
+     * @param after
+     *            the current state
+     * @return the modified attributes.
+     */
+    BitSet getModified(Object before, Object after)
+    {
+        BitSet modified = new BitSet(names.length);
+        try
+        {
+            for (int i = 0; i < attributes.length; i++)
+            {
+                if (!DeepEquals.deepEquals(attributes[i].field.get(before), attributes[i].field.get(after)))
+                {
+                    modified.set(i);
+                }
+            }
+            for (int i = 0; i < relations.length; i++)
+            {
+                if (!isSameRelation(relations[i].get(before), relations[i].get(after)))
+                {
+                    modified.set(attributes.length + i);
+                }
+            }
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new IllegalStateException("Error while comparing " + entityClass.getName(), e);
+        }
+        return modified;
+    }
+
+    /**
+     * Returns column names of given attributes.
+     * 
+     * @param modified
+     *            attributes, as returned by getModified
+     * @return the column names
+     */
+    Set<String> getColumnNames(BitSet modified)
+    {
+        Set<String> columnNames = new HashSet<String>();
+        for (int i = modified.nextSetBit(0); i >= 0 && i < names.length; i = modified.nextSetBit(i + 1))
+        {
+            columnNames.add(names[i]);
+        }
+        return columnNames;
+    }
+
+    /**
+     * Relation collections are captured as array of their element(and key)
+     * references, so that added or removed associations are detected.
+     */
+    private static Object snapshotRelation(Object relationObject)
+    {
+        if (isProxy(relationObject))
+        {
+            return relationObject;
+        }
+        else if (relationObject instanceof Collection)
+        {
+            return ((Collection) relationObject).toArray();
+        }
+        else if (relationObject instanceof Map)
+        {
+            Map map = (Map) relationObject;
+            Object[] references = new Object[map.size() * 2];
+            int i = 0;
+            for (Object entry : map.entrySet())
+            {
+                references[i++] = ((Map.Entry) entry).getKey();
+                references[i++] = ((Map.Entry) entry).getValue();
+            }
+            return references;
+        }
+        return relationObject;
+    }
+
+    /**
+     * Lazy proxies have not been loaded, hence can not have been reassigned
+     * through. Other relations are the same if they hold the same entities.
+     */
+    private static boolean isSameRelation(Object before, Object after)
+    {
+        if (before == after || isProxy(before) || isProxy(after))
+        {
+            return true;
+        }
+        else if (before == null || after == null)
+        {
+            return false;
+        }
+        return relationKey(before).equals(relationKey(after));
+    }
+
+    private static Object relationKey(Object relationObject)
+    {
+        if (relationObject instanceof Collection)
+        {
+            Set<Object> keys = new HashSet<Object>();
+            for (Object obj : (Collection) relationObject)
+            {
+                keys.add(entityKey(obj));
+            }
+            return keys;
+        }
+        else if (relationObject instanceof Map)
+        {
+            Set<Object> keys = new HashSet<Object>();
+            for (Object entry : ((Map) relationObject).entrySet())
+            {
+                keys.add(new SimpleImmutableEntry<Object, Object>(entityKey(((Map.Entry) entry).getKey()),
+                        entityKey(((Map.Entry) entry).getValue())));
+            }
+            return keys;
+        }
+        return entityKey(relationObject);
+    }
+
+    /**
+     * Entities are keyed by class and id, if they have one.
+     */
+    private static Object entityKey(Object obj)
+    {
+        EntityMetadata metadata = obj != null ? KunderaMetadataManager.getEntityMetadata(obj.getClass()) : null;
+        Object id = metadata != null ? PropertyAccessorHelper.getId(obj, metadata) : null;
+        return id != null ? new SimpleImmutableEntry<Class<?>, Object>(obj.getClass(), id) : obj;
+    }
+
+    private static boolean isProxy(Object relationObject)
+    {
+        return relationObject instanceof KunderaProxy || ProxyHelper.isPersistentCollection(relationObject)
+                || ProxyHelper.isKunderaProxyCollection(relationObject);
+    }
+
+    private static boolean isSameReferences(Object[] snapshot, Object[] current)
+    {
+        if (snapshot.length != current.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < snapshot.length; i++)
+        {
+            if (snapshot[i] != current[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Field accessible(Field field)
+    {
+        if (!field.isAccessible())
+        {
+            field.setAccessible(true);
+        }
+        return field;
+    }
+
+    /**
+     * Copies attribute value by reference.
+     */
+    private static class AttributeCopier
+    {
+        final Field field;
+
+        AttributeCopier(Field field)
+        {
+            this.field = field;
+        }
+
+        void copy(Object source, Object target) throws Exception
+        {
+            Object value = field.get(source);
+            if (value != null)
+            {
+                field.set(target, copyValue(value));
+            }
+        }
+
+        Object copyValue(Object value) throws Exception
+        {
+            return value;
+        }
+    }
+
+    /**
+     * Copies basic attribute value through its property accessor.
+     */
+    private static final class BasicCopier extends AttributeCopier
+    {
+        private final PropertyAccessor<?> accessor;
+
+        BasicCopier(Field field)
+        {
+            super(field);
+            this.accessor = PropertyAccessorFactory.getPropertyAccessor(field);
+        }
+
+        @Override
+        void copy(Object source, Object target) throws Exception
+        {
+            field.set(target, accessor.getCopy(field.get(source)));
+        }
+
+        @Override
+        Object copyValue(Object value)
+        {
+            return accessor.getCopy(value);
+        }
+    }
+
+    /**
+     * Copies an embedded object, column by column.
+     */
+    private static final class EmbeddedCopier extends AttributeCopier
+    {
+        private final Class<?> embeddedClass;
+
+        private final Field[] columns;
+
+        private final PropertyAccessor<?>[] accessors;
+
+        EmbeddedCopier(Field field, EmbeddableType embeddableType)
+        {
+            super(field);
+            this.embeddedClass = field.getType();
+            Set<Attribute> attributes = embeddableType.getAttributes();
+            this.columns = new Field[attributes.size()];
+            this.accessors = new PropertyAccessor<?>[attributes.size()];
+            int i = 0;
+            for (Attribute column : attributes)
+            {
+                columns[i] = accessible((Field) column.getJavaMember());
+                accessors[i] = PropertyAccessorFactory.getPropertyAccessor(columns[i]);
+                i++;
+            }
+        }
+
+        @Override
+        Object copyValue(Object value) throws Exception
+        {
+            Object target = embeddedClass.newInstance();
+            for (int i = 0; i < columns.length; i++)
+            {
+                columns[i].set(target, accessors[i].getCopy(columns[i].get(value)));
+            }
+            return target;
+        }
+    }
+
+    /**
+     * Copies a collection or map of basic or embeddable elements.
+     */
+    private static final class ElementCollectionCopier extends AttributeCopier
+    {
+        private final boolean basic;
+
+        private final boolean embeddable;
+
+        private final boolean addable;
+
+        private final boolean map;
+
+        private final Class<?> elementClass;
+
+        private final Field[] elementFields;
+
+        private final PropertyAccessor<?>[] elementAccessors;
+
+        ElementCollectionCopier(Field field, EmbeddableType embeddableType)
+        {
+            super(field);
+            Class<?> declaredClass = field.getType();
+            this.basic = PersistenceType.BASIC.equals(embeddableType.getPersistenceType());
+            this.embeddable = PersistenceType.EMBEDDABLE.equals(embeddableType.getPersistenceType());
+            this.addable = List.class.isAssignableFrom(declaredClass) || Set.class.isAssignableFrom(declaredClass);
+            this.map = Map.class.isAssignableFrom(declaredClass);
+            this.elementClass = PropertyAccessorHelper.getGenericClass(field);
+
+            List<Field> fields = new ArrayList<Field>();
+            if (embeddable && elementClass != null)
+            {
+                for (Field f : elementClass.getDeclaredFields())
+                {
+                    if (!Modifier.isStatic(f.getModifiers()))
+                    {
+                        fields.add(accessible(f));
+                    }
+                }
+            }
+            this.elementFields = fields.toArray(new Field[fields.size()]);
+            this.elementAccessors = new PropertyAccessor<?>[elementFields.length];
+            for (int i = 0; i < elementFields.length; i++)
+            {
+                elementAccessors[i] = PropertyAccessorFactory.getPropertyAccessor(elementFields[i]);
+            }
+        }
+
+        @Override
+        Object copyValue(Object value) throws Exception
+        {
+            Object target = value.getClass().newInstance();
+            if (value instanceof Collection)
+            {
+                for (Object sourceElement : (Collection) value)
+                {
+                    Object targetElement = null;
+                    if (basic)
+                    {
+                        targetElement = copyBasic(sourceElement);
+                    }
+                    else if (embeddable)
+                    {
+                        targetElement = elementClass.newInstance();
+                        for (int i = 0; i < elementFields.length; i++)
+                        {
+                            elementFields[i].set(targetElement,
+                                    elementAccessors[i].getCopy(elementFields[i].get(sourceElement)));
+                        }
+                    }
+                    if (addable)
+                    {
+                        ((Collection) target).add(targetElement);
+                    }
+                }
+            }
+            else if (value instanceof Map && basic && map)
+            {
+                for (Object entry : ((Map) value).entrySet())
+                {
+                    Map.Entry sourceEntry = (Map.Entry) entry;
+                    ((Map) target).put(copyBasic(sourceEntry.getKey()), copyBasic(sourceEntry.getValue()));
+                }
+            }
+            return target;
+        }
+
+        private Object copyBasic(Object value)
+        {
+            PropertyAccessor accessor = PropertyAccessorFactory.getPropertyAccessor(value.getClass());
+            return accessor != null ? accessor.getCopy(value) : null;
+        }
+    }
+}
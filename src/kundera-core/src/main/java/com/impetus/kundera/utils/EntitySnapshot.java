@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.utils;
+
+import java.lang.reflect.Field;
+import java.util.BitSet;
+import java.util.Set;
+
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+
+/**
+ * Compact snapshot of an entity's state, used for dirty checking in place of
+ * a full object graph copy. Holds a copy of each basic, embedded and element
+ * collection attribute value, and the references held by each relation.
+ * 
+ * Modified attributes are reported as a bit set, indexed in order of entity
+ * class' copy plan, which may be turned into column names to write.
+ */
+public final class EntitySnapshot
+{
+    /** The copy plan of entity class. */
+    private final EntityCopyPlan plan;
+
+    /** The snapshot values. */
+    private final Object[] values;
+
+    private EntitySnapshot(EntityCopyPlan plan, Object[] values)
+    {
+        this.plan = plan;
+        this.values = values;
+    }
+
+    /**
+     * Takes snapshot of given entity.
+     * 
+     * @param entity
+     *            the entity
+     * @return the snapshot, or null if given object is not an entity.
+     */
+    public static EntitySnapshot take(Object entity)
+    {
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(entity.getClass());
+        if (metadata == null)
+        {
+            return null;
+        }
+        EntityCopyPlan plan = EntityCopyPlan.getPlan(metadata, entity.getClass());
+        return new EntitySnapshot(plan, plan.snapshot(entity));
+    }
+
+    /**
+     * Returns true, if given entity differs from this snapshot.
+     * 
+     * @param entity
+     *            the entity
+     * @return true, if entity has been modified.
+     */
+    public boolean isModified(Object entity)
+    {
+        return !plan.isOf(entity.getClass()) || !plan.getModified(entity, values).isEmpty();
+    }
+
+    /**
+     * Returns attributes of given entity which differ from this snapshot.
+     * 
+     * @param entity
+     *            the entity
+     * @return the modified attributes, or null if entity is not of snapshot's
+     *         class.
+     */
+    public BitSet getModified(Object entity)
+    {
+        return plan.isOf(entity.getClass()) ? plan.getModified(entity, values) : null;
+    }
+
+    /**
+     * Returns snapshot value of given non relation attribute field. Embedded
+     * values are copies of embedded objects.
+     * 
+     * @param field
+     *            the attribute field
+     * @return the value, null if it was null or field is not an attribute of
+     *         snapshot's class.
+     */
+    public Object getValue(Field field)
+    {
+        int index = plan.indexOf(field);
+        return index >= 0 ? values[index] : null;
+    }
+
+    /**
+     * Returns attributes which differ between two instances of an entity
+     * class.
+     * 
+     * @param before
+     *            the previous state
+     * @param after
+     *            the current state
+     * @return the modified attributes, or null if given objects are not
+     *         entities of the same class.
+     */
+    public static BitSet getModified(Object before, Object after)
+    {
+        if (before == null || after == null || before.getClass() != after.getClass())
+        {
+            return null;
+        }
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(after.getClass());
+        if (metadata == null)
+        {
+            return null;
+        }
+        return EntityCopyPlan.getPlan(metadata, after.getClass()).getModified(before, after);
+    }
+
+    /**
+     * Returns column names of modified attributes of an entity class.
+     * 
+     * @param entityClass
+     *            the entity class
+     * @param modified
+     *            the modified attributes
+     * @return the column names
+     */
+    public static Set<String> getColumnNames(Class<?> entityClass, BitSet modified)
+    {
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(entityClass);
+        return EntityCopyPlan.getPlan(metadata, entityClass).getColumnNames(modified);
+    }
+}
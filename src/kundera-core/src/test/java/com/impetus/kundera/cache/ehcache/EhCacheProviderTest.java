@@ -25,6 +25,7 @@ import junit.framework.TestCase;
 import org.junit.Assert;
 
 import com.impetus.kundera.cache.CacheException;
+import com.impetus.kundera.cache.CacheStatistics;
 import com.impetus.kundera.entity.PersonnelDTO;
 
 /**
@@ -208,4 +209,32 @@ public class EhCacheProviderTest extends TestCase
             fail(e.getMessage());
         }
     }
+
+    /**
+     * Test statistics recorded by {@link EhCacheWrapper}.
+     */
+    public void testStatistics() throws CacheException
+    {
+        cacheProvider.init(cacheResource);
+        EhCacheWrapper ehCache = (EhCacheWrapper) cacheProvider.createCache(cacheName);
+        ehCache.getStatistics().clear();
+
+        String key = PersonnelDTO.class + "_" + person1.getPersonId();
+        Assert.assertNull(ehCache.get(key));
+        ehCache.put(key, person1);
+        Assert.assertNotNull(ehCache.get(key));
+        ehCache.put(PersonnelDTO.class + "_" + person2.getPersonId(), person2);
+
+        CacheStatistics statistics = ehCache.getStatistics();
+        Assert.assertEquals(1, statistics.getHitCount());
+        Assert.assertEquals(1, statistics.getMissCount());
+        Assert.assertEquals(2, statistics.getPutCount());
+        Assert.assertEquals(0.5, statistics.getHitRatio(), 0.0);
+
+        ehCache.evict(PersonnelDTO.class, key);
+        Assert.assertEquals(1, statistics.getEvictionCount());
+
+        ehCache.evictAll();
+        Assert.assertEquals(2, statistics.getEvictionCount());
+    }
 }
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.cache.tinylfu;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.impetus.kundera.PersistenceProperties;
+import com.impetus.kundera.cache.Cache;
+import com.impetus.kundera.entity.PersonnelDTO;
+
+/**
+ * Test case for {@link TinyLfuCache} and {@link TinyLfuCacheProvider}.
+ */
+public class TinyLfuCacheTest
+{
+    private static final int MAX_SIZE = 100;
+
+    @Test
+    public void testBoundedSize()
+    {
+        TinyLfuCache cache = new TinyLfuCache(MAX_SIZE, 0, null, null);
+        for (int i = 0; i < MAX_SIZE * 10; i++)
+        {
+            cache.put("key" + i, newPerson(i));
+        }
+        Assert.assertTrue(cache.size() <= MAX_SIZE);
+        Assert.assertTrue(cache.weightedSize() <= MAX_SIZE);
+        Assert.assertEquals(MAX_SIZE * 10, cache.getStatistics().getPutCount());
+        Assert.assertEquals(MAX_SIZE * 10 - cache.size(), cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    public void testFrequentEntriesSurviveScan()
+    {
+        TinyLfuCache cache = new TinyLfuCache(MAX_SIZE, 0, null, null);
+        for (int i = 0; i < MAX_SIZE / 2; i++)
+        {
+            cache.put("hot" + i, newPerson(i));
+        }
+        for (int round = 0; round < 10; round++)
+        {
+            for (int i = 0; i < MAX_SIZE / 2; i++)
+            {
+                Assert.assertNotNull(cache.get("hot" + i));
+            }
+        }
+
+        // one time scan over many keys must not flush frequently used ones.
+        for (int i = 0; i < MAX_SIZE * 10; i++)
+        {
+            cache.put("scan" + i, newPerson(i));
+        }
+
+        int hits = 0;
+        for (int i = 0; i < MAX_SIZE / 2; i++)
+        {
+            if (cache.get("hot" + i) != null)
+            {
+                hits++;
+            }
+        }
+        Assert.assertTrue("Only " + hits + " frequently used entries survived", hits >= MAX_SIZE * 2 / 5);
+    }
+
+    @Test
+    public void testEvict()
+    {
+        TinyLfuCache cache = new TinyLfuCache(MAX_SIZE, 0, null, null);
+        cache.put("1", newPerson(1));
+        cache.put("2", newPerson(2));
+        cache.put("3", "3");
+        Assert.assertTrue(cache.contains(PersonnelDTO.class, "1"));
+
+        cache.evict(PersonnelDTO.class, "1");
+        Assert.assertNull(cache.get("1"));
+        Assert.assertFalse(cache.contains(PersonnelDTO.class, "1"));
+
+        cache.evict(PersonnelDTO.class);
+        Assert.assertNull(cache.get("2"));
+        Assert.assertEquals("3", cache.get("3"));
+
+        cache.evictAll();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.weightedSize());
+        Assert.assertEquals(3, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    public void testProviderConfiguration() throws InterruptedException
+    {
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put(PersistenceProperties.KUNDERA_CACHE_MAX_SIZE, "10");
+        properties.put(PersistenceProperties.KUNDERA_CACHE_TTL + "." + PersonnelDTO.class.getName(), "1");
+        properties.put(PersistenceProperties.KUNDERA_CACHE_WEIGHT + "." + PersonnelDTO.class.getName(), "5");
+
+        TinyLfuCacheProvider provider = new TinyLfuCacheProvider();
+        provider.init(properties);
+        Cache cache = (Cache) provider.createCache("Kundera");
+        Assert.assertSame(cache, provider.getCache("Kundera"));
+
+        cache.put("1", newPerson(1));
+        cache.put("2", newPerson(2));
+        cache.put("3", newPerson(3));
+        Assert.assertTrue(((TinyLfuCache) cache).weightedSize() <= 10);
+
+        cache.put("string", "never expires");
+        Thread.sleep(1100);
+        for (int i = 1; i <= 3; i++)
+        {
+            Assert.assertNull(cache.get(String.valueOf(i)));
+        }
+        Assert.assertEquals("never expires", cache.get("string"));
+        Assert.assertEquals(1, cache.getStatistics().getHitCount());
+
+        provider.shutdown();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testProviderConfigurationFromPersistenceUnit() throws InterruptedException
+    {
+        // size and time to live are set in persistence.xml.
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put(PersistenceProperties.KUNDERA_CACHE_PROVIDER_CLASS, TinyLfuCacheProvider.class.getName());
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory("kunderatest", properties);
+        try
+        {
+            TinyLfuCache cache = (TinyLfuCache) emf.getCache();
+            for (int i = 1; i <= 20; i++)
+            {
+                cache.put(String.valueOf(i), newPerson(i));
+            }
+            Assert.assertTrue(cache.weightedSize() <= 10);
+
+            cache.put("string", "never expires");
+            Thread.sleep(1100);
+            for (int i = 1; i <= 20; i++)
+            {
+                Assert.assertNull(cache.get(String.valueOf(i)));
+            }
+            Assert.assertEquals("never expires", cache.get("string"));
+        }
+        finally
+        {
+            emf.close();
+        }
+    }
+
+    private PersonnelDTO newPerson(int i)
+    {
+        return new PersonnelDTO(String.valueOf(i), "first" + i, "last" + i);
+    }
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.generator;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * junit for {@link IdBlockAllocator}.
+ */
+public class IdBlockAllocatorTest
+{
+    @Test
+    public void testBlocks()
+    {
+        Assert.assertEquals(1, IdBlock.of(1, 1, 50).getFirst());
+        Assert.assertEquals(51, IdBlock.of(1, 1, 50).getEnd());
+        Assert.assertEquals(51, IdBlock.of(2, 1, 50).getFirst());
+        Assert.assertEquals(11, IdBlock.of(2, 10, 0).getFirst());
+    }
+
+    @Test
+    public void testOneReservationPerBlock()
+    {
+        CountingSource source = new CountingSource(10);
+        IdBlockAllocator allocator = new IdBlockAllocator(source, false);
+        for (long i = 1; i <= 25; i++)
+        {
+            Assert.assertEquals(i, allocator.next());
+        }
+        Assert.assertEquals(3, source.reserved.get());
+    }
+
+    @Test
+    public void testConcurrentIdsAreUnique() throws InterruptedException
+    {
+        final IdBlockAllocator allocator = new IdBlockAllocator(new CountingSource(7), true);
+        final Set<Long> ids = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        final CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++)
+        {
+            new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    for (int i = 0; i < 1000; i++)
+                    {
+                        ids.add(allocator.next());
+                    }
+                    done.countDown();
+                }
+            }.start();
+        }
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(4000, ids.size());
+    }
+
+    private static class CountingSource implements IdBlockSource
+    {
+        private final AtomicLong reserved = new AtomicLong();
+
+        private final int allocationSize;
+
+        CountingSource(int allocationSize)
+        {
+            this.allocationSize = allocationSize;
+        }
+
+        @Override
+        public IdBlock reserve()
+        {
+            return IdBlock.of(reserved.incrementAndGet(), 1, allocationSize);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.index;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.util.Version;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.query.Person;
+import com.impetus.kundera.query.Person.Day;
+import com.impetus.kundera.utils.LuceneCleanupUtilities;
+
+/**
+ * Measures search latency of {@link LuceneIndexer} while documents are being
+ * indexed concurrently, and verifies that near-real-time searches see own
+ * writes without explicit flush.
+ */
+public class LuceneIndexerConcurrencyTest
+{
+    /** the log used by this class. */
+    private static Logger log = LoggerFactory.getLogger(LuceneIndexerConcurrencyTest.class);
+
+    private static final String LUCENE_DIR_PATH = "./lucene";
+
+    private static final int NUM_OF_DOCUMENTS = 2000;
+
+    private static final int AGE_OFFSET = 5000;
+
+    private EntityManagerFactory emf;
+
+    @Before
+    public void setup()
+    {
+        emf = Persistence.createEntityManagerFactory("patest");
+    }
+
+    @Test
+    public void testSearchLatencyUnderConcurrentIndexing() throws InterruptedException
+    {
+        final LuceneIndexer indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34),
+                LUCENE_DIR_PATH);
+        final EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(Person.class);
+        final CountDownLatch indexingDone = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        Thread writer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    for (int i = 0; i < NUM_OF_DOCUMENTS; i++)
+                    {
+                        indexer.index(metadata, preparePerson(i));
+                    }
+                }
+                catch (Throwable t)
+                {
+                    failure.set(t);
+                }
+                finally
+                {
+                    indexingDone.countDown();
+                }
+            }
+        });
+        writer.start();
+
+        long searches = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
+        int i = 0;
+        while (indexingDone.getCount() > 0)
+        {
+            long start = System.nanoTime();
+            indexer.search(getQuery(i++ % NUM_OF_DOCUMENTS), 0, 10, false);
+            long elapsed = System.nanoTime() - start;
+            totalNanos += elapsed;
+            maxNanos = Math.max(maxNanos, elapsed);
+            searches++;
+        }
+        writer.join();
+        Assert.assertNull(failure.get());
+
+        if (searches > 0)
+        {
+            log.info("Executed " + searches + " searches while indexing " + NUM_OF_DOCUMENTS
+                    + " documents, avg latency(micros):" + (totalNanos / searches / 1000) + ", max latency(micros):"
+                    + (maxNanos / 1000));
+        }
+
+        // all documents must be visible without any explicit flush/commit.
+        for (int j = 0; j < NUM_OF_DOCUMENTS; j += 100)
+        {
+            Map<String, Object> results = indexer.search(getQuery(j), 0, 10, false);
+            Assert.assertFalse(results.isEmpty());
+        }
+
+        // read your own writes.
+        Person p = preparePerson(NUM_OF_DOCUMENTS);
+        indexer.index(metadata, p);
+        Assert.assertFalse(indexer.search(getQuery(NUM_OF_DOCUMENTS), 0, 10, false).isEmpty());
+
+        indexer.unindex(metadata, p.getPersonId());
+        Assert.assertTrue(indexer.search(getQuery(NUM_OF_DOCUMENTS), 0, 10, false).isEmpty());
+
+        indexer.close();
+    }
+
+    private Person preparePerson(int i)
+    {
+        Person p = new Person();
+        p.setPersonId("nrt" + i);
+        p.setPersonName("nrt");
+        p.setAge(AGE_OFFSET + i);
+        p.setDay(Day.MONDAY);
+        return p;
+    }
+
+    private String getQuery(int i)
+    {
+        return "+Person.AGE:" + (AGE_OFFSET + i) + " AND +entity.class:com.impetus.kundera.query.Person";
+    }
+
+    @After
+    public void tearDown()
+    {
+        emf.close();
+        LuceneCleanupUtilities.cleanDir(LUCENE_DIR_PATH);
+    }
+}
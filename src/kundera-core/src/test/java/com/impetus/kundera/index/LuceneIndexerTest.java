@@ -15,8 +15,12 @@
  ******************************************************************************/
 package com.impetus.kundera.index;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
 
@@ -28,6 +32,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.impetus.kundera.PersistenceProperties;
+import com.impetus.kundera.client.Client;
+import com.impetus.kundera.client.ClientBase;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.query.Person;
@@ -44,6 +51,13 @@ public class LuceneIndexerTest
     private EntityManagerFactory emf;
     
     private static final String LUCENE_DIR_PATH = "./lucene";
+
+    private static final String SHARDED_LUCENE_DIR_PATH = "./lucene-sharded";
+
+    /** Directory no persistence unit of these tests indexes into. */
+    private static final String SHARED_LUCENE_DIR_PATH = "./lucene-shared";
+
+    private static final String DIRECTORY_LUCENE_DIR_PATH = "./lucene-directory";
   
     @Before
     public void setup()
@@ -169,6 +183,229 @@ public class LuceneIndexerTest
         
     }
     
+    @Test
+    public void testShardedSearch()
+    {
+        Map<String, Object> indexerProperties = new HashMap<String, Object>();
+        indexerProperties.put(PersistenceProperties.KUNDERA_INDEXER_SHARDS, "4");
+        LuceneIndexer indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34),
+                SHARDED_LUCENE_DIR_PATH, indexerProperties);
+        Assert.assertNotSame(LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), LUCENE_DIR_PATH),
+                indexer);
+
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(Person.class);
+        for (int i = 0; i < 10; i++)
+        {
+            Person p = new Person();
+            p.setAge(40);
+            p.setDay(Day.TUESDAY);
+            p.setPersonId("sharded" + i);
+            indexer.index(metadata, p);
+        }
+
+        String luceneQuery = "+Person.AGE:40 AND +entity.class:com.impetus.kundera.query.Person";
+        Map<String, Object> results = indexer.search(luceneQuery, 0, 5, false);
+        Assert.assertEquals(5, results.size());
+
+        results = indexer.search(luceneQuery, 0, 100, false);
+        Assert.assertEquals(10, results.size());
+
+        indexer.unindex(metadata, "sharded0");
+        results = indexer.search(luceneQuery, 0, 100, false);
+        Assert.assertEquals(9, results.size());
+
+        indexer.close();
+        LuceneCleanupUtilities.cleanDir(SHARDED_LUCENE_DIR_PATH);
+    }
+
+    @Test
+    public void testCloseDeregisters()
+    {
+        LuceneIndexer indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34),
+                SHARED_LUCENE_DIR_PATH);
+        Assert.assertSame(indexer,
+                LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), SHARED_LUCENE_DIR_PATH + "/."));
+
+        // still referenced once.
+        indexer.close();
+        Assert.assertSame(indexer,
+                LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), SHARED_LUCENE_DIR_PATH));
+        indexer.close();
+        indexer.close();
+
+        // closing more often is harmless.
+        indexer.close();
+
+        LuceneIndexer reopened = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34),
+                SHARED_LUCENE_DIR_PATH);
+        Assert.assertNotSame(indexer, reopened);
+        reopened.close();
+        LuceneCleanupUtilities.cleanDir(SHARED_LUCENE_DIR_PATH);
+    }
+
+    @Test
+    public void testPersistenceUnitsShareIndexDirectory()
+    {
+        // patest keeps its index in ./lucene as well.
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put(PersistenceProperties.KUNDERA_INDEX_HOME_DIR, LUCENE_DIR_PATH);
+        EntityManagerFactory otherEmf = Persistence.createEntityManagerFactory("kunderatest", properties);
+        EntityManager em = emf.createEntityManager();
+        EntityManager otherEm = otherEmf.createEntityManager();
+
+        Indexer indexer = getIndexer(em, "patest");
+        Assert.assertNotNull(indexer);
+        Assert.assertSame(indexer, getIndexer(otherEm, "kunderatest"));
+        otherEm.close();
+        otherEmf.close();
+        indexer.close();
+
+        // still open for patest.
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(Person.class);
+        Person p = new Person();
+        p.setAge(32);
+        p.setDay(Day.TUESDAY);
+        p.setPersonId("shared1");
+        ((LuceneIndexer) indexer).index(metadata, p);
+        String luceneQuery = "+Person.AGE:32 AND +entity.class:com.impetus.kundera.query.Person";
+        Assert.assertEquals(1, ((LuceneIndexer) indexer).search(luceneQuery, 0, 10, false).size());
+
+        em.close();
+        indexer.close();
+    }
+
+    @Test
+    public void testSecondWriterOnDirectoryRefused() throws IOException
+    {
+        LuceneIndexer indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34),
+                SHARED_LUCENE_DIR_PATH);
+        try
+        {
+            new LuceneIndexShard(new File(SHARED_LUCENE_DIR_PATH), LuceneIndexer.RAM_DIRECTORY,
+                    new StandardAnalyzer(Version.LUCENE_34));
+            Assert.fail("Should have been refused as directory is owned by open indexer.");
+        }
+        catch (LuceneIndexingException liex)
+        {
+            Assert.assertNotNull(liex.getMessage());
+        }
+        finally
+        {
+            indexer.close();
+            LuceneCleanupUtilities.cleanDir(SHARED_LUCENE_DIR_PATH);
+        }
+    }
+
+    @Test
+    public void testMMapDirectory()
+    {
+        assertReopen(LuceneIndexer.MMAP_DIRECTORY);
+    }
+
+    @Test
+    public void testNIODirectory()
+    {
+        assertReopen(LuceneIndexer.NIO_DIRECTORY);
+    }
+
+    @Test
+    public void testRAMDirectory()
+    {
+        assertReopen(LuceneIndexer.RAM_DIRECTORY);
+    }
+
+    @Test
+    public void testInvalidDirectory()
+    {
+        Map<String, Object> indexerProperties = new HashMap<String, Object>();
+        indexerProperties.put(PersistenceProperties.KUNDERA_INDEXER_DIRECTORY, "fs");
+        try
+        {
+            LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), DIRECTORY_LUCENE_DIR_PATH,
+                    indexerProperties);
+            Assert.fail("Should have gone to catch block!");
+        }
+        catch (LuceneIndexingException liex)
+        {
+            Assert.assertTrue(liex.getMessage().contains(PersistenceProperties.KUNDERA_INDEXER_DIRECTORY));
+        }
+        finally
+        {
+            LuceneCleanupUtilities.cleanDir(DIRECTORY_LUCENE_DIR_PATH);
+        }
+    }
+
+    /**
+     * Indexes into given directory type, closes indexer and asserts index is
+     * read back by a reopened one.
+     */
+    private void assertReopen(String directoryType)
+    {
+        Map<String, Object> indexerProperties = new HashMap<String, Object>();
+        indexerProperties.put(PersistenceProperties.KUNDERA_INDEXER_DIRECTORY, directoryType);
+        String luceneQuery = "+Person.AGE:50 AND +entity.class:com.impetus.kundera.query.Person";
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(Person.class);
+        try
+        {
+            LuceneIndexer indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34),
+                    DIRECTORY_LUCENE_DIR_PATH, indexerProperties);
+            for (int i = 0; i < 3; i++)
+            {
+                Person p = new Person();
+                p.setAge(50);
+                p.setDay(Day.FRIDAY);
+                p.setPersonId(directoryType + i);
+                indexer.index(metadata, p);
+            }
+            Assert.assertEquals(3, indexer.search(luceneQuery, 0, 10, false).size());
+            indexer.close();
+
+            LuceneIndexer reopened = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34),
+                    DIRECTORY_LUCENE_DIR_PATH, indexerProperties);
+            Assert.assertNotSame(indexer, reopened);
+            Assert.assertEquals(3, reopened.search(luceneQuery, 0, 10, false).size());
+
+            // changes after reopen are persisted as well.
+            reopened.unindex(metadata, directoryType + "0");
+            Assert.assertEquals(2, reopened.search(luceneQuery, 0, 10, false).size());
+            reopened.close();
+
+            reopened = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), DIRECTORY_LUCENE_DIR_PATH,
+                    indexerProperties);
+            Assert.assertEquals(2, reopened.search(luceneQuery, 0, 10, false).size());
+            reopened.close();
+        }
+        finally
+        {
+            LuceneCleanupUtilities.cleanDir(DIRECTORY_LUCENE_DIR_PATH);
+        }
+    }
+
+    private Indexer getIndexer(EntityManager em, String persistenceUnit)
+    {
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        return ((ClientBase) clients.get(persistenceUnit)).getIndexManager().getIndexer();
+    }
+
+    @Test
+    public void testCommitKeepsForeignFiles() throws IOException
+    {
+        File foreign = new File(LUCENE_DIR_PATH, "foreign.txt");
+        foreign.getParentFile().mkdirs();
+        Assert.assertTrue(foreign.createNewFile());
+
+        LuceneIndexer indexer = LuceneIndexer.getInstance(new StandardAnalyzer(Version.LUCENE_34), LUCENE_DIR_PATH);
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(Person.class);
+        Person p = new Person();
+        p.setAge(32);
+        p.setDay(Day.TUESDAY);
+        p.setPersonId("p1");
+        indexer.index(metadata, p);
+        indexer.close();
+
+        Assert.assertTrue(foreign.exists());
+    }
+
     @After
     public void tearDown()
     {
@@ -350,4 +350,20 @@ public class ManagedStateTest
         }
     }
 
+    /**
+     * Test method for
+     * {@link com.impetus.kundera.lifecycle.states.ManagedState#handleFlushed(com.impetus.kundera.lifecycle.NodeStateContext)}
+     * .
+     */
+    @Test
+    public void testHandleFlushed()
+    {
+        Node storeNode = StoreBuilder.buildStoreNode(pc, state, CascadeType.PERSIST);
+        storeNode.setDirty(true);
+        pc.getMainCache().addNodeToCache(storeNode);
+        state.handleFlushed(storeNode);
+        Assert.assertFalse(storeNode.isDirty());
+        Assert.assertNotNull(pc.getMainCache().getNodeFromCache(storeNode.getNodeId()));
+    }
+
 }
@@ -319,4 +319,20 @@ public class RemovedStateTest
         }
     }
 
+    /**
+     * Test method for
+     * {@link com.impetus.kundera.lifecycle.states.RemovedState#handleFlushed(com.impetus.kundera.lifecycle.NodeStateContext)}
+     * .
+     */
+    @Test
+    public void testHandleFlushed()
+    {
+        Node storeNode = StoreBuilder.buildStoreNode(pc, state, CascadeType.PERSIST);
+        storeNode.setDirty(true);
+        pc.getMainCache().addNodeToCache(storeNode);
+        state.handleFlushed(storeNode);
+        Assert.assertFalse(storeNode.isDirty());
+        Assert.assertNull(pc.getMainCache().getNodeFromCache(storeNode.getNodeId()));
+    }
+
 }
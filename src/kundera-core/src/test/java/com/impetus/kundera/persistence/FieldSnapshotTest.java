@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.persistence;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.impetus.kundera.PersistenceProperties;
+import com.impetus.kundera.client.Client;
+import com.impetus.kundera.client.ClientBase;
+import com.impetus.kundera.client.CoreTestClient;
+import com.impetus.kundera.entity.PersonnelDTO;
+import com.impetus.kundera.graph.Node;
+import com.impetus.kundera.graph.ObjectGraphUtils;
+import com.impetus.kundera.index.IndexManager;
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.KunderaMetadata;
+import com.impetus.kundera.persistence.context.PersistenceCache;
+import com.impetus.kundera.utils.EntitySnapshot;
+
+/**
+ * Test case for dirty checking of persistence context in
+ * {@link PersistenceProperties#KUNDERA_PERSISTENCE_CONTEXT_SNAPSHOT} "fields"
+ * mode.
+ */
+public class FieldSnapshotTest
+{
+    private static final String PU = "kunderatest";
+
+    private static EntityManagerFactory emf;
+
+    private static IndexManager indexManager;
+
+    private static Properties puProperties;
+
+    private RecordingClient client;
+
+    private PersistenceDelegator pd;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception
+    {
+        KunderaMetadata.INSTANCE.setApplicationMetadata(null);
+        emf = Persistence.createEntityManagerFactory(PU);
+        EntityManager em = emf.createEntityManager();
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        indexManager = ((ClientBase) clients.get(PU)).getIndexManager();
+        em.close();
+
+        puProperties = KunderaMetadataManager.getPersistenceUnitMetadata(PU).getProperties();
+        puProperties.setProperty(PersistenceProperties.KUNDERA_PERSISTENCE_CONTEXT_SNAPSHOT, "fields");
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception
+    {
+        puProperties.remove(PersistenceProperties.KUNDERA_PERSISTENCE_CONTEXT_SNAPSHOT);
+        emf.close();
+    }
+
+    @Before
+    public void setUp() throws Exception
+    {
+        client = new RecordingClient(indexManager);
+        pd = new PersistenceDelegator(new PersistenceCache());
+        pd.loadClient(PU, client);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        if (pd.isOpen())
+        {
+            pd.close();
+        }
+    }
+
+    @Test
+    public void testEntityKeptInPersistenceContext()
+    {
+        PersonnelDTO person = newPerson("fs_1");
+        pd.persist(person);
+        Assert.assertEquals(1, client.writes);
+        Assert.assertFalse(client.update);
+
+        // entity itself is node data, no copy taken.
+        Node node = getNode("fs_1");
+        Assert.assertSame(person, node.getData());
+        Assert.assertNotNull(node.getSnapshot());
+        Assert.assertFalse(node.getSnapshot().isModified(person));
+        Assert.assertFalse(node.isDirty());
+    }
+
+    @Test
+    public void testDirtyDetectionAndSnapshotRetaken()
+    {
+        PersonnelDTO person = newPerson("fs_2");
+        pd.persist(person);
+        EntitySnapshot persisted = getNode("fs_2").getSnapshot();
+
+        // unchanged entity is not written.
+        pd.merge(person);
+        Assert.assertEquals(1, client.writes);
+
+        // modified attribute is detected against snapshot and written alone.
+        person.setFirstName("Vivek");
+        Assert.assertTrue(persisted.isModified(person));
+        Assert.assertEquals(1, persisted.getModified(person).cardinality());
+        pd.merge(person);
+        Assert.assertEquals(2, client.writes);
+        Assert.assertTrue(client.update);
+        Assert.assertEquals(Collections.singleton("first_name"), client.columns);
+
+        // flushed state is new baseline.
+        Node node = getNode("fs_2");
+        Assert.assertSame(person, node.getData());
+        Assert.assertNotSame(persisted, node.getSnapshot());
+        Assert.assertFalse(node.getSnapshot().isModified(person));
+        Assert.assertFalse(node.isDirty());
+        pd.merge(person);
+        Assert.assertEquals(2, client.writes);
+
+        person.setLastName("Mishra");
+        pd.merge(person);
+        Assert.assertEquals(3, client.writes);
+        Assert.assertEquals(Collections.singleton("last_name"), client.columns);
+    }
+
+    private Node getNode(String id)
+    {
+        return pd.getPersistenceCache().getMainCache()
+                .getNodeFromCache(ObjectGraphUtils.getNodeId(id, PersonnelDTO.class));
+    }
+
+    private static PersonnelDTO newPerson(String id)
+    {
+        PersonnelDTO person = new PersonnelDTO();
+        person.setPersonId(id);
+        person.setFirstName("Amresh");
+        person.setLastName("Singh");
+        return person;
+    }
+
+    /**
+     * Records writes and columns written.
+     */
+    private static class RecordingClient extends CoreTestClient
+    {
+        private int writes;
+
+        private boolean update;
+
+        private Set<String> columns;
+
+        RecordingClient(IndexManager indexManager)
+        {
+            super(indexManager, PU);
+        }
+
+        @Override
+        public void persist(Node node)
+        {
+            super.persist(node);
+            writes++;
+            update = isUpdate;
+            columns = dirtyColumns;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * junit for {@link FlushExecutor}.
+ */
+public class FlushExecutorTest
+{
+    private FlushExecutor executor;
+
+    @Before
+    public void setUp()
+    {
+        executor = new FlushExecutor(2);
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testConcurrentFlush()
+    {
+        // each task waits for the others, hence all run at the same time.
+        final CountDownLatch latch = new CountDownLatch(3);
+        final AtomicInteger completed = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int i = 0; i < 3; i++)
+        {
+            tasks.add(new Callable<Void>()
+            {
+                @Override
+                public Void call() throws Exception
+                {
+                    latch.countDown();
+                    Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+                    completed.incrementAndGet();
+                    return null;
+                }
+            });
+        }
+        executor.invokeAll(tasks);
+        Assert.assertEquals(3, completed.get());
+    }
+
+    @Test
+    public void testFirstFailureAfterAllDone()
+    {
+        final AtomicInteger completed = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        tasks.add(new Callable<Void>()
+        {
+            @Override
+            public Void call()
+            {
+                throw new IllegalStateException("first");
+            }
+        });
+        tasks.add(new Callable<Void>()
+        {
+            @Override
+            public Void call() throws Exception
+            {
+                Thread.sleep(100);
+                completed.incrementAndGet();
+                return null;
+            }
+        });
+        try
+        {
+            executor.invokeAll(tasks);
+            Assert.fail("Should have failed");
+        }
+        catch (IllegalStateException isex)
+        {
+            Assert.assertEquals("first", isex.getMessage());
+            Assert.assertEquals(1, completed.get());
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.persistence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.impetus.kundera.cache.Cache;
+import com.impetus.kundera.cache.CacheStatistics;
+import com.impetus.kundera.cache.tinylfu.TinyLfuCacheProvider;
+import com.impetus.kundera.client.Client;
+import com.impetus.kundera.client.ClientBase;
+import com.impetus.kundera.client.CoreTestClient;
+import com.impetus.kundera.entity.PersonnelDTO;
+import com.impetus.kundera.graph.Node;
+import com.impetus.kundera.graph.ObjectGraphUtils;
+import com.impetus.kundera.index.IndexManager;
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.KunderaMetadata;
+import com.impetus.kundera.persistence.api.Batcher;
+import com.impetus.kundera.persistence.context.PersistenceCache;
+
+/**
+ * Test case for second level cache handling of {@link PersistenceDelegator}.
+ */
+public class SecondLevelCacheTest
+{
+    private static final String PU = "kunderatest";
+
+    private static EntityManagerFactory emf;
+
+    private static EntityMetadata metadata;
+
+    private static IndexManager indexManager;
+
+    private Cache cache;
+
+    private PersistenceDelegator pd;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception
+    {
+        KunderaMetadata.INSTANCE.setApplicationMetadata(null);
+        emf = Persistence.createEntityManagerFactory(PU);
+        EntityManager em = emf.createEntityManager();
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        indexManager = ((ClientBase) clients.get(PU)).getIndexManager();
+        em.close();
+
+        metadata = KunderaMetadataManager.getEntityMetadata(PersonnelDTO.class);
+        metadata.setCacheable(true);
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception
+    {
+        metadata.setCacheable(false);
+        emf.close();
+    }
+
+    @Before
+    public void setUp() throws Exception
+    {
+        TinyLfuCacheProvider provider = new TinyLfuCacheProvider();
+        provider.init(new HashMap<String, Object>());
+        cache = (Cache) provider.createCache("Kundera");
+        pd = new PersistenceDelegator(new PersistenceCache(), cache);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        if (pd.isOpen())
+        {
+            pd.close();
+        }
+    }
+
+    @Test
+    public void testReadThroughAndEviction()
+    {
+        CountingClient client = new CountingClient(indexManager);
+        pd.loadClient(PU, client);
+        pd.persist(newPerson("l2_1", "Amresh"));
+        pd.clear();
+
+        CacheStatistics statistics = cache.getStatistics();
+        long evictions = statistics.getEvictionCount();
+
+        // miss, loaded from datastore and cached.
+        Assert.assertEquals("Amresh", pd.find(PersonnelDTO.class, "l2_1").getFirstName());
+        Assert.assertEquals(1, client.finds);
+        Assert.assertEquals(1, statistics.getMissCount());
+        Assert.assertEquals(1, statistics.getPutCount());
+        pd.clear();
+
+        // hit, datastore not read.
+        PersonnelDTO found = pd.find(PersonnelDTO.class, "l2_1");
+        Assert.assertEquals("Amresh", found.getFirstName());
+        Assert.assertEquals(1, client.finds);
+        Assert.assertEquals(1, statistics.getHitCount());
+
+        // update evicts cached copy.
+        found.setFirstName("Vivek");
+        pd.merge(found);
+        Assert.assertEquals(evictions + 1, statistics.getEvictionCount());
+        Assert.assertFalse(cache.contains(PersonnelDTO.class, nodeId("l2_1")));
+        pd.clear();
+
+        // miss again, updated state read from datastore.
+        Assert.assertEquals("Vivek", pd.find(PersonnelDTO.class, "l2_1").getFirstName());
+        Assert.assertEquals(2, client.finds);
+        Assert.assertEquals(2, statistics.getMissCount());
+        Assert.assertEquals(2, statistics.getPutCount());
+    }
+
+    @Test
+    public void testEvictionOnBatchLimit()
+    {
+        BatchClient client = new BatchClient(indexManager, 2);
+        pd.loadClient(PU, client);
+        cache.put(nodeId("l2_2"), newPerson("l2_2", "stale"));
+        cache.put(nodeId("l2_3"), newPerson("l2_3", "stale"));
+
+        pd.persist(newPerson("l2_2", "Amresh"));
+        Assert.assertEquals(0, client.executed);
+        Assert.assertTrue(cache.contains(PersonnelDTO.class, nodeId("l2_2")));
+
+        // second node fills batch, which client executes.
+        pd.persist(newPerson("l2_3", "Vivek"));
+        Assert.assertEquals(1, client.executed);
+        Assert.assertFalse(cache.contains(PersonnelDTO.class, nodeId("l2_2")));
+        Assert.assertFalse(cache.contains(PersonnelDTO.class, nodeId("l2_3")));
+    }
+
+    @Test
+    public void testEvictionOnClose()
+    {
+        BatchClient client = new BatchClient(indexManager, 10);
+        pd.loadClient(PU, client);
+        cache.put(nodeId("l2_4"), newPerson("l2_4", "stale"));
+
+        // batch is executed on close, even while in transaction.
+        pd.begin();
+        pd.persist(newPerson("l2_4", "Amresh"));
+        Assert.assertTrue(cache.contains(PersonnelDTO.class, nodeId("l2_4")));
+        pd.clear();
+        pd.close();
+
+        Assert.assertEquals(1, client.executed);
+        Assert.assertFalse(cache.contains(PersonnelDTO.class, nodeId("l2_4")));
+    }
+
+    private static String nodeId(String id)
+    {
+        return ObjectGraphUtils.getNodeId(id, PersonnelDTO.class);
+    }
+
+    private static PersonnelDTO newPerson(String id, String firstName)
+    {
+        PersonnelDTO person = new PersonnelDTO();
+        person.setPersonId(id);
+        person.setFirstName(firstName);
+        person.setLastName("Kumar");
+        return person;
+    }
+
+    /**
+     * Counts entities read from datastore.
+     */
+    private static class CountingClient extends CoreTestClient
+    {
+        private int finds;
+
+        CountingClient(IndexManager indexManager)
+        {
+            super(indexManager, PU);
+        }
+
+        @Override
+        public Object find(Class entityClass, Object key)
+        {
+            finds++;
+            return super.find(entityClass, key);
+        }
+    }
+
+    /**
+     * Batches writes, executing batch on reaching batch size as datastore
+     * clients do.
+     */
+    private static class BatchClient extends CoreTestClient implements Batcher
+    {
+        private final List<Node> nodes = new ArrayList<Node>();
+
+        private final int batchSize;
+
+        private int executed;
+
+        BatchClient(IndexManager indexManager, int batchSize)
+        {
+            super(indexManager, PU);
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void addBatch(Node node)
+        {
+            nodes.add(node);
+            if (nodes.size() == batchSize)
+            {
+                executeBatch();
+            }
+        }
+
+        @Override
+        public int executeBatch()
+        {
+            int size = nodes.size();
+            if (size > 0)
+            {
+                for (Node node : nodes)
+                {
+                    persist(node);
+                }
+                nodes.clear();
+                executed++;
+            }
+            return size;
+        }
+
+        @Override
+        public int getBatchSize()
+        {
+            return batchSize;
+        }
+
+        @Override
+        public void clear()
+        {
+            nodes.clear();
+        }
+    }
+}
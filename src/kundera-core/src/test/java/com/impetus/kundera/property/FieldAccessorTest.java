@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.property;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.impetus.kundera.entity.PersonnelDTO;
+import com.impetus.kundera.property.accessor.IntegerAccessor;
+
+/**
+ * Test case for {@link FieldAccessor}.
+ */
+public class FieldAccessorTest
+{
+
+    @Test
+    public void testObjectAccess() throws Exception
+    {
+        PersonnelDTO person = new PersonnelDTO();
+        FieldAccessor idAccessor = new FieldAccessor(PersonnelDTO.class.getDeclaredField("personId"));
+        FieldAccessor nameAccessor = new FieldAccessor(PersonnelDTO.class.getDeclaredField("firstName"));
+
+        idAccessor.set(person, "1");
+        nameAccessor.setBytes(person, "Amresh".getBytes());
+        Assert.assertEquals("1", person.getPersonId());
+        Assert.assertEquals("Amresh", nameAccessor.get(person));
+        Assert.assertEquals("Amresh", nameAccessor.getString(person));
+        Assert.assertEquals("Amresh", new String(nameAccessor.getBytes(person)));
+
+        nameAccessor.setString(person, "Vivek");
+        Assert.assertEquals("Vivek", person.getFirstName());
+
+        nameAccessor.set(person, null);
+        Assert.assertNull(nameAccessor.getString(person));
+    }
+
+    @Test
+    public void testPrimitiveAccess() throws Exception
+    {
+        Primitives p = new Primitives();
+        FieldAccessor intAccessor = new FieldAccessor(Primitives.class.getDeclaredField("count"));
+        FieldAccessor longAccessor = new FieldAccessor(Primitives.class.getDeclaredField("total"));
+        FieldAccessor doubleAccessor = new FieldAccessor(Primitives.class.getDeclaredField("ratio"));
+        FieldAccessor booleanAccessor = new FieldAccessor(Primitives.class.getDeclaredField("active"));
+
+        intAccessor.setInt(p, 7);
+        longAccessor.setLong(p, 7L << 40);
+        doubleAccessor.setDouble(p, 0.5);
+        booleanAccessor.setBoolean(p, true);
+
+        Assert.assertEquals(7, intAccessor.getInt(p));
+        Assert.assertEquals(7L << 40, longAccessor.getLong(p));
+        Assert.assertEquals(0.5, doubleAccessor.getDouble(p), 0.0);
+        Assert.assertTrue(booleanAccessor.getBoolean(p));
+        Assert.assertEquals(Integer.valueOf(7), intAccessor.get(p));
+        Assert.assertTrue(intAccessor.getPropertyAccessor() instanceof IntegerAccessor);
+    }
+
+    @Test(expected = PropertyAccessException.class)
+    public void testInvalidValue() throws Exception
+    {
+        new FieldAccessor(Primitives.class.getDeclaredField("count")).set(new Primitives(), "seven");
+    }
+
+    private static class Primitives
+    {
+        private int count;
+
+        private long total;
+
+        private double ratio;
+
+        private boolean active;
+    }
+}
@@ -22,6 +22,8 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 
+import javax.persistence.metamodel.Attribute.PersistentAttributeType;
+
 import junit.framework.Assert;
 
 import org.junit.After;
@@ -32,6 +34,8 @@ import com.impetus.kundera.entity.PersonnelDTO;
 import com.impetus.kundera.entity.album.AlbumUni_1_M_1_M;
 import com.impetus.kundera.entity.photographer.PhotographerUni_1_M_1_M;
 import com.impetus.kundera.graph.Node;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.metadata.model.attributes.DefaultSingularAttribute;
 import com.impetus.kundera.persistence.context.CacheBase;
 import com.impetus.kundera.property.accessor.StringAccessor;
 import com.impetus.kundera.utils.KunderaCoreUtils;
@@ -265,18 +269,31 @@ public class PropertyAccessorHelperTest
      * Test method for {@link com.impetus.kundera.property.PropertyAccessorHelper#setId(java.lang.Object, com.impetus.kundera.metadata.model.EntityMetadata, java.lang.Object)}.
      */
     @Test
-    public void testSetIdObjectEntityMetadataObject()
+    public void testSetIdObjectEntityMetadataObject() throws Exception
     {
- 
+        PersonnelDTO person = new PersonnelDTO();
+        PropertyAccessorHelper.setId(person, getMetadata(), "1");
+        Assert.assertEquals("1", person.getPersonId());
     }
 
     /**
      * Test method for {@link com.impetus.kundera.property.PropertyAccessorHelper#setId(java.lang.Object, com.impetus.kundera.metadata.model.EntityMetadata, byte[])}.
      */
     @Test
-    public void testSetIdObjectEntityMetadataByteArray()
+    public void testSetIdObjectEntityMetadataByteArray() throws Exception
     {
- 
+        // row key bytes are converted to type of id field.
+        PersonnelDTO person = new PersonnelDTO();
+        PropertyAccessorHelper.setId(person, getMetadata(), "1".getBytes());
+        Assert.assertEquals("1", person.getPersonId());
+    }
+
+    private EntityMetadata getMetadata() throws Exception
+    {
+        EntityMetadata metadata = new EntityMetadata(PersonnelDTO.class);
+        metadata.setIdAttribute(new DefaultSingularAttribute("personId", PersistentAttributeType.BASIC,
+                PersonnelDTO.class.getDeclaredField("personId"), null, null, true));
+        return metadata;
     }
 
     /**
@@ -22,6 +22,7 @@ import javax.persistence.EntityManagerFactory;
 import javax.persistence.Parameter;
 import javax.persistence.Persistence;
 import javax.persistence.PersistenceException;
+import javax.persistence.Query;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -30,6 +31,7 @@ import org.junit.Test;
 
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
+import com.impetus.kundera.persistence.EntityManagerFactoryImpl;
 import com.impetus.kundera.query.KunderaQuery.FilterClause;
 import com.impetus.kundera.query.KunderaQuery.UpdateClause;
 
@@ -314,6 +316,66 @@ public class KunderaQueryTest
 
     }
 
+    @Test
+    public void testInAndNotIn()
+    {
+        String query = "Select p from Person p where p.personName in :names and p.age not in (20, 30)";
+        KunderaQuery kunderaQuery = new KunderaQuery();
+        KunderaQueryParser queryParser = new KunderaQueryParser(kunderaQuery, query);
+        queryParser.parse();
+        kunderaQuery.postParsingInit();
+
+        Iterator clauses = kunderaQuery.getFilterClauseQueue().iterator();
+        FilterClause in = (FilterClause) clauses.next();
+        Assert.assertEquals("PERSON_NAME", in.getProperty());
+        Assert.assertEquals("IN", in.getCondition().trim());
+        Assert.assertEquals("AND", clauses.next());
+        FilterClause notIn = (FilterClause) clauses.next();
+        Assert.assertEquals("AGE", notIn.getProperty());
+        Assert.assertEquals("NOT IN", notIn.getCondition().trim());
+        Assert.assertEquals("(20, 30)", notIn.getValue());
+    }
+
+    @Test
+    public void testCopy()
+    {
+        String query = "Select p from Person p where p.personName = :name and p.age= :age";
+        KunderaQuery kunderaQuery = new KunderaQuery();
+        KunderaQueryParser queryParser = new KunderaQueryParser(kunderaQuery, query);
+        queryParser.parse();
+        kunderaQuery.postParsingInit();
+
+        KunderaQuery copy = kunderaQuery.copy();
+        copy.setParameter("name", "pname");
+        copy.setParameter("age", 32);
+
+        Assert.assertEquals(Person.class, copy.getEntityClass());
+        Assert.assertEquals(kunderaQuery.getFilterClauseQueue().size(), copy.getFilterClauseQueue().size());
+        Assert.assertEquals(2, copy.getParameters().size());
+        Assert.assertEquals("pname", copy.getClauseValue(":name"));
+        Assert.assertEquals(32, copy.getClauseValue(":age"));
+        Assert.assertEquals(":name", ((FilterClause) kunderaQuery.getFilterClauseQueue().peek()).getValue());
+    }
+
+    @Test
+    public void testQueryPlanCache()
+    {
+        QueryPlanCache queryPlanCache = ((EntityManagerFactoryImpl) emf).getQueryPlanCache();
+        Assert.assertNotNull(queryPlanCache);
+
+        String query = "Select p from Person p where p.personName = :name";
+        Query first = em.createQuery(query);
+        first.setParameter("name", "pname");
+        Query second = em.createQuery(query);
+
+        Assert.assertEquals(1, queryPlanCache.getMissCount());
+        Assert.assertEquals(1, queryPlanCache.getHitCount());
+        Assert.assertEquals(1, queryPlanCache.size());
+        Assert.assertNotSame(((QueryImpl) first).getKunderaQuery(), ((QueryImpl) second).getKunderaQuery());
+        Assert.assertEquals("pname", ((QueryImpl) first).getKunderaQuery().getClauseValue(":name"));
+        Assert.assertEquals(":name", ((QueryImpl) second).getKunderaQuery().getClauseValue(":name"));
+    }
+
     @Test
     public void testInvalidIndexParameter()
     {
@@ -598,6 +598,22 @@ public class QueryImplTest
         }
     }
     
+    @Test
+    public void testNotInOverLucene()
+    {
+        String query = "Select p from Person p where p.age not in (20, 30)";
+        CoreQuery queryObj = new CoreQuery(query, parseQuery(query), CoreTestUtilities.getDelegator(em));
+        try
+        {
+            queryObj.getLuceneQueryFromJPAQuery();
+            Assert.fail("Should have gone to catch block!");
+        }
+        catch (QueryHandlerException qhex)
+        {
+            Assert.assertTrue(qhex.getMessage().contains("NOT IN"));
+        }
+    }
+
     @Test
     public void testGroupByAndOrderBy()
     {
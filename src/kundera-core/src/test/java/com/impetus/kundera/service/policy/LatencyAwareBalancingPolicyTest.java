@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.kundera.service.policy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Test case for {@link LatencyAwareBalancingPolicy}.
+ */
+public class LatencyAwareBalancingPolicyTest
+{
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    public void testPrefersFastHost()
+    {
+        List<Object> pools = new ArrayList<Object>();
+        Object fast = "fast";
+        Object slow = "slow";
+        pools.add(fast);
+        pools.add(slow);
+
+        LatencyAwareBalancingPolicy policy = new LatencyAwareBalancingPolicy(0);
+        for (int i = 0; i < 50; i++)
+        {
+            request(policy, fast, FAST);
+            request(policy, slow, SLOW);
+        }
+        Assert.assertTrue(policy.getLatency(slow) > policy.getLatency(fast));
+
+        for (int i = 0; i < 100; i++)
+        {
+            Assert.assertSame(fast, policy.getPool(pools));
+        }
+    }
+
+    @Test
+    public void testPrefersLessLoadedHost()
+    {
+        List<Object> pools = new ArrayList<Object>();
+        Object idle = "idle";
+        Object busy = "busy";
+        pools.add(idle);
+        pools.add(busy);
+
+        LatencyAwareBalancingPolicy policy = new LatencyAwareBalancingPolicy(0);
+        for (int i = 0; i < 10; i++)
+        {
+            policy.onAcquire(busy);
+        }
+        for (int i = 0; i < 100; i++)
+        {
+            Assert.assertSame(idle, policy.getPool(pools));
+        }
+
+        for (int i = 0; i < 10; i++)
+        {
+            policy.onRelease(busy, FAST);
+        }
+        Assert.assertEquals(0, policy.getInFlight(busy));
+    }
+
+    @Test
+    public void testQuarantine()
+    {
+        final List<Object> quarantined = new ArrayList<Object>();
+        LatencyAwareBalancingPolicy policy = new LatencyAwareBalancingPolicy()
+        {
+            @Override
+            protected void onQuarantine(Object pool)
+            {
+                quarantined.add(pool);
+            }
+        };
+
+        Object fast = "fast";
+        Object slow = "slow";
+        for (int i = 0; i < 128; i++)
+        {
+            request(policy, fast, FAST);
+            request(policy, slow, SLOW);
+        }
+        Assert.assertEquals(1, quarantined.size());
+        Assert.assertSame(slow, quarantined.get(0));
+        Assert.assertEquals(0, policy.getLatency(slow));
+    }
+
+    @Test
+    public void testSinglePool()
+    {
+        List<Object> pools = new ArrayList<Object>();
+        pools.add("only");
+        Assert.assertEquals("only", new LatencyAwareBalancingPolicy().getPool(pools));
+    }
+
+    private void request(LatencyAwareBalancingPolicy policy, Object pool, long latency)
+    {
+        policy.onAcquire(pool);
+        policy.onRelease(pool, latency);
+    }
+}
@@ -16,10 +16,12 @@
 package com.impetus.kundera.utils;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import junit.framework.Assert;
 
@@ -111,6 +113,62 @@ public class ObjectUtilsCloneUnidirectionalTest
         assertOriginalObjectValues(a2);
     }
 
+    @Test
+    public void testSnapshot()
+    {
+        PhotographerUni_1_M_1_M a1 = constructPhotographer(1);
+        EntitySnapshot snapshot = EntitySnapshot.take(a1);
+        Assert.assertNotNull(snapshot);
+        Assert.assertFalse(snapshot.isModified(a1));
+
+        // basic attribute
+        a1.setPhotographerName("Vivek");
+        Assert.assertTrue(snapshot.isModified(a1));
+        a1.setPhotographerName("Amresh");
+        Assert.assertFalse(snapshot.isModified(a1));
+
+        // embedded attribute, modified in place
+        a1.getPersonalDetail().setPassword("password2");
+        Assert.assertTrue(snapshot.isModified(a1));
+        a1.getPersonalDetail().setPassword("password1");
+        Assert.assertFalse(snapshot.isModified(a1));
+
+        // element collection
+        a1.addTag("hbase");
+        Assert.assertTrue(snapshot.isModified(a1));
+
+        // relation
+        PhotographerUni_1_M_1_M a2 = constructPhotographer(1);
+        snapshot = EntitySnapshot.take(a2);
+        a2.addAlbum(new AlbumUni_1_M_1_M("b3", "Album 3", "This is album 3"));
+        Assert.assertTrue(snapshot.isModified(a2));
+    }
+
+    @Test
+    public void testDirtyColumns()
+    {
+        PhotographerUni_1_M_1_M a1 = constructPhotographer(1);
+        EntitySnapshot snapshot = EntitySnapshot.take(a1);
+        Assert.assertTrue(snapshot.getModified(a1).isEmpty());
+
+        a1.setPhotographerName("Vivek");
+        a1.addTag("hbase");
+        BitSet modified = snapshot.getModified(a1);
+        Assert.assertEquals(2, modified.cardinality());
+        Set<String> columns = EntitySnapshot.getColumnNames(PhotographerUni_1_M_1_M.class, modified);
+        Assert.assertEquals(2, columns.size());
+        Assert.assertTrue(columns.contains("PHOTOGRAPHER_NAME"));
+        Assert.assertTrue(columns.contains("tags"));
+
+        // detached copy, compared attribute by attribute
+        PhotographerUni_1_M_1_M a2 = (PhotographerUni_1_M_1_M) ObjectUtils.deepCopy(a1);
+        Assert.assertTrue(EntitySnapshot.getModified(a1, a2).isEmpty());
+        a2.getPersonalDetail().setPassword("password2");
+        a2.addAlbum(new AlbumUni_1_M_1_M("b3", "Album 3", "This is album 3"));
+        Assert.assertEquals(2, EntitySnapshot.getModified(a1, a2).cardinality());
+        Assert.assertNull(EntitySnapshot.getModified(a1, new Object()));
+    }
+
     // @Test
     public void testBulkCopyUsingKunderaCloner()
     {
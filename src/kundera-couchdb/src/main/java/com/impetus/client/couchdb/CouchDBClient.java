@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.impetus.client.couchdb;
 
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -25,8 +26,10 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,7 +46,6 @@ import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.client.methods.HttpPut;
 import org.apache.http.entity.StringEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +54,7 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import com.impetus.kundera.Constants;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.PersistenceProperties;
@@ -83,7 +86,7 @@ import com.impetus.kundera.utils.KunderaCoreUtils;
  * 
  */
 public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, Batcher, ClientPropertiesSetter,
-        AutoGenerator
+        AutoGenerator, Flushable
 {
     /** the log used by this class. */
     private static Logger log = LoggerFactory.getLogger(CouchDBClient.class);
@@ -103,6 +106,17 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
     /** The reader. */
     private EntityReader reader;
 
+    /** Upper bound of documents held before sent in bulk. */
+    private static final int MAX_PENDING_DOCS = 1000;
+
+    /** Documents written since last flush, by database and id. */
+    private Map<String, Map<String, JsonObject>> pendingDocs = new HashMap<String, Map<String, JsonObject>>();
+
+    /** Ids of pending documents which may exist already, by database. */
+    private Map<String, Set<String>> pendingUpdates = new HashMap<String, Set<String>>();
+
+    private int pendingCount;
+
     public CouchDBClient(HttpClient client, HttpHost httpHost, EntityReader reader, String persistenceUnit,
             Map<String, Object> externalProperties, ClientMetadata clientMetadata)
     {
@@ -123,22 +137,12 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
                 entityMetadata.getPersistenceUnit());
         try
         {
+            flushPendingDocs();
             if (key instanceof JsonElement)
             {
                 key = ((JsonElement) key).getAsString();
             }
-            String _id = null;
-            if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
-            {
-                Field field = (Field) entityMetadata.getIdAttribute().getJavaMember();
-                EmbeddableType embeddableType = metaModel.embeddable(entityMetadata.getIdAttribute()
-                        .getBindableJavaType());
-                _id = CouchDBObjectMapper.get_Id(field, key, embeddableType, entityMetadata.getTableName());
-            }
-            else
-            {
-                _id = entityMetadata.getTableName() + PropertyAccessorHelper.getString(key);
-            }
+            String _id = get_Id(entityMetadata, metaModel, key);
 
             URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
                     CouchDBConstants.URL_SAPRATOR + entityMetadata.getSchema().toLowerCase()
@@ -172,18 +176,65 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         }
     }
 
+    /**
+     * Finds all documents of given keys in a single _all_docs request,
+     * streaming through its rows.
+     */
     @Override
     public <E> List<E> findAll(Class<E> entityClass, String[] columnsToSelect, Object... keys)
     {
         List results = new ArrayList();
-        for (Object key : keys)
+        if (keys == null || keys.length == 0)
         {
-            Object object = find(entityClass, key);
-            if (object != null)
+            return results;
+        }
+        EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entityClass);
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+        HttpResponse response = null;
+        try
+        {
+            flushPendingDocs();
+            List<String> ids = new ArrayList<String>(keys.length);
+            for (Object key : keys)
+            {
+                if (key instanceof JsonElement)
+                {
+                    key = ((JsonElement) key).getAsString();
+                }
+                ids.add(get_Id(entityMetadata, metaModel, key));
+            }
+
+            response = getAllDocs(entityMetadata.getSchema(), ids, true);
+            JsonReader reader = CouchDBUtils.getJsonReader(response);
+            if (CouchDBUtils.beginRows(reader))
             {
-                results.add(object);
+                String idColumnName = ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName();
+                while (reader.hasNext())
+                {
+                    // missing and deleted documents come without doc.
+                    JsonObject jsonObject = CouchDBUtils.readRow(reader, "doc");
+                    if (jsonObject != null && jsonObject.get(idColumnName) != null)
+                    {
+                        Object object = CouchDBObjectMapper.getEntityFromJson(entityClass, entityMetadata,
+                                jsonObject, entityMetadata.getRelationNames());
+                        if (object != null)
+                        {
+                            results.add(object);
+                        }
+                    }
+                }
             }
         }
+        catch (Exception e)
+        {
+            log.error("Error while finding objects by keys {}, Caused by {}.", Arrays.toString(keys), e);
+            throw new KunderaException(e);
+        }
+        finally
+        {
+            closeContent(response);
+        }
         return results;
     }
 
@@ -196,6 +247,7 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
     @Override
     public void close()
     {
+        flushPendingDocs();
         externalProperty = null;
     }
 
@@ -205,21 +257,11 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         HttpResponse response = null;
         try
         {
+            flushPendingDocs();
             EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entity.getClass());
             MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
                     entityMetadata.getPersistenceUnit());
-            String _id = null;
-            if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
-            {
-                Field field = (Field) entityMetadata.getIdAttribute().getJavaMember();
-                EmbeddableType embeddableType = metaModel.embeddable(entityMetadata.getIdAttribute()
-                        .getBindableJavaType());
-                _id = CouchDBObjectMapper.get_Id(field, pKey, embeddableType, entityMetadata.getTableName());
-            }
-            else
-            {
-                _id = entityMetadata.getTableName() + PropertyAccessorHelper.getString(pKey);
-            }
+            String _id = get_Id(entityMetadata, metaModel, pKey);
             URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
                     CouchDBConstants.URL_SAPRATOR + entityMetadata.getSchema().toLowerCase()
                             + CouchDBConstants.URL_SAPRATOR + _id, null, null);
@@ -267,30 +309,9 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
                 obj.put(joinColumnName, joinColumnValue);
                 obj.put(invJoinColumnName, childId);
                 JsonObject object = gson.toJsonTree(obj).getAsJsonObject();
-                HttpResponse response = null;
-                try
-                {
-                    URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
-                            CouchDBConstants.URL_SAPRATOR + joinTableData.getSchemaName().toLowerCase()
-                                    + CouchDBConstants.URL_SAPRATOR + id, null, null);
 
-                    HttpPut put = new HttpPut(uri);
-                    StringEntity stringEntity = null;
-                    stringEntity = new StringEntity(object.toString(), Constants.CHARSET_UTF8);
-                    stringEntity.setContentType("application/json");
-                    put.setEntity(stringEntity);
-
-                    response = httpClient.execute(httpHost, put, CouchDBUtils.getContext(httpHost));
-                }
-                catch (Exception e)
-                {
-                    log.error("Error while persisting joinTable data, coused by {}.", e);
-                    throw new KunderaException(e);
-                }
-                finally
-                {
-                    closeContent(response);
-                }
+                // sent along with entities on flush, as _bulk_docs.
+                addPendingDoc(joinTableData.getSchemaName(), id, object, false);
             }
         }
     }
@@ -305,6 +326,7 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         HttpResponse response = null;
         try
         {
+            flushPendingDocs();
             String q = "key=" + CouchDBUtils.appendQuotes(pKeyColumnValue);
             uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
                     CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR
@@ -313,21 +335,16 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
             get.addHeader("Accept", "application/json");
             response = httpClient.execute(get);
 
-            InputStream content = response.getEntity().getContent();
-            Reader reader = new InputStreamReader(content);
-            JsonObject json = gson.fromJson(reader, JsonObject.class);
-
-            JsonElement jsonElement = json.get("rows");
-
-            if (jsonElement == null)
+            JsonReader reader = CouchDBUtils.getJsonReader(response);
+            if (!CouchDBUtils.beginRows(reader))
             {
                 return foreignKeys;
             }
 
-            JsonArray array = jsonElement.getAsJsonArray();
-            for (JsonElement element : array)
+            while (reader.hasNext())
             {
-                JsonElement value = element.getAsJsonObject().get("value").getAsJsonObject().get(inverseJoinColumnName);
+                JsonObject row = CouchDBUtils.readRow(reader, "value");
+                JsonElement value = row != null ? row.get(inverseJoinColumnName) : null;
                 if (value != null)
                 {
                     foreignKeys.add((E) PropertyAccessorHelper.fromSourceToTargetClass(columnJavaType, String.class,
@@ -356,6 +373,7 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         EntityMetadata m = KunderaMetadataManager.getEntityMetadata(entityClazz);
         try
         {
+            flushPendingDocs();
             String q = "key=" + CouchDBUtils.appendQuotes(columnValue);
             URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
                     CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR
@@ -364,19 +382,15 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
             get.addHeader("Accept", "application/json");
             response = httpClient.execute(get);
 
-            InputStream content = response.getEntity().getContent();
-            Reader reader = new InputStreamReader(content);
-            JsonObject json = gson.fromJson(reader, JsonObject.class);
-
-            JsonElement jsonElement = json.get("rows");
-            if (jsonElement == null)
+            JsonReader reader = CouchDBUtils.getJsonReader(response);
+            if (!CouchDBUtils.beginRows(reader))
             {
                 return foreignKeys.toArray();
             }
-            JsonArray array = jsonElement.getAsJsonArray();
-            for (JsonElement element : array)
+            while (reader.hasNext())
             {
-                JsonElement value = element.getAsJsonObject().get("value").getAsJsonObject().get(pKeyName);
+                JsonObject row = CouchDBUtils.readRow(reader, "value");
+                JsonElement value = row != null ? row.get(pKeyName) : null;
                 if (value != null)
                 {
                     foreignKeys.add(PropertyAccessorHelper.fromSourceToTargetClass(m.getIdAttribute()
@@ -404,6 +418,7 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         HttpResponse response = null;
         try
         {
+            flushPendingDocs();
             String q = "key=" + CouchDBUtils.appendQuotes(columnValue);
             uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
                     CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR
@@ -412,23 +427,30 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
             get.addHeader("Accept", "application/json");
             response = httpClient.execute(get);
 
-            InputStream content = response.getEntity().getContent();
-            Reader reader = new InputStreamReader(content);
-
-            JsonObject json = gson.fromJson(reader, JsonObject.class);
-
-            JsonElement jsonElement = json.get("rows");
-
+            // deleted in bulk, marking each document as deleted.
+            List<JsonObject> deletes = new ArrayList<JsonObject>();
+            JsonReader reader = CouchDBUtils.getJsonReader(response);
+            if (CouchDBUtils.beginRows(reader))
+            {
+                while (reader.hasNext())
+                {
+                    JsonObject jsonObject = CouchDBUtils.readRow(reader, "value");
+                    if (jsonObject != null)
+                    {
+                        JsonObject deleted = new JsonObject();
+                        deleted.add("_id", jsonObject.get("_id"));
+                        deleted.add("_rev", jsonObject.get("_rev"));
+                        deleted.addProperty("_deleted", true);
+                        deletes.add(deleted);
+                    }
+                }
+            }
             closeContent(response);
+            response = null;
 
-            JsonArray array = jsonElement.getAsJsonArray();
-            for (JsonElement element : array)
+            if (!deletes.isEmpty())
             {
-                JsonObject jsonObject = element.getAsJsonObject().get("value").getAsJsonObject();
-
-                JsonElement pkey = jsonObject.get("_id");
-
-                onDelete(schemaName, pkey.getAsString(), response, jsonObject);
+                bulkDocs(schemaName, deletes, false);
             }
         }
         catch (Exception e)
@@ -472,16 +494,9 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         Object[] ids = findIdsByColumn(m.getSchema(), m.getTableName(),
                 ((AbstractAttribute) m.getIdAttribute()).getJPAColumnName(), colName, colValue, m.getEntityClazz());
         List<Object> resultSet = new ArrayList<Object>();
-        if (ids != null)
+        if (ids != null && ids.length > 0)
         {
-            for (Object id : new HashSet(Arrays.asList(ids)))
-            {
-                Object object = find(entityClazz, id);
-                if (object != null)
-                {
-                    resultSet.add(object);
-                }
-            }
+            resultSet.addAll(findAll(entityClazz, null, new HashSet(Arrays.asList(ids)).toArray()));
         }
         return resultSet;
     }
@@ -498,55 +513,236 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         return CouchDBQuery.class;
     }
 
+    /**
+     * Holds document of entity, to be sent along with other writes on flush
+     * as _bulk_docs. Revisions of updated documents are fetched then, in a
+     * single _all_docs request.
+     */
     @Override
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders)
     {
-        HttpResponse response = null;
         try
         {
             JsonObject object = CouchDBObjectMapper.getJsonOfEntity(entityMetadata, entity, id, rlHolders);
+            addPendingDoc(entityMetadata.getSchema(), object.get("_id").getAsString(), object, isUpdate);
+        }
+        catch (KunderaException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            log.error("Error while persisting entity with id {}, caused by {}. ", id, e);
+            throw new KunderaException(e);
+        }
+    }
 
-            String _id = object.get("_id").getAsString();
-
-            URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
-                    CouchDBConstants.URL_SAPRATOR + entityMetadata.getSchema().toLowerCase()
-                            + CouchDBConstants.URL_SAPRATOR + _id, null, null);
-
-            HttpPut put = new HttpPut(uri);
-
-            StringEntity stringEntity = null;
+    /**
+     * Sends pending writes as _bulk_docs.
+     * 
+     * @see java.io.Flushable#flush()
+     */
+    @Override
+    public void flush()
+    {
+        flushPendingDocs();
+    }
 
-            if (isUpdate)
+    /**
+     * Adds document to those to be sent on flush, flushing them if too many
+     * are pending.
+     * 
+     * @param schemaName
+     *            database name
+     * @param _id
+     *            document id
+     * @param document
+     *            the document
+     * @param isUpdate
+     *            true, if document may exist already.
+     */
+    private void addPendingDoc(String schemaName, String _id, JsonObject document, boolean isUpdate)
+    {
+        String databaseName = schemaName.toLowerCase();
+        Map<String, JsonObject> documents = pendingDocs.get(databaseName);
+        if (documents == null)
+        {
+            documents = new LinkedHashMap<String, JsonObject>();
+            pendingDocs.put(databaseName, documents);
+        }
+        // later write of same document replaces earlier one.
+        if (documents.put(_id, document) == null)
+        {
+            pendingCount++;
+        }
+        if (isUpdate)
+        {
+            Set<String> updates = pendingUpdates.get(databaseName);
+            if (updates == null)
             {
-                HttpGet get = new HttpGet(uri);
-                get.addHeader("Accept", "application/json");
-                response = httpClient.execute(httpHost, get, CouchDBUtils.getContext(httpHost));
+                updates = new HashSet<String>();
+                pendingUpdates.put(databaseName, updates);
+            }
+            updates.add(_id);
+        }
+        if (pendingCount >= MAX_PENDING_DOCS)
+        {
+            flushPendingDocs();
+        }
+    }
 
-                try
+    /**
+     * Sends pending writes, one _bulk_docs request per database. Called before
+     * any read, for reads to see them.
+     */
+    private void flushPendingDocs()
+    {
+        if (pendingCount == 0)
+        {
+            return;
+        }
+        try
+        {
+            for (Map.Entry<String, Map<String, JsonObject>> entry : pendingDocs.entrySet())
+            {
+                Map<String, JsonObject> documents = entry.getValue();
+                Set<String> updates = pendingUpdates.get(entry.getKey());
+                if (updates != null && !updates.isEmpty())
                 {
-                    InputStream content = response.getEntity().getContent();
-                    Reader reader = new InputStreamReader(content);
-                    JsonObject jsonObject = gson.fromJson(reader, JsonObject.class);
-                    JsonElement rev = jsonObject.get("_rev");
-                    object.add("_rev", rev);
+                    for (Map.Entry<String, JsonElement> rev : getRevisions(entry.getKey(), updates).entrySet())
+                    {
+                        documents.get(rev.getKey()).add("_rev", rev.getValue());
+                    }
                 }
-                finally
+                bulkDocs(entry.getKey(), documents.values(), false);
+            }
+        }
+        catch (KunderaException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            log.error("Error while sending pending writes, caused by {}. ", e);
+            throw new KunderaException(e);
+        }
+        finally
+        {
+            pendingDocs.clear();
+            pendingUpdates.clear();
+            pendingCount = 0;
+        }
+    }
+
+    /**
+     * Returns current revisions of given documents, fetched in a single
+     * _all_docs request.
+     * 
+     * @param schemaName
+     *            database name
+     * @param ids
+     *            document ids
+     * @return revisions by id, of existing documents only.
+     */
+    private Map<String, JsonElement> getRevisions(String schemaName, Collection<String> ids)
+            throws URISyntaxException, IOException
+    {
+        Map<String, JsonElement> revisions = new HashMap<String, JsonElement>();
+        HttpResponse response = null;
+        try
+        {
+            response = getAllDocs(schemaName, ids, false);
+            JsonReader reader = CouchDBUtils.getJsonReader(response);
+            if (CouchDBUtils.beginRows(reader))
+            {
+                while (reader.hasNext())
                 {
-                    closeContent(response);
+                    JsonObject row = CouchDBUtils.readRow(reader, null);
+                    JsonElement value = row.get("value");
+
+                    // missing documents come with an error instead, deleted
+                    // ones are written afresh.
+                    if (value != null && value.isJsonObject() && value.getAsJsonObject().get("deleted") == null)
+                    {
+                        revisions.put(row.get("id").getAsString(), value.getAsJsonObject().get("rev"));
+                    }
                 }
             }
-            object.addProperty("_id", entityMetadata.getTableName() + id);
-            stringEntity = new StringEntity(object.toString(), Constants.CHARSET_UTF8);
-            stringEntity.setContentType("application/json");
-            put.setEntity(stringEntity);
+        }
+        finally
+        {
+            closeContent(response);
+        }
+        return revisions;
+    }
 
-            response = httpClient.execute(httpHost, put, CouchDBUtils.getContext(httpHost));
+    /**
+     * Posts given keys to _all_docs of database.
+     * 
+     * @param schemaName
+     *            database name
+     * @param ids
+     *            document ids
+     * @param includeDocs
+     *            whether to fetch documents, or only their revisions.
+     * @return the response, to be closed by caller.
+     */
+    private HttpResponse getAllDocs(String schemaName, Collection<String> ids, boolean includeDocs)
+            throws URISyntaxException, IOException
+    {
+        URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
+                CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR
+                        + CouchDBConstants.ALL_DOCS, includeDocs ? "include_docs=true" : null, null);
+        JsonObject keys = new JsonObject();
+        keys.add("keys", gson.toJsonTree(ids));
+
+        HttpPost post = new HttpPost(uri);
+        post.addHeader("Accept", "application/json");
+        StringEntity entity = new StringEntity(keys.toString(), Constants.CHARSET_UTF8);
+        entity.setContentType("application/json");
+        post.setEntity(entity);
+        return httpClient.execute(httpHost, post, CouchDBUtils.getContext(httpHost));
+    }
 
-        }
-        catch (Exception e)
+    /**
+     * Writes given documents in a single _bulk_docs request.
+     * 
+     * @param schemaName
+     *            database name
+     * @param documents
+     *            documents to write
+     * @param allOrNothing
+     *            whether to write all documents or none.
+     * @throws KunderaException
+     *             if any document was not written.
+     */
+    private void bulkDocs(String schemaName, Collection<JsonObject> documents, boolean allOrNothing)
+            throws URISyntaxException, IOException
+    {
+        HttpResponse response = null;
+        try
         {
-            log.error("Error while persisting entity with id {}, caused by {}. ", id, e);
-            throw new KunderaException(e);
+            URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
+                    CouchDBConstants.URL_SAPRATOR + schemaName.toLowerCase() + CouchDBConstants.URL_SAPRATOR
+                            + CouchDBConstants.BULK_DOCS, null, null);
+            JsonArray docs = new JsonArray();
+            for (JsonObject document : documents)
+            {
+                docs.add(document);
+            }
+            JsonObject bulk = new JsonObject();
+            if (allOrNothing)
+            {
+                bulk.addProperty("all_or_nothing", true);
+            }
+            bulk.add("docs", docs);
+
+            HttpPost post = new HttpPost(uri);
+            StringEntity entity = new StringEntity(bulk.toString(), Constants.CHARSET_UTF8);
+            entity.setContentType("application/json");
+            post.setEntity(entity);
+            response = httpClient.execute(httpHost, post, CouchDBUtils.getContext(httpHost));
+            CouchDBUtils.checkBulkDocsResult(CouchDBUtils.getJsonReader(response));
         }
         finally
         {
@@ -554,6 +750,21 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         }
     }
 
+    /**
+     * Returns document id of entity of given key.
+     */
+    private String get_Id(EntityMetadata entityMetadata, MetamodelImpl metaModel, Object key)
+    {
+        if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
+        {
+            Field field = (Field) entityMetadata.getIdAttribute().getJavaMember();
+            EmbeddableType embeddableType = metaModel.embeddable(entityMetadata.getIdAttribute()
+                    .getBindableJavaType());
+            return CouchDBObjectMapper.get_Id(field, key, embeddableType, entityMetadata.getTableName());
+        }
+        return entityMetadata.getTableName() + PropertyAccessorHelper.getString(key);
+    }
+
     private void closeContent(HttpResponse response)
     {
         CouchDBUtils.closeContent(response);
@@ -587,7 +798,6 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
     public int executeBatch()
     {
         List<JsonObject> objectsToPersist = new ArrayList<JsonObject>();
-        HttpResponse response = null;
         String databaseName = null;
         boolean isbulk = false;
         try
@@ -619,17 +829,7 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
             {
                 try
                 {
-                    URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(),
-                            CouchDBConstants.URL_SAPRATOR + databaseName.toLowerCase() + CouchDBConstants.URL_SAPRATOR
-                                    + "_bulk_docs", null, null);
-
-                    HttpPost post = new HttpPost(uri);
-                    String object = String.format("{%s%s}", "\"all_or_nothing\": true,",
-                            "\"docs\": " + gson.toJson(objectsToPersist));
-                    StringEntity entity = new StringEntity(object, "UTF-8");
-                    entity.setContentType("application/json");
-                    post.setEntity(entity);
-                    response = httpClient.execute(httpHost, post, CouchDBUtils.getContext(httpHost));
+                    bulkDocs(databaseName, objectsToPersist, true);
                 }
                 catch (Exception e)
                 {
@@ -642,10 +842,6 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         {
             throw new KunderaException(e.getMessage());
         }
-        finally
-        {
-            CouchDBUtils.closeContent(response);
-        }
 
         return nodes.size();
     }
@@ -778,27 +974,22 @@ public class CouchDBClient extends ClientBase implements Client<CouchDBQuery>, B
         HttpResponse response = null;
         try
         {
+            flushPendingDocs();
             URI uri = new URI(CouchDBConstants.PROTOCOL, null, httpHost.getHostName(), httpHost.getPort(), _id,
                     q.toString(), null);
             HttpGet get = new HttpGet(uri);
             get.addHeader("Accept", "application/json");
             response = httpClient.execute(httpHost, get, CouchDBUtils.getContext(httpHost));
 
-            InputStream content = response.getEntity().getContent();
-            Reader reader = new InputStreamReader(content);
-            JsonObject json = gson.fromJson(reader, JsonObject.class);
-
-            JsonElement jsonElement = json.get("rows");
-
-            if (jsonElement == null)
+            JsonReader reader = CouchDBUtils.getJsonReader(response);
+            if (!CouchDBUtils.beginRows(reader))
             {
                 return;
             }
-            JsonArray array = jsonElement.getAsJsonArray();
-            for (JsonElement element : array)
+            while (reader.hasNext())
             {
-                Object entityFromJson = CouchDBObjectMapper.getEntityFromJson(m.getEntityClazz(), m, element
-                        .getAsJsonObject().get("value").getAsJsonObject(), m.getRelationNames());
+                Object entityFromJson = CouchDBObjectMapper.getEntityFromJson(m.getEntityClazz(), m,
+                        CouchDBUtils.readRow(reader, "value"), m.getRelationNames());
                 if (entityFromJson != null)
                 {
                     results.add(entityFromJson);
@@ -22,6 +22,7 @@ import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -44,8 +45,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.impetus.client.couchdb.CouchDBDesignDocument.MapReduce;
+import com.impetus.kundera.Constants;
 import com.impetus.kundera.KunderaException;
 
 /**
@@ -59,6 +65,9 @@ public class CouchDBUtils
 
     private static final Logger log = LoggerFactory.getLogger(CouchDBUtils.class);
 
+    /** Parser of single rows off streamed responses, stateless. */
+    private static final JsonParser JSON_PARSER = new JsonParser();
+
     /**
      * 
      * @param httpHost
@@ -94,6 +103,120 @@ public class CouchDBUtils
         }
     }
 
+    /**
+     * Returns streaming reader over json content of response.
+     * 
+     * @param response
+     *            the response
+     * @return json reader
+     * @throws IOException
+     */
+    static JsonReader getJsonReader(HttpResponse response) throws IOException
+    {
+        return new JsonReader(new InputStreamReader(response.getEntity().getContent(), Constants.CHARSET_UTF8));
+    }
+
+    /**
+     * Positions reader of a view or _all_docs response at its first row,
+     * skipping everything before.
+     * 
+     * @param reader
+     *            json reader
+     * @return true, if response has rows to read.
+     * @throws IOException
+     */
+    static boolean beginRows(JsonReader reader) throws IOException
+    {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT)
+        {
+            return false;
+        }
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            if ("rows".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY)
+            {
+                reader.beginArray();
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    /**
+     * Reads next row off reader, building json of given field of row only.
+     * 
+     * @param reader
+     *            json reader, positioned by {@link #beginRows(JsonReader)}.
+     * @param field
+     *            field to read, "value" or "doc", whole row if null.
+     * @return field of row, null if row has no such object.
+     * @throws IOException
+     */
+    static JsonObject readRow(JsonReader reader, String field) throws IOException
+    {
+        if (field == null)
+        {
+            return JSON_PARSER.parse(reader).getAsJsonObject();
+        }
+        JsonObject value = null;
+        reader.beginObject();
+        while (reader.hasNext())
+        {
+            if (field.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT)
+            {
+                value = JSON_PARSER.parse(reader).getAsJsonObject();
+            }
+            else
+            {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return value;
+    }
+
+    /**
+     * Reads response of a _bulk_docs request, which has a row per document, or
+     * a single error if request failed as a whole.
+     * 
+     * @param reader
+     *            json reader
+     * @throws KunderaException
+     *             if any document was not written.
+     * @throws IOException
+     */
+    static void checkBulkDocsResult(JsonReader reader) throws IOException
+    {
+        JsonElement result = JSON_PARSER.parse(reader);
+        List<String> errors = new ArrayList<String>();
+        if (result.isJsonArray())
+        {
+            for (JsonElement row : result.getAsJsonArray())
+            {
+                addError(errors, row);
+            }
+        }
+        else
+        {
+            addError(errors, result);
+        }
+        if (!errors.isEmpty())
+        {
+            throw new KunderaException("Error while writing documents, caused by " + errors);
+        }
+    }
+
+    private static void addError(List<String> errors, JsonElement row)
+    {
+        if (row.isJsonObject() && row.getAsJsonObject().has("error"))
+        {
+            JsonObject object = row.getAsJsonObject();
+            errors.add(object.get("id") + ": " + object.get("error") + ", " + object.get("reason"));
+        }
+    }
+
     /**
      * 
      * @param views
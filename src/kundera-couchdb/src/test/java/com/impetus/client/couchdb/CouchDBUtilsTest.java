@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.couchdb;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.impetus.kundera.KunderaException;
+
+/**
+ * Test case for response parsing of {@link CouchDBUtils}.
+ */
+public class CouchDBUtilsTest
+{
+    private static final String ALL_DOCS = "{\"total_rows\":3,\"offset\":0,\"rows\":["
+            + "{\"id\":\"PERSON1\",\"key\":\"PERSON1\",\"value\":{\"rev\":\"1-a\"},"
+            + "\"doc\":{\"_id\":\"PERSON1\",\"_rev\":\"1-a\",\"PERSON_ID\":\"1\"}},"
+            + "{\"key\":\"PERSON2\",\"error\":\"not_found\"},"
+            + "{\"id\":\"PERSON3\",\"key\":\"PERSON3\",\"value\":{\"rev\":\"2-b\",\"deleted\":true},\"doc\":null}]}";
+
+    @Test
+    public void testReadDocs() throws IOException
+    {
+        JsonReader reader = new JsonReader(new StringReader(ALL_DOCS));
+        Assert.assertTrue(CouchDBUtils.beginRows(reader));
+
+        JsonObject doc = CouchDBUtils.readRow(reader, "doc");
+        Assert.assertEquals("1", doc.get("PERSON_ID").getAsString());
+        Assert.assertNull(CouchDBUtils.readRow(reader, "doc"));
+        Assert.assertNull(CouchDBUtils.readRow(reader, "doc"));
+        Assert.assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testReadRows() throws IOException
+    {
+        JsonReader reader = new JsonReader(new StringReader(ALL_DOCS));
+        Assert.assertTrue(CouchDBUtils.beginRows(reader));
+
+        JsonObject row = CouchDBUtils.readRow(reader, null);
+        Assert.assertEquals("PERSON1", row.get("id").getAsString());
+        Assert.assertEquals("1-a", row.getAsJsonObject("value").get("rev").getAsString());
+        Assert.assertEquals("not_found", CouchDBUtils.readRow(reader, null).get("error").getAsString());
+        Assert.assertTrue(CouchDBUtils.readRow(reader, "value").has("deleted"));
+        Assert.assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testBulkDocsWritten() throws IOException
+    {
+        CouchDBUtils.checkBulkDocsResult(new JsonReader(new StringReader(
+                "[{\"ok\":true,\"id\":\"PERSON1\",\"rev\":\"1-a\"},{\"id\":\"PERSON2\",\"rev\":\"2-b\"}]")));
+    }
+
+    @Test
+    public void testBulkDocsConflict() throws IOException
+    {
+        try
+        {
+            CouchDBUtils.checkBulkDocsResult(new JsonReader(new StringReader("[{\"id\":\"PERSON1\",\"rev\":\"1-a\"},"
+                    + "{\"id\":\"PERSON2\",\"error\":\"conflict\",\"reason\":\"Document update conflict.\"}]")));
+            Assert.fail("conflict should be reported");
+        }
+        catch (KunderaException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("PERSON2"));
+            Assert.assertFalse(e.getMessage().contains("PERSON1"));
+        }
+    }
+
+    @Test(expected = KunderaException.class)
+    public void testBulkDocsRequestFailed() throws IOException
+    {
+        CouchDBUtils.checkBulkDocsResult(new JsonReader(new StringReader(
+                "{\"error\":\"bad_request\",\"reason\":\"Request body must be a JSON object\"}")));
+    }
+
+    @Test
+    public void testNoRows() throws IOException
+    {
+        Assert.assertFalse(CouchDBUtils.beginRows(new JsonReader(new StringReader(
+                "{\"error\":\"not_found\",\"reason\":\"missing\"}"))));
+        Assert.assertFalse(CouchDBUtils.beginRows(new JsonReader(new StringReader("[]"))));
+    }
+}
@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.Client;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.impetus.kundera.KunderaException;
+
+/**
+ * Bulk writer of an elastic search client. Index, update and delete requests
+ * are gathered into a bulk request, sent once it holds bulk actions requests
+ * or bulk size bytes, on {@link #flush()}, or by background flusher once
+ * requests have been pending for flush interval.
+ *
+ * Bulk requests are sent asynchronously, at most concurrent requests at a
+ * time; adding requests blocks once as many are in flight. Indices written to
+ * are refreshed on {@link #refresh()} only, before searches. Failures are
+ * collected as bulk responses arrive and thrown by {@link #flush()}.
+ */
+public class ESBulkWriter
+{
+    /** the log used by this class. */
+    private static Logger log = LoggerFactory.getLogger(ESBulkWriter.class);
+
+    private final Client client;
+
+    private final int bulkActions;
+
+    private final long bulkSize;
+
+    private final long flushInterval;
+
+    private final int concurrentRequests;
+
+    /** Permits of bulk requests in flight. */
+    private final Semaphore semaphore;
+
+    private BulkRequest bulkRequest = new BulkRequest();
+
+    /** Time of first request since last bulk was sent, 0 if none pending. */
+    private long pendingSince;
+
+    /** Indices written to since last refresh. */
+    private final Set<String> indices = new HashSet<String>();
+
+    /** Failures of bulk requests sent since last flush. */
+    private final List<String> failures = new ArrayList<String>();
+
+    private ScheduledFuture<?> flushTask;
+
+    /**
+     * @param client
+     *            the client
+     * @param bulkActions
+     *            requests to send in a bulk.
+     * @param bulkSize
+     *            bytes to send in a bulk.
+     * @param flushInterval
+     *            milliseconds requests may be pending before sent in
+     *            background, 0 to send only on size or explicitly.
+     * @param concurrentRequests
+     *            bulk requests which may be in flight at a time, 0 to send
+     *            them synchronously.
+     * @param flusher
+     *            executor to flush in background on, may be null.
+     */
+    public ESBulkWriter(Client client, int bulkActions, long bulkSize, long flushInterval, int concurrentRequests,
+            ScheduledExecutorService flusher)
+    {
+        this.client = client;
+        this.bulkActions = bulkActions;
+        this.bulkSize = bulkSize;
+        this.flushInterval = flushInterval;
+        this.concurrentRequests = Math.max(concurrentRequests, 0);
+        this.semaphore = new Semaphore(Math.max(concurrentRequests, 1));
+        if (flusher != null && flushInterval > 0)
+        {
+            this.flushTask = flusher.scheduleWithFixedDelay(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    flushIfIdle();
+                }
+            }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Adds index request to bulk.
+     */
+    public synchronized void add(IndexRequest request)
+    {
+        bulkRequest.add(request);
+        onAdd(request.index());
+    }
+
+    /**
+     * Adds update request to bulk.
+     */
+    public synchronized void add(UpdateRequest request)
+    {
+        bulkRequest.add(request);
+        onAdd(request.index());
+    }
+
+    /**
+     * Adds delete request to bulk.
+     */
+    public synchronized void add(DeleteRequest request)
+    {
+        bulkRequest.add(request);
+        onAdd(request.index());
+    }
+
+    /**
+     * Sends pending requests and waits for all bulk requests in flight.
+     *
+     * @throws KunderaException
+     *             if any request sent since last flush failed.
+     */
+    public void flush()
+    {
+        synchronized (this)
+        {
+            if (bulkRequest.numberOfActions() > 0)
+            {
+                execute();
+            }
+        }
+
+        // all permits are back once no bulk is in flight.
+        int permits = Math.max(concurrentRequests, 1);
+        semaphore.acquireUninterruptibly(permits);
+        semaphore.release(permits);
+
+        String message = null;
+        synchronized (failures)
+        {
+            if (!failures.isEmpty())
+            {
+                message = failures.toString();
+                failures.clear();
+            }
+        }
+        if (message != null)
+        {
+            throw new KunderaException("Error while executing bulk requests, Caused by: " + message);
+        }
+    }
+
+    /**
+     * Flushes pending requests and refreshes indices written to, for searches
+     * to see them.
+     */
+    public void refresh()
+    {
+        flush();
+        String[] toRefresh = null;
+        synchronized (this)
+        {
+            if (!indices.isEmpty())
+            {
+                toRefresh = indices.toArray(new String[indices.size()]);
+                indices.clear();
+            }
+        }
+        if (toRefresh != null)
+        {
+            client.admin().indices().prepareRefresh(toRefresh).execute().actionGet();
+        }
+    }
+
+    /**
+     * Stops background flushing and flushes pending requests.
+     */
+    public void close()
+    {
+        if (flushTask != null)
+        {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        flush();
+    }
+
+    /**
+     * Sends requests pending for longer than flush interval.
+     */
+    synchronized void flushIfIdle()
+    {
+        if (pendingSince != 0 && System.currentTimeMillis() - pendingSince >= flushInterval)
+        {
+            try
+            {
+                execute();
+            }
+            catch (RuntimeException rex)
+            {
+                // reported on next flush.
+                log.warn("Error while sending bulk request in background, Caused by: .", rex);
+                addFailure(rex.getMessage());
+            }
+        }
+    }
+
+    private void onAdd(String index)
+    {
+        indices.add(index);
+        if (pendingSince == 0)
+        {
+            pendingSince = System.currentTimeMillis();
+        }
+        if ((bulkActions > 0 && bulkRequest.numberOfActions() >= bulkActions)
+                || (bulkSize > 0 && bulkRequest.estimatedSizeInBytes() >= bulkSize))
+        {
+            execute();
+        }
+    }
+
+    /**
+     * Sends pending bulk, blocking while concurrent requests are in flight.
+     */
+    private void execute()
+    {
+        final BulkRequest request = bulkRequest;
+        bulkRequest = new BulkRequest();
+        pendingSince = 0;
+
+        if (concurrentRequests == 0)
+        {
+            onResponse(client.bulk(request).actionGet());
+            return;
+        }
+
+        semaphore.acquireUninterruptibly();
+        try
+        {
+            client.bulk(request, new ActionListener<BulkResponse>()
+            {
+                @Override
+                public void onResponse(BulkResponse response)
+                {
+                    try
+                    {
+                        ESBulkWriter.this.onResponse(response);
+                    }
+                    finally
+                    {
+                        semaphore.release();
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable e)
+                {
+                    try
+                    {
+                        log.error("Error while executing bulk request, Caused by: .", e);
+                        addFailure(e.getMessage());
+                    }
+                    finally
+                    {
+                        semaphore.release();
+                    }
+                }
+            });
+        }
+        catch (RuntimeException rex)
+        {
+            semaphore.release();
+            throw rex;
+        }
+    }
+
+    private void onResponse(BulkResponse response)
+    {
+        if (response.hasFailures())
+        {
+            for (BulkItemResponse item : response.getItems())
+            {
+                if (item.isFailed())
+                {
+                    addFailure(item.getIndex() + "/" + item.getType() + "/" + item.getId() + ": "
+                            + item.getFailureMessage());
+                }
+            }
+        }
+    }
+
+    private void addFailure(String failure)
+    {
+        synchronized (failures)
+        {
+            failures.add(failure);
+        }
+    }
+}
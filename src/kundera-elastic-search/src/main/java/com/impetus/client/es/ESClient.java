@@ -15,30 +15,35 @@
  ******************************************************************************/
 package com.impetus.client.es;
 
+import java.io.Flushable;
 import java.lang.reflect.Field;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.persistence.PersistenceException;
 import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.SingularAttribute;
 
-import org.elasticsearch.action.bulk.BulkRequestBuilder;
-import org.elasticsearch.action.bulk.BulkResponse;
+import org.apache.commons.lang.StringUtils;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.deletebyquery.DeleteByQueryRequestBuilder;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequestBuilder;
+import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.index.IndexRequest;
-import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.transport.TransportClient;
 import org.elasticsearch.index.query.FilterBuilder;
@@ -78,7 +83,7 @@ import com.impetus.kundera.utils.KunderaCoreUtils;
  * @author vivek.mishra Elastic search client implementation on {@link Client}
  * 
  */
-public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, ClientPropertiesSetter
+public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, ClientPropertiesSetter, Flushable
 {
 
     private ESClientFactory factory;
@@ -100,14 +105,26 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
     
     private static final String KEY_SEPERATOR = "\001";
 
+    /** Hits fetched per scroll request, per shard. */
+    private int scrollPageSize = ESConstants.DEFAULT_SCROLL_PAGE_SIZE;
 
-    ESClient(final ESClientFactory factory, final TransportClient client, final Map<String, Object> externalProperties)
+    /** Hits a query may return in a single response, before scrolling. */
+    private int scrollThreshold = ESConstants.DEFAULT_SCROLL_THRESHOLD;
+
+    /** Bulk writer all writes go through. */
+    private ESBulkWriter bulkWriter;
+
+
+    ESClient(final ESClientFactory factory, final TransportClient client,
+            final Map<String, Object> externalProperties, final ScheduledExecutorService flusher)
     {
         this.factory = factory;
         this.clientMetadata = factory.getClientMetadata();
         this.txClient = client;
         this.reader = new ESEntityReader();
         setBatchSize(getPersistenceUnit(), externalProperties);
+        setScrollProperties(getPersistenceUnit(), externalProperties);
+        setBulkWriter(getPersistenceUnit(), externalProperties, flusher);
     }
 
     @Override
@@ -129,17 +146,9 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
             addRelations(rlHolders, values);
             addDiscriminator(values, entityType);
-            
-            IndexResponse response = txClient
-                    .prepareIndex(entityMetadata.getSchema().toLowerCase(),
-                            entityMetadata.getTableName(), keyAsString).setSource(values).execute()
-                    .actionGet();
 
-            // IndexRequest request = new
-            // IndexRequest(entityMetadata.getSchema().toLowerCase(),
-            // entityMetadata.getEntityClazz().getSimpleName(), keyAsString);
-            // txClient.prepareBulk().add(request)
-            assert response.getId() != null;
+            bulkWriter.add(new IndexRequest(entityMetadata.getSchema().toLowerCase(), entityMetadata.getTableName(),
+                    keyAsString).source(values));
         }
         finally
         {
@@ -196,6 +205,7 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         EntityType entityType = metaModel.entity(metadata.getEntityClazz());
 
         String keyAsString = getKeyAsString(key, metadata, metaModel);
+        bulkWriter.flush();
         try
         {
             get = txClient
@@ -213,18 +223,15 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
             throw new PersistenceException(eex);
         }
 
-        Map<String, Object> results = get.getSource();
+        return get.isExists() ? getEntity(get.getSource(), entityType, metadata, key) : null;
+    }
 
+    private Object getEntity(Map<String, Object> source, EntityType entityType, EntityMetadata metadata, Object key)
+    {
         Object result = null;
-
-        if (get.isExists())
-        {
-            result = getInstance(entityClass, result);
-            PropertyAccessorHelper.setId(result, metadata, key);
-            result = wrap(results, entityType, result, metadata, true);
-        }
-
-        return result;
+        result = getInstance(metadata.getEntityClazz(), result);
+        PropertyAccessorHelper.setId(result, metadata, key);
+        return wrap(source, entityType, result, metadata, true);
     }
 
     private Object getInstance(Class entityClass, Object result)
@@ -246,33 +253,102 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         return result;
     }
 
-    List executeQuery(FilterBuilder filter, final EntityMetadata entityMetadata)
+    /**
+     * Executes query of given filter. Fetches up to scroll threshold hits in a
+     * single response, and scrolls through hits in pages if there are more.
+     * Hits are counted first only if more than scroll threshold may be read.
+     * 
+     * @param filter
+     *            the filter, null for all.
+     * @param entityMetadata
+     *            the entity metadata
+     * @param maxResult
+     *            maximum number of results.
+     * @return the results
+     */
+    List executeQuery(FilterBuilder filter, final EntityMetadata entityMetadata, int maxResult)
     {
+        List results = new ArrayList();
+        if (maxResult <= 0)
+        {
+            return results;
+        }
 
-        
-        Class clazz = entityMetadata.getEntityClazz();
+        bulkWriter.refresh();
+        if (maxResult > scrollThreshold)
+        {
+            long count = txClient.prepareCount(entityMetadata.getSchema().toLowerCase())
+                    .setTypes(entityMetadata.getTableName())
+                    .setQuery(filter != null ? QueryBuilders.constantScoreQuery(filter) : QueryBuilders.matchAllQuery())
+                    .execute().actionGet().getCount();
+            if (count > scrollThreshold)
+            {
+                // too many for a single response, read them page by page.
+                Iterator iterator = new ResultIterator(this, entityMetadata, filter, null, maxResult);
+                while (iterator.hasNext())
+                {
+                    results.add(iterator.next());
+                }
+                return results;
+            }
+        }
 
-        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
-                entityMetadata.getPersistenceUnit());
+        int size = Math.min(maxResult, scrollThreshold);
+        SearchResponse response = txClient.prepareSearch(entityMetadata.getSchema().toLowerCase())
+                .setTypes(entityMetadata.getTableName()).setFilter(filter).setSize(size).execute().actionGet();
+        for (SearchHit hit : response.getHits().getHits())
+        {
+            results.add(getEntity(hit, entityMetadata));
+        }
 
-        EntityType entityType = metaModel.entity(clazz);
+        return results;
+    }
 
-        List results = new ArrayList();
+    /**
+     * Starts scan over hits of given filter, returning response holding
+     * scroll id to read hits by.
+     * 
+     * @param filter
+     *            the filter, null for all.
+     * @param entityMetadata
+     *            the entity metadata
+     * @return the response
+     */
+    SearchResponse startScroll(FilterBuilder filter, EntityMetadata entityMetadata)
+    {
+        bulkWriter.refresh();
+        return txClient.prepareSearch(entityMetadata.getSchema().toLowerCase())
+                .setTypes(entityMetadata.getTableName()).setSearchType(SearchType.SCAN)
+                .setScroll(ESConstants.SCROLL_KEEP_ALIVE).setFilter(filter).setSize(scrollPageSize).execute()
+                .actionGet();
+    }
 
-        SearchResponse response = txClient.prepareSearch(entityMetadata.getSchema().toLowerCase())
-                .setTypes(entityMetadata.getTableName()).setFilter(filter).execute().actionGet();
-        SearchHits hits = response.getHits();
+    /**
+     * Returns next page of hits of given scroll.
+     * 
+     * @param scrollId
+     *            the scroll id
+     * @return the response, with no hits once scroll is exhausted.
+     */
+    SearchResponse scroll(String scrollId)
+    {
+        return txClient.prepareSearchScroll(scrollId).setScroll(ESConstants.SCROLL_KEEP_ALIVE).execute().actionGet();
+    }
 
-        Object entity = null;
+    /**
+     * Returns entity of given search hit, wrapped in {@link EnhanceEntity} if
+     * it holds relations.
+     */
+    Object getEntity(SearchHit hit, EntityMetadata entityMetadata)
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
 
-        for (SearchHit hit : hits.getHits())
-        {
-            entity = getInstance(clazz, entity);
-            Map<String, Object> hitResult = hit.sourceAsMap();
-            results.add(wrap(hitResult, entityType, entity,entityMetadata, false));
-        }
+        EntityType entityType = metaModel.entity(entityMetadata.getEntityClazz());
 
-        return results;
+        Object entity = null;
+        entity = getInstance(entityMetadata.getEntityClazz(), entity);
+        return wrap(hit.sourceAsMap(), entityType, entity, entityMetadata, false);
     }
 
     private Object wrap(Map<String, Object> results, EntityType entityType, Object result, EntityMetadata metadata, boolean isIdSet)
@@ -315,10 +391,64 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         return relations.isEmpty() ? result : new EnhanceEntity(result, key, relations);
     }
 
+    /**
+     * Finds entities of given keys in a single multi get request.
+     */
     @Override
     public <E> List<E> findAll(Class<E> entityClass, String[] columnsToSelect, Object... keys)
     {
-        return null;
+        List results = new ArrayList();
+        if (keys == null || keys.length == 0)
+        {
+            return results;
+        }
+
+        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(entityClass);
+
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                metadata.getPersistenceUnit());
+
+        EntityType entityType = metaModel.entity(metadata.getEntityClazz());
+
+        bulkWriter.flush();
+        String index = metadata.getSchema().toLowerCase();
+        MultiGetRequestBuilder multiGet = txClient.prepareMultiGet();
+        for (Object key : keys)
+        {
+            multiGet.add(index, metadata.getTableName(), getKeyAsString(key, metadata, metaModel));
+        }
+
+        MultiGetResponse response = null;
+        try
+        {
+            response = multiGet.execute().get();
+        }
+        catch (InterruptedException iex)
+        {
+            log.error("Error while find records of {}, Caused by :.", entityClass.getSimpleName(), iex);
+            throw new PersistenceException(iex);
+        }
+        catch (ExecutionException eex)
+        {
+            log.error("Error while find records of {}, Caused by :.", entityClass.getSimpleName(), eex);
+            throw new PersistenceException(eex);
+        }
+
+        // responses come in order of keys.
+        MultiGetItemResponse[] items = response.getResponses();
+        for (int i = 0; i < items.length; i++)
+        {
+            if (items[i].isFailed())
+            {
+                log.warn("Error while find record of {}, Caused by :{}.", keys[i], items[i].getFailure()
+                        .getMessage());
+            }
+            else if (items[i].getResponse().isExists())
+            {
+                results.add(getEntity(items[i].getResponse().getSource(), entityType, metadata, keys[i]));
+            }
+        }
+        return results;
     }
 
     @Override
@@ -331,9 +461,21 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
     public void close()
     {
         clear();
+        bulkWriter.close();
         reader = null;
     }
 
+    /**
+     * Sends pending writes and waits for them, throwing failures if any.
+     * 
+     * @see java.io.Flushable#flush()
+     */
+    @Override
+    public void flush()
+    {
+        bulkWriter.flush();
+    }
+
     @Override
     public void delete(Object entity, Object pKey)
     {
@@ -348,21 +490,8 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
             String keyAsString = getKeyAsString(pKey, metadata, metaModel);
 
-            try
-            {
-                txClient.prepareDelete(metadata.getSchema().toLowerCase(), metadata.getTableName(),
-                        keyAsString.toString()/* index, type, id */).setOperationThreaded(false).execute().get();
-            }
-            catch (InterruptedException iex)
-            {
-                log.error("Error while deleting record of {}, Caused by :.", pKey, iex);
-                throw new PersistenceException(iex);
-            }
-            catch (ExecutionException eex)
-            {
-                log.error("Error while deleting record of {}, Caused by :.", pKey, eex);
-                throw new PersistenceException(eex);
-            }
+            bulkWriter.add(new DeleteRequest(metadata.getSchema().toLowerCase(), metadata.getTableName(),
+                    keyAsString));
         }
 
     }
@@ -382,8 +511,6 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
 
         Set<Object> joinKeys = joinTableRecords.keySet();
 
-        BulkRequestBuilder bulkRequest = txClient.prepareBulk();
-
         /**
          * 1_p => 1_a1,1_a2
          * 1_a1=> 1_p,1_p1
@@ -405,7 +532,6 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
          * embeddable keys over many to many does not work.
         */
         
-        boolean found=false;
         for(Object key : joinKeys)
         {
             Set<Object> inversejoinTableRecords = joinTableRecords.get(key);
@@ -422,17 +548,9 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
                 
                 String keyAsString = joinKeyAsStr+KEY_SEPERATOR+inverseKeyAsStr;
                 IndexRequest request = new IndexRequest(schemaName.toLowerCase(), tableName, keyAsString).source(source);
-                found=true;
-                bulkRequest.add(request);
+                bulkWriter.add(request);
             }
         }
-
-        // check made, as bulk request throws an error, in case no request is present.
-        if(found)
-        {
-            bulkRequest.execute().actionGet();
-        }
-
     }
 
     @Override
@@ -441,6 +559,7 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
     {
         // fetch list ADDRESS_ID for given PERSON_ID
         FilterBuilder filterBuilder = new TermFilterBuilder(pKeyColumnName,pKeyColumnValue);
+        bulkWriter.refresh();
 
         SearchResponse response = txClient.prepareSearch(schemaName.toLowerCase()).setTypes(tableName).setFilter(filterBuilder).addField(columnName)
                 .execute().actionGet();
@@ -463,6 +582,7 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
     {
         
         TermFilterBuilder filter = FilterBuilders.termFilter(columnName, columnValue);
+        bulkWriter.refresh();
         
         SearchResponse response = txClient.prepareSearch(schemaName.toLowerCase())
                 .setTypes(tableName).addField(pKeyName).setFilter(filter).execute().actionGet();
@@ -488,6 +608,7 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
     {
         Map<String,Object> querySource = new HashMap<String, Object>();
         querySource.put(columnName, columnValue);
+        bulkWriter.refresh();
         
         DeleteByQueryRequestBuilder deleteQueryBuilder = txClient.prepareDeleteByQuery(schemaName.toLowerCase()).setQuery(querySource).setTypes(tableName);
         
@@ -502,6 +623,7 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         List results = new ArrayList();
 
         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(entityClazz);
+        bulkWriter.refresh();
 
         try
         {
@@ -583,11 +705,13 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         }
     }
 
+    /**
+     * Adds nodes to bulk writer, to be sent in bulk along with other writes.
+     */
     @Override
     public int executeBatch()
     {
-        BulkRequestBuilder bulkRequest = txClient.prepareBulk();
-
+        int count = 0;
         try
         {
             for (Node node : nodes)
@@ -611,7 +735,7 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
                         // create a delete request.
 
                         DeleteRequest request = new DeleteRequest(metadata.getSchema().toLowerCase(), metadata.getTableName(), key);
-                        bulkRequest.add(request);
+                        bulkWriter.add(request);
 
                     }
                     else if (node.isUpdate())
@@ -624,7 +748,7 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
                         addRelations(relationHolders, values);
 
                         UpdateRequest request = new UpdateRequest(metadata.getSchema().toLowerCase(), metadata.getTableName(), key).doc(values);
-                        bulkRequest.add(request);
+                        bulkWriter.add(request);
                     }
                     else
                     {
@@ -637,20 +761,13 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
                         addRelations(relationHolders, values);
 
                         IndexRequest request = new IndexRequest(metadata.getSchema().toLowerCase(), metadata.getTableName(), key).source(values);
-                        bulkRequest.add(request);
+                        bulkWriter.add(request);
 
                     }
-
+                    count++;
                 }
             }
-
-            BulkResponse response = null;
-            if (nodes != null && !nodes.isEmpty())
-            {
-                // bulkRequest.setRefresh(true);
-                response = bulkRequest.execute().actionGet();
-            }
-            return response != null ? response.getItems().length : 0;
+            return count;
         }
         finally
         {
@@ -720,10 +837,68 @@ public class ESClient extends ClientBase implements Client<ESQuery>, Batcher, Cl
         }
     }
 
+    /**
+     * Reads scroll settings, from external properties first and then from
+     * persistence unit.
+     * 
+     * @param persistenceUnit
+     * @param puProperties
+     */
+    private void setScrollProperties(String persistenceUnit, Map<String, Object> puProperties)
+    {
+        PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(persistenceUnit);
+        scrollPageSize = getIntProperty(puProperties, puMetadata, ESConstants.SCROLL_PAGE_SIZE, scrollPageSize);
+        scrollThreshold = getIntProperty(puProperties, puMetadata, ESConstants.SCROLL_THRESHOLD, scrollThreshold);
+    }
+
+    private int getIntProperty(Map<String, Object> puProperties, PersistenceUnitMetadata puMetadata, String name,
+            int defaultValue)
+    {
+        Object value = puProperties != null ? puProperties.get(name) : null;
+        if (value == null && puMetadata != null)
+        {
+            value = puMetadata.getProperty(name);
+        }
+        if (value == null || StringUtils.isBlank(value.toString()))
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Integer.parseInt(value.toString().trim());
+        }
+        catch (NumberFormatException nfe)
+        {
+            log.warn("Invalid value {} of property {}, using {}.", new Object[] { value, name, defaultValue });
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Creates bulk writer, reading its settings from external properties first
+     * and then from persistence unit.
+     */
+    private void setBulkWriter(String persistenceUnit, Map<String, Object> puProperties,
+            ScheduledExecutorService flusher)
+    {
+        PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(persistenceUnit);
+        bulkWriter = new ESBulkWriter(txClient, getIntProperty(puProperties, puMetadata, ESConstants.BULK_ACTIONS,
+                ESConstants.DEFAULT_BULK_ACTIONS), getIntProperty(puProperties, puMetadata, ESConstants.BULK_SIZE,
+                ESConstants.DEFAULT_BULK_SIZE), getIntProperty(puProperties, puMetadata,
+                ESConstants.BULK_FLUSH_INTERVAL, ESConstants.DEFAULT_BULK_FLUSH_INTERVAL), getIntProperty(
+                puProperties, puMetadata, ESConstants.BULK_CONCURRENT_REQUESTS,
+                ESConstants.DEFAULT_BULK_CONCURRENT_REQUESTS), flusher);
+    }
+
     @Override
     public void populateClientProperties(Client client, Map<String, Object> properties)
     {
         this.clientProperties = properties;
+        if (properties != null)
+        {
+            scrollPageSize = getIntProperty(properties, null, ESConstants.SCROLL_PAGE_SIZE, scrollPageSize);
+            scrollThreshold = getIntProperty(properties, null, ESConstants.SCROLL_THRESHOLD, scrollThreshold);
+        }
     }
 
     private void setField(Object result, Object key, Attribute attribute, Object fieldValue)
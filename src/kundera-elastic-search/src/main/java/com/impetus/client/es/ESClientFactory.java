@@ -17,6 +17,8 @@ package com.impetus.client.es;
 
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.elasticsearch.client.transport.TransportClient;
 import org.elasticsearch.common.settings.ImmutableSettings;
@@ -29,6 +31,7 @@ import com.impetus.kundera.configure.schema.api.SchemaManager;
 import com.impetus.kundera.loader.GenericClientFactory;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
 import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
+import com.impetus.kundera.utils.KunderaThreadFactory;
 
 /**
  * @author vivek.mishra
@@ -36,6 +39,8 @@ import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
  */
 public class ESClientFactory extends GenericClientFactory
 {
+    /** Executor sending pending bulk writes of clients in background. */
+    private ScheduledExecutorService flusher;
 
     /*
      * (non-Javadoc)
@@ -58,6 +63,14 @@ public class ESClientFactory extends GenericClientFactory
     @Override
     public void destroy()
     {
+        synchronized (this)
+        {
+            if (flusher != null)
+            {
+                flusher.shutdown();
+                flusher = null;
+            }
+        }
         this.externalProperties = null;
         Object connection = getConnectionPoolOrConnection();
         
@@ -149,7 +162,21 @@ public class ESClientFactory extends GenericClientFactory
     @Override
     protected Client instantiateClient(String persistenceUnit)
     {
-        return new ESClient(this,((TransportClient) getConnectionPoolOrConnection()),this.externalProperties);
+        return new ESClient(this, ((TransportClient) getConnectionPoolOrConnection()), this.externalProperties,
+                getFlusher());
+    }
+
+    /**
+     * Returns executor to send pending bulk writes on, shared by all clients.
+     */
+    synchronized ScheduledExecutorService getFlusher()
+    {
+        if (flusher == null)
+        {
+            flusher = Executors.newSingleThreadScheduledExecutor(new KunderaThreadFactory(ESClientFactory.class
+                    .getName()));
+        }
+        return flusher;
     }
 
     /*
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+import org.elasticsearch.common.unit.TimeValue;
+
+/**
+ * Holds constants for kundera-elastic-search module.
+ */
+public final class ESConstants
+{
+    /**
+     * Hits fetched per scroll request, per shard, as persistence unit or
+     * client property.
+     */
+    public static final String SCROLL_PAGE_SIZE = "es.scroll.page.size";
+
+    /**
+     * Hits a query may return in a single response. Queries matching more are
+     * read by scan and scroll instead, as persistence unit or client property.
+     */
+    public static final String SCROLL_THRESHOLD = "es.scroll.threshold";
+
+    /** Index and delete requests sent per bulk request. */
+    public static final String BULK_ACTIONS = "es.bulk.actions";
+
+    /** Bytes of requests sent per bulk request. */
+    public static final String BULK_SIZE = "es.bulk.size";
+
+    /**
+     * Milliseconds writes may be pending before sent in background, 0 to send
+     * them only on size or on flush/commit.
+     */
+    public static final String BULK_FLUSH_INTERVAL = "es.bulk.flush.interval";
+
+    /**
+     * Bulk requests which may be in flight at a time, 0 to send them
+     * synchronously.
+     */
+    public static final String BULK_CONCURRENT_REQUESTS = "es.bulk.concurrent.requests";
+
+    public static final int DEFAULT_SCROLL_PAGE_SIZE = 500;
+
+    public static final int DEFAULT_SCROLL_THRESHOLD = 1000;
+
+    public static final int DEFAULT_BULK_ACTIONS = 1000;
+
+    public static final int DEFAULT_BULK_SIZE = 5 * 1024 * 1024;
+
+    public static final int DEFAULT_BULK_FLUSH_INTERVAL = 1000;
+
+    public static final int DEFAULT_BULK_CONCURRENT_REQUESTS = 1;
+
+    /** Time a scroll is kept open between two page requests. */
+    static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    private ESConstants()
+    {
+    }
+}
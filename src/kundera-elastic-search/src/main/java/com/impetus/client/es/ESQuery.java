@@ -35,6 +35,7 @@ import com.impetus.kundera.persistence.EntityReader;
 import com.impetus.kundera.persistence.PersistenceDelegator;
 import com.impetus.kundera.query.KunderaQuery;
 import com.impetus.kundera.query.KunderaQuery.FilterClause;
+import com.impetus.kundera.query.QueryHandlerException;
 import com.impetus.kundera.query.QueryImpl;
 
 /**
@@ -74,7 +75,18 @@ public class ESQuery<E> extends QueryImpl
     @Override
     protected List<Object> populateEntities(EntityMetadata m, Client client)
     {
+        return ((ESClient) client).executeQuery(getFilter(m), m, maxResult);
+    }
 
+    /**
+     * Builds filter of query's where clause.
+     * 
+     * @param m
+     *            entity metadata
+     * @return the filter, null if there is no where clause.
+     */
+    private FilterBuilder getFilter(EntityMetadata m)
+    {
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
                 m.getPersistenceUnit());
         EntityType entity = metaModel.entity(m.getEntityClazz());
@@ -112,9 +124,7 @@ public class ESQuery<E> extends QueryImpl
             }
         }
 
-        return ((ESClient) client).executeQuery(preInterFilter != null ? preInterFilter : preIntraFilter, m);
-
-        // return null;
+        return preInterFilter != null ? preInterFilter : preIntraFilter;
     }
 
     /*
@@ -161,10 +171,16 @@ public class ESQuery<E> extends QueryImpl
 
     }
 
+    /**
+     * Returns iterator scrolling through results a page at a time.
+     */
     @Override
     public Iterator<E> iterate()
     {
-        return null;
+        EntityMetadata m = getEntityMetadata();
+        Client client = persistenceDelegeator.getClient(m);
+        return new ResultIterator<E>((ESClient) client, m, getFilter(m), persistenceDelegeator,
+                getFetchSize() != null ? getFetchSize() : this.maxResult);
     }
 
     private FilterBuilder getFilter(FilterClause clause, final EntityMetadata metadata, final EntityType entityType)
@@ -174,7 +190,11 @@ public class ESQuery<E> extends QueryImpl
         String name = clause.getProperty();
 
         FilterBuilder filterBuilder = null;
-        if (condition.equals("="))
+        if (condition.trim().equalsIgnoreCase("NOT IN"))
+        {
+            throw new QueryHandlerException("NOT IN condition on {" + name + "} is not supported in elastic search");
+        }
+        else if (condition.equals("="))
         {
             filterBuilder = new TermFilterBuilder(name, value);
         }
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.es;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.search.SearchHit;
+
+import com.impetus.kundera.client.EnhanceEntity;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.persistence.PersistenceDelegator;
+import com.impetus.kundera.query.IResultIterator;
+
+/**
+ * Elastic search result iteration. Scans hits of a filter and scrolls through
+ * them one page at a time, so that only a page of hits is held at once.
+ * 
+ * @param <E>
+ */
+class ResultIterator<E> implements IResultIterator<E>
+{
+    private final ESClient client;
+
+    private final EntityMetadata m;
+
+    private final PersistenceDelegator persistenceDelegator;
+
+    /** Results left to return. */
+    private int remaining;
+
+    /** Scroll id to fetch next page by, null once exhausted. */
+    private String scrollId;
+
+    /** Hits of current page. */
+    private Iterator<SearchHit> hits = Collections.<SearchHit> emptyList().iterator();
+
+    /**
+     * @param client
+     *            the client
+     * @param m
+     *            entity metadata
+     * @param filter
+     *            the filter, null for all.
+     * @param pd
+     *            persistence delegator to load relations through, null to
+     *            return entities with their relations unresolved.
+     * @param maxResults
+     *            maximum number of results.
+     */
+    ResultIterator(ESClient client, EntityMetadata m, FilterBuilder filter, PersistenceDelegator pd, int maxResults)
+    {
+        this.client = client;
+        this.m = m;
+        this.persistenceDelegator = pd;
+        this.remaining = maxResults;
+        if (maxResults > 0)
+        {
+            // scan returns no hits, only the scroll to read them by.
+            scrollId = client.startScroll(filter, m).getScrollId();
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if (remaining <= 0)
+        {
+            return false;
+        }
+        while (!hits.hasNext() && scrollId != null)
+        {
+            SearchResponse response = client.scroll(scrollId);
+            SearchHit[] page = response.getHits().getHits();
+            if (page.length == 0)
+            {
+                scrollId = null;
+            }
+            else
+            {
+                scrollId = response.getScrollId();
+                hits = Arrays.asList(page).iterator();
+            }
+        }
+        return hits.hasNext();
+    }
+
+    @Override
+    public E next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException("Nothing to scroll further for:" + m.getEntityClazz());
+        }
+        remaining--;
+        Object entity = client.getEntity(hits.next(), m);
+        if (persistenceDelegator != null && entity instanceof EnhanceEntity)
+        {
+            EnhanceEntity ee = (EnhanceEntity) entity;
+            return (E) client.getReader().recursivelyFindEntities(ee.getEntity(), ee.getRelations(), m,
+                    persistenceDelegator, false);
+        }
+        return (E) entity;
+    }
+
+    @Override
+    public List<E> next(int chunkSize)
+    {
+        List<E> results = new ArrayList<E>();
+        while (results.size() < chunkSize && hasNext())
+        {
+            results.add(next());
+        }
+        return results;
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException("remove method is not supported over pagination");
+    }
+}
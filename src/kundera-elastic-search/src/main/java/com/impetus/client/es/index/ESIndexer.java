@@ -1,28 +1,34 @@
 package com.impetus.client.es.index;
 
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.elasticsearch.action.ListenableActionFuture;
-import org.elasticsearch.action.delete.DeleteResponse;
-import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.client.transport.TransportClient;
 import org.elasticsearch.common.transport.InetSocketTransportAddress;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.impetus.client.es.ESBulkWriter;
+import com.impetus.client.es.ESConstants;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.index.Indexer;
 import com.impetus.kundera.index.IndexerProperties;
@@ -32,13 +38,14 @@ import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.property.PropertyAccessorHelper;
+import com.impetus.kundera.utils.KunderaThreadFactory;
 import com.thoughtworks.xstream.XStream;
 
 /**
  * @author vivek.mishra
  * 
  */
-public class ESIndexer implements Indexer
+public class ESIndexer implements Indexer, Flushable
 {
     private Client client;
 
@@ -54,6 +61,16 @@ public class ESIndexer implements Indexer
     /** the log used by this class. */
     private static Log log = LogFactory.getLog(ESIndexer.class);
 
+    /** Hits fetched per scroll request on search, per shard. */
+    private static final int SCROLL_PAGE_SIZE = 1000;
+
+    /** Time a search scroll is kept open between two page requests. */
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    private ESBulkWriter bulkWriter;
+
+    private ScheduledExecutorService flusher;
+
     public ESIndexer()
     {
         init();
@@ -89,10 +106,9 @@ public class ESIndexer implements Indexer
             Object id = PropertyAccessorHelper.fromSourceToTargetClass(String.class,
                     ((AbstractAttribute) metadata.getIdAttribute()).getBindableJavaType(), values.get(idColumnName));
 
-            ListenableActionFuture<IndexResponse> listenableActionFuture = client
-                    .prepareIndex(metadata.getSchema().toLowerCase(), entityClazz.getSimpleName(), id.toString())
-                    .setSource(json).execute();
-            IndexResponse response = listenableActionFuture.actionGet();
+            getBulkWriter().add(
+                    new IndexRequest(metadata.getSchema().toLowerCase(), entityClazz.getSimpleName(), id.toString())
+                            .source(json));
         }
         catch (JsonGenerationException e)
         {
@@ -125,18 +141,30 @@ public class ESIndexer implements Indexer
         }
 
         EntityMetadata m = KunderaMetadataManager.getEntityMetadata(clazz);
+        getBulkWriter().refresh();
 
-        ListenableActionFuture<SearchResponse> listenableActionFuture = client
-                .prepareSearch(m.getSchema().toLowerCase()).setQuery(QueryBuilders.queryString(luceneQuery))
-                .setSize(40000).execute();
-        SearchResponse response = listenableActionFuture.actionGet();
+        // only ids are needed, scrolled through a page at a time.
+        SearchResponse response = client.prepareSearch(m.getSchema().toLowerCase())
+                .setQuery(QueryBuilders.queryString(luceneQuery)).setSearchType(SearchType.SCAN)
+                .setScroll(SCROLL_KEEP_ALIVE).setSize(SCROLL_PAGE_SIZE).setNoFields().execute().actionGet();
 
         Map<String, Object> results = new HashMap<String, Object>();
-        for (SearchHit hit : response.getHits())
+        String scrollId = response.getScrollId();
+        while (scrollId != null && (count <= 0 || results.size() < count))
         {
-            Object id = PropertyAccessorHelper.fromSourceToTargetClass(
-                    ((AbstractAttribute) m.getIdAttribute()).getBindableJavaType(), String.class, hit.getId());
-            results.put(hit.getId(), id);
+            response = client.prepareSearchScroll(scrollId).setScroll(SCROLL_KEEP_ALIVE).execute().actionGet();
+            SearchHit[] hits = response.getHits().getHits();
+            scrollId = hits.length > 0 ? response.getScrollId() : null;
+            for (SearchHit hit : hits)
+            {
+                if (count > 0 && results.size() >= count)
+                {
+                    break;
+                }
+                Object id = PropertyAccessorHelper.fromSourceToTargetClass(
+                        ((AbstractAttribute) m.getIdAttribute()).getBindableJavaType(), String.class, hit.getId());
+                results.put(hit.getId(), id);
+            }
         }
         return results;
     }
@@ -146,20 +174,64 @@ public class ESIndexer implements Indexer
     {
         EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(entityClazz);
         Object id = PropertyAccessorHelper.getId(entity, metadata);
-        DeleteResponse response = client
-                .prepareDelete(metadata.getSchema().toLowerCase(), entityClazz.getSimpleName(), id.toString())
-                .execute().actionGet();
+        getBulkWriter().add(
+                new DeleteRequest(metadata.getSchema().toLowerCase(), entityClazz.getSimpleName(), id.toString()));
+    }
+
+    /**
+     * Sends index and delete requests still pending in bulk writer.
+     */
+    @Override
+    public void flush()
+    {
+        ESBulkWriter writer;
+        synchronized (this)
+        {
+            writer = bulkWriter;
+        }
+        if (writer != null)
+        {
+            writer.flush();
+        }
     }
 
     @Override
     public void close()
     {
+        synchronized (this)
+        {
+            if (bulkWriter != null)
+            {
+                bulkWriter.close();
+                bulkWriter = null;
+            }
+            if (flusher != null)
+            {
+                flusher.shutdown();
+                flusher = null;
+            }
+        }
         if (client != null)
         {
             client.close();
         }
     }
 
+    /**
+     * Returns bulk writer index and delete requests go through, sent in
+     * background once pending for a while.
+     */
+    private synchronized ESBulkWriter getBulkWriter()
+    {
+        if (bulkWriter == null)
+        {
+            flusher = Executors.newSingleThreadScheduledExecutor(new KunderaThreadFactory(ESIndexer.class.getName()));
+            bulkWriter = new ESBulkWriter(client, ESConstants.DEFAULT_BULK_ACTIONS, ESConstants.DEFAULT_BULK_SIZE,
+                    ESConstants.DEFAULT_BULK_FLUSH_INTERVAL, ESConstants.DEFAULT_BULK_CONCURRENT_REQUESTS, flusher);
+        }
+        return bulkWriter;
+    }
+
     @Override
     public Map<String, Object> search(String query, Class<?> parentClass, Class<?> childClass, Object entityId,
             int start, int count)
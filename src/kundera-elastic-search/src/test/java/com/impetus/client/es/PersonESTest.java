@@ -16,8 +16,10 @@
 package com.impetus.client.es;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -37,6 +39,7 @@ import org.junit.Test;
 
 import com.impetus.client.es.PersonES.Day;
 import com.impetus.kundera.PersistenceProperties;
+import com.impetus.kundera.client.Client;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
 
 /**
@@ -245,6 +248,108 @@ public class PersonESTest
         // TODO: >,<,>=,<=
     }
 
+    @Test
+    public void testScrollAndFindAll() throws InterruptedException
+    {
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put(ESConstants.SCROLL_THRESHOLD, "10");
+        props.put(ESConstants.SCROLL_PAGE_SIZE, "4");
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory("es-pu", props);
+        EntityManager em = emf.createEntityManager();
+
+        for (int i = 1; i <= 25; i++)
+        {
+            PersonES person = new PersonES();
+            person.setAge(i);
+            person.setDay(Day.FRIDAY);
+            person.setPersonId(i + "");
+            person.setPersonName("vivek" + i);
+            em.persist(person);
+        }
+        waitThread();
+        em.clear();
+
+        // more than threshold, read by scroll.
+        Query query = em.createQuery("Select p from PersonES p");
+        query.setMaxResults(100);
+        Assert.assertEquals(25, query.getResultList().size());
+
+        query.setMaxResults(5);
+        Assert.assertEquals(5, query.getResultList().size());
+
+        com.impetus.kundera.query.Query kunderaQuery = (com.impetus.kundera.query.Query) em
+                .createQuery("Select p from PersonES p");
+        kunderaQuery.setFetchSize(20);
+        Iterator<PersonES> iterator = kunderaQuery.iterate();
+        int count = 0;
+        while (iterator.hasNext())
+        {
+            Assert.assertNotNull(iterator.next().getPersonName());
+            count++;
+        }
+        Assert.assertEquals(20, count);
+        try
+        {
+            iterator.next();
+            Assert.fail();
+        }
+        catch (NoSuchElementException nsex)
+        {
+            Assert.assertNotNull(nsex.getMessage());
+        }
+
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        Client client = clients.get("es-pu");
+        List<PersonES> found = client.findAll(PersonES.class, null, "1", "2", "26", "3");
+        Assert.assertEquals(3, found.size());
+        Assert.assertEquals("vivek1", found.get(0).getPersonName());
+        Assert.assertEquals("vivek3", found.get(2).getPersonName());
+
+        for (int i = 1; i <= 25; i++)
+        {
+            em.remove(em.find(PersonES.class, i + ""));
+        }
+        waitThread();
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testBulkWrites()
+    {
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put(ESConstants.BULK_ACTIONS, "7");
+        props.put(ESConstants.BULK_FLUSH_INTERVAL, "0");
+        props.put(ESConstants.BULK_CONCURRENT_REQUESTS, "2");
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory("es-pu", props);
+        EntityManager em = emf.createEntityManager();
+
+        for (int i = 1; i <= 20; i++)
+        {
+            PersonES person = new PersonES();
+            person.setAge(i);
+            person.setDay(Day.FRIDAY);
+            person.setPersonId(i + "");
+            person.setPersonName("bulk" + i);
+            em.persist(person);
+        }
+        em.flush();
+        em.clear();
+
+        // pending writes are sent and indices refreshed before searching.
+        Query query = em.createQuery("Select p from PersonES p where p.age >= 1");
+        Assert.assertEquals(20, query.getResultList().size());
+        Assert.assertEquals("bulk20", em.find(PersonES.class, "20").getPersonName());
+
+        for (int i = 1; i <= 20; i++)
+        {
+            em.remove(em.find(PersonES.class, i + ""));
+        }
+        Assert.assertTrue(em.createQuery("Select p from PersonES p").getResultList().isEmpty());
+        em.close();
+        emf.close();
+    }
+
     @AfterClass
     public static void tearDownAfterClass() throws Exception
     {
@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.impetus.client.hbase;
 
+import java.io.Flushable;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -24,6 +25,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.persistence.PersistenceException;
 import javax.persistence.metamodel.Attribute;
@@ -45,6 +47,7 @@ import com.impetus.client.hbase.admin.DataHandler;
 import com.impetus.client.hbase.admin.HBaseDataHandler;
 import com.impetus.client.hbase.admin.HBaseDataHandler.HBaseDataWrapper;
 import com.impetus.client.hbase.query.HBaseQuery;
+import com.impetus.client.hbase.service.HBaseWriteBuffer;
 import com.impetus.client.hbase.utils.HBaseUtils;
 import com.impetus.kundera.KunderaException;
 import com.impetus.kundera.PersistenceProperties;
@@ -76,7 +79,7 @@ import com.impetus.kundera.property.PropertyAccessorHelper;
  * @author impetus
  */
 public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batcher, ClientPropertiesSetter,
-        TableGenerator
+        TableGenerator, Flushable
 {
     /** the log used by this class. */
     private static Logger log = LoggerFactory.getLogger(HBaseClient.class);
@@ -107,9 +110,12 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
      * @param persistenceUnit
      *            the persistence unit
      * @param puProperties
+     * @param flusher
+     *            executor to flush buffered writes on in background
      */
     public HBaseClient(IndexManager indexManager, HBaseConfiguration conf, HTablePool hTablePool, EntityReader reader,
-            String persistenceUnit, Map<String, Object> puProperties, ClientMetadata clientMetadata)
+            String persistenceUnit, Map<String, Object> puProperties, ClientMetadata clientMetadata,
+            ScheduledExecutorService flusher)
     {
         this.indexManager = indexManager;
         this.handler = new HBaseDataHandler(conf, hTablePool);
@@ -120,6 +126,8 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
         this.clientMetadata = clientMetadata;
 
         getBatchSize(persistenceUnit, this.puProperties);
+        setScannerProperties();
+        setWriteBuffer(hTablePool, flusher);
     }
 
     /*
@@ -428,7 +436,7 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
         try
         {
             // Write data to HBase
-            handler.writeData(tableName, entityMetadata, entity, id, relations);
+            handler.writeData(tableName, entityMetadata, entity, id, relations, dirtyColumns);
         }
         catch (IOException e)
         {
@@ -779,6 +787,103 @@ public class HBaseClient extends ClientBase implements Client<HBaseQuery>, Batch
         this.batchSize = batch_Size;
     }
 
+    /**
+     * Sets scanner caching and batch, given either as external or as
+     * persistence unit properties.
+     */
+    private void setScannerProperties()
+    {
+        String caching = getProperty(HBaseConstants.SCANNER_CACHING);
+        if (caching != null)
+        {
+            setScannerCaching(Integer.valueOf(caching));
+        }
+
+        String batch = getProperty(HBaseConstants.SCANNER_BATCH);
+        if (batch != null)
+        {
+            setScannerBatch(Integer.valueOf(batch));
+        }
+    }
+
+    /**
+     * Buffers writes on client side, if write buffer size is given.
+     * 
+     * @param hTablePool
+     *            the h table pool
+     * @param flusher
+     *            executor to flush in background on
+     */
+    private void setWriteBuffer(HTablePool hTablePool, ScheduledExecutorService flusher)
+    {
+        String writeBufferSize = getProperty(HBaseConstants.WRITE_BUFFER_SIZE);
+        if (writeBufferSize != null)
+        {
+            String flushInterval = getProperty(HBaseConstants.WRITE_FLUSH_INTERVAL);
+            ((HBaseDataHandler) handler).setWriteBuffer(new HBaseWriteBuffer(hTablePool, Long
+                    .parseLong(writeBufferSize), flushInterval != null ? Long.parseLong(flushInterval)
+                    : HBaseConstants.DEFAULT_WRITE_FLUSH_INTERVAL, flusher));
+        }
+    }
+
+    /**
+     * Returns value of given property, either external or persistence unit
+     * property.
+     * 
+     * @param name
+     *            property name
+     * @return trimmed value, null if not set.
+     */
+    private String getProperty(String name)
+    {
+        Object value = puProperties != null ? puProperties.get(name) : null;
+        if (value == null)
+        {
+            PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(persistenceUnit);
+            value = puMetadata != null ? puMetadata.getProperty(name) : null;
+        }
+        return value != null && !value.toString().trim().isEmpty() ? value.toString().trim() : null;
+    }
+
+    /**
+     * Sends writes buffered on client side, if any.
+     * 
+     * @see java.io.Flushable#flush()
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        ((HBaseDataHandler) handler).flush();
+    }
+
+    /**
+     * @param scannerCaching
+     *            rows to fetch per scanner RPC, 0 for hbase default.
+     */
+    public void setScannerCaching(int scannerCaching)
+    {
+        ((HBaseDataHandler) handler).setScannerCaching(scannerCaching);
+    }
+
+    /**
+     * @param scannerBatch
+     *            maximum columns per scanned result, 0 for all.
+     */
+    public void setScannerBatch(int scannerBatch)
+    {
+        ((HBaseDataHandler) handler).setScannerBatch(scannerBatch);
+    }
+
+    public int getScannerCaching()
+    {
+        return ((HBaseDataHandler) handler).getScannerCaching();
+    }
+
+    public int getScannerBatch()
+    {
+        return ((HBaseDataHandler) handler).getScannerBatch();
+    }
+
     @Override
     public void populateClientProperties(Client client, Map<String, Object> properties)
     {
@@ -16,6 +16,8 @@
 package com.impetus.client.hbase;
 
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
@@ -33,6 +35,7 @@ import com.impetus.kundera.configure.schema.api.SchemaManager;
 import com.impetus.kundera.loader.GenericClientFactory;
 import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.PersistenceUnitMetadata;
+import com.impetus.kundera.utils.KunderaThreadFactory;
 
 /**
  * HBaseClientFactory, instantiates client for HBase
@@ -57,6 +60,9 @@ public class HBaseClientFactory extends GenericClientFactory
     /** The pool size. */
     private int poolSize;
 
+    /** Flushes clients' buffered writes in background, created on first use. */
+    private ScheduledExecutorService flusher;
+
     @Override
     public void initialize(Map<String, Object> externalProperty)
     {
@@ -132,7 +138,21 @@ public class HBaseClientFactory extends GenericClientFactory
     @Override
     protected Client instantiateClient(String persistenceUnit)
     {
-        return new HBaseClient(indexManager, conf, hTablePool, reader, persistenceUnit, externalProperties, clientMetadata);
+        return new HBaseClient(indexManager, conf, hTablePool, reader, persistenceUnit, externalProperties,
+                clientMetadata, getFlusher());
+    }
+
+    /**
+     * Returns executor to flush buffered writes on, shared by all clients.
+     */
+    private synchronized ScheduledExecutorService getFlusher()
+    {
+        if (flusher == null)
+        {
+            flusher = Executors.newSingleThreadScheduledExecutor(new KunderaThreadFactory(HBaseClientFactory.class
+                    .getName()));
+        }
+        return flusher;
     }
 
     @Override
@@ -148,6 +168,14 @@ public class HBaseClientFactory extends GenericClientFactory
         // hTablePool = null;
 
         // indexManager.close();
+        synchronized (this)
+        {
+            if (flusher != null)
+            {
+                flusher.shutdown();
+                flusher = null;
+            }
+        }
         if (schemaManager != null)
         {
             schemaManager.dropSchema();
@@ -63,6 +63,14 @@ class HBaseClientProperties
                         setBatchSize(value);
 
                     }
+                    else if (key.equals(HBaseConstants.SCANNER_CACHING))
+                    {
+                        this.hbaseClient.setScannerCaching(Integer.valueOf(value.toString().trim()));
+                    }
+                    else if (key.equals(HBaseConstants.SCANNER_BATCH))
+                    {
+                        this.hbaseClient.setScannerBatch(Integer.valueOf(value.toString().trim()));
+                    }
 
                     // Add more
                 }
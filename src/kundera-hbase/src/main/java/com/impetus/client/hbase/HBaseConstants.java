@@ -28,4 +28,30 @@ public final class HBaseConstants
     public static final String ZOOKEEPER_PORT = "zookeeper.port";
 
     public static final String ZOOKEEPER_HOST = "zookeeper.host";
+
+    /**
+     * Rows fetched per scanner RPC, as persistence unit property or query
+     * hint.
+     */
+    public static final String SCANNER_CACHING = "hbase.scanner.caching";
+
+    /**
+     * Maximum columns per scanned result for wide rows, as persistence unit
+     * property or query hint.
+     */
+    public static final String SCANNER_BATCH = "hbase.scanner.batch";
+
+    /**
+     * Client side write buffer size per table, in bytes. Writes are buffered
+     * only if set.
+     */
+    public static final String WRITE_BUFFER_SIZE = "hbase.write.buffer.size";
+
+    /**
+     * Milliseconds buffered writes may be pending before flushed in
+     * background, 0 to flush only on size or on flush/commit.
+     */
+    public static final String WRITE_FLUSH_INTERVAL = "hbase.write.flush.interval";
+
+    public static final long DEFAULT_WRITE_FLUSH_INTERVAL = 1000;
 }
@@ -156,6 +156,23 @@ public interface Writer
      */
     void delete(HTableInterface hTable, Object rowKey, String columnFamily);
 
+    /**
+     * Deletes given columns of a row.
+     * 
+     * @param hTable
+     *            the h table
+     * @param rowKey
+     *            the row key
+     * @param columnFamily
+     *            the column family
+     * @param columns
+     *            names of columns to delete
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void deleteColumns(HTableInterface hTable, Object rowKey, String columnFamily, Set<String> columns)
+            throws IOException;
+
     /**
      * method to perform batch insert/update.
      * 
@@ -18,6 +18,7 @@ package com.impetus.client.hbase.admin;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.hadoop.hbase.filter.FilterList;
 
@@ -113,11 +114,13 @@ public interface DataHandler
      *            the row id
      * @param relations
      *            the relations
+     * @param columns
+     *            names of columns to write, null to write all.
      * @throws IOException
      *             Signals that an I/O exception has occurred.
      */
-    void writeData(String tableName, EntityMetadata m, Object entity, Object rowId, List<RelationHolder> relations)
-            throws IOException;
+    void writeData(String tableName, EntityMetadata m, Object entity, Object rowId, List<RelationHolder> relations,
+            Set<String> columns) throws IOException;
 
     /**
      * Writes data into Join Table.
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -52,6 +53,7 @@ import com.impetus.client.hbase.HBaseData;
 import com.impetus.client.hbase.Reader;
 import com.impetus.client.hbase.Writer;
 import com.impetus.client.hbase.service.HBaseReader;
+import com.impetus.client.hbase.service.HBaseWriteBuffer;
 import com.impetus.client.hbase.service.HBaseWriter;
 import com.impetus.client.hbase.utils.HBaseUtils;
 import com.impetus.kundera.Constants;
@@ -66,6 +68,7 @@ import com.impetus.kundera.metadata.model.KunderaMetadata;
 import com.impetus.kundera.metadata.model.MetamodelImpl;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.metadata.model.type.AbstractManagedType;
+import com.impetus.kundera.property.FieldAccessor;
 import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 
@@ -98,6 +101,9 @@ public class HBaseDataHandler implements DataHandler
 
     private Map<String, FilterList> filters = new ConcurrentHashMap<String, FilterList>();
 
+    /** Write buffer, null unless writes are buffered. */
+    private HBaseWriteBuffer writeBuffer;
+
     /**
      * Instantiates a new h base data handler.
      * 
@@ -260,8 +266,9 @@ public class HBaseDataHandler implements DataHandler
 
         hTable = gethTable(tableName);
 
-        // Load raw data from HBase
-        List<HBaseData> results = ((HBaseReader) hbaseReader).loadAll(hTable, rowKey, m.getTableName(), columns);
+        // Load raw data from HBase, in a single multi-get.
+        List<HBaseData> results = ((HBaseReader) hbaseReader).loadAll(hTable, rowKey, getFilter(m.getTableName()),
+                m.getTableName(), columns);
         output = onRead(tableName, clazz, m, output, hTable, entity, relationNames, results);
         return output;
     }
@@ -306,13 +313,26 @@ public class HBaseDataHandler implements DataHandler
      * @see
      * com.impetus.client.hbase.admin.DataHandler#writeData(java.lang.String,
      * com.impetus.kundera.metadata.model.EntityMetadata, java.lang.Object,
-     * java.lang.String, java.util.List)
+     * java.lang.String, java.util.List, java.util.Set)
      */
     @Override
     public void writeData(String tableName, EntityMetadata m, Object entity, Object rowId,
-            List<RelationHolder> relations) throws IOException
+            List<RelationHolder> relations, Set<String> columns) throws IOException
+    {
+        HTableInterface hTable = getWriteTable(tableName);
+        try
+        {
+            onWriteData(hTable, tableName, m, entity, rowId, relations, columns);
+        }
+        finally
+        {
+            releaseWriteTable(hTable);
+        }
+    }
+
+    private void onWriteData(HTableInterface hTable, String tableName, EntityMetadata m, Object entity, Object rowId,
+            List<RelationHolder> relations, Set<String> columns) throws IOException
     {
-        HTableInterface hTable = gethTable(tableName);
 
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
                 m.getPersistenceUnit());
@@ -320,6 +340,20 @@ public class HBaseDataHandler implements DataHandler
         EntityType entityType = metaModel.entity(m.getEntityClazz());
 
         Set<Attribute> attributes = entityType.getAttributes();
+        if (columns != null)
+        {
+            // Put only modified columns, along with id column.
+            Set<Attribute> modified = new HashSet<Attribute>();
+            for (Attribute attribute : attributes)
+            {
+                if (columns.contains(((AbstractAttribute) attribute).getJPAColumnName())
+                        || attribute.getName().equals(m.getIdAttribute().getName()))
+                {
+                    modified.add(attribute);
+                }
+            }
+            attributes = modified;
+        }
 
         HBaseDataWrapper columnWrapper = new HBaseDataWrapper(rowId, new java.util.HashMap<String, Attribute>(),
                 entity, null);
@@ -337,6 +371,33 @@ public class HBaseDataHandler implements DataHandler
                     wrapper.getValues(), wrapper.getEntity());
         }
 
+        if (columns != null)
+        {
+            // Null values are not put, so drop columns set to null. Otherwise
+            // filters over these columns would still match their old values.
+            Set<String> nulledColumns = new HashSet<String>();
+            for (Attribute attribute : attributes)
+            {
+                if (!attribute.isAssociation() && !attribute.isCollection()
+                        && !attribute.getName().equals(m.getIdAttribute().getName())
+                        && !metaModel.isEmbeddable(((AbstractAttribute) attribute).getBindableJavaType())
+                        && ((AbstractAttribute) attribute).getAccessor().get(entity) == null)
+                {
+                    nulledColumns.add(((AbstractAttribute) attribute).getJPAColumnName());
+                }
+            }
+            if (!nulledColumns.isEmpty())
+            {
+                if (writeBuffer != null)
+                {
+                    // deletes are not buffered, buffered puts must not
+                    // overwrite them afterwards.
+                    hTable.flushCommits();
+                }
+                hbaseWriter.deleteColumns(hTable, rowId, m.getTableName(), nulledColumns);
+            }
+        }
+
         // Persist relationships as a column in newly created Column family by
         // Kundera
         boolean containsEmbeddedObjectsOnly = columnWrapper.getColumns().isEmpty() && persistentData.isEmpty();
@@ -357,8 +418,6 @@ public class HBaseDataHandler implements DataHandler
             discriminator.add(new RelationHolder(discrColumn, discrValue));
             hbaseWriter.writeRelations(hTable, rowId, containsEmbeddedObjectsOnly, discriminator, m.getTableName());
         }
-
-        puthTable(hTable);
     }
 
     /*
@@ -372,12 +431,15 @@ public class HBaseDataHandler implements DataHandler
     public void writeJoinTableData(String tableName, Object rowId, Map<String, Object> columns, String columnFamilyName)
             throws IOException
     {
-        HTableInterface hTable = gethTable(tableName);
-
-        hbaseWriter.writeColumns(hTable, rowId, columns, columnFamilyName);
-
-        puthTable(hTable);
-
+        HTableInterface hTable = getWriteTable(tableName);
+        try
+        {
+            hbaseWriter.writeColumns(hTable, rowId, columns, columnFamilyName);
+        }
+        finally
+        {
+            releaseWriteTable(hTable);
+        }
     }
 
     /*
@@ -462,6 +524,11 @@ public class HBaseDataHandler implements DataHandler
      */
     public HTableInterface gethTable(final String tableName) throws IOException
     {
+        if (writeBuffer != null)
+        {
+            // reads and deletes are not buffered, let them see buffered puts.
+            writeBuffer.flush(tableName);
+        }
         return hTablePool.getTable(tableName);
     }
 
@@ -476,6 +543,50 @@ public class HBaseDataHandler implements DataHandler
         hTablePool.putTable(hTable);
     }
 
+    /**
+     * Returns table to write to, buffered one if writes are buffered.
+     */
+    private HTableInterface getWriteTable(final String tableName) throws IOException
+    {
+        return writeBuffer != null ? writeBuffer.acquire(tableName) : hTablePool.getTable(tableName);
+    }
+
+    private void releaseWriteTable(HTableInterface hTable) throws IOException
+    {
+        if (writeBuffer != null)
+        {
+            writeBuffer.release();
+        }
+        else
+        {
+            puthTable(hTable);
+        }
+    }
+
+    /**
+     * Buffers writes of this handler into given write buffer.
+     * 
+     * @param writeBuffer
+     *            the write buffer
+     */
+    public void setWriteBuffer(HBaseWriteBuffer writeBuffer)
+    {
+        this.writeBuffer = writeBuffer;
+    }
+
+    /**
+     * Sends buffered writes, if any.
+     * 
+     * @throws IOException
+     */
+    public void flush() throws IOException
+    {
+        if (writeBuffer != null)
+        {
+            writeBuffer.flush();
+        }
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -484,6 +595,19 @@ public class HBaseDataHandler implements DataHandler
     @Override
     public void shutdown()
     {
+        if (writeBuffer != null)
+        {
+            try
+            {
+                writeBuffer.close();
+            }
+            catch (IOException ioex)
+            {
+                log.error("Error while flushing buffered writes, Caused by: .", ioex);
+                throw new PersistenceException(ioex);
+            }
+            writeBuffer = null;
+        }
 
         // TODO: Shutting down admin actually shuts down HMaster, something we
         // don't want.
@@ -694,8 +818,11 @@ public class HBaseDataHandler implements DataHandler
                         else if (colName != null && colName.equalsIgnoreCase(columnName.toLowerCase())
                                 && columnValue.length != 0)
                         {
-                            PropertyAccessorHelper.set(entity, columnField,
-                                    HBaseUtils.fromBytes(columnValue, columnField.getType()));
+                            if (!setPrimitiveValue(entity, columnValue, ((AbstractAttribute) attribute).getAccessor()))
+                            {
+                                PropertyAccessorHelper.set(entity, columnField,
+                                        HBaseUtils.fromBytes(columnValue, columnField.getType()));
+                            }
                         }
                     }
                 }
@@ -720,6 +847,38 @@ public class HBaseDataHandler implements DataHandler
         }
     }
 
+    /**
+     * Sets value of an int, long, double or boolean field from column bytes,
+     * without boxing it.
+     * 
+     * @return false, if field is not of one of these types.
+     */
+    private boolean setPrimitiveValue(Object entity, byte[] value, FieldAccessor accessor)
+    {
+        Class<?> type = accessor.getField().getType();
+        if (type == int.class)
+        {
+            accessor.setInt(entity, Bytes.toInt(value));
+        }
+        else if (type == long.class)
+        {
+            accessor.setLong(entity, Bytes.toLong(value));
+        }
+        else if (type == double.class)
+        {
+            accessor.setDouble(entity, Bytes.toDouble(value));
+        }
+        else if (type == boolean.class)
+        {
+            accessor.setBoolean(entity, Bytes.toBoolean(value));
+        }
+        else
+        {
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Sets the h base data into object.
      * 
@@ -1103,7 +1262,7 @@ public class HBaseDataHandler implements DataHandler
                                             + ((AbstractAttribute) attribute).getJPAColumnName()
                                             + Constants.EMBEDDED_COLUMN_NAME_DELIMITER + count;
                                     columnNameToAttribute.put(columnName, attribute);
-                                    columnNameToValue.put(columnName, PropertyAccessorHelper.getObject(obj, (Field)attribute.getJavaMember()));                                    
+                                    columnNameToValue.put(columnName, ((AbstractAttribute) attribute).getAccessor().get(obj));                                    
                                 }
                                 // addColumnFamilyToTable(tableName,
                                 // dynamicCFName);
@@ -1144,7 +1303,7 @@ public class HBaseDataHandler implements DataHandler
                                                + Constants.EMBEDDED_COLUMN_NAME_DELIMITER
                                                + (lastEmbeddedObjectCount);
                                         columnNameToAttribute.put(columnName, attribute);
-                                        columnNameToValue.put(columnName, PropertyAccessorHelper.getObject(obj, (Field)attribute.getJavaMember()));
+                                        columnNameToValue.put(columnName, ((AbstractAttribute) attribute).getAccessor().get(obj));
                                     }
                                 }
                                 // addColumnFamilyToTable(tableName,
@@ -1164,7 +1323,7 @@ public class HBaseDataHandler implements DataHandler
                         {
                             columnNameToAttribute.put(((AbstractAttribute) attribute).getJPAColumnName(), attribute);
                             columnNameToValue.put(((AbstractAttribute) attribute).getJPAColumnName(), 
-                                    PropertyAccessorHelper.getObject(columnFamilyObject, (Field)attribute.getJavaMember()));
+                                    ((AbstractAttribute) attribute).getAccessor().get(columnFamilyObject));
                         }
 
                         if (columnFamilyField.isAnnotationPresent(Embedded.class))
@@ -1183,7 +1342,7 @@ public class HBaseDataHandler implements DataHandler
             else if (!column.isAssociation())
             {
                 columnWrapper.addColumn(((AbstractAttribute) column).getJPAColumnName(), column);
-                columnWrapper.addValue(((AbstractAttribute) column).getJPAColumnName(), PropertyAccessorHelper.getObject(entity, (Field)column.getJavaMember()));
+                columnWrapper.addValue(((AbstractAttribute) column).getJPAColumnName(), ((AbstractAttribute) column).getAccessor().get(entity));
             }
         }
     }
@@ -1202,6 +1361,26 @@ public class HBaseDataHandler implements DataHandler
         ((HBaseReader) hbaseReader).setFetchSize(fetchSize);
     }
 
+    public void setScannerCaching(final int scannerCaching)
+    {
+        ((HBaseReader) hbaseReader).setScannerCaching(scannerCaching);
+    }
+
+    public void setScannerBatch(final int scannerBatch)
+    {
+        ((HBaseReader) hbaseReader).setScannerBatch(scannerBatch);
+    }
+
+    public int getScannerCaching()
+    {
+        return ((HBaseReader) hbaseReader).getScannerCaching();
+    }
+
+    public int getScannerBatch()
+    {
+        return ((HBaseReader) hbaseReader).getScannerBatch();
+    }
+
     public Object next(EntityMetadata m)
     {
         Object entity = null;
@@ -1211,8 +1390,9 @@ public class HBaseDataHandler implements DataHandler
         results.add(result);
         try
         {
-            output = onRead(m.getSchema(), m.getEntityClazz(), m, output, gethTable(m.getSchema()), entity,
-                    m.getRelationNames(), results);
+            // row is already fetched by scanner, no table needed.
+            output = onRead(m.getSchema(), m.getEntityClazz(), m, output, null, entity, m.getRelationNames(),
+                    results);
         }
         catch (IOException e)
         {
@@ -1264,6 +1444,9 @@ public class HBaseDataHandler implements DataHandler
         HBaseDataHandler handler = new HBaseDataHandler(this.conf, this.hTablePool);
         handler.filter = this.filter;
         handler.filters = this.filters;
+        handler.setScannerCaching(getScannerCaching());
+        handler.setScannerBatch(getScannerBatch());
+        handler.writeBuffer = this.writeBuffer;
         return handler;
     }
 
@@ -28,6 +28,7 @@ import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EmbeddableType;
 import javax.persistence.metamodel.EntityType;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
 import org.apache.hadoop.hbase.filter.Filter;
 import org.apache.hadoop.hbase.filter.FilterList;
@@ -37,6 +38,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.impetus.client.hbase.HBaseClient;
+import com.impetus.client.hbase.HBaseConstants;
 import com.impetus.client.hbase.HBaseEntityReader;
 import com.impetus.client.hbase.utils.HBaseUtils;
 import com.impetus.kundera.client.Client;
@@ -144,6 +146,32 @@ public class HBaseQuery extends QueryImpl
         return 0;
     }
 
+    /**
+     * Executes query with scanner hints, if any, applied to client.
+     * 
+     * @param m
+     *            Entity metadata
+     * @param client
+     *            hbase client
+     * @return list of entities.
+     */
+    private List onQuery(EntityMetadata m, Client client)
+    {
+        HBaseClient hbaseClient = (HBaseClient) client;
+        int caching = hbaseClient.getScannerCaching();
+        int batch = hbaseClient.getScannerBatch();
+        onScannerHints(hbaseClient);
+        try
+        {
+            return executeQuery(m, client);
+        }
+        finally
+        {
+            hbaseClient.setScannerCaching(caching);
+            hbaseClient.setScannerBatch(batch);
+        }
+    }
+
     /**
      * Parses and translates query into HBase filter and invokes client's method
      * to return list of entities.
@@ -154,7 +182,7 @@ public class HBaseQuery extends QueryImpl
      *            hbase client
      * @return list of entities.
      */
-    private List onQuery(EntityMetadata m, Client client)
+    private List executeQuery(EntityMetadata m, Client client)
     {
         // Called only in case of standalone entity.
         QueryTranslator translator = new QueryTranslator();
@@ -584,7 +612,57 @@ public class HBaseQuery extends QueryImpl
         // start with 1 as first element is alias.
         List<String> columns = getTranslatedColumns(m, getKunderaQuery().getResult(), 1);
 
-        return new ResultIterator((HBaseClient) client, m, persistenceDelegeator,
-                getFetchSize() != null ? getFetchSize() : this.maxResult, translator, columns);
+        // iterator scans over its own handler, which takes over hints.
+        HBaseClient hbaseClient = (HBaseClient) client;
+        int caching = hbaseClient.getScannerCaching();
+        int batch = hbaseClient.getScannerBatch();
+        onScannerHints(hbaseClient);
+        try
+        {
+            return new ResultIterator(hbaseClient, m, persistenceDelegeator, getFetchSize() != null ? getFetchSize()
+                    : this.maxResult, translator, columns);
+        }
+        finally
+        {
+            hbaseClient.setScannerCaching(caching);
+            hbaseClient.setScannerBatch(batch);
+        }
+    }
+
+    /**
+     * Sets scanner caching and batch given as query hints onto client.
+     * 
+     * @param client
+     *            the client
+     */
+    private void onScannerHints(HBaseClient client)
+    {
+        Integer caching = getIntHint(HBaseConstants.SCANNER_CACHING);
+        if (caching != null)
+        {
+            client.setScannerCaching(caching);
+        }
+        Integer batch = getIntHint(HBaseConstants.SCANNER_BATCH);
+        if (batch != null)
+        {
+            client.setScannerBatch(batch);
+        }
+    }
+
+    private Integer getIntHint(String hintName)
+    {
+        Object hint = getHints().get(hintName);
+        if (hint == null || StringUtils.isBlank(hint.toString()))
+        {
+            return null;
+        }
+        try
+        {
+            return Integer.valueOf(hint.toString().trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new QueryHandlerException("Invalid value {" + hint + "} for " + hintName + ", must be numeric.");
+        }
     }
 }
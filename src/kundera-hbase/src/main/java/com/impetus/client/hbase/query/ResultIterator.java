@@ -16,6 +16,7 @@
 package com.impetus.client.hbase.query;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -41,7 +42,8 @@ import com.impetus.kundera.query.IResultIterator;
 import com.impetus.kundera.query.QueryHandlerException;
 
 /**
- * ResultIterator class, used to iterate over results.
+ * ResultIterator class, used to iterate over results. Rows are streamed off an
+ * open scanner, never fetching more than fetch size rows per RPC.
  * 
  * @author Vivek.Mishra
  * 
@@ -274,7 +276,12 @@ class ResultIterator<E> implements IResultIterator<E>
     @Override
     public List<E> next(int chunkSize)
     {
-        throw new UnsupportedOperationException("Fetch in chunks is not yet supported over HBase!");
+        List<E> results = new ArrayList<E>(chunkSize);
+        for (int i = 0; i < chunkSize && hasNext(); i++)
+        {
+            results.add(next());
+        }
+        return results;
     }
 
     /**
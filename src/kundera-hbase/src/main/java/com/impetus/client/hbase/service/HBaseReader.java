@@ -17,8 +17,12 @@ package com.impetus.client.hbase.service;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.client.Get;
@@ -26,7 +30,19 @@ import org.apache.hadoop.hbase.client.HTableInterface;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.ColumnPrefixFilter;
+import org.apache.hadoop.hbase.filter.ColumnRangeFilter;
+import org.apache.hadoop.hbase.filter.FamilyFilter;
 import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.InclusiveStopFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.MultipleColumnPrefixFilter;
+import org.apache.hadoop.hbase.filter.PrefixFilter;
+import org.apache.hadoop.hbase.filter.QualifierFilter;
+import org.apache.hadoop.hbase.filter.RowFilter;
+import org.apache.hadoop.hbase.filter.TimestampsFilter;
+import org.apache.hadoop.hbase.filter.ValueFilter;
 import org.apache.hadoop.hbase.util.Bytes;
 
 import com.impetus.client.hbase.HBaseData;
@@ -48,6 +64,21 @@ public class HBaseReader implements Reader
 
     private Integer counter = 0;
 
+    /** Next partial row read ahead while merging batched results. */
+    private Result pending;
+
+    /** Rows fetched per scanner RPC, 0 for hbase default. */
+    private int scannerCaching;
+
+    /** Maximum columns per result while scanning wide rows, 0 for all. */
+    private int scannerBatch;
+
+    /** Filters deciding on each column or on row key alone. */
+    private static final Set<Class<?>> CELL_FILTERS = new HashSet<Class<?>>(Arrays.<Class<?>> asList(
+            ColumnPrefixFilter.class, ColumnRangeFilter.class, FamilyFilter.class, InclusiveStopFilter.class,
+            KeyOnlyFilter.class, MultipleColumnPrefixFilter.class, PrefixFilter.class, QualifierFilter.class,
+            RowFilter.class, TimestampsFilter.class, ValueFilter.class));
+
     /*
      * (non-Javadoc)
      * 
@@ -107,24 +138,10 @@ public class HBaseReader implements Reader
                 {
                     g.setFilter(filter);
                 }
-                Result result = hTable.get(g);
-
-                if (result != null && result.list() != null)
+                HBaseData data = toHBaseData(columnFamily, hTable.get(g));
+                if (data != null)
                 {
-                    HBaseData data = null;
-                    for (KeyValue value : result.list())
-                    {
-                        data = new HBaseData(columnFamily != null ? columnFamily : new String(value.getFamily()),
-                                value.getRow());
-                        break;
-                    }
-
-                    if (data != null)
-                    {
-                        data.setColumns(result.list());
-                        results.add(data);
-                    }
-
+                    results.add(data);
                 }
                 return results;
                 
@@ -170,7 +187,7 @@ public class HBaseReader implements Reader
         if (scanner == null)
         {
             Scan s = null;
-            if (startRow != null && endRow != null && startRow.equals(endRow))
+            if (startRow != null && endRow != null && Bytes.equals(startRow, endRow))
             {
                 Get g = new Get(startRow);
                 s = new Scan(g);
@@ -210,6 +227,11 @@ public class HBaseReader implements Reader
         {
             s.setFilter(filter);
         }
+        setCaching(s);
+        if (scannerBatch > 0 && isBatchable(filter))
+        {
+            s.setBatch(scannerBatch);
+        }
         if (columnFamily != null && qualifier != null)
         {
             s.addColumn(Bytes.toBytes(columnFamily), Bytes.toBytes(qualifier));
@@ -231,6 +253,31 @@ public class HBaseReader implements Reader
         }
     }
 
+    /**
+     * Returns true, if rows may be split by scanner batch under given filter.
+     * Only filters known to decide on each column, or on row key, alone are
+     * safe, as filters deciding on whole rows would see parts of them.
+     * 
+     * @param filter
+     *            the filter, may be null
+     * @return true, if scan may be batched.
+     */
+    static boolean isBatchable(Filter filter)
+    {
+        if (filter instanceof FilterList)
+        {
+            for (Filter f : ((FilterList) filter).getFilters())
+            {
+                if (!isBatchable(f))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return filter == null || CELL_FILTERS.contains(filter.getClass());
+    }
+
     /**
      * Scan and populate {@link HBaseData} collection using scanned results.
      * 
@@ -245,31 +292,139 @@ public class HBaseReader implements Reader
      */
     private List<HBaseData> scanResults(final String columnFamily, List<HBaseData> results) throws IOException
     {
-        HBaseData data = null;
-
+        // with a fetch size, rows are streamed through next() instead.
         if (fetchSize == null)
         {
-            for (Result result : scanner)
+            try
             {
-                List<KeyValue> values = result.list();
-                for (KeyValue value : values)
+                Result result = null;
+                while ((result = nextResult()) != null)
                 {
-                    data = new HBaseData(columnFamily != null ? columnFamily : new String(value.getFamily()),
-                            value.getRow());
-                    break;
+                    HBaseData data = toHBaseData(columnFamily, result);
+                    if (data != null)
+                    {
+                        if (results == null)
+                        {
+                            results = new ArrayList<HBaseData>();
+                        }
+                        results.add(data);
+                    }
                 }
-                data.setColumns(values);
-                if (results == null)
+            }
+            finally
+            {
+                closeScanner();
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns next row of scanner, merging back partial results of a row
+     * split by scanner batch.
+     * 
+     * @return next row, null if scanner is exhausted.
+     */
+    private Result nextResult()
+    {
+        Result result = pending;
+        pending = null;
+        if (result == null)
+        {
+            result = resultsIter.hasNext() ? resultsIter.next() : null;
+        }
+        if (result == null || scannerBatch <= 0)
+        {
+            return result;
+        }
+
+        List<KeyValue> values = null;
+        while (resultsIter.hasNext())
+        {
+            Result part = resultsIter.next();
+            if (!Bytes.equals(part.getRow(), result.getRow()))
+            {
+                pending = part;
+                break;
+            }
+            if (values == null)
+            {
+                values = new ArrayList<KeyValue>(result.list());
+            }
+            values.addAll(part.list());
+        }
+        return values != null ? new Result(values) : result;
+    }
+
+    /**
+     * Wraps result into {@link HBaseData}.
+     * 
+     * @param columnFamily
+     *            column family, family of first column if null.
+     * @param result
+     *            the result
+     * @return wrapped data, null if result is empty.
+     */
+    private HBaseData toHBaseData(final String columnFamily, Result result)
+    {
+        if (result == null || result.isEmpty())
+        {
+            return null;
+        }
+        List<KeyValue> values = result.list();
+        KeyValue first = values.get(0);
+        HBaseData data = new HBaseData(columnFamily != null ? columnFamily : new String(first.getFamily()),
+                first.getRow());
+        data.setColumns(values);
+        return data;
+    }
+
+    /**
+     * Sets scanner caching, not fetching more rows per RPC than to be iterated
+     * over.
+     * 
+     * @param s
+     *            the scan
+     */
+    private void setCaching(Scan s)
+    {
+        int caching = scannerCaching;
+        if (fetchSize != null && fetchSize > 0 && (caching <= 0 || fetchSize < caching))
+        {
+            caching = fetchSize;
+        }
+        if (caching > 0)
+        {
+            s.setCaching(caching);
+        }
+    }
+
+    /**
+     * Restricts get to given columns of column family.
+     */
+    private void addColumns(Get g, String columnFamily, String[] columns)
+    {
+        if (columnFamily != null && columns != null)
+        {
+            for (String columnName : columns)
+            {
+                if (columnName != null)
                 {
-                    results = new ArrayList<HBaseData>();
+                    g.addColumn(Bytes.toBytes(columnFamily), Bytes.toBytes(columnName));
                 }
-                results.add(data);
             }
+        }
+    }
 
-            scanner = null;
-            resultsIter = null;
+    private void closeScanner()
+    {
+        if (scanner != null)
+        {
+            scanner.close();
         }
-        return results;
+        scanner = null;
+        resultsIter = null;
+        pending = null;
     }
 
     @Override
@@ -278,18 +433,19 @@ public class HBaseReader implements Reader
     {
         List<Object> rowKeys = new ArrayList<Object>();
 
-        if (scanner == null)
+        Scan s = new Scan();
+        s.setFilter(filter);
+        s.addColumn(Bytes.toBytes(columnFamilyName), Bytes.toBytes(columnName));
+        if (scannerCaching > 0)
         {
-            Scan s = new Scan();
-            s.setFilter(filter);
-            s.addColumn(Bytes.toBytes(columnFamilyName), Bytes.toBytes(columnName));
-            scanner = hTable.getScanner(s);
-            resultsIter = scanner.iterator();
+            s.setCaching(scannerCaching);
         }
 
-        if (fetchSize == null)
+        // own scanner, not to disturb one being iterated over.
+        ResultScanner keyScanner = hTable.getScanner(s);
+        try
         {
-            for (Result result : scanner)
+            for (Result result : keyScanner)
             {
                 for (KeyValue keyValue : result.list())
                 {
@@ -297,6 +453,10 @@ public class HBaseReader implements Reader
                 }
             }
         }
+        finally
+        {
+            keyScanner.close();
+        }
         if (rowKeys != null && !rowKeys.isEmpty())
         {
             return rowKeys.toArray(new Object[0]);
@@ -304,42 +464,57 @@ public class HBaseReader implements Reader
         return null;
     }
 
-    public List<HBaseData> loadAll(final HTableInterface hTable, final List<Object> rows, final String columnFamily,
-            final String[] columns) throws IOException
+    /**
+     * Loads given rows in a single multi-get, one round trip per region
+     * server.
+     * 
+     * @param hTable
+     *            the h table
+     * @param rows
+     *            row keys
+     * @param filter
+     *            the filter, may be null
+     * @param columnFamily
+     *            the column family
+     * @param columns
+     *            columns to fetch, all if empty
+     * @return rows found, null if none
+     * @throws IOException
+     */
+    public List<HBaseData> loadAll(final HTableInterface hTable, final List<Object> rows, final Filter filter,
+            final String columnFamily, final String[] columns) throws IOException
     {
         List<HBaseData> results = null;
 
-        HBaseData data = null;
-
-        List<Get> getRequest = new ArrayList<Get>();
+        List<Get> getRequest = new ArrayList<Get>(rows.size());
         for (Object rowKey : rows)
         {
             if (rowKey != null)
             {
                 byte[] rowKeyBytes = HBaseUtils.getBytes(rowKey);
                 Get request = new Get(rowKeyBytes);
+                addColumns(request, columnFamily, columns);
+                if (filter != null)
+                {
+                    request.setFilter(filter);
+                }
                 getRequest.add(request);
             }
         }
+        if (getRequest.isEmpty())
+        {
+            return results;
+        }
         Result[] rawResult = hTable.get(getRequest);
 
         for (Result result : rawResult)
         {
-            List<KeyValue> values = result.list();
-
-            if (values != null)
+            HBaseData data = toHBaseData(columnFamily, result);
+            if (data != null)
             {
-                for (KeyValue value : values)
-                {
-                    data = new HBaseData(columnFamily != null ? columnFamily : new String(value.getFamily()),
-                            value.getRow());
-                    break;
-                }
-
-                data.setColumns(values);
                 if (results == null)
                 {
-                    results = new ArrayList<HBaseData>();
+                    results = new ArrayList<HBaseData>(rawResult.length);
                 }
                 results.add(data);
             }
@@ -352,22 +527,47 @@ public class HBaseReader implements Reader
         this.fetchSize = fetchSize;
     }
 
+    /**
+     * @param scannerCaching
+     *            rows to fetch per scanner RPC, 0 for hbase default.
+     */
+    public void setScannerCaching(final int scannerCaching)
+    {
+        this.scannerCaching = scannerCaching;
+    }
+
+    /**
+     * @param scannerBatch
+     *            maximum columns per scanned result, 0 for all.
+     */
+    public void setScannerBatch(final int scannerBatch)
+    {
+        this.scannerBatch = scannerBatch;
+    }
+
+    public int getScannerCaching()
+    {
+        return scannerCaching;
+    }
+
+    public int getScannerBatch()
+    {
+        return scannerBatch;
+    }
+
     /**
      * 
      * @return next element of HbaseData.
      */
     public HBaseData next()
     {
-        HBaseData data = null;
-        Result result = resultsIter.next();
-        List<KeyValue> values = result.list();
-        for (KeyValue value : values)
+        Result result = nextResult();
+        if (result == null)
         {
-            data = new HBaseData(new String(value.getFamily()), value.getRow());
-            break;
+            throw new NoSuchElementException("Nothing to scroll further");
         }
-        data.setColumns(values);
-        return data;
+        counter++;
+        return toHBaseData(null, result);
     }
 
     // public List<HBaseData> next(final int chunkSize)
@@ -395,17 +595,9 @@ public class HBaseReader implements Reader
         }
         else
         {
-            if (fetchSize != null)
-            {
-                if (counter < fetchSize)
-                {
-                    counter++;
-                    return resultsIter.hasNext();
-                }
-            }
-            else
+            if (fetchSize == null || counter < fetchSize)
             {
-                return resultsIter.hasNext();
+                return pending != null || resultsIter.hasNext();
             }
         }
         return false;
@@ -413,9 +605,8 @@ public class HBaseReader implements Reader
 
     public void reset()
     {
-        scanner = null;
+        closeScanner();
         fetchSize = null;
-        resultsIter = null;
         counter = 0;
     }
 }
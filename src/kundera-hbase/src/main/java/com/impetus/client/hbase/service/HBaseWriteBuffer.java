@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.service;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.HTablePool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Client side write buffer of an hbase client. Holds one table per name, taken
+ * out of pool with auto flush off, so that puts of all entities and join tables
+ * written through it are sent in bulk: once a table's write buffer fills up, on
+ * {@link #flush()}, or by background flusher once writes have been pending for
+ * flush interval. Tables go back to pool on {@link #close()}.
+ *
+ * Writes are to be made between {@link #acquire(String)} and
+ * {@link #release()}, which keep background flusher off tables meanwhile.
+ */
+public class HBaseWriteBuffer
+{
+    /** the log used by this class. */
+    private static Logger log = LoggerFactory.getLogger(HBaseWriteBuffer.class);
+
+    private final HTablePool hTablePool;
+
+    private final long writeBufferSize;
+
+    private final long flushInterval;
+
+    /** Tables held, by name. */
+    private final Map<String, HTableInterface> tables = new HashMap<String, HTableInterface>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Time of first write since last flush, 0 if nothing is pending. */
+    private volatile long pendingSince;
+
+    private ScheduledFuture<?> flushTask;
+
+    /**
+     * @param hTablePool
+     *            pool to take tables from.
+     * @param writeBufferSize
+     *            write buffer size of each table, in bytes.
+     * @param flushInterval
+     *            milliseconds writes may be pending before flushed in
+     *            background, 0 to flush only on size or explicitly.
+     * @param flusher
+     *            executor to flush in background on, may be null.
+     */
+    public HBaseWriteBuffer(HTablePool hTablePool, long writeBufferSize, long flushInterval,
+            ScheduledExecutorService flusher)
+    {
+        this.hTablePool = hTablePool;
+        this.writeBufferSize = writeBufferSize;
+        this.flushInterval = flushInterval;
+        if (flusher != null && flushInterval > 0)
+        {
+            this.flushTask = flusher.scheduleWithFixedDelay(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    flushIfIdle();
+                }
+            }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns buffered table of given name, to write to until
+     * {@link #release()}.
+     *
+     * @param tableName
+     *            the table name
+     * @return the table
+     * @throws IOException
+     */
+    public HTableInterface acquire(String tableName) throws IOException
+    {
+        lock.lock();
+        try
+        {
+            HTableInterface hTable = tables.get(tableName);
+            if (hTable == null)
+            {
+                hTable = hTablePool.getTable(tableName);
+                hTable.setAutoFlush(false);
+                hTable.setWriteBufferSize(writeBufferSize);
+                tables.put(tableName, hTable);
+            }
+            return hTable;
+        }
+        catch (IOException ioex)
+        {
+            lock.unlock();
+            throw ioex;
+        }
+        catch (RuntimeException rex)
+        {
+            lock.unlock();
+            throw rex;
+        }
+    }
+
+    /**
+     * Releases table acquired through {@link #acquire(String)}.
+     */
+    public void release()
+    {
+        if (pendingSince == 0)
+        {
+            pendingSince = System.currentTimeMillis();
+        }
+        lock.unlock();
+    }
+
+    /**
+     * Sends pending writes of given table, if any.
+     *
+     * @param tableName
+     *            the table name
+     * @throws IOException
+     */
+    public void flush(String tableName) throws IOException
+    {
+        if (pendingSince == 0)
+        {
+            return;
+        }
+        lock.lock();
+        try
+        {
+            HTableInterface hTable = tables.get(tableName);
+            if (hTable != null)
+            {
+                hTable.flushCommits();
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends pending writes of all tables.
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException
+    {
+        lock.lock();
+        try
+        {
+            onFlush();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes pending writes and returns tables to pool.
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException
+    {
+        if (flushTask != null)
+        {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        lock.lock();
+        try
+        {
+            onFlush();
+            for (HTableInterface hTable : tables.values())
+            {
+                // pooled tables are shared, hand them back as taken.
+                hTable.setAutoFlush(true);
+                hTablePool.putTable(hTable);
+            }
+            tables.clear();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes writes pending for longer than flush interval, unless tables are
+     * being written to right now.
+     */
+    void flushIfIdle()
+    {
+        long since = pendingSince;
+        if (since == 0 || System.currentTimeMillis() - since < flushInterval || !lock.tryLock())
+        {
+            return;
+        }
+        try
+        {
+            onFlush();
+        }
+        catch (IOException ioex)
+        {
+            // kept pending, to be retried on next flush.
+            log.warn("Error while flushing write buffer in background, Caused by: .", ioex);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void onFlush() throws IOException
+    {
+        for (HTableInterface hTable : tables.values())
+        {
+            hTable.flushCommits();
+        }
+        pendingSince = 0;
+    }
+}
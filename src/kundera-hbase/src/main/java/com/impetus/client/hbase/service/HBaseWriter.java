@@ -286,6 +286,26 @@ public class HBaseWriter implements Writer
         }
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * com.impetus.client.hbase.Writer#deleteColumns(org.apache.hadoop.hbase
+     * .client.HTableInterface, java.lang.Object, java.lang.String,
+     * java.util.Set)
+     */
+    @Override
+    public void deleteColumns(HTableInterface hTable, Object rowKey, String columnFamily, Set<String> columns)
+            throws IOException
+    {
+        Delete delete = new Delete(HBaseUtils.getBytes(rowKey));
+        for (String column : columns)
+        {
+            delete.deleteColumns(Bytes.toBytes(columnFamily), Bytes.toBytes(column));
+        }
+        hTable.delete(delete);
+    }
+
     /*
      * (non-Javadoc)
      * 
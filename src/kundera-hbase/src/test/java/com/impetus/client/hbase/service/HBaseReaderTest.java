@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.filter.BinaryComparator;
+import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.PageFilter;
+import org.apache.hadoop.hbase.filter.PrefixFilter;
+import org.apache.hadoop.hbase.filter.QualifierFilter;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.hbase.HBaseData;
+import com.impetus.client.hbase.junits.HBaseCli;
+
+/**
+ * Test case for scanner batching of {@link HBaseReader}: rows split into
+ * batches of fewer columns than they have are merged back, and scans with
+ * filters deciding on whole rows are not batched.
+ */
+public class HBaseReaderTest
+{
+    private static final String TABLE = "READER_TEST";
+
+    private static final String FAMILY = "PERSON";
+
+    private static final String[] COLUMNS = { "A", "B", "C", "D", "E" };
+
+    private static final int ROWS = 3;
+
+    private HBaseCli cli;
+
+    private HTable hTable;
+
+    private HBaseReader reader;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        cli = new HBaseCli();
+        cli.startCluster();
+        cli.createTable(TABLE, FAMILY);
+        hTable = new HTable(HBaseCli.utility.getConfiguration(), TABLE);
+        for (int row = 1; row <= ROWS; row++)
+        {
+            Put put = new Put(Bytes.toBytes("row" + row));
+            for (String column : COLUMNS)
+            {
+                put.add(Bytes.toBytes(FAMILY), Bytes.toBytes(column), Bytes.toBytes(column + row));
+            }
+            hTable.put(put);
+        }
+        hTable.flushCommits();
+
+        reader = new HBaseReader();
+        reader.setScannerBatch(2);
+    }
+
+    @Test
+    public void testBatchedScan() throws Exception
+    {
+        List<HBaseData> results = reader.loadAll(hTable, null, null, null, FAMILY, null, null);
+        Assert.assertEquals(ROWS, results.size());
+        for (int row = 1; row <= ROWS; row++)
+        {
+            HBaseData data = results.get(row - 1);
+            Assert.assertEquals("row" + row, Bytes.toString(data.getRowKey()));
+            Assert.assertEquals(COLUMNS.length, data.getColumns().size());
+            Assert.assertEquals("E" + row, Bytes.toString(value(data, "E")));
+        }
+    }
+
+    @Test
+    public void testBatchedScanByFetchSize() throws Exception
+    {
+        reader.setFetchSize(2);
+        Assert.assertNull(reader.loadAll(hTable, null, null, null, FAMILY, null, null));
+
+        List<HBaseData> results = new ArrayList<HBaseData>();
+        while (reader.hasNext())
+        {
+            results.add(reader.next());
+        }
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals(COLUMNS.length, results.get(0).getColumns().size());
+        Assert.assertEquals(COLUMNS.length, results.get(1).getColumns().size());
+        reader.reset();
+    }
+
+    @Test
+    public void testBatchedScanWithColumnFilter() throws Exception
+    {
+        Filter filter = new QualifierFilter(CompareOp.NOT_EQUAL, new BinaryComparator(Bytes.toBytes("C")));
+        Assert.assertTrue(HBaseReader.isBatchable(filter));
+
+        List<HBaseData> results = reader.loadAll(hTable, filter, null, null, FAMILY, null, null);
+        Assert.assertEquals(ROWS, results.size());
+        for (HBaseData data : results)
+        {
+            Assert.assertEquals(COLUMNS.length - 1, data.getColumns().size());
+            Assert.assertNull(value(data, "C"));
+        }
+    }
+
+    @Test
+    public void testRowFilterNotBatched() throws Exception
+    {
+        SingleColumnValueFilter filter = new SingleColumnValueFilter(Bytes.toBytes(FAMILY), Bytes.toBytes("A"),
+                CompareOp.EQUAL, Bytes.toBytes("A2"));
+        filter.setFilterIfMissing(true);
+        Assert.assertFalse(HBaseReader.isBatchable(filter));
+        Assert.assertFalse(HBaseReader.isBatchable(new FilterList(new PrefixFilter(Bytes.toBytes("row")), filter)));
+
+        List<HBaseData> results = reader.loadAll(hTable, filter, null, null, FAMILY, null, null);
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("row2", Bytes.toString(results.get(0).getRowKey()));
+        Assert.assertEquals(COLUMNS.length, results.get(0).getColumns().size());
+    }
+
+    @Test
+    public void testBatchableFilters()
+    {
+        Assert.assertTrue(HBaseReader.isBatchable(null));
+        Assert.assertTrue(HBaseReader.isBatchable(new FilterList(new PrefixFilter(Bytes.toBytes("row")),
+                new QualifierFilter(CompareOp.EQUAL, new BinaryComparator(Bytes.toBytes("A"))))));
+        Assert.assertFalse(HBaseReader.isBatchable(new PageFilter(1)));
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        hTable.close();
+        cli.dropTable(TABLE);
+        HBaseCli.stopCluster(TABLE);
+    }
+
+    private static byte[] value(HBaseData data, String qualifier)
+    {
+        for (KeyValue column : data.getColumns())
+        {
+            if (Bytes.equals(Bytes.toBytes(qualifier), column.getQualifier()))
+            {
+                return column.getValue();
+            }
+        }
+        return null;
+    }
+}
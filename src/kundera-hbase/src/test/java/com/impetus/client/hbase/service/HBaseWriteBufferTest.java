@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.hbase.service;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.HTablePool;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.hbase.HBaseConstants;
+import com.impetus.client.hbase.crud.PersonHBase;
+import com.impetus.client.hbase.junits.HBaseCli;
+import com.impetus.kundera.client.Client;
+
+/**
+ * Test case for {@link HBaseWriteBuffer}: buffered puts are sent once write
+ * buffer fills up, once flush interval elapses, or on flush.
+ *
+ * @author vivek.mishra
+ *
+ */
+public class HBaseWriteBufferTest
+{
+    private static final String TABLE = "WRITE_BUFFER_TEST";
+
+    private static final String FAMILY = "PERSON";
+
+    /** Large enough for no test write to fill it up. */
+    private static final long LARGE_BUFFER = 2 * 1024 * 1024;
+
+    private HBaseCli cli;
+
+    private HTablePool hTablePool;
+
+    private HTable reader;
+
+    private ScheduledExecutorService flusher;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        cli = new HBaseCli();
+        cli.startCluster();
+        cli.createTable(TABLE, FAMILY);
+        hTablePool = new HTablePool(HBaseCli.utility.getConfiguration(), 10);
+        reader = new HTable(HBaseCli.utility.getConfiguration(), TABLE);
+        flusher = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @Test
+    public void testFlushOnSize() throws Exception
+    {
+        HBaseWriteBuffer writeBuffer = new HBaseWriteBuffer(hTablePool, 1, 0, null);
+        put(writeBuffer, "1");
+
+        // write buffer filled up by first put.
+        Assert.assertTrue(exists("1"));
+        writeBuffer.close();
+    }
+
+    @Test
+    public void testFlushOnInterval() throws Exception
+    {
+        HBaseWriteBuffer writeBuffer = new HBaseWriteBuffer(hTablePool, LARGE_BUFFER, 200, flusher);
+        put(writeBuffer, "1");
+        Assert.assertFalse(exists("1"));
+
+        long timeout = System.currentTimeMillis() + 10000;
+        while (!exists("1") && System.currentTimeMillis() < timeout)
+        {
+            Thread.sleep(100);
+        }
+        Assert.assertTrue(exists("1"));
+        writeBuffer.close();
+    }
+
+    @Test
+    public void testFlush() throws Exception
+    {
+        HBaseWriteBuffer writeBuffer = new HBaseWriteBuffer(hTablePool, LARGE_BUFFER, 0, flusher);
+        put(writeBuffer, "1");
+        put(writeBuffer, "2");
+        Assert.assertFalse(exists("1"));
+        Assert.assertFalse(exists("2"));
+
+        writeBuffer.flush();
+        Assert.assertTrue(exists("1"));
+        Assert.assertTrue(exists("2"));
+
+        // and on close.
+        put(writeBuffer, "3");
+        Assert.assertFalse(exists("3"));
+        writeBuffer.close();
+        Assert.assertTrue(exists("3"));
+    }
+
+    @Test
+    public void testFlushOnClientFlush() throws Exception
+    {
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put(HBaseConstants.WRITE_BUFFER_SIZE, String.valueOf(LARGE_BUFFER));
+        properties.put(HBaseConstants.WRITE_FLUSH_INTERVAL, "0");
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory("hbaseTest", properties);
+        EntityManager em = emf.createEntityManager();
+        HTable personTable = new HTable(HBaseCli.utility.getConfiguration(), "KunderaExamples");
+        try
+        {
+            PersonHBase p = new PersonHBase();
+            p.setPersonId("1");
+            p.setPersonName("vivek");
+            p.setAge(10);
+            em.persist(p);
+            Assert.assertTrue(personTable.get(new Get(Bytes.toBytes("1"))).isEmpty());
+
+            Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+            Client client = clients.get("hbaseTest");
+            Assert.assertTrue(client instanceof Flushable);
+            ((Flushable) client).flush();
+            Assert.assertFalse(personTable.get(new Get(Bytes.toBytes("1"))).isEmpty());
+        }
+        finally
+        {
+            personTable.close();
+            em.close();
+            emf.close();
+            cli.dropTable("KunderaExamples");
+        }
+    }
+
+    @Test
+    public void testNulledColumnStaysDeleted() throws Exception
+    {
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put(HBaseConstants.WRITE_BUFFER_SIZE, String.valueOf(LARGE_BUFFER));
+        properties.put(HBaseConstants.WRITE_FLUSH_INTERVAL, "0");
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory("hbaseTest", properties);
+        EntityManager em = emf.createEntityManager();
+        HTable personTable = new HTable(HBaseCli.utility.getConfiguration(), "KunderaExamples");
+        try
+        {
+            PersonHBase p = new PersonHBase();
+            p.setPersonId("1");
+            p.setPersonName("vivek");
+            p.setAge(10);
+            em.persist(p);
+
+            // put of name is still buffered, delete must not be overwritten by it.
+            p.setPersonName(null);
+            em.merge(p);
+
+            Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+            ((Flushable) clients.get("hbaseTest")).flush();
+            Result result = personTable.get(new Get(Bytes.toBytes("1")));
+            Assert.assertFalse(result.isEmpty());
+            Assert.assertNull(result.getValue(Bytes.toBytes("PERSON_HBASE"), Bytes.toBytes("PERSON_NAME")));
+            Assert.assertNotNull(result.getValue(Bytes.toBytes("PERSON_HBASE"), Bytes.toBytes("AGE")));
+        }
+        finally
+        {
+            personTable.close();
+            em.close();
+            emf.close();
+            cli.dropTable("KunderaExamples");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        flusher.shutdownNow();
+        reader.close();
+        hTablePool.close();
+        cli.dropTable(TABLE);
+        HBaseCli.stopCluster(TABLE);
+    }
+
+    private void put(HBaseWriteBuffer writeBuffer, String rowKey) throws IOException
+    {
+        Put put = new Put(Bytes.toBytes(rowKey));
+        put.add(Bytes.toBytes(FAMILY), Bytes.toBytes("PERSON_NAME"), Bytes.toBytes("vivek"));
+        HTableInterface hTable = writeBuffer.acquire(TABLE);
+        try
+        {
+            hTable.put(put);
+        }
+        finally
+        {
+            writeBuffer.release();
+        }
+    }
+
+    private boolean exists(String rowKey) throws IOException
+    {
+        return !reader.get(new Get(Bytes.toBytes(rowKey))).isEmpty();
+    }
+}
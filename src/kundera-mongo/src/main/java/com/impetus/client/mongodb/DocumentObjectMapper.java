@@ -15,7 +15,6 @@
  ******************************************************************************/
 package com.impetus.client.mongodb;
 
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -38,6 +37,7 @@ import com.impetus.kundera.metadata.model.MetamodelImpl;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.metadata.model.attributes.AttributeType;
 import com.impetus.kundera.persistence.EntityReaderException;
+import com.impetus.kundera.property.FieldAccessor;
 import com.impetus.kundera.property.PropertyAccessException;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.property.accessor.EnumAccessor;
@@ -182,20 +182,18 @@ public class DocumentObjectMapper
             Class javaType = column.getJavaType();
             try
             {
+                FieldAccessor fieldAccessor = ((AbstractAttribute) column).getAccessor();
                 switch (AttributeType.getType(javaType))
                 {
                 case MAP:
-                    PropertyAccessorHelper.set(entityObject, (Field) column.getJavaMember(),
-                            ((BasicDBObject) value).toMap());
+                    fieldAccessor.set(entityObject, ((BasicDBObject) value).toMap());
                     break;
                 case SET:
                     List collectionValues = Arrays.asList(((BasicDBList) value).toArray());
-                    PropertyAccessorHelper.set(entityObject, (Field) column.getJavaMember(), new HashSet(
-                            collectionValues));
+                    fieldAccessor.set(entityObject, new HashSet(collectionValues));
                     break;
                 case LIST:
-                    PropertyAccessorHelper.set(entityObject, (Field) column.getJavaMember(),
-                            Arrays.asList(((BasicDBList) value).toArray()));
+                    fieldAccessor.set(entityObject, Arrays.asList(((BasicDBList) value).toArray()));
                     break;
                 case POINT:
 
@@ -212,7 +210,7 @@ public class DocumentObjectMapper
                             double y = Double.parseDouble(yObj.toString());
 
                             Point point = new Point(x, y);
-                            PropertyAccessorHelper.set(entityObject, (Field) column.getJavaMember(), point);
+                            fieldAccessor.set(entityObject, point);
                         }
                         catch (NumberFormatException e)
                         {
@@ -227,12 +225,15 @@ public class DocumentObjectMapper
                 case ENUM:
                     EnumAccessor accessor = new EnumAccessor();
                     value = accessor.fromString(javaType, value.toString());
-                    PropertyAccessorHelper.set(entityObject, (Field) column.getJavaMember(), value);
+                    fieldAccessor.set(entityObject, value);
                     break;
                 case PRIMITIVE:
-                    value = MongoDBUtils.populateValue(value, value.getClass());
-                    value = MongoDBUtils.getTranslatedObject(value, value.getClass(), javaType);
-                    PropertyAccessorHelper.set(entityObject, (Field) column.getJavaMember(), value);
+                    if (!setPrimitiveValue(entityObject, value, fieldAccessor))
+                    {
+                        value = MongoDBUtils.populateValue(value, value.getClass());
+                        value = MongoDBUtils.getTranslatedObject(value, value.getClass(), javaType);
+                        fieldAccessor.set(entityObject, value);
+                    }
                     break;
                 }
             }
@@ -245,6 +246,39 @@ public class DocumentObjectMapper
         }
     }
 
+    /**
+     * Sets document value of an int, long, double or boolean field, without
+     * translating and boxing it again.
+     * 
+     * @return false, if field is not of one of these types or value needs
+     *         translation.
+     */
+    private static boolean setPrimitiveValue(Object entityObject, Object value, FieldAccessor fieldAccessor)
+    {
+        Class<?> type = fieldAccessor.getField().getType();
+        if (type == int.class && value instanceof Integer)
+        {
+            fieldAccessor.setInt(entityObject, ((Integer) value).intValue());
+        }
+        else if (type == long.class && value instanceof Long)
+        {
+            fieldAccessor.setLong(entityObject, ((Long) value).longValue());
+        }
+        else if (type == double.class && value instanceof Double)
+        {
+            fieldAccessor.setDouble(entityObject, ((Double) value).doubleValue());
+        }
+        else if (type == boolean.class && value instanceof Boolean)
+        {
+            fieldAccessor.setBoolean(entityObject, ((Boolean) value).booleanValue());
+        }
+        else
+        {
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Extract entity field.
      * 
@@ -261,7 +295,7 @@ public class DocumentObjectMapper
     {
         try
         {
-            Object valueObject = PropertyAccessorHelper.getObject(entity, (Field) column.getJavaMember());
+            Object valueObject = ((AbstractAttribute) column).getAccessor().get(entity);
 
             if (valueObject != null)
             {
@@ -357,4 +391,4 @@ public class DocumentObjectMapper
 
         return embeddedCollection;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -315,13 +315,42 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
      */
     public <E> List<E> loadData(EntityMetadata entityMetadata, BasicDBObject mongoQuery, List<String> relationNames,
             BasicDBObject orderBy, int maxResult, BasicDBObject keys, String... results) throws Exception
+    {
+        return loadData(entityMetadata, mongoQuery, relationNames, orderBy, 0, maxResult, keys, results);
+    }
+
+    /**
+     * Loads columns from multiple rows restricting results to conditions
+     * stored in <code>filterClauseQueue</code>, skipping first results.
+     * 
+     * @param entityMetadata
+     *            the entity metadata
+     * @param mongoQuery
+     *            the mongo query
+     * @param relationNames
+     *            the relation names
+     * @param orderBy
+     *            the order by
+     * @param firstResult
+     *            number of results to skip
+     * @param maxResult
+     *            maximum number of results
+     * @param keys
+     *            fields to fetch
+     * @return the list
+     * @throws Exception
+     *             the exception
+     */
+    public <E> List<E> loadData(EntityMetadata entityMetadata, BasicDBObject mongoQuery, List<String> relationNames,
+            BasicDBObject orderBy, int firstResult, int maxResult, BasicDBObject keys, String... results)
+            throws Exception
     {
         String documentName = entityMetadata.getTableName();
         Class clazz = entityMetadata.getEntityClazz();
 
         List entities = new ArrayList<E>();
 
-        DBCursor cursor = getDBCursorInstance(mongoQuery, orderBy, maxResult, keys, documentName);
+        DBCursor cursor = getDBCursorInstance(mongoQuery, orderBy, firstResult, maxResult, keys, documentName);
 
         if (results != null && results.length > 0)
         {
@@ -357,13 +386,64 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
 
     public DBCursor getDBCursorInstance(BasicDBObject mongoQuery, BasicDBObject orderBy, int maxResult,
             BasicDBObject keys, String documentName)
+    {
+        return getDBCursorInstance(mongoQuery, orderBy, 0, maxResult, keys, documentName);
+    }
+
+    /**
+     * Returns cursor over given page of documents matching query. Page is
+     * fetched in as few round trips as server allows.
+     * 
+     * @param mongoQuery
+     *            the mongo query
+     * @param orderBy
+     *            the order by, may be null
+     * @param firstResult
+     *            number of documents to skip
+     * @param maxResult
+     *            maximum number of documents, 0 for all
+     * @param keys
+     *            fields to fetch
+     * @param documentName
+     *            the collection name
+     * @return the cursor
+     */
+    public DBCursor getDBCursorInstance(BasicDBObject mongoQuery, BasicDBObject orderBy, int firstResult,
+            int maxResult, BasicDBObject keys, String documentName)
     {
         DBCollection dbCollection = mongoDb.getCollection(documentName);
-        DBCursor cursor = orderBy != null ? dbCollection.find(mongoQuery, keys).sort(orderBy) : dbCollection.find(
-                mongoQuery, keys).limit(maxResult);
+        DBCursor cursor = dbCollection.find(mongoQuery, keys);
+        if (orderBy != null)
+        {
+            cursor.sort(orderBy);
+        }
+        if (firstResult > 0)
+        {
+            cursor.skip(firstResult);
+        }
+        if (maxResult > 0)
+        {
+            cursor.limit(maxResult).batchSize(maxResult);
+        }
         return cursor;
     }
 
+    /**
+     * Counts documents matching given query on server.
+     * 
+     * @param entityMetadata
+     *            the entity metadata
+     * @param mongoQuery
+     *            the mongo query
+     * @return number of matching documents
+     */
+    public long getCount(EntityMetadata entityMetadata, BasicDBObject mongoQuery)
+    {
+        DBCollection dbCollection = mongoDb.getCollection(entityMetadata.getTableName());
+        log.debug("Counting documents of " + entityMetadata.getTableName() + " for Filter " + mongoQuery.toString());
+        return dbCollection.count(mongoQuery);
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -535,8 +615,9 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders)
     {
         Map<String, List<DBObject>> collections = new HashMap<String, List<DBObject>>();
-        collections = onPersist(collections, entity, id, entityMetadata, rlHolders, isUpdate);
-        onFlushCollection(collections);
+        Map<String, List<DBObject[]>> updates = new HashMap<String, List<DBObject[]>>();
+        onPersist(collections, updates, entity, id, entityMetadata, rlHolders, isUpdate, dirtyColumns);
+        onFlushCollection(collections, updates);
     }
 
     /*
@@ -591,6 +672,7 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
     public int executeBatch()
     {
         Map<String, List<DBObject>> collections = new HashMap<String, List<DBObject>>();
+        Map<String, List<DBObject[]>> updates = new HashMap<String, List<DBObject[]>>();
         for (Node node : nodes)
         {
             if (node.isDirty())
@@ -606,19 +688,21 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
 
                     List<RelationHolder> relationHolders = getRelationHolders(node);
                     EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
-                    collections = onPersist(collections, node.getData(), node.getEntityId(), metadata, relationHolders,
-                            node.isUpdate());
+                    onPersist(collections, updates, node.getData(), node.getEntityId(), metadata, relationHolders,
+                            node.isUpdate(), node.isUpdate() ? node.getDirtyColumns() : null);
                     indexNode(node, metadata);
                 }
                 node.handlePostEvent();
             }
         }
 
-        if (!collections.isEmpty())
+        Set<String> tableNames = new HashSet<String>(collections.keySet());
+        tableNames.addAll(updates.keySet());
+        if (!tableNames.isEmpty())
         {
-            onFlushCollection(collections);
+            onFlushCollection(collections, updates);
         }
-        return collections.size();
+        return tableNames.size();
     }
 
     /**
@@ -626,21 +710,34 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
      * 
      * @param collections
      *            collection containing records to be inserted in mongo db.
+     * @param updates
+     *            collection containing query and update pairs to be upserted
+     *            in mongo db.
      */
-    private void onFlushCollection(Map<String, List<DBObject>> collections)
+    private void onFlushCollection(Map<String, List<DBObject>> collections, Map<String, List<DBObject[]>> updates)
     {
         for (String tableName : collections.keySet())
         {
             DBCollection dbCollection = mongoDb.getCollection(tableName);
             dbCollection.insert(collections.get(tableName).toArray(new DBObject[0]), getWriteConcern(), encoder);
         }
+        for (String tableName : updates.keySet())
+        {
+            DBCollection dbCollection = mongoDb.getCollection(tableName);
+            for (DBObject[] update : updates.get(tableName))
+            {
+                dbCollection.update(update[0], update[1], true, false, getWriteConcern(), encoder);
+            }
+        }
     }
 
     /**
      * Executes on list of entities to be persisted.
      * 
      * @param collections
-     *            collection containing list of db objects.
+     *            collection containing list of db objects to be inserted.
+     * @param updates
+     *            collection containing list of query and update pairs.
      * @param entity
      *            entity in question.
      * @param id
@@ -651,10 +748,12 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
      *            relation holders.
      * @param isUpdate
      *            if it is an update
-     * @return collection of DB objects.
+     * @param columns
+     *            columns modified by update, null if not known.
      */
-    private Map<String, List<DBObject>> onPersist(Map<String, List<DBObject>> collections, Object entity, Object id,
-            EntityMetadata metadata, List<RelationHolder> relationHolders, boolean isUpdate)
+    private void onPersist(Map<String, List<DBObject>> collections, Map<String, List<DBObject[]>> updates,
+            Object entity, Object id, EntityMetadata metadata, List<RelationHolder> relationHolders, boolean isUpdate,
+            Set<String> columns)
     {
         persistenceUnit = metadata.getPersistenceUnit();
         String documentName = metadata.getTableName();
@@ -677,19 +776,19 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
             {
                 query.put("_id", MongoDBUtils.populateValue(id, id.getClass()));
             }
-            DBCollection dbCollection = mongoDb.getCollection(documentName);
-            // dbCollection.findAndModify(query, document);
 
-            DBObject obj = dbCollection.findOne(query);
-            if (obj != null)
+            // upsert writes modified fields only, in place of reading and
+            // saving back whole document.
+            DBObject update = handler.getUpdateFromDocument(document, metadata, columns);
+            if (!update.keySet().isEmpty())
             {
-                obj.putAll(document);
-
-                dbCollection.save(obj);
-            }
-            else
-            {
-                dbCollection.save(document);
+                List<DBObject[]> dbUpdates = updates.get(documentName);
+                if (dbUpdates == null)
+                {
+                    dbUpdates = new ArrayList<DBObject[]>();
+                    updates.put(documentName, dbUpdates);
+                }
+                dbUpdates.add(new DBObject[] { query, update });
             }
         }
         else
@@ -709,8 +808,6 @@ public class MongoDBClient extends ClientBase implements Client<MongoDBQuery>, B
                 collections.put(documentName, dbStatements);
             }
         }
-
-        return collections;
     }
 
     /**
@@ -19,6 +19,7 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +42,7 @@ import com.impetus.kundera.metadata.KunderaMetadataManager;
 import com.impetus.kundera.metadata.model.EntityMetadata;
 import com.impetus.kundera.metadata.model.KunderaMetadata;
 import com.impetus.kundera.metadata.model.MetamodelImpl;
+import com.impetus.kundera.metadata.model.Relation;
 import com.impetus.kundera.metadata.model.attributes.AbstractAttribute;
 import com.impetus.kundera.metadata.model.type.AbstractManagedType;
 import com.impetus.kundera.property.PropertyAccessException;
@@ -275,6 +277,88 @@ public final class MongoDBDataHandler
         return dbObj;
     }
 
+    /**
+     * Gets update of given document, setting its fields and unsetting mapped
+     * fields it does not hold, as entity holds null for them. Only given
+     * columns are written, if known.
+     * 
+     * @param document
+     *            document of entity
+     * @param m
+     *            the entity metadata
+     * @param columns
+     *            columns to be written, null for all.
+     * @return the update document
+     */
+    DBObject getUpdateFromDocument(DBObject document, EntityMetadata m, Set<String> columns)
+    {
+        Set<String> mappedColumns = getMappedColumns(m);
+
+        BasicDBObject set = new BasicDBObject();
+        for (String key : document.keySet())
+        {
+            // columns not mapped to attributes, like discriminator, are
+            // written always.
+            if (!"_id".equals(key) && (columns == null || columns.contains(key) || !mappedColumns.contains(key)))
+            {
+                set.put(key, document.get(key));
+            }
+        }
+
+        BasicDBObject unset = new BasicDBObject();
+        for (String column : mappedColumns)
+        {
+            if (!document.containsField(column) && (columns == null || columns.contains(column)))
+            {
+                unset.put(column, 1);
+            }
+        }
+
+        BasicDBObject update = new BasicDBObject();
+        if (!set.isEmpty())
+        {
+            update.put("$set", set);
+        }
+        if (!unset.isEmpty())
+        {
+            update.put("$unset", unset);
+        }
+        return update;
+    }
+
+    /**
+     * Returns fields entity attributes and relations are written to, apart
+     * from id.
+     */
+    private Set<String> getMappedColumns(EntityMetadata m)
+    {
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                m.getPersistenceUnit());
+        EntityType entityType = metaModel.entity(m.getEntityClazz());
+
+        Set<String> mappedColumns = new HashSet<String>();
+        Set<Attribute> columns = entityType.getAttributes();
+        for (Attribute column : columns)
+        {
+            if (!column.equals(m.getIdAttribute()) && !column.isAssociation())
+            {
+                mappedColumns.add(((AbstractAttribute) column).getJPAColumnName());
+            }
+        }
+        if (m.getRelations() != null)
+        {
+            for (Relation relation : m.getRelations())
+            {
+                if (relation.isUnary() && !relation.isRelatedViaJoinTable() && relation.getMappedBy() == null
+                        && relation.getJoinColumnName() != null)
+                {
+                    mappedColumns.add(relation.getJoinColumnName());
+                }
+            }
+        }
+        return mappedColumns;
+    }
+
     /**
      * Returns column name from the filter property which is in the form
      * dbName.columnName
@@ -19,11 +19,14 @@ import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.GregorianCalendar;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
+import java.util.regex.Pattern;
 
 import javax.persistence.Query;
 import javax.persistence.metamodel.Attribute;
@@ -57,6 +60,7 @@ import com.impetus.kundera.query.KunderaQuery.SortOrder;
 import com.impetus.kundera.query.KunderaQuery.SortOrdering;
 import com.impetus.kundera.query.QueryHandlerException;
 import com.impetus.kundera.query.QueryImpl;
+import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 
 /**
@@ -69,8 +73,14 @@ public class MongoDBQuery extends QueryImpl
     /** The log used by this class. */
     private static Logger log = LoggerFactory.getLogger(MongoDBQuery.class);
 
+    /** Matches COUNT(alias) result. */
+    private static final Pattern COUNT_PATTERN = Pattern.compile("count\\s*\\(\\s*\\w+\\s*\\)",
+            Pattern.CASE_INSENSITIVE);
+
     private boolean isSingleResult;
 
+    private int firstResult;
+
     /**
      * Instantiates a new mongo db query.
      * 
@@ -111,6 +121,33 @@ public class MongoDBQuery extends QueryImpl
         return super.setMaxResults(maxResult);
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#setFirstResult(int)
+     */
+    @Override
+    public Query setFirstResult(int startPosition)
+    {
+        if (startPosition < 0)
+        {
+            throw new IllegalArgumentException("First result can not be negative: " + startPosition);
+        }
+        this.firstResult = startPosition;
+        return this;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#getFirstResult()
+     */
+    @Override
+    public int getFirstResult()
+    {
+        return firstResult;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -132,10 +169,15 @@ public class MongoDBQuery extends QueryImpl
             {
                 throw new UnsupportedOperationException("Native query support is not enabled in mongoDB");
             }
+            BasicDBObject mongoQuery = createMongoQuery(m, getKunderaQuery().getFilterClauseQueue());
+            if (isCountQuery())
+            {
+                return onCount(m, client, mongoQuery);
+            }
             BasicDBObject orderByClause = getOrderByClause();
-            return ((MongoDBClient) client).loadData(m, createMongoQuery(m, getKunderaQuery().getFilterClauseQueue()),
-                    null, orderByClause, isSingleResult ? 1 : maxResult, getKeys(m, getKunderaQuery().getResult()),
-                    getKunderaQuery().getResult());
+            return ((MongoDBClient) client).loadData(m, mongoQuery, null, orderByClause, firstResult,
+                    isSingleResult ? 1 : maxResult, getKeys(m, getKunderaQuery().getResult()), getKunderaQuery()
+                            .getResult());
         }
         catch (Exception e)
         {
@@ -172,10 +214,15 @@ public class MongoDBQuery extends QueryImpl
                 throw new UnsupportedOperationException("Native query support is not enabled in mongoDB");
             }
             
+            BasicDBObject mongoQuery = createMongoQuery(m, getKunderaQuery().getFilterClauseQueue());
+            if (isCountQuery())
+            {
+                return onCount(m, client, mongoQuery);
+            }
             BasicDBObject orderByClause = getOrderByClause();
-            ls = ((MongoDBClient) client).loadData(m, createMongoQuery(m, getKunderaQuery().getFilterClauseQueue()),
-                    m.getRelationNames(), orderByClause, isSingleResult ? 1 : maxResult,
-                    getKeys(m, getKunderaQuery().getResult()), getKunderaQuery().getResult());
+            ls = ((MongoDBClient) client).loadData(m, mongoQuery, m.getRelationNames(), orderByClause, firstResult,
+                    isSingleResult ? 1 : maxResult, getKeys(m, getKunderaQuery().getResult()), getKunderaQuery()
+                            .getResult());
         }
         catch (Exception e)
         {
@@ -186,6 +233,25 @@ public class MongoDBQuery extends QueryImpl
         return setRelationEntities(ls, client, m);
     }
 
+    /**
+     * Returns whether query selects COUNT of entities, counted on server.
+     */
+    private boolean isCountQuery()
+    {
+        String[] result = getKunderaQuery().getResult();
+        return result != null && result[0] != null && COUNT_PATTERN.matcher(result[0].trim()).matches();
+    }
+
+    /**
+     * Counts documents matching query, as single result.
+     */
+    private List<Object> onCount(EntityMetadata m, Client client, BasicDBObject mongoQuery)
+    {
+        List<Object> result = new ArrayList<Object>(1);
+        result.add(((MongoDBClient) client).getCount(m, mongoQuery));
+        return result;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -198,218 +264,251 @@ public class MongoDBQuery extends QueryImpl
     }
 
     /**
-     * Creates MongoDB Query object from filterClauseQueue.
+     * Creates MongoDB Query object from filterClauseQueue. Clauses joined by
+     * AND bind tighter than OR, each run of them makes an alternative of $or.
      * 
      * @param m
      *            the m
      * @param filterClauseQueue
      *            the filter clause queue
-     * @param columns
      * @return the basic db object
      */
     private BasicDBObject createMongoQuery(EntityMetadata m, Queue filterClauseQueue)
     {
-        BasicDBObject query = new BasicDBObject();
-        BasicDBObject compositeColumns = new BasicDBObject();
-
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
                 m.getPersistenceUnit());
-
+        String discriminatorColumn = ((AbstractManagedType) metaModel.entity(m.getEntityClazz()))
+                .getDiscriminatorColumn();
+
+        List<List<FilterClause>> alternatives = new ArrayList<List<FilterClause>>();
+        List<FilterClause> clauses = new ArrayList<FilterClause>();
+        // discriminator clause is appended last, but holds for all
+        // alternatives.
+        List<FilterClause> commonClauses = new ArrayList<FilterClause>();
+        alternatives.add(clauses);
         for (Object object : filterClauseQueue)
         {
-            boolean isCompositeColumn = false;
-
             if (object instanceof FilterClause)
             {
                 FilterClause filter = (FilterClause) object;
-                // String property = getColumnName(filter.getProperty());
-                String property = filter.getProperty();
-                String condition = filter.getCondition();
-                // String value = filter.getValue().toString();
-                Object value = filter.getValue();
-
-                // value is string but field.getType is different, then get
-                // value using
-
-                Field f = null;
-
-                // if alias is still present .. means it is an enclosing
-                // document search.
-                //
-
-                if (((AbstractAttribute) m.getIdAttribute()).getJPAColumnName().equalsIgnoreCase(property))
-                {
-                    property = "_id";
-                    f = (Field) m.getIdAttribute().getJavaMember();
-                    if (metaModel.isEmbeddable(m.getIdAttribute().getBindableJavaType())
-                            && value.getClass().isAssignableFrom(f.getType()))
-                    {
-                        EmbeddableType compoundKey = metaModel.embeddable(m.getIdAttribute().getBindableJavaType());
-                        compositeColumns = MongoDBUtils.getCompoundKeyColumns(m, value, compoundKey);
-                        isCompositeColumn = true;
-                        continue;
-                    }
-                }
-                else if (metaModel.isEmbeddable(m.getIdAttribute().getBindableJavaType())
-                        && StringUtils.contains(property, '.'))
+                if (filter.getProperty() != null && filter.getProperty().equals(discriminatorColumn))
                 {
-                    // Means it is a case of composite column.
-                    property = property.substring(property.indexOf(".") + 1);
-                    isCompositeColumn = true;
+                    commonClauses.add(filter);
                 }
                 else
                 {
-                    EntityType entity = metaModel.entity(m.getEntityClazz());
-                    String discriminatorColumn = ((AbstractManagedType) entity).getDiscriminatorColumn();
-
-                    if (!property.equals(discriminatorColumn))
-                    {
-                        String fieldName = m.getFieldName(property);
-                        f = (Field) entity.getAttribute(fieldName).getJavaMember();
-                    }
+                    clauses.add(filter);
                 }
+            }
+            else if ("OR".equals(object))
+            {
+                clauses = new ArrayList<FilterClause>();
+                alternatives.add(clauses);
+            }
+        }
 
-                if (value.getClass().isAssignableFrom(String.class) && f != null
-                        && !f.getType().equals(value.getClass()))
-                {
-                    value = PropertyAccessorFactory.getPropertyAccessor(f).fromString(f.getType().getClass(),
-                            value.toString());
-                }
-                value = MongoDBUtils.populateValue(value, value.getClass());
+        if (alternatives.size() == 1)
+        {
+            clauses.addAll(commonClauses);
+            return createMongoQuery(m, metaModel, clauses);
+        }
 
-                // Property, if doesn't exist in entity, may be there in a
-                // document embedded within it, so we have to check that
-                // TODO: Query should actually be in a format
-                // documentName.embeddedDocumentName.column, remove below if
-                // block once this is decided
+        BasicDBList or = new BasicDBList();
+        for (List<FilterClause> alternative : alternatives)
+        {
+            or.add(createMongoQuery(m, metaModel, alternative));
+        }
+        BasicDBObject query = createMongoQuery(m, metaModel, commonClauses);
+        query.append("$or", or);
+        return query;
+    }
 
-                // Query could be geospatial in nature
-                if (f != null && f.getType().equals(Point.class))
-                {
-                    GeospatialQuery geospatialQueryimpl = GeospatialQueryFactory.getGeospatialQueryImplementor(
-                            condition, value);
-                    query = (BasicDBObject) geospatialQueryimpl.createGeospatialQuery(property, value, query);
+    /**
+     * Creates MongoDB Query object matching all of given clauses.
+     * 
+     * @param m
+     *            the m
+     * @param metaModel
+     *            the meta model
+     * @param clauses
+     *            the filter clauses
+     * @return the basic db object
+     */
+    private BasicDBObject createMongoQuery(EntityMetadata m, MetamodelImpl metaModel, List<FilterClause> clauses)
+    {
+        BasicDBObject query = new BasicDBObject();
 
-                }
-                else
-                {
-                    if (condition.equals("="))
-                    {
-                        if (isCompositeColumn)
-                        {
-                            compositeColumns.put(property, value);
-                        }
-                        else
-                        {
-                            query.append(property, value);
-                        }
+        boolean isCompositeKey = metaModel.isEmbeddable(m.getIdAttribute().getBindableJavaType());
+        EmbeddableType compoundKey = isCompositeKey ? metaModel.embeddable(m.getIdAttribute()
+                .getBindableJavaType()) : null;
 
-                    }
-                    else if (condition.equalsIgnoreCase("like"))
-                    {
-                        if (isCompositeColumn)
-                        {
-                            compositeColumns.put(property, value);
-                        }
-                        else
-                        {
-                            query.append(property, value);
-                        }
-                    }
-                    else if (condition.equalsIgnoreCase(">"))
-                    {
-                        if (isCompositeColumn)
-                        {
-                            compositeColumns.put(property, new BasicDBObject("$gt", value));
+        for (FilterClause filter : clauses)
+        {
+            // String property = getColumnName(filter.getProperty());
+            String property = filter.getProperty();
+            String condition = filter.getCondition().trim().toUpperCase();
+            Object value = filter.getValue();
 
-                        }
-                        else
-                        {
-                            if (query.containsField(property))
-                            {
-                                query.get(property);
-                                query.put(property, ((BasicDBObject) query.get(property)).append("$gt", value));
-                            }
-                            else
-                            {
-                                query.append(property, new BasicDBObject("$gt", value));
-                            }
-                        }
+            // value is string but field.getType is different, then get
+            // value using
 
-                    }
-                    else if (condition.equalsIgnoreCase(">="))
-                    {
-                        if (isCompositeColumn)
-                        {
-                            compositeColumns.put(property, new BasicDBObject("$gte", value));
+            Field f = null;
 
-                        }
-                        else
-                        {
-                            if (query.containsField(property))
-
-                            {
-                                query.get(property);
-                                query.put(property, ((BasicDBObject) query.get(property)).append("$gte", value));
-                            }
-                            else
-                            {
-                                query.append(property, new BasicDBObject("$gte", value));
-                            }
-                        }
-                    }
-                    else if (condition.equalsIgnoreCase("<"))
-                    {
-                        if (isCompositeColumn)
-                        {
-                            compositeColumns.put(property, new BasicDBObject("$lt", value));
+            // if alias is still present .. means it is an enclosing
+            // document search.
+            //
 
-                        }
-                        else
-                        {
-                            if (query.containsField(property))
-                            {
-                                query.get(property);
-                                query.put(property, ((BasicDBObject) query.get(property)).append("$lt", value));
-                            }
-                            else
-                            {
-                                query.append(property, new BasicDBObject("$lt", value));
-                            }
-                        }
-                    }
-                    else if (condition.equalsIgnoreCase("<="))
-                    {
-                        if (isCompositeColumn)
-                        {
-                            compositeColumns.put(property, new BasicDBObject("$lte", value));
+            if (((AbstractAttribute) m.getIdAttribute()).getJPAColumnName().equalsIgnoreCase(property))
+            {
+                property = "_id";
+                f = (Field) m.getIdAttribute().getJavaMember();
+                if (isCompositeKey && value.getClass().isAssignableFrom(f.getType()))
+                {
+                    // whole compound key, matched as embedded document.
+                    query.append("_id", MongoDBUtils.getCompoundKeyColumns(m, value, compoundKey));
+                    continue;
+                }
+            }
+            else if (isCompositeKey && StringUtils.contains(property, '.')
+                    && property.substring(0, property.indexOf('.')).equals(m.getIdAttribute().getName()))
+            {
+                // Means it is a case of composite column, matched within _id.
+                Attribute compositeColumn = compoundKey.getAttribute(property.substring(property.indexOf(".") + 1));
+                f = (Field) compositeColumn.getJavaMember();
+                property = "_id." + ((AbstractAttribute) compositeColumn).getJPAColumnName();
+            }
+            else if (!StringUtils.contains(property, '.'))
+            {
+                EntityType entity = metaModel.entity(m.getEntityClazz());
+                String discriminatorColumn = ((AbstractManagedType) entity).getDiscriminatorColumn();
 
-                        }
-                        else
-                        {
-                            if (query.containsField(property))
-                            {
-                                query.get(property);
-                                query.put(property, ((BasicDBObject) query.get(property)).append("$lte", value));
-                            }
-                            else
-                            {
-                                query.append(property, new BasicDBObject("$lte", value));
-                            }
-                        }
-                    }
+                if (!property.equals(discriminatorColumn))
+                {
+                    String fieldName = m.getFieldName(property);
+                    f = (Field) entity.getAttribute(fieldName).getJavaMember();
                 }
+            }
 
-                // TODO: Add support for other operators like >, <, >=, <=,
-                // order by asc/ desc, limit, skip, count etc
+            // Property, if doesn't exist in entity, may be there in a
+            // document embedded within it, so we have to check that
+            // TODO: Query should actually be in a format
+            // documentName.embeddedDocumentName.column, remove below if
+            // block once this is decided
+
+            // Query could be geospatial in nature
+            if (f != null && f.getType().equals(Point.class))
+            {
+                value = getMongoValue(value, f);
+                GeospatialQuery geospatialQueryimpl = GeospatialQueryFactory.getGeospatialQueryImplementor(condition,
+                        value);
+                query = (BasicDBObject) geospatialQueryimpl.createGeospatialQuery(property, value, query);
+
+            }
+            else if (condition.equals("IN"))
+            {
+                addOperator(query, property, "$in", getInValues(value, f));
+            }
+            else if (condition.equals("NOT IN"))
+            {
+                addOperator(query, property, "$nin", getInValues(value, f));
+            }
+            else
+            {
+                addCondition(query, property, condition, getMongoValue(value, f));
             }
         }
+        return query;
+    }
 
-        if (!compositeColumns.isEmpty())
+    /**
+     * Adds comparison of property with value to query.
+     */
+    private void addCondition(BasicDBObject query, String property, String condition, Object value)
+    {
+        if (condition.equals("=") || condition.equals("LIKE"))
         {
-            query.append("_id", compositeColumns);
+            query.append(property, value);
+        }
+        else if (condition.equals(">"))
+        {
+            addOperator(query, property, "$gt", value);
+        }
+        else if (condition.equals(">="))
+        {
+            addOperator(query, property, "$gte", value);
+        }
+        else if (condition.equals("<"))
+        {
+            addOperator(query, property, "$lt", value);
+        }
+        else if (condition.equals("<="))
+        {
+            addOperator(query, property, "$lte", value);
         }
-        return query;
+    }
+
+    /**
+     * Adds operator on given property to query, along with those already
+     * there.
+     */
+    private void addOperator(BasicDBObject query, String property, String operator, Object value)
+    {
+        Object operators = query.get(property);
+        if (operators instanceof BasicDBObject)
+        {
+            ((BasicDBObject) operators).append(operator, value);
+        }
+        else
+        {
+            query.append(property, new BasicDBObject(operator, value));
+        }
+    }
+
+    /**
+     * Returns values of IN clause, given either as parameter collection or
+     * inline as (value1, value2...).
+     */
+    private BasicDBList getInValues(Object value, Field f)
+    {
+        Collection values = null;
+        if (value instanceof Collection)
+        {
+            values = (Collection) value;
+        }
+        else if (value instanceof Object[])
+        {
+            values = Arrays.asList((Object[]) value);
+        }
+        else
+        {
+            values = new ArrayList<Object>();
+            String inline = StringUtils.removeEnd(StringUtils.removeStart(value.toString().trim(), "("), ")");
+            for (String token : StringUtils.split(inline, ','))
+            {
+                values.add(token.trim().replaceAll("^'", "").replaceAll("'$", ""));
+            }
+        }
+
+        BasicDBList inValues = new BasicDBList();
+        for (Object inValue : values)
+        {
+            inValues.add(getMongoValue(inValue, f));
+        }
+        return inValues;
+    }
+
+    /**
+     * Converts clause value to type of field, if given as string, and then to
+     * its mongo representation.
+     */
+    private Object getMongoValue(Object value, Field f)
+    {
+        if (value.getClass().isAssignableFrom(String.class) && f != null && !f.getType().equals(value.getClass()))
+        {
+            value = PropertyAccessorFactory.getPropertyAccessor(f).fromString(f.getType().getClass(),
+                    value.toString());
+        }
+        return MongoDBUtils.populateValue(value, value.getClass());
     }
 
     private BasicDBObject getKeys(EntityMetadata m, String[] columns)
@@ -420,16 +519,32 @@ public class MongoDBQuery extends QueryImpl
             MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
                     m.getPersistenceUnit());
             EntityType entity = metaModel.entity(m.getEntityClazz());
+            String idName = m.getIdAttribute().getName();
             for (int i = 1; i < columns.length; i++)
             {
                 if (columns[i] != null)
                 {
-                    Attribute col = entity.getAttribute(columns[i]);
-                    if (col == null)
+                    if (columns[i].equals(idName))
                     {
-                        throw new QueryHandlerException("column type is null for: " + columns);
+                        keys.put("_id", 1);
+                    }
+                    else if (columns[i].startsWith(idName + ".")
+                            && metaModel.isEmbeddable(m.getIdAttribute().getBindableJavaType()))
+                    {
+                        // composite key column, fetched from within _id.
+                        Attribute col = metaModel.embeddable(m.getIdAttribute().getBindableJavaType())
+                                .getAttribute(columns[i].substring(idName.length() + 1));
+                        keys.put("_id." + ((AbstractAttribute) col).getJPAColumnName(), 1);
+                    }
+                    else
+                    {
+                        Attribute col = entity.getAttribute(columns[i]);
+                        if (col == null)
+                        {
+                            throw new QueryHandlerException("column type is null for: " + columns);
+                        }
+                        keys.put(((AbstractAttribute) col).getJPAColumnName(), 1);
                     }
-                    keys.put(((AbstractAttribute) col).getJPAColumnName(), 1);
                 }
             }
         }
@@ -451,7 +566,7 @@ public class MongoDBQuery extends QueryImpl
             orderByClause = new BasicDBObject();
             for (SortOrdering order : orders)
             {
-                orderByClause.append(order.getColumnName(), order.getColumnName().equals(SortOrder.ASC) ? 1 : -1);
+                orderByClause.append(order.getColumnName(), order.getOrder().equals(SortOrder.ASC) ? 1 : -1);
             }
         }
 
@@ -510,6 +625,6 @@ public class MongoDBQuery extends QueryImpl
         Client client = persistenceDelegeator.getClient(m);
         return new ResultIterator((MongoDBClient) client, m, createMongoQuery(m, getKunderaQuery()
                 .getFilterClauseQueue()), getOrderByClause(), getKeys(m, getKunderaQuery().getResult()),persistenceDelegeator,
-                getFetchSize() != null ? getFetchSize() : this.maxResult);
+                firstResult, getFetchSize() != null ? getFetchSize() : this.maxResult);
     }
 }
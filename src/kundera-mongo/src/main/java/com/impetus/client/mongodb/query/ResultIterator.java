@@ -53,21 +53,23 @@ class ResultIterator<E> implements IResultIterator<E>
     private PersistenceDelegator persistenceDelegator;
 
     public ResultIterator(MongoDBClient client, EntityMetadata m, BasicDBObject basicDBObject,
-            BasicDBObject orderByClause, BasicDBObject keys, PersistenceDelegator pd, int fetchSize)
+            BasicDBObject orderByClause, BasicDBObject keys, PersistenceDelegator pd, int firstResult, int fetchSize)
     {
         this.m = m;
         this.client = client;
         this.fetchSize = fetchSize;
         this.persistenceDelegator = pd;
         this.handler = new MongoDBDataHandler();
-        onQuery(orderByClause, basicDBObject, keys);
+        onQuery(orderByClause, basicDBObject, keys, firstResult);
     }
 
-    private void onQuery(BasicDBObject orderByClause, BasicDBObject mongoQuery, BasicDBObject keys)
+    private void onQuery(BasicDBObject orderByClause, BasicDBObject mongoQuery, BasicDBObject keys, int firstResult)
     {
         try
         {
-            cursor = client.getDBCursorInstance(mongoQuery, orderByClause, fetchSize, keys, m.getTableName());
+            // cursor fetches up to fetch size documents per round trip.
+            cursor = client.getDBCursorInstance(mongoQuery, orderByClause, firstResult, fetchSize, keys,
+                    m.getTableName());
         }
         catch (Exception e)
         {
@@ -0,0 +1,209 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.client.crud;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.Query;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.crud.compositeType.MongoCompoundKey;
+import com.impetus.client.crud.compositeType.MongoPrimeUser;
+import com.impetus.client.utils.MongoUtils;
+
+/**
+ * Junit for queries translated by
+ * {@link com.impetus.client.mongodb.query.MongoDBQuery}: OR, IN/NOT IN,
+ * composite key conditions, paging, count, projections and ordering.
+ */
+public class MongoDBQueryTest extends BaseTest
+{
+    /** The emf. */
+    private EntityManagerFactory emf;
+
+    /** The em. */
+    private EntityManager em;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        emf = Persistence.createEntityManagerFactory("mongoTest");
+        em = emf.createEntityManager();
+        em.persist(prepareMongoInstance("1", 10));
+        em.persist(prepareMongoInstance("2", 20));
+        em.persist(prepareMongoInstance("3", 15));
+        em.clear();
+    }
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @After
+    public void tearDown() throws Exception
+    {
+        MongoUtils.dropDatabase(emf, "mongoTest");
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void testOr()
+    {
+        Query q = em.createQuery("Select p from PersonMongo p where p.age = 10 or p.age = 20");
+        assertIds(q.getResultList(), "1", "2");
+
+        // AND binds tighter than OR.
+        q = em.createQuery("Select p from PersonMongo p where p.age = 10 and p.personName = vivek or p.age = 15");
+        assertIds(q.getResultList(), "1", "3");
+
+        q = em.createQuery("Select p from PersonMongo p where p.age = 10 and p.personName = kuldeep or p.age = 15");
+        assertIds(q.getResultList(), "3");
+    }
+
+    @Test
+    public void testInAndNotIn()
+    {
+        Query q = em.createQuery("Select p from PersonMongo p where p.age in (10, 15)");
+        assertIds(q.getResultList(), "1", "3");
+
+        q = em.createQuery("Select p from PersonMongo p where p.age not in (10, 15)");
+        assertIds(q.getResultList(), "2");
+
+        q = em.createQuery("Select p from PersonMongo p where p.personId in ('1', '2') and p.age not in (20)");
+        assertIds(q.getResultList(), "1");
+    }
+
+    @Test
+    public void testCompositeKey()
+    {
+        UUID timeLineId = UUID.randomUUID();
+        MongoCompoundKey key = new MongoCompoundKey("mevivs", 1, timeLineId);
+        MongoPrimeUser user = new MongoPrimeUser(key);
+        user.setTweetBody("first tweet");
+        em.persist(user);
+        MongoPrimeUser other = new MongoPrimeUser(new MongoCompoundKey("kuldeep", 2, UUID.randomUUID()));
+        other.setTweetBody("second tweet");
+        em.persist(other);
+        em.clear();
+
+        // condition on a part of key is matched within _id.
+        Query q = em.createQuery("Select u from MongoPrimeUser u where u.key.userId = :userId");
+        q.setParameter("userId", "mevivs");
+        List<MongoPrimeUser> results = q.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("first tweet", results.get(0).getTweetBody());
+
+        q = em.createQuery("Select u from MongoPrimeUser u where u.key.tweetId > :tweetId");
+        q.setParameter("tweetId", 1);
+        results = q.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("kuldeep", results.get(0).getKey().getUserId());
+
+        // whole key is matched as embedded document.
+        q = em.createQuery("Select u from MongoPrimeUser u where u.key = :key");
+        q.setParameter("key", key);
+        results = q.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals(timeLineId, results.get(0).getKey().getTimeLineId());
+
+        // key columns are projected from within _id.
+        q = em.createQuery("Select u.key.userId from MongoPrimeUser u where u.key.tweetId = :tweetId");
+        q.setParameter("tweetId", 2);
+        results = q.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("kuldeep", results.get(0).getKey().getUserId());
+        Assert.assertNull(results.get(0).getTweetBody());
+    }
+
+    @Test
+    public void testPaging()
+    {
+        Query q = em.createQuery("Select p from PersonMongo p ORDER BY p.age");
+        q.setFirstResult(1);
+        q.setMaxResults(1);
+        List<PersonMongo> results = q.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("3", results.get(0).getPersonId());
+
+        q.setFirstResult(2);
+        q.setMaxResults(5);
+        results = q.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("2", results.get(0).getPersonId());
+    }
+
+    @Test
+    public void testOrderByDesc()
+    {
+        Query q = em.createQuery("Select p from PersonMongo p ORDER BY p.age DESC");
+        List<PersonMongo> results = q.getResultList();
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals(new Integer(20), results.get(0).getAge());
+        Assert.assertEquals(new Integer(15), results.get(1).getAge());
+        Assert.assertEquals(new Integer(10), results.get(2).getAge());
+    }
+
+    @Test
+    public void testCount()
+    {
+        Query q = em.createQuery("Select count(p) from PersonMongo p where p.age > 10");
+        Assert.assertEquals(2L, ((Number) q.getSingleResult()).longValue());
+
+        q = em.createQuery("Select count(p) from PersonMongo p");
+        Assert.assertEquals(3L, ((Number) q.getSingleResult()).longValue());
+    }
+
+    @Test
+    public void testIdProjection()
+    {
+        Query q = em.createQuery("Select p.personId from PersonMongo p where p.age >= 15");
+        List<PersonMongo> results = q.getResultList();
+        assertIds(results, "2", "3");
+        for (PersonMongo person : results)
+        {
+            Assert.assertNull(person.getAge());
+            Assert.assertNull(person.getPersonName());
+        }
+    }
+
+    private void assertIds(List<PersonMongo> persons, String... ids)
+    {
+        Set<String> found = new HashSet<String>();
+        for (PersonMongo person : persons)
+        {
+            found.add(person.getPersonId());
+        }
+        Assert.assertEquals(ids.length, persons.size());
+        for (String id : ids)
+        {
+            Assert.assertTrue(found.contains(id));
+        }
+    }
+}
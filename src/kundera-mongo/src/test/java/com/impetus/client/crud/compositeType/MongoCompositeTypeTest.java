@@ -162,7 +162,7 @@ public class MongoCompositeTypeTest
         q.setParameter("userId", "mevivs");
         results = q.getResultList();
         Assert.assertNotNull(results);
-        Assert.assertTrue(results.isEmpty());
+        Assert.assertEquals(1, results.size());
 
         // Query with composite key clause.
         q = em.createQuery(withClauseOnNoncomposite);
@@ -175,7 +175,7 @@ public class MongoCompositeTypeTest
         q.setParameter("tweetId", 1);
         results = q.getResultList();
         Assert.assertNotNull(results);
-        Assert.assertTrue(results.isEmpty());
+        Assert.assertEquals(1, results.size());
 
         // Query with composite key clause.
         q = em.createQuery(withBothCompositeColClause);
@@ -183,7 +183,7 @@ public class MongoCompositeTypeTest
         q.setParameter("tweetId", 1);
         results = q.getResultList();
         Assert.assertNotNull(results);
-        Assert.assertTrue(results.isEmpty());
+        Assert.assertEquals(1, results.size());
 
         // Query with composite key clause.
         q = em.createQuery(withAllCompositeColClause);
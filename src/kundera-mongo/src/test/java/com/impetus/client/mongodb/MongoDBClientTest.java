@@ -0,0 +1,276 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.client.mongodb;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.impetus.client.crud.PersonBatchMongoEntity;
+import com.impetus.client.crud.PersonMongo;
+import com.impetus.client.crud.compositeType.MongoCompoundKey;
+import com.impetus.client.crud.compositeType.MongoPrimeUser;
+import com.impetus.client.utils.MongoUtils;
+import com.impetus.kundera.client.Client;
+import com.impetus.kundera.metadata.KunderaMetadataManager;
+import com.impetus.kundera.metadata.model.EntityMetadata;
+import com.impetus.kundera.persistence.api.Batcher;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+
+/**
+ * Test case for updates written by {@link MongoDBClient} as upserts of the
+ * modified fields.
+ * 
+ * @author vivek.mishra
+ * 
+ */
+public class MongoDBClientTest
+{
+    private static final String PERSISTENCE_UNIT = "mongoTest";
+
+    private static final String BATCH_PERSISTENCE_UNIT = "MongoBatchTest";
+
+    private EntityManagerFactory emf;
+
+    private EntityManager em;
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT);
+        em = emf.createEntityManager();
+    }
+
+    /**
+     * Mapped fields missing from the document must be unset.
+     */
+    @Test
+    public void testUnsetOfNulledFields()
+    {
+        EntityMetadata m = KunderaMetadataManager.getEntityMetadata(PersonMongo.class);
+        DBObject document = new BasicDBObject("_id", "1");
+        document.put("PERSON_NAME", "vivek");
+
+        DBObject update = new MongoDBDataHandler().getUpdateFromDocument(document, m, null);
+
+        DBObject set = (DBObject) update.get("$set");
+        DBObject unset = (DBObject) update.get("$unset");
+        Assert.assertEquals("vivek", set.get("PERSON_NAME"));
+        Assert.assertFalse(set.containsField("_id"));
+        Assert.assertTrue(unset.containsField("AGE"));
+    }
+
+    /**
+     * Only dirty columns are set, and only dirty columns are unset.
+     */
+    @Test
+    public void testDirtyColumnsOnlySet()
+    {
+        EntityMetadata m = KunderaMetadataManager.getEntityMetadata(PersonMongo.class);
+        DBObject document = new BasicDBObject("_id", "1");
+        document.put("PERSON_NAME", "vivek");
+        document.put("AGE", 10);
+
+        DBObject update = new MongoDBDataHandler().getUpdateFromDocument(document, m,
+                Collections.singleton("AGE"));
+
+        DBObject set = (DBObject) update.get("$set");
+        Assert.assertEquals(1, set.keySet().size());
+        Assert.assertEquals(10, set.get("AGE"));
+        Assert.assertNull(update.get("$unset"));
+    }
+
+    /**
+     * Nulling an attribute removes its field from the stored document.
+     */
+    @Test
+    public void testUpdateUnsetsNulledField()
+    {
+        em.persist(preparePerson("1", "vivek", 10));
+        em.clear();
+
+        PersonMongo p = em.find(PersonMongo.class, "1");
+        p.setPersonName(null);
+        p.setAge(30);
+        em.merge(p);
+        em.clear();
+
+        DBObject document = getDB(em, PERSISTENCE_UNIT).getCollection("PERSON").findOne(
+                new BasicDBObject("_id", "1"));
+        Assert.assertNotNull(document);
+        Assert.assertEquals(30, document.get("AGE"));
+        Assert.assertFalse(document.containsField("PERSON_NAME"));
+
+        p = em.find(PersonMongo.class, "1");
+        Assert.assertNull(p.getPersonName());
+        Assert.assertEquals(30, p.getAge().intValue());
+    }
+
+    /**
+     * An update of a document removed behind Kundera's back recreates it.
+     */
+    @Test
+    public void testUpsertOfMissingDocument()
+    {
+        PersonMongo p = preparePerson("2", "vivek", 20);
+        em.persist(p);
+        em.clear();
+
+        DBCollection collection = getDB(em, PERSISTENCE_UNIT).getCollection("PERSON");
+        collection.remove(new BasicDBObject("_id", "2"));
+        Assert.assertNull(collection.findOne(new BasicDBObject("_id", "2")));
+
+        p.setPersonName("amresh");
+        em.merge(p);
+        em.clear();
+
+        DBObject document = collection.findOne(new BasicDBObject("_id", "2"));
+        Assert.assertNotNull(document);
+        Assert.assertEquals("amresh", document.get("PERSON_NAME"));
+        Assert.assertEquals(20, document.get("AGE"));
+    }
+
+    /**
+     * Updates of entities with an embedded id match the document by its
+     * compound _id instead of inserting another one.
+     */
+    @Test
+    public void testUpdateByCompositeId()
+    {
+        MongoCompoundKey key = new MongoCompoundKey("mevivs", 1, UUID.randomUUID());
+        MongoPrimeUser user = new MongoPrimeUser(key);
+        user.setTweetBody("my first tweet");
+        em.persist(user);
+        em.clear();
+
+        user = em.find(MongoPrimeUser.class, key);
+        Assert.assertNotNull(user);
+        user.setTweetBody("my updated tweet");
+        em.merge(user);
+        em.clear();
+
+        Assert.assertEquals(1, getDB(em, PERSISTENCE_UNIT).getCollection("User").count());
+        user = em.find(MongoPrimeUser.class, key);
+        Assert.assertNotNull(user);
+        Assert.assertEquals("my updated tweet", user.getTweetBody());
+        Assert.assertNull(user.getTweetDate());
+    }
+
+    /**
+     * Batched updates on one collection are flushed together.
+     */
+    @Test
+    public void testBatchedUpdatesGroupedPerCollection()
+    {
+        EntityManagerFactory batchEmf = Persistence.createEntityManagerFactory(BATCH_PERSISTENCE_UNIT);
+        EntityManager batchEm = batchEmf.createEntityManager();
+        try
+        {
+            // batch size is 5, so this flushes implicitly.
+            for (int i = 1; i <= 5; i++)
+            {
+                PersonBatchMongoEntity o = new PersonBatchMongoEntity();
+                o.setPersonId(i + "");
+                o.setPersonName("vivek" + i);
+                o.setAge(10);
+                batchEm.persist(o);
+            }
+            batchEm.clear();
+
+            for (int i = 1; i <= 3; i++)
+            {
+                PersonBatchMongoEntity o = batchEm.find(PersonBatchMongoEntity.class, i + "");
+                o.setPersonName("kuldeep" + i);
+                batchEm.merge(o);
+            }
+
+            DBCollection collection = getDB(batchEm, BATCH_PERSISTENCE_UNIT).getCollection("PERSON_BATCH");
+            Assert.assertEquals("vivek1", collection.findOne(new BasicDBObject("_id", "1")).get("PERSON_NAME"));
+
+            Map<String, Client> clients = (Map<String, Client>) batchEm.getDelegate();
+            Batcher client = (Batcher) clients.get(BATCH_PERSISTENCE_UNIT);
+            Assert.assertEquals(1, client.executeBatch());
+
+            for (int i = 1; i <= 3; i++)
+            {
+                DBObject document = collection.findOne(new BasicDBObject("_id", i + ""));
+                Assert.assertEquals("kuldeep" + i, document.get("PERSON_NAME"));
+                Assert.assertEquals(10, document.get("AGE"));
+            }
+            Assert.assertEquals("vivek4", collection.findOne(new BasicDBObject("_id", "4")).get("PERSON_NAME"));
+            Assert.assertEquals(5, collection.count());
+        }
+        finally
+        {
+            MongoUtils.dropDatabase(batchEmf, BATCH_PERSISTENCE_UNIT);
+            batchEm.close();
+            batchEmf.close();
+        }
+    }
+
+    /**
+     * @throws java.lang.Exception
+     */
+    @After
+    public void tearDown() throws Exception
+    {
+        MongoUtils.dropDatabase(emf, PERSISTENCE_UNIT);
+        em.close();
+        emf.close();
+    }
+
+    private PersonMongo preparePerson(String id, String name, int age)
+    {
+        PersonMongo p = new PersonMongo();
+        p.setPersonId(id);
+        p.setPersonName(name);
+        p.setAge(age);
+        return p;
+    }
+
+    private DB getDB(EntityManager em, String pu)
+    {
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        MongoDBClient client = (MongoDBClient) clients.get(pu);
+        try
+        {
+            Field db = MongoDBClient.class.getDeclaredField("mongoDb");
+            db.setAccessible(true);
+            return (DB) db.get(client);
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -17,15 +17,19 @@ package com.impetus.client.redis;
 
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.UUID;
 
 import javax.persistence.PersistenceException;
 import javax.persistence.metamodel.Attribute;
@@ -39,6 +43,7 @@ import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.Response;
+import redis.clients.jedis.ShardedJedis;
 import redis.clients.jedis.Transaction;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 
@@ -68,9 +73,11 @@ import com.impetus.kundera.persistence.TransactionBinder;
 import com.impetus.kundera.persistence.TransactionResource;
 import com.impetus.kundera.persistence.api.Batcher;
 import com.impetus.kundera.persistence.context.jointable.JoinTableData;
+import com.impetus.kundera.property.FieldAccessor;
 import com.impetus.kundera.property.PropertyAccessorFactory;
 import com.impetus.kundera.property.PropertyAccessorHelper;
 import com.impetus.kundera.property.accessor.ObjectAccessor;
+import com.impetus.kundera.utils.EntitySnapshot;
 import com.impetus.kundera.utils.KunderaCoreUtils;
 
 /**
@@ -98,13 +105,22 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     /** batch size. */
     private int batchSize;
 
+    /** Number of keys read per pipeline round trip. */
+    private int pipelineSize = RedisConstants.DEFAULT_PIPELINE_SIZE;
+
     /** The logger. */
     private static Logger logger = LoggerFactory.getLogger(RedisClient.class);
 
     private static final String COMPOSITE_KEY_SEPERATOR = "\001";
 
+    /** Seconds an intermediate sorted set of a query lives for, at most. */
+    private static final int TEMP_STORE_TTL = 60;
+
     private Jedis connection;
 
+    /** Connections to all nodes, if factory is sharded over several nodes. */
+    private ShardedJedis shards;
+
     RedisClient(final RedisClientFactory factory, final String persistenceUnit)
     {
         this.factory = factory;
@@ -114,6 +130,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         this.persistenceUnit = persistenceUnit;
         this.clientMetadata = factory.getClientMetadata();
         setBatchSize(persistenceUnit, factory.getOverridenProperties());
+        setPipelineSize(persistenceUnit, factory.getOverridenProperties());
     }
 
 
@@ -128,7 +145,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     protected void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders)
     {
-        Object connection = getConnection();
+        Object connection = getConnection(entityMetadata, id);
         // Create a hashset and populate data into it
         //
 
@@ -138,11 +155,11 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             if (resource == null)
             {
                 pipeLine = ((Jedis) connection).pipelined();
-                onPersist(entityMetadata, entity, id, rlHolders, pipeLine);
+                onPersist(entityMetadata, entity, id, rlHolders, pipeLine, dirtyColumns, flushedState);
             }
             else
             {
-                onPersist(entityMetadata, entity, id, rlHolders, connection);
+                onPersist(entityMetadata, entity, id, rlHolders, connection, dirtyColumns, flushedState);
 
             }
 
@@ -171,7 +188,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     public Object find(Class entityClass, Object key)
     {
         Object result = null;
-        Object connection = getConnection();
+        Object connection = getConnection(KunderaMetadataManager.getEntityMetadata(entityClass), key);
         try
         {
             result = fetch(entityClass, key, connection, null);
@@ -221,22 +238,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
                 entityMetadata.getPersistenceUnit());
 
-        String rowKey = null;
-        if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
-        {
-            rowKey = KunderaCoreUtils.prepareCompositeKey(entityMetadata, metaModel, key);
-        }
-        else
-        {
-            ObjectAccessor accessor = new ObjectAccessor();
-
-            rowKey = accessor.toString(key);/*
-                                             * PropertyAccessorHelper.getString(key
-                                             * );
-                                             */
-        }
-
-        String hashKey = getHashKey(entityMetadata.getTableName(), rowKey);
+        String hashKey = getHashKey(entityMetadata.getTableName(), getRowKey(entityMetadata, metaModel, key));
 
         try
         {
@@ -287,6 +289,136 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         return result;
     }
 
+    /**
+     * Retrieves entity instances of given class for given row keys. Outside
+     * transaction, keys are read over a pipeline, {@link #pipelineSize} keys
+     * per round trip, and metadata is resolved once for all of them.
+     * 
+     * @param clazz
+     *            entity class
+     * @param keys
+     *            row keys
+     * @param connection
+     *            connection instance.
+     * @param fields
+     *            fields, null for all.
+     * @return found entity instances, in order of keys.
+     * @throws InstantiationException
+     *             throws in case of runtime exception
+     * @throws IllegalAccessException
+     *             throws in case of runtime exception
+     */
+    private List fetchAll(Class clazz, Collection keys, Object connection, byte[][] fields)
+            throws InstantiationException, IllegalAccessException
+    {
+        List results = new ArrayList();
+        if (resource != null && resource.isActive())
+        {
+            for (Object key : keys)
+            {
+                Object result = fetch(clazz, key, connection, fields);
+                if (result != null)
+                {
+                    results.add(result);
+                }
+            }
+            return results;
+        }
+
+        EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(clazz);
+
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+
+        Iterator keyIter = keys.iterator();
+        List<Object> windowKeys = new ArrayList<Object>();
+        List<Response> responses = new ArrayList<Response>();
+        while (keyIter.hasNext())
+        {
+            Pipeline pipeline = ((Jedis) connection).pipelined();
+            while (keyIter.hasNext() && windowKeys.size() < pipelineSize)
+            {
+                Object key = keyIter.next();
+                byte[] hashKey = getEncodedBytes(getHashKey(entityMetadata.getTableName(),
+                        getRowKey(entityMetadata, metaModel, key)));
+                responses.add(fields != null ? pipeline.hmget(hashKey, fields) : pipeline.hgetAll(hashKey));
+                windowKeys.add(key);
+            }
+            pipeline.sync();
+
+            for (int i = 0; i < windowKeys.size(); i++)
+            {
+                Object value = responses.get(i).get();
+                Map<byte[], byte[]> columns = fields != null ? toColumns(fields, (List) value)
+                        : toColumns((Map) value);
+                Object result = unwrap(entityMetadata, metaModel, columns, windowKeys.get(i));
+                if (result != null)
+                {
+                    results.add(result);
+                }
+            }
+            windowKeys.clear();
+            responses.clear();
+        }
+        return results;
+    }
+
+    /**
+     * Returns redis row key for given id.
+     */
+    private String getRowKey(EntityMetadata entityMetadata, MetamodelImpl metaModel, Object key)
+    {
+        if (metaModel.isEmbeddable(entityMetadata.getIdAttribute().getBindableJavaType()))
+        {
+            return KunderaCoreUtils.prepareCompositeKey(entityMetadata, metaModel, key);
+        }
+        return new ObjectAccessor().toString(key);
+    }
+
+    /**
+     * Pairs fields with values of a pipelined HMGET, skipping missing ones.
+     */
+    private Map<byte[], byte[]> toColumns(byte[][] fields, List fieldValues)
+    {
+        Map<byte[], byte[]> columns = new HashMap<byte[], byte[]>();
+        if (fieldValues != null)
+        {
+            for (int i = 0; i < fields.length && i < fieldValues.size(); i++)
+            {
+                if (fieldValues.get(i) != null)
+                {
+                    columns.put(fields[i], toBytes(fieldValues.get(i)));
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Converts reply of a pipelined HGETALL to columns.
+     */
+    private Map<byte[], byte[]> toColumns(Map values)
+    {
+        Map<byte[], byte[]> columns = new HashMap<byte[], byte[]>();
+        if (values != null)
+        {
+            for (Object entry : values.entrySet())
+            {
+                columns.put(toBytes(((Map.Entry) entry).getKey()), toBytes(((Map.Entry) entry).getValue()));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Pipelined replies are decoded as strings by jedis builders for some
+     * binary commands, encode those back.
+     */
+    private byte[] toBytes(Object value)
+    {
+        return value instanceof byte[] ? (byte[]) value : getEncodedBytes(value.toString());
+    }
+
     private Map<byte[], byte[]> getColumns(Object connection, String hashKey, Map<byte[], byte[]> columns)
     {
         if (resource != null && resource.isActive())
@@ -320,30 +452,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     public <E> List<E> findAll(Class<E> entityClass, String[] columnsToSelect, Object... keys)
     {
-        Object connection = getConnection();
-        List results = new ArrayList();
-        try
-        {
-            for (Object key : keys)
-            {
-                Object result = fetch(entityClass, key, connection, null);
-                if (result != null)
-                {
-                    results.add(result);
-                }
-            }
-        }
-        catch (InstantiationException e)
-        {
-            logger.error("Error during find by key:", e);
-            throw new PersistenceException(e);
-        }
-        catch (IllegalAccessException e)
-        {
-            logger.error("Error during find by key:", e);
-            throw new PersistenceException(e);
-        }
-        return results;
+        return findAllColumns(entityClass, null, keys);
     }
 
     @Override
@@ -367,6 +476,12 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             connection = null;
         }
 
+        if (shards != null)
+        {
+            factory.releaseShardedConnection(shards);
+            shards = null;
+        }
+
         reader = null;
     }
 
@@ -379,7 +494,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     public void delete(Object entity, Object pKey)
     {
-        Object connection = getConnection();
+        Object connection = getConnection(KunderaMetadataManager.getEntityMetadata(entity.getClass()), pKey);
         Pipeline pipeLine = null;
         try
         {
@@ -469,8 +584,9 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         // String rowKey =
         try
         {
-            connection = getConnection();
-            if (resource == null)
+            // when sharded, each join row goes to node of its own key.
+            connection = factory.isSharded() ? null : getConnection();
+            if (resource == null && connection != null)
             {
                 pipeline = ((Jedis) connection).pipelined();
             }
@@ -498,6 +614,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                                                                                                                // field
 
                     // add to hash table.
+                    Object rowConnection = connection != null ? connection : getConnection(redisKey);
 
                     if (resource != null && resource.isActive())
                     {
@@ -511,11 +628,11 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                     }
                     else
                     {
-                        ((Jedis) connection).hmset(getEncodedBytes(redisKey), redisFields);
+                        ((Jedis) rowConnection).hmset(getEncodedBytes(redisKey), redisFields);
                         // add index
-                        ((Jedis) connection).zadd(getHashKey(tableName, inverseJoinKeyAsStr),
+                        ((Jedis) rowConnection).zadd(getHashKey(tableName, inverseJoinKeyAsStr),
                                 getDouble(inverseJoinKeyAsStr), redisKey);
-                        ((Jedis) connection).zadd(getHashKey(tableName, joinKeyAsStr), getDouble(joinKeyAsStr),
+                        ((Jedis) rowConnection).zadd(getHashKey(tableName, joinKeyAsStr), getDouble(joinKeyAsStr),
                                 redisKey);
 
                     }
@@ -545,46 +662,44 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     public <E> List<E> getColumnsById(String schemaName, String tableName, String pKeyColumnName, String columnName,
             Object pKeyColumnValue, Class columnJavaType)
     {
-        Object connection = null;
-
         List results = new ArrayList();
 
-        try
+        // join table rows and their indexes are spread over nodes.
+        for (Object connection : getAllConnections())
         {
-            connection = getConnection();
+            try
+            {
+                String valueAsStr = PropertyAccessorHelper.getString(pKeyColumnValue);
+
+                Double score = getDouble(valueAsStr);
 
-            String valueAsStr = PropertyAccessorHelper.getString(pKeyColumnValue);
+                Set<String> resultKeys = null;
+                if (resource != null && resource.isActive())
+                {
+                    Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, valueAsStr),
+                            score, score);
+                    ((Transaction) connection).exec();
+                    // ((Transaction)
+                    // connection).zrangeByScore(getHashKey(tableName, valueAsStr),
+                    // score, score);
+                    resultKeys = (Set<String>) response.get();
 
-            Double score = getDouble(valueAsStr);
+                }
+                else
+                {
 
-            Set<String> resultKeys = null;
-            if (resource != null && resource.isActive())
-            {
-                Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score,
-                        score);
-                ((Transaction) connection).exec();
-                // ((Transaction)
-                // connection).zrangeByScore(getHashKey(tableName, valueAsStr),
-                // score, score);
-                resultKeys = (Set<String>) response.get();
+                    resultKeys = ((Jedis) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score, score);
+                }
 
+                results = fetchColumn(columnName, connection, results, resultKeys);
             }
-            else
+            finally
             {
-
-                resultKeys = ((Jedis) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score, score);
+                onCleanup(connection);
             }
-
-            results = fetchColumn(columnName, connection, results, resultKeys);
-
-            // return connection.hmget(getEncodedBytes(redisKey),
-            // getEncodedBytes(columnName));
-            return results;
-        }
-        finally
-        {
-            onCleanup(connection);
         }
+
+        return results;
     }
 
     /**
@@ -595,6 +710,11 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
      */
     private List fetchColumn(String columnName, Object connection, List results, Set<String> resultKeys)
     {
+        if (resource == null || !resource.isActive())
+        {
+            return fetchColumnPipelined(columnName, connection, results, resultKeys);
+        }
+
         for (String hashKey : resultKeys)
         {
             List columnValues = null;
@@ -623,132 +743,156 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         return results;
     }
 
-    @Override
-    public Object[] findIdsByColumn(String schemaName, String tableName, String pKeyName, String columnName,
-            Object columnValue, Class entityClazz)
+    /**
+     * Reads column of given hashes over a pipeline, {@link #pipelineSize}
+     * hashes per round trip.
+     */
+    private List fetchColumnPipelined(String columnName, Object connection, List results, Set<String> resultKeys)
     {
-        Object connection = null;
-
-        try
+        Iterator<String> keyIter = resultKeys.iterator();
+        List<Response<List<String>>> responses = new ArrayList<Response<List<String>>>();
+        while (keyIter.hasNext())
         {
-            connection = getConnection();
-            String valueAsStr = PropertyAccessorHelper.getString(columnValue);
-
-            Set<String> results = null;
-
-            if (resource != null && resource.isActive())
-            {
-                Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, valueAsStr),
-                        getDouble(valueAsStr), getDouble(valueAsStr));
-                ((Transaction) connection).exec();
-
-                results = (Set<String>) response.get();
-            }
-            else
+            Pipeline pipeline = ((Jedis) connection).pipelined();
+            while (keyIter.hasNext() && responses.size() < pipelineSize)
             {
-                results = ((Jedis) connection).zrangeByScore(getHashKey(tableName, valueAsStr), getDouble(valueAsStr),
-                        getDouble(valueAsStr));
-
+                responses.add(pipeline.hmget(keyIter.next(), columnName));
             }
+            pipeline.sync();
 
-            List returnResults = new ArrayList();
-            returnResults = fetchColumn(pKeyName, connection, returnResults, results);
-            if (returnResults != null)
+            for (Response<List<String>> response : responses)
             {
-
-                return returnResults.toArray(new Object[0]);
+                List columnValues = response.get();
+                if (columnValues != null && !columnValues.isEmpty())
+                {
+                    results.addAll(columnValues);
+                }
             }
-
-        }
-        finally
-        {
-            onCleanup(connection);
+            responses.clear();
         }
-
-        return null;
+        return results;
     }
 
     @Override
-    public void deleteByColumn(String schemaName, String tableName, String columnName, Object columnValue)
+    public Object[] findIdsByColumn(String schemaName, String tableName, String pKeyName, String columnName,
+            Object columnValue, Class entityClazz)
     {
-        Object connection = null;
-        Pipeline pipeLine = null;
-        try
+        List returnResults = new ArrayList();
+        for (Object connection : getAllConnections())
         {
+            try
+            {
+                String valueAsStr = PropertyAccessorHelper.getString(columnValue);
 
-            connection = getConnection();
+                Set<String> results = null;
 
-            if (resource == null)
-            {
-                pipeLine = ((Jedis) connection).pipelined();
-            }
+                if (resource != null && resource.isActive())
+                {
+                    Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, valueAsStr),
+                            getDouble(valueAsStr), getDouble(valueAsStr));
+                    ((Transaction) connection).exec();
 
-            String valueAsStr = PropertyAccessorHelper.getString(columnValue);
-            Double score = getDouble(valueAsStr);
-            Set<String> results = null;
-            if (resource != null && resource.isActive())
-            {
-                Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score,
-                        score);
-                ((Transaction) connection).exec();
+                    results = (Set<String>) response.get();
+                }
+                else
+                {
+                    results = ((Jedis) connection).zrangeByScore(getHashKey(tableName, valueAsStr),
+                            getDouble(valueAsStr), getDouble(valueAsStr));
 
-                results = (Set<String>) response.get();
+                }
+
+                returnResults = fetchColumn(pKeyName, connection, returnResults, results);
             }
-            else
+            finally
             {
-                results = ((Jedis) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score, score);
+                onCleanup(connection);
             }
-            // Set<String> results =
-            // connection.zrangeByScore(getHashKey(tableName, valueAsStr),
-            // score, score);
+        }
 
-            if (results != null)
+        return returnResults.toArray(new Object[0]);
+    }
+
+    @Override
+    public void deleteByColumn(String schemaName, String tableName, String columnName, Object columnValue)
+    {
+        for (Object connection : getAllConnections())
+        {
+            Pipeline pipeLine = null;
+            try
             {
-                for (String rowKey : results)
+                if (resource == null)
+                {
+                    pipeLine = ((Jedis) connection).pipelined();
+                }
+
+                String valueAsStr = PropertyAccessorHelper.getString(columnValue);
+                Double score = getDouble(valueAsStr);
+                Set<String> results = null;
+                if (resource != null && resource.isActive())
                 {
-                    // byte[] hashKey = getEncodedBytes(getHashKey(tableName,
-                    // rowKey));
+                    Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, valueAsStr),
+                            score, score);
+                    ((Transaction) connection).exec();
 
-                    Map<byte[], byte[]> columns = null;
-                    columns = getColumns(connection, rowKey, columns);
+                    results = (Set<String>) response.get();
+                }
+                else
+                {
+                    results = ((Jedis) connection).zrangeByScore(getHashKey(tableName, valueAsStr), score, score);
+                }
+                // Set<String> results =
+                // connection.zrangeByScore(getHashKey(tableName, valueAsStr),
+                // score, score);
 
-                    for (byte[] column : columns.keySet()) // delete each
-                                                           // column(e.g.
-                    // field)
+                if (results != null)
+                {
+                    for (String rowKey : results)
                     {
-                        // connection.get(key)
-                        String colName = PropertyAccessorFactory.STRING.fromBytes(String.class, columns.get(column));
+                        // byte[] hashKey = getEncodedBytes(getHashKey(tableName,
+                        // rowKey));
 
-                        if (resource != null && resource.isActive())
-                        {
-                            ((Transaction) connection).hdel(getEncodedBytes(rowKey), column); // delete
-                            // record
-                            ((Transaction) connection).zrem(getHashKey(tableName, colName), rowKey); // delete
-                            // inverted
-                            // index.
+                        Map<byte[], byte[]> columns = null;
+                        columns = getColumns(connection, rowKey, columns);
 
-                        }
-                        else
+                        for (byte[] column : columns.keySet()) // delete each
+                                                               // column(e.g.
+                        // field)
                         {
-                            ((Jedis) connection).hdel(getEncodedBytes(rowKey), column); // delete
-                            // record
-                            ((Jedis) connection).zrem(getHashKey(tableName, colName), rowKey); // delete
-                            // inverted
-                            // index.
+                            // connection.get(key)
+                            String colName = PropertyAccessorFactory.STRING.fromBytes(String.class,
+                                    columns.get(column));
+
+                            if (resource != null && resource.isActive())
+                            {
+                                ((Transaction) connection).hdel(getEncodedBytes(rowKey), column); // delete
+                                // record
+                                ((Transaction) connection).zrem(getHashKey(tableName, colName), rowKey); // delete
+                                // inverted
+                                // index.
+
+                            }
+                            else
+                            {
+                                ((Jedis) connection).hdel(getEncodedBytes(rowKey), column); // delete
+                                // record
+                                ((Jedis) connection).zrem(getHashKey(tableName, colName), rowKey); // delete
+                                // inverted
+                                // index.
 
+                            }
                         }
                     }
-                }
 
+                }
             }
-        }
-        finally
-        {
-            if (pipeLine != null)
+            finally
             {
-                pipeLine.sync();
+                if (pipeLine != null)
+                {
+                    pipeLine.sync();
+                }
+                onCleanup(connection);
             }
-            onCleanup(connection);
         }
     }
 
@@ -762,11 +906,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         if (ids != null)
         {
             // just to insure uniqueness.
-
-            for (Object id : new HashSet(Arrays.asList(ids)))
-            {
-                resultSet.add(find(entityClazz, id));
-            }
+            resultSet.addAll(findAll(entityClazz, null, new HashSet(Arrays.asList(ids)).toArray()));
         }
 
         return resultSet;
@@ -819,13 +959,10 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     public int executeBatch()
     {
-        Object connection = getConnection();
+        // when sharded, each node is written over pipeline of its own node.
+        Object connection = factory.isSharded() ? null : getConnection();
         // Create a hashset and populate data into it
-        Pipeline pipeLine = null;
-        if (resource == null)
-        {
-            pipeLine = ((Jedis) connection).pipelined();
-        }
+        Map<Object, Pipeline> pipeLines = new HashMap<Object, Pipeline>();
         try
         {
             for (Node node : nodes)
@@ -833,19 +970,24 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                 if (node.isDirty())
                 {
                     node.handlePreEvent();
+                    EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
+                    Object nodeConnection = connection != null ? connection : getConnection(metadata,
+                            node.getEntityId());
+                    Object target = resource == null ? getPipeline(pipeLines, nodeConnection) : nodeConnection;
+
                     // delete can not be executed in batch
                     if (node.isInState(RemovedState.class))
                     {
-                        onDelete(node.getData(), node.getEntityId(), pipeLine != null ? pipeLine : connection);
+                        onDelete(node.getData(), node.getEntityId(), target);
                     }
                     else
                     {
 
                         List<RelationHolder> relationHolders = getRelationHolders(node);
-                        EntityMetadata metadata = KunderaMetadataManager.getEntityMetadata(node.getDataClass());
 
-                        onPersist(metadata, node.getData(), node.getEntityId(), relationHolders,
-                                pipeLine != null ? pipeLine : connection);
+                        onPersist(metadata, node.getData(), node.getEntityId(), relationHolders, target,
+                                node.isUpdate() ? node.getDirtyColumns() : null,
+                                node.isUpdate() ? node.getFlushedState() : null);
                     }
                     node.handlePostEvent();
                 }
@@ -853,8 +995,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         }
         finally
         {
-            //
-            if (pipeLine != null)
+            for (Pipeline pipeLine : pipeLines.values())
             {
                 pipeLine.sync(); // send I/O.. as persist call. so no need to
                                  // read
@@ -866,13 +1007,27 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         return nodes.size();
     }
 
-    /*
-     * (non-Javadoc)
-     * 
-     * @see com.impetus.kundera.persistence.api.Batcher#getBatchSize()
+    /**
+     * Returns pipeline opened over given connection, opening one if needed.
      */
-    @Override
-    public int getBatchSize()
+    private Pipeline getPipeline(Map<Object, Pipeline> pipeLines, Object connection)
+    {
+        Pipeline pipeLine = pipeLines.get(connection);
+        if (pipeLine == null)
+        {
+            pipeLine = ((Jedis) connection).pipelined();
+            pipeLines.put(connection, pipeLine);
+        }
+        return pipeLine;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.persistence.api.Batcher#getBatchSize()
+     */
+    @Override
+    public int getBatchSize()
     {
         return batchSize;
     }
@@ -894,41 +1049,41 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
     private Object[] findIdsByColumn(String tableName, String columnName, Object columnValue)
     {
-        Object connection = null;
-
-        try
+        Set<String> ids = new HashSet<String>();
+        for (Object connection : getAllConnections())
         {
-            connection = getConnection();
-            String valueAsStr = PropertyAccessorHelper.getString(columnValue);
+            try
+            {
+                String valueAsStr = PropertyAccessorHelper.getString(columnValue);
 
-            Set<String> results = null;
+                Set<String> results = null;
 
-            if (resource != null && resource.isActive())
-            {
-                Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, columnName),
-                        getDouble(valueAsStr), getDouble(valueAsStr));
-                ((Transaction) connection).exec();
+                if (resource != null && resource.isActive())
+                {
+                    Response response = ((Transaction) connection).zrangeByScore(getHashKey(tableName, columnName),
+                            getDouble(valueAsStr), getDouble(valueAsStr));
+                    ((Transaction) connection).exec();
 
-                results = (Set<String>) response.get();
-            }
-            else
-            {
-                results = ((Jedis) connection).zrangeByScore(getHashKey(tableName, columnName), getDouble(valueAsStr),
-                        getDouble(valueAsStr));
+                    results = (Set<String>) response.get();
+                }
+                else
+                {
+                    results = ((Jedis) connection).zrangeByScore(getHashKey(tableName, columnName),
+                            getDouble(valueAsStr), getDouble(valueAsStr));
 
+                }
+                if (results != null)
+                {
+                    ids.addAll(results);
+                }
             }
-            if (results != null)
+            finally
             {
-                return results.toArray(new Object[0]);
+                onCleanup(connection);
             }
-
-        }
-        finally
-        {
-            onCleanup(connection);
         }
 
-        return null;
+        return ids.isEmpty() ? null : ids.toArray(new Object[0]);
     }
 
     /**
@@ -1065,7 +1220,18 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                     metadata.getTableName(),
                     getHashKey(((AbstractAttribute) metadata.getIdAttribute()).getJPAColumnName(), rowKey)), getDouble(rowKey));
 
-            indexer.index(metadata.getEntityClazz(), wrapper.getIndexes(), rowKey, null);
+            if (factory.isSharded())
+            {
+                // keep indexes on node of the row they point to.
+                for (Map.Entry<String, Double> index : wrapper.getIndexes().entrySet())
+                {
+                    ((Pipeline) connection).zadd(index.getKey(), index.getValue(), rowKey);
+                }
+            }
+            else
+            {
+                indexer.index(metadata.getEntityClazz(), wrapper.getIndexes(), rowKey, null);
+            }
         }
     }
 
@@ -1098,7 +1264,111 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             }
         }
     }
-    
+
+    /**
+     * Deletes inverted indexes of old values of modified indexed columns, as
+     * an update adds indexes for new values only. Old values are taken from
+     * state of entity as of its last flush.
+     * 
+     * @param entityMetadata
+     *            entity metadata
+     * @param entity
+     *            updated entity
+     * @param flushedState
+     *            state of entity as of last flush
+     * @param rowKey
+     *            row key, sorted set member name
+     * @param connection
+     *            pipeline or transaction, update is sent over
+     * @param columns
+     *            names of modified columns
+     */
+    private void unIndexChangedColumns(EntityMetadata entityMetadata, Object entity, EntitySnapshot flushedState,
+            String rowKey, Object connection, Set<String> columns)
+    {
+        if (entityMetadata.getIndexProperties().isEmpty())
+        {
+            return;
+        }
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+        EntityType entityType = metaModel.entity(entityMetadata.getEntityClazz());
+
+        for (Attribute attr : (Set<Attribute>) entityType.getAttributes())
+        {
+            if (attr.isAssociation() || !columns.contains(((AbstractAttribute) attr).getJPAColumnName()))
+            {
+                continue;
+            }
+            Object oldValue = flushedState.getValue((Field) attr.getJavaMember());
+            if (metaModel.isEmbeddable(((AbstractAttribute) attr).getBindableJavaType()))
+            {
+                Object embeddedObject = PropertyAccessorHelper.getObject(entity, (Field) attr.getJavaMember());
+                EmbeddableType embeddableAttribute = metaModel.embeddable(((AbstractAttribute) attr)
+                        .getBindableJavaType());
+                for (Attribute attrib : (Set<Attribute>) embeddableAttribute.getAttributes())
+                {
+                    FieldAccessor accessor = ((AbstractAttribute) attrib).getAccessor();
+                    unIndexChangedColumn(entityMetadata, (AbstractAttribute) attrib,
+                            oldValue != null ? accessor.getString(oldValue) : null,
+                            embeddedObject != null ? accessor.getString(embeddedObject) : null, rowKey, connection);
+                }
+            }
+            else
+            {
+                FieldAccessor accessor = ((AbstractAttribute) attr).getAccessor();
+                unIndexChangedColumn(entityMetadata, (AbstractAttribute) attr,
+                        oldValue != null ? accessor.getPropertyAccessor().toString(oldValue) : null,
+                        accessor.getString(entity), rowKey, connection);
+            }
+        }
+    }
+
+    /**
+     * Deletes inverted indexes of old value of an indexed column, if it has
+     * been modified.
+     * 
+     * @param entityMetadata
+     *            entity metadata
+     * @param attrib
+     *            column attribute
+     * @param oldValueAsStr
+     *            value as of last flush
+     * @param newValueAsStr
+     *            value being written
+     * @param rowKey
+     *            row key, sorted set member name
+     * @param connection
+     *            pipeline or transaction, update is sent over
+     */
+    private void unIndexChangedColumn(EntityMetadata entityMetadata, AbstractAttribute attrib, String oldValueAsStr,
+            String newValueAsStr, String rowKey, Object connection)
+    {
+        if (oldValueAsStr == null || oldValueAsStr.equals(newValueAsStr)
+                || !entityMetadata.getIndexProperties().containsKey(attrib.getJPAColumnName()))
+        {
+            return;
+        }
+
+        List<String> keys = new ArrayList<String>(2);
+        keys.add(getHashKey(entityMetadata.getTableName(), getHashKey(attrib.getJPAColumnName(), oldValueAsStr)));
+        if (newValueAsStr == null)
+        {
+            // no index gets added for null, so drop value based one too.
+            keys.add(getHashKey(entityMetadata.getTableName(), attrib.getJPAColumnName()));
+        }
+        for (String key : keys)
+        {
+            if (resource != null && resource.isActive())
+            {
+                ((Transaction) connection).zrem(key, rowKey);
+            }
+            else
+            {
+                ((Pipeline) connection).zrem(key, rowKey);
+            }
+        }
+    }
 
     /**
      * On release connection.
@@ -1108,7 +1378,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
      */
     private void onCleanup(Object connection)
     {
-        if (resource == null && connection != null)
+        // node connections are released along with sharded connection.
+        if (resource == null && connection != null && !factory.isSharded())
         {
             if (settings != null)
             {
@@ -1162,6 +1433,20 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
      * @return
      */
     private AttributeWrapper wrap(EntityMetadata entityMetadata, Object entity)
+    {
+        return wrap(entityMetadata, entity, null);
+    }
+
+    /**
+     * Wraps given columns of entity, along with its id column, into byte[].
+     * 
+     * @param entityMetadata
+     * @param entity
+     * @param columns
+     *            names of columns to wrap, null to wrap all.
+     * @return
+     */
+    private AttributeWrapper wrap(EntityMetadata entityMetadata, Object entity, Set<String> columns)
     {
 
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
@@ -1178,6 +1463,12 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         // PropertyAccessorHelper.get(entity,
         for (Attribute attr : attributes)
         {
+            if (columns != null && !columns.contains(((AbstractAttribute) attr).getJPAColumnName())
+                    && !attr.getName().equals(entityMetadata.getIdAttribute().getName()))
+            {
+                // unchanged column of an update.
+                continue;
+            }
             if (/*!entityMetadata.getIdAttribute().equals(attr) && */!attr.isAssociation())
             {
                 if (metaModel.isEmbeddable(((AbstractAttribute) attr).getBindableJavaType()))
@@ -1204,7 +1495,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                                              // but possible negative
                                              // scenario
             {
-                byte[] value = PropertyAccessorHelper.get(entity, (Field) attr.getJavaMember());
+                byte[] value = ((AbstractAttribute) attr).getAccessor().getBytes(entity);
                 byte[] name;
                 name = getEncodedBytes(((AbstractAttribute) attr).getJPAColumnName());
 
@@ -1243,7 +1534,12 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     private void addToWrapper(EntityMetadata entityMetadata, AttributeWrapper wrapper, Object embeddedObject,
             Attribute attrib, Attribute embeddedAttrib)
     {
-        byte[] value = PropertyAccessorHelper.get(embeddedObject, (Field) attrib.getJavaMember());
+        FieldAccessor accessor = ((AbstractAttribute) attrib).getAccessor();
+        byte[] value = getPrimitiveBytes(embeddedObject, accessor);
+        if (value == null)
+        {
+            value = accessor.getBytes(embeddedObject);
+        }
         byte[] name;
         if (value != null)
         {
@@ -1263,7 +1559,7 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             // selective indexing.
             if (entityMetadata.getIndexProperties().containsKey(((AbstractAttribute) attrib).getJPAColumnName()))
             {
-                String valueAsStr = PropertyAccessorHelper.getString(embeddedObject, (Field) attrib.getJavaMember());
+                String valueAsStr = accessor.getString(embeddedObject);
                 wrapper.addIndex(
                         getHashKey(entityMetadata.getTableName(), ((AbstractAttribute) attrib).getJPAColumnName()),
                         getDouble(valueAsStr));
@@ -1276,6 +1572,66 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         }
     }
 
+    /**
+     * Gets value of an int, long, double or boolean field as bytes, without
+     * boxing it.
+     * 
+     * @return the bytes, null if field is not of one of these types.
+     */
+    private byte[] getPrimitiveBytes(Object entity, FieldAccessor accessor)
+    {
+        Class<?> type = accessor.getField().getType();
+        if (type == int.class)
+        {
+            return ByteBuffer.allocate(4).putInt(accessor.getInt(entity)).array();
+        }
+        else if (type == long.class)
+        {
+            return ByteBuffer.allocate(8).putLong(accessor.getLong(entity)).array();
+        }
+        else if (type == double.class)
+        {
+            return ByteBuffer.allocate(8).putDouble(accessor.getDouble(entity)).array();
+        }
+        else if (type == boolean.class)
+        {
+            return new byte[] { (byte) (accessor.getBoolean(entity) ? 0x01 : 0x00) };
+        }
+        return null;
+    }
+
+    /**
+     * Sets value of an int, long, double or boolean field from bytes, without
+     * boxing it.
+     * 
+     * @return false, if field is not of one of these types.
+     */
+    private boolean setPrimitiveBytes(Object entity, byte[] value, FieldAccessor accessor)
+    {
+        Class<?> type = accessor.getField().getType();
+        if (type == int.class && value.length == 4)
+        {
+            accessor.setInt(entity, ByteBuffer.wrap(value).getInt());
+        }
+        else if (type == long.class && value.length == 8)
+        {
+            accessor.setLong(entity, ByteBuffer.wrap(value).getLong());
+        }
+        else if (type == double.class && value.length == 8)
+        {
+            accessor.setDouble(entity, ByteBuffer.wrap(value).getDouble());
+        }
+        else if (type == boolean.class)
+        {
+            accessor.setBoolean(entity, value.length != 0 && value[0] != 0x00);
+        }
+        else
+        {
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Unwraps redis results into entity.
      * 
@@ -1292,7 +1648,12 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
         MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
                 entityMetadata.getPersistenceUnit());
+        return unwrap(entityMetadata, metaModel, results, key);
+    }
 
+    private Object unwrap(EntityMetadata entityMetadata, MetamodelImpl metaModel, Map<byte[], byte[]> results,
+            Object key) throws InstantiationException, IllegalAccessException
+    {
         List<String> relationNames = entityMetadata.getRelationNames();
         EntityType entityType = metaModel.entity(entityMetadata.getEntityClazz());
 
@@ -1332,7 +1693,11 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                     }
                     else
                     {
-                        PropertyAccessorHelper.set(entity, (Field) attribute.getJavaMember(), value);
+                        FieldAccessor accessor = ((AbstractAttribute) attribute).getAccessor();
+                        if (!setPrimitiveBytes(entity, value, accessor))
+                        {
+                            accessor.setBytes(entity, value);
+                        }
                     }
                 }
                 else
@@ -1399,205 +1764,237 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
     List onExecuteQuery(RedisQueryInterpreter queryParameter, Class entityClazz)
     {
+        byte[][] columns = queryParameter.getColumns() != null ? queryParameter.getColumns().toArray(new byte[][] {})
+                : null;
+
+        // a by id query (neither clause nor range) needs no index lookup.
+        if (queryParameter.getClause() == null && !queryParameter.isByRange() && queryParameter.isById())
+        {
+            return findAllColumns(entityClazz, columns, queryParameter.getFields().values().toArray());
+        }
 
         /**
-         * Find a list of id's and then call findById for each!
+         * Find a list of id's on each node and then fetch them from same node!
          */
-        Object connection = null;
+        EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entityClazz);
+
+        // a page can be cut by redis only if all rows are on one node, else
+        // each node returns rows up to end of page and page is cut on merge.
+        int firstResult = queryParameter.getFirstResult();
+        int maxResults = queryParameter.getMaxResults();
+        boolean isSharded = factory.isSharded();
+        int offset = isSharded ? 0 : firstResult;
+        int count = maxResults < 0 ? -1 : isSharded ? firstResult + maxResults : maxResults;
+
         List<Object> results = new ArrayList<Object>();
-        try
+        for (Object connection : getAllConnections())
         {
-            connection = getConnection();
-            Set<String> rowKeys = new HashSet<String>();
-            EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entityClazz);
-            if (queryParameter.getClause() != null && !queryParameter.isByRange())
+            try
             {
-                String destStore = entityClazz.getSimpleName() + System.currentTimeMillis();
-
-                Map<String, Object> fieldSets = queryParameter.getFields();
+                Set<String> rowKeys = findRowKeys(queryParameter, entityMetadata, entityClazz, connection, offset,
+                        count);
 
-                Set<String> keySets = new HashSet<String>(fieldSets.size());
-                // byte[][] keys = new byte[][fieldSets.size()];
-                for (String column : fieldSets.keySet())
+                if (rowKeys != null)
                 {
-                    String valueAsStr = PropertyAccessorHelper.getString(fieldSets.get(column));
-                    String key = getHashKey(entityMetadata.getTableName(), getHashKey(column, valueAsStr));
-                    keySets.add(key);
+                    results.addAll(fetchAll(entityClazz, rowKeys, connection, columns));
                 }
+            }
+            catch (InstantiationException e)
+            {
+                logger.error("Error during persist, Caused by:", e);
+                throw new PersistenceException(e);
+            }
+            catch (IllegalAccessException e)
+            {
+                logger.error("Error during persist, Caused by:", e);
+                throw new PersistenceException(e);
+            }
+            finally
+            {
+                onCleanup(connection);
+            }
+        }
 
-                if (queryParameter.getClause().equals(Clause.INTERSECT))
-                {
-                    if (resource != null && resource.isActive())
-                    {
-                        ((Transaction) connection).zinterstore(destStore, keySets.toArray(new String[] {}));
-
-                    }
-                    else
-                    {
-                        ((Jedis) connection).zinterstore(destStore, keySets.toArray(new String[] {}));
-                    }
-                }
-                else
-                {
-                    if (resource != null && resource.isActive())
-                    {
-                        ((Transaction) connection).zunionstore(destStore, keySets.toArray(new String[] {}));
-                    }
-                    else
-                    {
-                        ((Jedis) connection).zunionstore(destStore, keySets.toArray(new String[] {}));
-                    }
+        if (isSharded && (firstResult > 0 || maxResults >= 0))
+        {
+            int fromIndex = Math.min(firstResult, results.size());
+            int toIndex = maxResults < 0 ? results.size() : Math.min(fromIndex + maxResults, results.size());
+            results = new ArrayList<Object>(results.subList(fromIndex, toIndex));
+        }
+        return results;
+    }
 
-                }
+    /**
+     * Returns keys of rows matching given query, out of indexes held by given
+     * connection. Paging is applied by redis, over index order.
+     * 
+     * @param offset
+     *            index of first row key to return
+     * @param count
+     *            maximum row keys to return, -1 for all.
+     */
+    private Set<String> findRowKeys(RedisQueryInterpreter queryParameter, EntityMetadata entityMetadata,
+            Class entityClazz, Object connection, int offset, int count)
+    {
+        Set<String> rowKeys = new HashSet<String>();
+        int end = count < 0 ? -1 : offset + count - 1;
+        if (queryParameter.getClause() != null && !queryParameter.isByRange())
+        {
+            // intermediate store expires even if never deleted.
+            String destStore = entityClazz.getSimpleName() + ":" + UUID.randomUUID();
 
-                if (resource != null && resource.isActive())
-                {
-                    Response response = ((Transaction) connection).zrange(destStore, 0, -1);
-                    ((Transaction) connection).exec();
+            Map<String, Object> fieldSets = queryParameter.getFields();
 
-                    rowKeys = (Set<String>) response.get();
-                    //
-                    // ((Transaction) connection).del(destStore);
+            Set<String> keySets = new HashSet<String>(fieldSets.size());
+            // byte[][] keys = new byte[][fieldSets.size()];
+            for (String column : fieldSets.keySet())
+            {
+                String valueAsStr = PropertyAccessorHelper.getString(fieldSets.get(column));
+                String key = getHashKey(entityMetadata.getTableName(), getHashKey(column, valueAsStr));
+                keySets.add(key);
+            }
 
+            if (resource != null && resource.isActive())
+            {
+                if (queryParameter.getClause().equals(Clause.INTERSECT))
+                {
+                    ((Transaction) connection).zinterstore(destStore, keySets.toArray(new String[] {}));
                 }
                 else
                 {
-
-                    rowKeys = ((Jedis) connection).zrange(destStore, 0, -1);
-                    ((Jedis) connection).del(destStore);
+                    ((Transaction) connection).zunionstore(destStore, keySets.toArray(new String[] {}));
                 }
+                ((Transaction) connection).expire(destStore, TEMP_STORE_TTL);
+                Response response = ((Transaction) connection).zrange(destStore, offset, end);
+                ((Transaction) connection).exec();
 
-                // delete intermediate store after find.
-                //
-                // means it is a query over sorted set.
+                rowKeys = (Set<String>) response.get();
             }
-            else if (queryParameter.isByRange())
+            else
             {
-                // means query over a single sorted set with range
-                Map<String, Double> minimum = queryParameter.getMin();
-                Map<String, Double> maximum = queryParameter.getMax();
-
-                String column = minimum.keySet().iterator().next();
-
-                if (resource != null && resource.isActive())
+                // store, read page of and drop intermediate set in one round
+                // trip.
+                Pipeline pipeLine = ((Jedis) connection).pipelined();
+                if (queryParameter.getClause().equals(Clause.INTERSECT))
                 {
-                    Response response = ((Transaction) connection)
-                            .zrangeByScore(getHashKey(entityMetadata.getTableName(), column), minimum.get(column),
-                                    maximum.get(column));
-                    ((Transaction) connection).exec();
-
-                    rowKeys = (Set<String>) response.get();
-
+                    pipeLine.zinterstore(destStore, keySets.toArray(new String[] {}));
                 }
                 else
                 {
-                    rowKeys = ((Jedis) connection).zrangeByScore(getHashKey(entityMetadata.getTableName(), column),
-                            minimum.get(column), maximum.get(column));
-
+                    pipeLine.zunionstore(destStore, keySets.toArray(new String[] {}));
                 }
+                pipeLine.expire(destStore, TEMP_STORE_TTL);
+                Response response = pipeLine.zrange(destStore, offset, end);
+                pipeLine.del(destStore);
+                pipeLine.sync();
 
+                rowKeys = (Set<String>) response.get();
             }
-            else if (queryParameter.isById())
-            {
-                Map<String, Object> fieldSets = queryParameter.getFields();
 
-                results = findAllColumns(entityClazz, (byte[][]) (queryParameter.getColumns() != null ? queryParameter
-                        .getColumns().toArray() : null), fieldSets.values().toArray());
-                return results;
-            }
-            else if (queryParameter.getFields() != null)
-            {
-                Set<String> columns = queryParameter.getFields().keySet();
+            // delete intermediate store after find.
+            //
+            // means it is a query over sorted set.
+        }
+        else if (queryParameter.isByRange())
+        {
+            // means query over a single sorted set with range
+            Map<String, Double> minimum = queryParameter.getMin();
+            Map<String, Double> maximum = queryParameter.getMax();
 
-                for (String column : columns)
-                {
-                    // ideally it will always be 1 value in map, else it will go
-                    // it queryParameter.getClause() will not be null!
-                    Double value = getDouble(PropertyAccessorHelper.getString(queryParameter.getFields().get(column)));
-                    if (resource != null && resource.isActive())
-                    {
-                        Response response = ((Transaction) connection).zrangeByScore(
-                                getHashKey(entityMetadata.getTableName(), column), value, value);
-                        ((Transaction) connection).exec();
+            String column = minimum.keySet().iterator().next();
 
-                        rowKeys = (Set<String>) response.get();
+            rowKeys = zrangeByScore(connection, getHashKey(entityMetadata.getTableName(), column),
+                    minimum.get(column), maximum.get(column), offset, count);
 
-                    }
-                    else
-                    {
-                        rowKeys = ((Jedis) connection).zrangeByScore(getHashKey(entityMetadata.getTableName(), column),
-                                value, value);
-
-                    }
-                }
+        }
+        else if (queryParameter.getFields() != null)
+        {
+            Set<String> columns = queryParameter.getFields().keySet();
 
-            }
-            else
+            for (String column : columns)
             {
-                if (resource != null && resource.isActive())
-                {
-                    Response response = ((Transaction) connection).zrange(
-                            getHashKey(entityMetadata.getTableName(),
-                                    ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()), 0, -1);
-                    ((Transaction) connection).exec();
-
-                    rowKeys = new HashSet<String>((Collection<? extends String>) response.get());
-                }
-                else
-                {
-                    rowKeys = new HashSet<String>(((Jedis) connection).zrange(
-                            getHashKey(entityMetadata.getTableName(),
-                                    ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()), 0, -1));
-                }
+                // ideally it will always be 1 value in map, else it will go
+                // it queryParameter.getClause() will not be null!
+                Double value = getDouble(PropertyAccessorHelper.getString(queryParameter.getFields().get(column)));
+                rowKeys = zrangeByScore(connection, getHashKey(entityMetadata.getTableName(), column), value, value,
+                        offset, count);
             }
 
-            // fetch fr
-            for (String k : rowKeys)
+        }
+        else
+        {
+            if (resource != null && resource.isActive())
             {
+                Response response = ((Transaction) connection).zrange(
+                        getHashKey(entityMetadata.getTableName(),
+                                ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()), offset,
+                        end);
+                ((Transaction) connection).exec();
 
-                Object record = fetch(entityClazz, k, connection, (queryParameter.getColumns() != null ? queryParameter
-                        .getColumns().toArray(new byte[][] {}) : null));
-                if (record != null)
-                {
-                    results.add(record);
-                }
+                rowKeys = new HashSet<String>((Collection<? extends String>) response.get());
+            }
+            else
+            {
+                rowKeys = new HashSet<String>(((Jedis) connection).zrange(
+                        getHashKey(entityMetadata.getTableName(),
+                                ((AbstractAttribute) entityMetadata.getIdAttribute()).getJPAColumnName()), offset,
+                        end));
             }
-
-        }
-        catch (InstantiationException e)
-        {
-            logger.error("Error during persist, Caused by:", e);
-            throw new PersistenceException(e);
-        }
-        catch (IllegalAccessException e)
-        {
-            logger.error("Error during persist, Caused by:", e);
-            throw new PersistenceException(e);
         }
-        finally
+
+        return rowKeys;
+    }
+
+    /**
+     * Returns members of sorted set within given score range, limited by redis
+     * if count is given.
+     */
+    private Set<String> zrangeByScore(Object connection, String key, double min, double max, int offset, int count)
+    {
+        if (resource != null && resource.isActive())
         {
-            onCleanup(connection);
+            Response response = count < 0 ? ((Transaction) connection).zrangeByScore(key, min, max)
+                    : ((Transaction) connection).zrangeByScore(key, min, max, offset, count);
+            ((Transaction) connection).exec();
 
+            return (Set<String>) response.get();
         }
-
-        return results;
+        return count < 0 ? ((Jedis) connection).zrangeByScore(key, min, max) : ((Jedis) connection).zrangeByScore(
+                key, min, max, offset, count);
     }
 
     private <E> List<E> findAllColumns(Class<E> entityClass, byte[][] columns, Object... keys)
     {
-        Object connection = getConnection();
-        // connection.co
-        List results = new ArrayList();
+        Object connection = factory.isSharded() ? null : getConnection();
         try
         {
+            if (connection != null)
+            {
+                return fetchAll(entityClass, Arrays.asList(keys), connection, columns);
+            }
+
+            // group keys by node holding them and read each group over its
+            // node's pipeline.
+            EntityMetadata entityMetadata = KunderaMetadataManager.getEntityMetadata(entityClass);
+            Map<Object, List<Object>> keysByNode = new HashMap<Object, List<Object>>();
             for (Object key : keys)
             {
-                Object result = fetch(entityClass, key, connection, columns);
-                if (result != null)
+                Object node = getConnection(entityMetadata, key);
+                List<Object> nodeKeys = keysByNode.get(node);
+                if (nodeKeys == null)
                 {
-                    results.add(result);
+                    nodeKeys = new ArrayList<Object>();
+                    keysByNode.put(node, nodeKeys);
                 }
+                nodeKeys.add(key);
+            }
+
+            List results = new ArrayList();
+            for (Map.Entry<Object, List<Object>> nodeKeys : keysByNode.entrySet())
+            {
+                results.addAll(fetchAll(entityClass, nodeKeys.getValue(), nodeKeys.getKey(), columns));
             }
+            return results;
         }
         catch (InstantiationException e)
         {
@@ -1609,7 +2006,10 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
             logger.error("Error during find by key:", e);
             throw new PersistenceException(e);
         }
-        return results;
+        finally
+        {
+            onCleanup(connection);
+        }
     }
 
     /*
@@ -1631,12 +2031,21 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
                 Integer batchSize = (Integer) value;
                 ((RedisClient) client).setBatchSize(batchSize);
             }
+            else if (key.equals(RedisConstants.PIPELINE_SIZE) && value != null)
+            {
+                ((RedisClient) client).setPipelineSize(Integer.valueOf(value.toString()));
+            }
         }
     }
 
     @Override
     public void bind(TransactionResource resource)
     {
+        if (factory.isSharded())
+        {
+            throw new KunderaTransactionException("Transactions are not supported over sharded redis nodes");
+        }
+
         // Not checking for type of TransactionRes
         if (resource != null && resource instanceof RedisTransaction)
         {
@@ -1696,6 +2105,73 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         }
     }
 
+    /**
+     * Returns connection to node holding given key, if factory is sharded
+     * over several nodes, else client's connection.
+     * 
+     * @param hashKey
+     *            redis key
+     * @return jedis resource.
+     */
+    private Object getConnection(String hashKey)
+    {
+        return factory.isSharded() ? getShards().getShard(hashKey) : getConnection();
+    }
+
+    /**
+     * Returns connection to node holding row of given entity id.
+     * 
+     * @param entityMetadata
+     *            entity metadata
+     * @param id
+     *            entity id
+     * @return jedis resource.
+     */
+    private Object getConnection(EntityMetadata entityMetadata, Object id)
+    {
+        if (!factory.isSharded())
+        {
+            return getConnection();
+        }
+        MetamodelImpl metaModel = (MetamodelImpl) KunderaMetadata.INSTANCE.getApplicationMetadata().getMetamodel(
+                entityMetadata.getPersistenceUnit());
+        return getConnection(getHashKey(entityMetadata.getTableName(), getRowKey(entityMetadata, metaModel, id)));
+    }
+
+    /**
+     * Returns connections to all nodes, for lookups over indexes which are
+     * spread along with rows.
+     * 
+     * @return jedis resources.
+     */
+    private Collection<Object> getAllConnections()
+    {
+        if (!factory.isSharded())
+        {
+            return Collections.singletonList(getConnection());
+        }
+        return new ArrayList<Object>(getShards().getAllShards());
+    }
+
+    private ShardedJedis getShards()
+    {
+        if (shards == null)
+        {
+            shards = factory.getShardedConnection();
+            if (settings != null)
+            {
+                for (Jedis shard : shards.getAllShards())
+                {
+                    for (String key : settings.keySet())
+                    {
+                        shard.configSet(key, settings.get(key).toString());
+                    }
+                }
+            }
+        }
+        return shards;
+    }
+
     /**
      * @param persistenceUnit
      * @param puProperties
@@ -1724,11 +2200,30 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
         this.batchSize = batch_Size;
     }
 
+    private void setPipelineSize(String persistenceUnit, Map<String, Object> puProperties)
+    {
+        Object pipeline_Size = puProperties != null ? puProperties.get(RedisConstants.PIPELINE_SIZE) : null;
+        if (pipeline_Size == null)
+        {
+            PersistenceUnitMetadata puMetadata = KunderaMetadataManager.getPersistenceUnitMetadata(persistenceUnit);
+            pipeline_Size = puMetadata != null ? puMetadata.getProperty(RedisConstants.PIPELINE_SIZE) : null;
+        }
+        if (pipeline_Size != null)
+        {
+            setPipelineSize(Integer.valueOf(pipeline_Size.toString()));
+        }
+    }
+
+    private void setPipelineSize(int pipeline_Size)
+    {
+        this.pipelineSize = pipeline_Size > 0 ? pipeline_Size : RedisConstants.DEFAULT_PIPELINE_SIZE;
+    }
+
     private void onPersist(EntityMetadata entityMetadata, Object entity, Object id, List<RelationHolder> rlHolders,
-            Object connection)
+            Object connection, Set<String> columns, EntitySnapshot flushedState)
     {
         // first open a pipeline
-        AttributeWrapper wrapper = wrap(entityMetadata, entity);
+        AttributeWrapper wrapper = wrap(entityMetadata, entity, columns);
 
         // add relations.
 
@@ -1788,6 +2283,10 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
 
         String hashKey = getHashKey(entityMetadata.getTableName(), rowKey);
 
+        if (columns != null && flushedState != null)
+        {
+            unIndexChangedColumns(entityMetadata, entity, flushedState, rowKey, connection, columns);
+        }
 
         if (resource != null && resource.isActive())
         {
@@ -1878,20 +2377,10 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
     @Override
     public Object generate(SequenceGeneratorDiscriptor discriptor)
     {
-        Jedis jedis = factory.getConnection();
-
-        Long latestCount = jedis.incr(getEncodedBytes(discriptor.getSequenceName()));
-        if (latestCount == 1)
-        {
-            return discriptor.getInitialValue();
-        }
-        else
-        {
-            return (latestCount - 1) * discriptor.getAllocationSize();
-        }
+        return factory.getIdAllocator(discriptor.getSequenceName(), new RedisIdBlockSource(factory, discriptor))
+                .next();
     }
 
-
     @Override
     protected void indexNode(Node node, EntityMetadata entityMetadata)
     {
@@ -1900,7 +2389,8 @@ public class RedisClient extends ClientBase implements Client<RedisQuery>, Batch
  
     private void initializeIndexer()
     {
-        if(this.indexManager.getIndexer() != null)
+        // when sharded, indexes are written along with rows to their nodes.
+        if(this.indexManager.getIndexer() != null && !factory.isSharded())
         {
             ((RedisIndexer)this.indexManager.getIndexer()).assignConnection(getConnection());
         }
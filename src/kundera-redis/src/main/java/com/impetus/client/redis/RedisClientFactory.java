@@ -16,6 +16,8 @@
 
 package com.impetus.client.redis;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -26,6 +28,10 @@ import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardedJedis;
+import redis.clients.jedis.ShardedJedisPool;
+import redis.clients.util.Sharded;
 
 import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
@@ -141,6 +147,14 @@ public class RedisClientFactory extends GenericClientFactory
         JedisPool pool = null;
         onValidation(contactNode, defaultPort);
 
+        // several nodes, shard over them.
+        if (contactNode.indexOf(',') != -1)
+        {
+            logger.info("Sharding over redis nodes {}", contactNode);
+            return new ShardedJedisPool(poolConfig != null ? poolConfig : new JedisPoolConfig(), getShardInfos(
+                    contactNode, defaultPort, password, txTimeOut), Sharded.DEFAULT_KEY_TAG_PATTERN);
+        }
+
         if (poolConfig != null)
         {
             if (password != null)
@@ -219,6 +233,10 @@ public class RedisClientFactory extends GenericClientFactory
         {
             ((JedisPool) getConnectionPoolOrConnection()).destroy();
         }
+        else if (isSharded())
+        {
+            ((ShardedJedisPool) getConnectionPoolOrConnection()).destroy();
+        }
         else if (getConnectionPoolOrConnection() != null && getConnectionPoolOrConnection() instanceof Jedis)
         {
             ((Jedis) getConnectionPoolOrConnection()).disconnect();
@@ -283,6 +301,95 @@ public class RedisClientFactory extends GenericClientFactory
         }
     }
 
+    /**
+     * Retrieving sharded connection from sharded pool.
+     * 
+     * @return returns sharded jedis instance.
+     */
+    ShardedJedis getShardedConnection()
+    {
+        ShardedJedis connection = ((ShardedJedisPool) getConnectionPoolOrConnection()).getResource();
+
+        Map props = RedisPropertyReader.rsmd.getProperties();
+
+        // set external xml properties on each node.
+        if (props != null)
+        {
+            for (Jedis shard : connection.getAllShards())
+            {
+                for (Object key : props.keySet())
+                {
+                    shard.configSet(key.toString(), props.get(key).toString());
+                }
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Release/return sharded connection to sharded pool.
+     * 
+     * @param res
+     *            sharded jedis resource
+     */
+    void releaseShardedConnection(ShardedJedis res)
+    {
+        ((ShardedJedisPool) getConnectionPoolOrConnection()).returnResource(res);
+    }
+
+    /**
+     * @return true, if nodes are sharded.
+     */
+    boolean isSharded()
+    {
+        return getConnectionPoolOrConnection() instanceof ShardedJedisPool;
+    }
+
+    /**
+     * Returns shard infos of comma separated nodes, each given as host or
+     * host:port.
+     * 
+     * @param nodes
+     *            comma separated nodes
+     * @param defaultPort
+     *            port of nodes given without one
+     * @param password
+     *            password, if any
+     * @param timeOut
+     *            connection time out, if any
+     * @return shard infos in order of nodes.
+     */
+    static List<JedisShardInfo> getShardInfos(String nodes, String defaultPort, String password, String timeOut)
+    {
+        List<JedisShardInfo> shardInfos = new ArrayList<JedisShardInfo>();
+        for (String node : StringUtils.split(nodes, ','))
+        {
+            String host = node.trim();
+            String port = defaultPort;
+            int portIndex = host.lastIndexOf(':');
+            if (portIndex != -1)
+            {
+                port = host.substring(portIndex + 1);
+                host = host.substring(0, portIndex);
+            }
+
+            if (StringUtils.isBlank(host) || StringUtils.isBlank(port) || !StringUtils.isNumeric(port))
+            {
+                throw new IllegalArgumentException("Invalid redis node provided: " + node);
+            }
+
+            JedisShardInfo shardInfo = timeOut != null && StringUtils.isNumeric(timeOut) ? new JedisShardInfo(host,
+                    Integer.parseInt(port), Integer.parseInt(timeOut)) : new JedisShardInfo(host,
+                    Integer.parseInt(port));
+            if (password != null)
+            {
+                shardInfo.setPassword(password);
+            }
+            shardInfos.add(shardInfo);
+        }
+        return shardInfos;
+    }
+
     /**
      * Release/return connection to pool.
      * 
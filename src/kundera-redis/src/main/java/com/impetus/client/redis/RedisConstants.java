@@ -0,0 +1,27 @@
+/**
+ * Copyright 2013 Impetus Infotech.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.impetus.client.redis;
+
+/**
+ * Holds constants for kundera-redis module
+ */
+public interface RedisConstants
+{
+    /** Number of keys read over one pipeline round trip */
+    public static final String PIPELINE_SIZE = "redis.pipeline.size";
+
+    public static final int DEFAULT_PIPELINE_SIZE = 500;
+}
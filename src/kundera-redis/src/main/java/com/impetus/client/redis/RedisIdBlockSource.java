@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.redis;
+
+import java.io.UnsupportedEncodingException;
+
+import javax.persistence.PersistenceException;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.ShardedJedis;
+
+import com.impetus.kundera.Constants;
+import com.impetus.kundera.generator.IdBlock;
+import com.impetus.kundera.generator.IdBlockSource;
+import com.impetus.kundera.metadata.model.SequenceGeneratorDiscriptor;
+
+/**
+ * Reserves blocks of allocation size ids of a sequence, which holds number of
+ * blocks reserved. Borrows connections of client factory, as blocks may be
+ * reserved in background, after the client which asked for first id is
+ * closed.
+ */
+class RedisIdBlockSource implements IdBlockSource
+{
+    private final RedisClientFactory factory;
+
+    private final SequenceGeneratorDiscriptor discriptor;
+
+    private final byte[] sequence;
+
+    /**
+     * @param factory
+     *            client factory to borrow connections of.
+     * @param discriptor
+     *            sequence generator discriptor
+     */
+    RedisIdBlockSource(RedisClientFactory factory, SequenceGeneratorDiscriptor discriptor)
+    {
+        this.factory = factory;
+        this.discriptor = discriptor;
+        try
+        {
+            this.sequence = discriptor.getSequenceName().getBytes(Constants.CHARSET_UTF8);
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @Override
+    public IdBlock reserve()
+    {
+        Long latestCount;
+        if (factory.isSharded())
+        {
+            ShardedJedis connection = factory.getShardedConnection();
+            try
+            {
+                latestCount = connection.incr(sequence);
+            }
+            finally
+            {
+                factory.releaseShardedConnection(connection);
+            }
+        }
+        else
+        {
+            Jedis connection = factory.getConnection();
+            try
+            {
+                latestCount = connection.incr(sequence);
+            }
+            finally
+            {
+                factory.releaseConnection(connection);
+            }
+        }
+        return IdBlock.of(latestCount, discriptor.getInitialValue(), discriptor.getAllocationSize());
+    }
+}
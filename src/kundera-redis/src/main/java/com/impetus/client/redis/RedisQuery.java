@@ -42,6 +42,11 @@ import com.impetus.kundera.query.QueryImpl;
  */
 public class RedisQuery extends QueryImpl
 {
+    /** Index of first result, applied by redis. */
+    private int firstResult;
+
+    /** Maximum results applied by redis, -1 if not set by user. */
+    private int maxResults = -1;
 
     public RedisQuery(String jpaQuery, KunderaQuery kunderaQuery, PersistenceDelegator persistenceDelegator)
     {
@@ -131,6 +136,8 @@ public class RedisQuery extends QueryImpl
     {
         RedisQueryInterpreter interpreter = new RedisQueryInterpreter(getColumns(getKunderaQuery().getResult(),
                 entityMetadata));
+        interpreter.setFirstResult(firstResult);
+        interpreter.setMaxResults(maxResults);
 
         // If there is no clause present, means we might need to scan complete
         // table.
@@ -249,6 +256,45 @@ public class RedisQuery extends QueryImpl
         interpreter.setFieldName(columnName);
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#setMaxResults(int)
+     */
+    @Override
+    public Query setMaxResults(int maxResult)
+    {
+        this.maxResults = maxResult;
+        return super.setMaxResults(maxResult);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#setFirstResult(int)
+     */
+    @Override
+    public Query setFirstResult(int startPosition)
+    {
+        if (startPosition < 0)
+        {
+            throw new IllegalArgumentException("First result can not be negative: " + startPosition);
+        }
+        this.firstResult = startPosition;
+        return this;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.impetus.kundera.query.QueryImpl#getFirstResult()
+     */
+    @Override
+    public int getFirstResult()
+    {
+        return firstResult;
+    }
+
     @Override
     public void close()
     {
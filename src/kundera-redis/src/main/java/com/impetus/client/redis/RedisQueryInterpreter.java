@@ -50,6 +50,11 @@ class RedisQueryInterpreter
 
     private String[] columns;
 
+    private int firstResult;
+
+    /** Maximum results, -1 if not limited. */
+    private int maxResults = -1;
+
     private static Map<String, Clause> clauseMapper = new HashMap<String, Clause>();
     static
     {
@@ -162,6 +167,26 @@ class RedisQueryInterpreter
         return fields;
     }
 
+    int getFirstResult()
+    {
+        return firstResult;
+    }
+
+    void setFirstResult(int firstResult)
+    {
+        this.firstResult = firstResult;
+    }
+
+    int getMaxResults()
+    {
+        return maxResults;
+    }
+
+    void setMaxResults(int maxResults)
+    {
+        this.maxResults = maxResults;
+    }
+
     List<byte[]> getColumns()
     {
         if (columns != null && columns.length > 0)
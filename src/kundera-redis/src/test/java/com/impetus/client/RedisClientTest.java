@@ -46,6 +46,7 @@ import com.impetus.client.entities.Month;
 import com.impetus.client.entities.PersonRedis;
 import com.impetus.client.entities.PersonRedis.Day;
 import com.impetus.client.redis.RedisClient;
+import com.impetus.client.redis.RedisConstants;
 import com.impetus.kundera.PersistenceProperties;
 import com.impetus.kundera.client.Client;
 import com.impetus.kundera.graph.Node;
@@ -195,6 +196,132 @@ public class RedisClientTest
 
     }
 
+    @Test
+    public void testUpdateRemovesOldIndexes()
+    {
+        EntityManager em = emf.createEntityManager();
+        PersonRedis object = new PersonRedis();
+        object.setPersonId(ROW_KEY);
+        object.setPersonName("vivek");
+        object.setAge(32);
+        em.persist(object);
+        em.clear();
+
+        // only modified columns get written.
+        PersonRedis result = em.find(PersonRedis.class, ROW_KEY);
+        result.setPersonName("kuldeep");
+        result.setAge(null);
+        em.merge(result);
+        em.clear();
+
+        String findByName = "Select p from PersonRedis p where p.personName=:personName";
+        Query query = em.createQuery(findByName);
+        query.setParameter("personName", "vivek");
+        Assert.assertTrue(query.getResultList().isEmpty());
+
+        query = em.createQuery(findByName);
+        query.setParameter("personName", "kuldeep");
+        List<PersonRedis> results = query.getResultList();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals(ROW_KEY, results.get(0).getPersonId());
+
+        query = em.createQuery("Select p from PersonRedis p where p.age=:age");
+        query.setParameter("age", 32);
+        Assert.assertTrue(query.getResultList().isEmpty());
+
+        // flushed update is the baseline of next one.
+        result = em.find(PersonRedis.class, ROW_KEY);
+        result.setPersonName("amresh");
+        em.merge(result);
+        em.clear();
+        result = em.find(PersonRedis.class, ROW_KEY);
+        result.setPersonName("vivek");
+        em.merge(result);
+        em.clear();
+
+        for (String oldName : new String[] { "kuldeep", "amresh" })
+        {
+            query = em.createQuery(findByName);
+            query.setParameter("personName", oldName);
+            Assert.assertTrue(query.getResultList().isEmpty());
+        }
+        query = em.createQuery(findByName);
+        query.setParameter("personName", "vivek");
+        Assert.assertEquals(1, query.getResultList().size());
+        em.close();
+    }
+
+    @Test
+    public void testFindAllOverPipelines()
+    {
+        EntityManager em = emf.createEntityManager();
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        RedisClient client = (RedisClient) clients.get(REDIS_PU);
+
+        // 5 rows and 2 missing keys, read 2 keys per round trip.
+        for (int i = 1; i <= 5; i++)
+        {
+            PersonRedis object = new PersonRedis();
+            object.setPersonId("pipelined" + i);
+            object.setPersonName("vivek" + i);
+            object.setAge(i);
+            em.persist(object);
+        }
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put(RedisConstants.PIPELINE_SIZE, 2);
+        client.populateClientProperties(client, properties);
+
+        List<PersonRedis> results = client.findAll(PersonRedis.class, null, "pipelined1", "missing1", "pipelined2",
+                "pipelined3", "missing2", "pipelined4", "pipelined5");
+        Assert.assertEquals(5, results.size());
+        for (int i = 0; i < 5; i++)
+        {
+            Assert.assertEquals("pipelined" + (i + 1), results.get(i).getPersonId());
+            Assert.assertEquals("vivek" + (i + 1), results.get(i).getPersonName());
+            Assert.assertEquals(new Integer(i + 1), results.get(i).getAge());
+        }
+
+        Assert.assertTrue(client.findAll(PersonRedis.class, null, "missing1", "missing2", "missing3").isEmpty());
+        em.close();
+    }
+
+    @Test
+    public void testColumnsByIdOverPipelines()
+    {
+        final String schemaName = "redis";
+        final String tableName = "redispipelinedjointable";
+        final String joinColumn = "joincolumn";
+        final String inverseJoinColumn = "inverseJoinColumnName";
+
+        JoinTableData joinTableData = new JoinTableData(OPERATION.INSERT, schemaName, tableName, joinColumn,
+                inverseJoinColumn, null);
+        UUID joinKey = UUID.randomUUID();
+        Set inverseJoinKeys = new HashSet();
+        for (int i = 1; i <= 5; i++)
+        {
+            inverseJoinKeys.add(new Integer(i));
+        }
+        joinTableData.addJoinTableRecord(joinKey, inverseJoinKeys);
+
+        EntityManager em = emf.createEntityManager();
+        Map<String, Client> clients = (Map<String, Client>) em.getDelegate();
+        RedisClient client = (RedisClient) clients.get(REDIS_PU);
+        Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put(RedisConstants.PIPELINE_SIZE, 2);
+        client.populateClientProperties(client, properties);
+        client.persistJoinTable(joinTableData);
+
+        List<String> columns = client.getColumnsById(schemaName, tableName, joinColumn, inverseJoinColumn, joinKey,
+                String.class);
+        Assert.assertEquals(5, columns.size());
+        for (int i = 1; i <= 5; i++)
+        {
+            Assert.assertTrue(columns.contains(String.valueOf(i)));
+            client.deleteByColumn(schemaName, tableName, inverseJoinColumn, new Integer(i));
+        }
+        em.close();
+    }
+
     /**
      * Assertions on delete.
      * 
@@ -252,6 +252,55 @@ public class RedisQueryTest
         Assert.assertTrue(results.isEmpty());
     }
 
+    @Test
+    public void testPaging()
+    {
+        EntityManager em = emf.createEntityManager();
+        purge(em);
+
+        for (int i = 0; i < 5; i++)
+        {
+            PersonRedis object = new PersonRedis();
+            object.setAge(30 + i);
+            object.setPersonId(ROW_KEY + i);
+            object.setPersonName(i % 2 == 0 ? "vivek" : "kuldeep");
+            em.persist(object);
+        }
+
+        // Find without where clause.
+        Query query = em.createQuery("Select p from PersonRedis p");
+        query.setMaxResults(2);
+        Assert.assertEquals(2, query.getResultList().size());
+
+        query = em.createQuery("Select p from PersonRedis p");
+        query.setFirstResult(3);
+        query.setMaxResults(5);
+        Assert.assertEquals(2, query.getResultList().size());
+
+        // Range over index.
+        query = em.createQuery("Select p from PersonRedis p where p.age between :min AND :max");
+        query.setParameter("min", 30);
+        query.setParameter("max", 34);
+        query.setFirstResult(1);
+        query.setMaxResults(3);
+        List<PersonRedis> results = query.getResultList();
+        Assert.assertEquals(3, results.size());
+        for (PersonRedis person : results)
+        {
+            // scores are ordered, so page skips age 30 and stops before 34.
+            Assert.assertTrue(person.getAge() > 30 && person.getAge() < 34);
+        }
+
+        // Union of indexes.
+        query = em.createQuery("Select p from PersonRedis p where p.personName=:personName OR p.age=:age");
+        query.setParameter("personName", "vivek");
+        query.setParameter("age", 31);
+        query.setMaxResults(2);
+        Assert.assertEquals(2, query.getResultList().size());
+
+        em.close();
+    }
+
     private void purge(EntityManager em)
     {
         // Delete by query.
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.Query;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+
+import com.impetus.client.entities.PersonShardedRedis;
+
+/**
+ * Test case for redis client sharded over two local redis-server instances,
+ * on ports 6379 and 6380.
+ */
+public class RedisShardingTest
+{
+    private static final String REDIS_SHARDED_PU = "redis_sharded_pu";
+
+    private static final int ROWS = 20;
+
+    private EntityManagerFactory emf;
+
+    @Before
+    public void setUp()
+    {
+        emf = Persistence.createEntityManagerFactory(REDIS_SHARDED_PU);
+    }
+
+    @Test
+    public void testCrudAndQueryOverShards()
+    {
+        EntityManager em = emf.createEntityManager();
+        for (int i = 0; i < ROWS; i++)
+        {
+            PersonShardedRedis person = new PersonShardedRedis();
+            person.setPersonId("" + i);
+            person.setPersonName("vivek");
+            person.setAge(i % 2 == 0 ? 32 : 34);
+            em.persist(person);
+        }
+        em.clear();
+
+        // rows are spread over both nodes.
+        int onFirst = countRows(6379);
+        int onSecond = countRows(6380);
+        Assert.assertEquals(ROWS, onFirst + onSecond);
+        Assert.assertTrue(onFirst > 0);
+        Assert.assertTrue(onSecond > 0);
+
+        for (int i = 0; i < ROWS; i++)
+        {
+            PersonShardedRedis found = em.find(PersonShardedRedis.class, "" + i);
+            Assert.assertNotNull(found);
+            Assert.assertEquals("vivek", found.getPersonName());
+        }
+
+        // queries gather matching rows of all nodes.
+        Query query = em.createQuery("Select p from PersonShardedRedis p");
+        List<PersonShardedRedis> results = query.getResultList();
+        Assert.assertEquals(ROWS, results.size());
+
+        query = em.createQuery("Select p from PersonShardedRedis p where p.age=:age");
+        query.setParameter("age", 32);
+        results = query.getResultList();
+        Assert.assertEquals(ROWS / 2, results.size());
+
+        query = em.createQuery("Select p from PersonShardedRedis p where p.age between :min AND :max");
+        query.setParameter("min", 30);
+        query.setParameter("max", 33);
+        results = query.getResultList();
+        Assert.assertEquals(ROWS / 2, results.size());
+
+        for (int i = 0; i < ROWS; i++)
+        {
+            em.remove(em.find(PersonShardedRedis.class, "" + i));
+        }
+        em.clear();
+        Assert.assertNull(em.find(PersonShardedRedis.class, "0"));
+        Assert.assertEquals(0, countRows(6379) + countRows(6380));
+        em.close();
+    }
+
+    @After
+    public void tearDown()
+    {
+        emf.close();
+    }
+
+    private int countRows(int port)
+    {
+        Jedis jedis = new Jedis("localhost", port);
+        try
+        {
+            jedis.auth("Kundera@123");
+            int count = 0;
+            for (int i = 0; i < ROWS; i++)
+            {
+                if (jedis.exists("PERSON_SHARDED:" + i))
+                {
+                    count++;
+                }
+            }
+            return count;
+        }
+        finally
+        {
+            jedis.disconnect();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * * Copyright 2013 Impetus Infotech.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ ******************************************************************************/
+package com.impetus.client.entities;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import com.impetus.kundera.index.Index;
+import com.impetus.kundera.index.IndexCollection;
+
+/**
+ * Person stored over sharded redis nodes.
+ */
+@Entity
+@Table(name = "PERSON_SHARDED", schema = "RedisK@redis_sharded_pu")
+@IndexCollection(columns = { @Index(name = "personName"), @Index(name = "age") })
+public class PersonShardedRedis
+{
+
+    /** The person id. */
+    @Id
+    @Column(name = "PERSON_ID")
+    private String personId;
+
+    /** The person name. */
+    @Column(name = "PERSON_NAME")
+    private String personName;
+
+    /** The age. */
+    @Column(name = "AGE")
+    private Integer age;
+
+    /**
+     * @return the person id
+     */
+    public String getPersonId()
+    {
+        return personId;
+    }
+
+    /**
+     * @param personId
+     *            the person id
+     */
+    public void setPersonId(String personId)
+    {
+        this.personId = personId;
+    }
+
+    /**
+     * @return the person name
+     */
+    public String getPersonName()
+    {
+        return personName;
+    }
+
+    /**
+     * @param personName
+     *            the person name
+     */
+    public void setPersonName(String personName)
+    {
+        this.personName = personName;
+    }
+
+    /**
+     * @return the age
+     */
+    public Integer getAge()
+    {
+        return age;
+    }
+
+    /**
+     * @param age
+     *            the age
+     */
+    public void setAge(Integer age)
+    {
+        this.age = age;
+    }
+}